@@ -0,0 +1,100 @@
+package com.nuclearvet.aplicacion.mapeadores;
+
+import com.nuclearvet.aplicacion.dto.administrativo.FacturaDTO;
+import com.nuclearvet.aplicacion.dtos.CitaDTO;
+import com.nuclearvet.dominio.entidades.Cita;
+import com.nuclearvet.dominio.entidades.Factura;
+import com.nuclearvet.dominio.entidades.ItemFactura;
+import com.nuclearvet.dominio.entidades.Paciente;
+import com.nuclearvet.dominio.entidades.Propietario;
+import com.nuclearvet.dominio.entidades.Usuario;
+import com.nuclearvet.dominio.enumeraciones.EstadoFactura;
+import com.nuclearvet.dominio.enumeraciones.TipoImpuesto;
+import com.nuclearvet.dominio.enums.TipoCita;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversión entidad -> DTO con las implementaciones generadas por MapStruct,
+ * para una página típica de listado (50 citas) y una factura con sus ítems
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapeadoresBenchmark {
+
+    private CitaMapeador citaMapeador;
+    private FacturaMapeador facturaMapeador;
+    private List<Cita> citas;
+    private Factura factura;
+
+    @Setup
+    public void preparar() {
+        citaMapeador = new CitaMapeadorImpl();
+        facturaMapeador = new FacturaMapeadorImpl();
+        ReflectionTestUtils.setField(facturaMapeador, "itemFacturaMapeador", new ItemFacturaMapeadorImpl());
+
+        Propietario propietario = Propietario.builder().id(3L).nombres("María Fernanda").apellidos("Gómez")
+                .telefonoPrincipal("3001234567").build();
+        Paciente paciente = Paciente.builder().id(5L).codigo("PAC-000123").nombre("Rocky").build();
+        Usuario veterinario = Usuario.builder().id(7L).nombreCompleto("Andrés Rojas").build();
+
+        citas = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            citas.add(Cita.builder()
+                    .id((long) i)
+                    .numeroCita(String.format("CIT-%06d", i))
+                    .paciente(paciente)
+                    .propietario(propietario)
+                    .veterinario(veterinario)
+                    .tipoCita(TipoCita.CONSULTA_GENERAL)
+                    .fechaHora(LocalDateTime.of(2025, 3, 15, 8, 0).plusMinutes(30L * i))
+                    .motivoConsulta("Control anual")
+                    .costoConsulta(new BigDecimal("45000.00"))
+                    .build());
+        }
+
+        List<ItemFactura> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(ItemFactura.builder()
+                    .id((long) i)
+                    .descripcion("Ítem " + i)
+                    .cantidad(1)
+                    .precioUnitario(new BigDecimal("25000.00"))
+                    .descuento(BigDecimal.ZERO)
+                    .tipoImpuesto(TipoImpuesto.IVA_19)
+                    .build());
+        }
+        factura = Factura.builder()
+                .id(11L)
+                .numeroFactura("FAC-000011")
+                .propietario(propietario)
+                .paciente(paciente)
+                .usuarioCreador(veterinario)
+                .fechaEmision(LocalDate.of(2025, 3, 15))
+                .estado(EstadoFactura.PENDIENTE)
+                .items(items)
+                .build();
+        factura.recalcularTotales();
+    }
+
+    @Benchmark
+    public List<CitaDTO> citasADTO() {
+        return citaMapeador.aDTOLista(citas);
+    }
+
+    @Benchmark
+    public FacturaDTO facturaADTO() {
+        return facturaMapeador.aDTO(factura);
+    }
+}
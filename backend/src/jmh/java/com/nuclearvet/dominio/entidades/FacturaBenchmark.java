@@ -0,0 +1,65 @@
+package com.nuclearvet.dominio.entidades;
+
+import com.nuclearvet.dominio.enumeraciones.TipoImpuesto;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recálculo de totales de una factura: subtotal e impuesto por ítem y saldo pendiente.
+ * Cada llamada a Factura.recalcularTotales recorre los ítems dos veces y
+ * ItemFactura.calcularImpuesto vuelve a calcular el subtotal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FacturaBenchmark {
+
+    private static final TipoImpuesto[] IMPUESTOS = {TipoImpuesto.IVA_19, TipoImpuesto.IVA_5, TipoImpuesto.EXENTO};
+
+    @Param({"5", "50"})
+    private int cantidadItems;
+
+    private Factura factura;
+    private ItemFactura item;
+
+    @Setup
+    public void preparar() {
+        List<ItemFactura> items = new ArrayList<>();
+        for (int i = 0; i < cantidadItems; i++) {
+            items.add(ItemFactura.builder()
+                    .descripcion("Ítem " + i)
+                    .cantidad(1 + i % 4)
+                    .precioUnitario(new BigDecimal("15750.50").add(BigDecimal.valueOf(i * 1000L)))
+                    .descuento(i % 3 == 0 ? new BigDecimal("500.00") : BigDecimal.ZERO)
+                    .tipoImpuesto(IMPUESTOS[i % IMPUESTOS.length])
+                    .build());
+        }
+        List<Pago> pagos = new ArrayList<>();
+        pagos.add(Pago.builder().monto(new BigDecimal("20000.00")).build());
+        factura = Factura.builder()
+                .items(items)
+                .pagos(pagos)
+                .descuento(new BigDecimal("1000.00"))
+                .build();
+        item = items.get(0);
+    }
+
+    @Benchmark
+    public BigDecimal recalcularTotales() {
+        factura.recalcularTotales();
+        return factura.getSaldoPendiente();
+    }
+
+    @Benchmark
+    public void calcularImpuestoItem(Blackhole bh) {
+        bh.consume(item.calcularImpuesto());
+    }
+}
@@ -0,0 +1,48 @@
+package com.nuclearvet.dominio.entidades;
+
+import com.nuclearvet.dominio.enumeraciones.EstadoLote;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo del estado de un lote según cantidad disponible y fecha de vencimiento,
+ * que se ejecuta en cada descuento, ingreso y @PreUpdate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoteBenchmark {
+
+    @Param({"DISPONIBLE", "PROXIMO_VENCER", "VENCIDO"})
+    private String escenario;
+
+    private Lote lote;
+
+    @Setup
+    public void preparar() {
+        LocalDate vencimiento = switch (escenario) {
+            case "PROXIMO_VENCER" -> LocalDate.now().plusDays(10);
+            case "VENCIDO" -> LocalDate.now().minusDays(5);
+            default -> LocalDate.now().plusYears(1);
+        };
+        lote = Lote.builder()
+                .numeroLote("LT-2025-001")
+                .fechaIngreso(LocalDate.now().minusMonths(2))
+                .fechaVencimiento(vencimiento)
+                .cantidadInicial(100)
+                .cantidadDisponible(40)
+                .estado(EstadoLote.DISPONIBLE)
+                .build();
+    }
+
+    @Benchmark
+    public EstadoLote actualizarEstado() {
+        lote.actualizarEstado();
+        return lote.getEstado();
+    }
+}
@@ -0,0 +1,85 @@
+package com.nuclearvet.dominio.entidades;
+
+import com.nuclearvet.compartido.plantillas.PlantillaCompilada;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renderizado de una plantilla de recordatorio con las variables habituales.
+ * renderizar compila la plantilla en cada llamada, como hace la entidad; renderizarCompilada
+ * usa la plantilla ya compilada que PlantillaMensajeServicio mantiene en caché.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlantillaMensajeBenchmark {
+
+    private PlantillaMensaje plantilla;
+    private PlantillaCompilada compilada;
+    private Map<String, String> variables;
+    private List<Map<String, String>> lote;
+
+    @Setup
+    public void preparar() {
+        plantilla = PlantillaMensaje.builder()
+                .nombre("Recordatorio de cita")
+                .asunto("Recordatorio: cita de {{nombreMascota}} el {{fecha}}")
+                .contenido("""
+                        Hola {{nombrePropietario}},
+
+                        Le recordamos que {{nombreMascota}} tiene una cita de {{tipoCita}} \
+                        el {{fecha}} a las {{hora}} con {{nombreVeterinario}}.
+
+                        Si no puede asistir, comuníquese con {{nombreClinica}} al {{telefonoClinica}}.
+                        Dirección: {{direccionClinica}}.
+
+                        Gracias por confiar en {{nombreClinica}}.
+                        """)
+                .activo(true)
+                .build();
+
+        variables = new LinkedHashMap<>();
+        variables.put("nombrePropietario", "María Fernanda Gómez");
+        variables.put("nombreMascota", "Rocky");
+        variables.put("tipoCita", "Vacunación");
+        variables.put("fecha", "15/03/2025");
+        variables.put("hora", "10:30");
+        variables.put("nombreVeterinario", "Dr. Andrés Rojas");
+        variables.put("nombreClinica", "NuclearVET");
+        variables.put("telefonoClinica", "+57 300 123 4567");
+        variables.put("direccionClinica", "Calle 10 # 20-30, Armenia");
+        variables.put("codigoPaciente", "PAC-000123");
+
+        compilada = PlantillaCompilada.compilar(plantilla.getContenido());
+        lote = Collections.nCopies(1000, variables);
+    }
+
+    @Benchmark
+    public String renderizar() {
+        return plantilla.renderizar(variables);
+    }
+
+    @Benchmark
+    public String renderizarCompilada() {
+        return compilada.renderizar(variables);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public List<String> renderizarLoteCompilada() {
+        return compilada.renderizarLote(lote);
+    }
+
+    @Benchmark
+    public String renderizarAsunto() {
+        return plantilla.renderizarAsunto(variables);
+    }
+}
@@ -0,0 +1,214 @@
+package com.nuclearvet.infraestructura.concurrencia;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Prueba de carga HTTP sobre la reserva de citas (POST /api/citas) y la subida de archivos
+ * médicos (POST /api/archivos-medicos) contra una instancia en marcha, para comparar el pool
+ * de Tomcat con hilos de plataforma frente a spring.threads.virtual.enabled=true (Java 21).
+ *
+ * Lanza a la vez tantas peticiones como la concurrencia indicada hasta completar el total e
+ * informa las respuestas por código, el rendimiento y las latencias p50, p99 y máxima.
+ * Cada reserva usa un veterinario y un horario distintos para no chocar por solapamiento.
+ *
+ * El token se firma aquí con jwt.secreto y el rol indicado. Las reglas por URL de
+ * SeguridadConfiguracion piden la autoridad sin prefijo (hasAnyAuthority) y los
+ * @PreAuthorize de CitaControlador y ArchivoMedicoControlador usan hasAnyRole, que espera
+ * ROLE_; para medir, la instancia se arranca con GrantedAuthorityDefaults("").
+ *
+ * Solo usa el JDK; se ejecuta como archivo fuente:
+ * java src/jmh/java/com/nuclearvet/infraestructura/concurrencia/CargaReservasYArchivos.java \
+ *   -Descenario=reservas -Dpeticiones=2000 -Dconcurrencia=400 -Dveterinarios=2-21 -Dpaciente=1 -Ddia=40
+ * (las propiedades van antes del archivo: java -Descenario=... Carga...java)
+ *
+ * Resultados con 1000 peticiones por corrida, JDK 21.0.1, 1 vCPU compartida con PostgreSQL 16
+ * y el cliente, pool de HikariCP de 10 conexiones, valores por defecto del filtro (6 permisos,
+ * espera de 5 s) y archivos de 256 KB. Latencias en ms, 503 incluidas:
+ *
+ *   escenario  concurrencia  hilos       pet/s  201   503  p50   p99
+ *   reservas   200           plataforma  53     1000  0    3332  8371
+ *   reservas   200           virtuales   41     911   89   4416  7044
+ *   reservas   400           plataforma  50     1000  0    6375  13924
+ *   reservas   400           virtuales   55     450   550  6040  8675
+ *   archivos   200           plataforma  49     1000  0    3759  10314
+ *   archivos   200           virtuales   42     947   53   4376  6805
+ *   archivos   400           plataforma  49     1000  0    6677  13287
+ *   archivos   400           virtuales   44     453   547  8428  10520
+ *
+ * Con un núcleo los hilos virtuales no suben el rendimiento. El filtro acota la cola a lo que
+ * se atiende en espera-ms: el p99 baja, pero a costa de responder 503 al resto, mientras que
+ * los 200 hilos de Tomcat terminan sirviéndolo todo con más latencia.
+ */
+public class CargaReservasYArchivos {
+
+    private static final String URL = System.getProperty("url", "http://localhost:8080");
+    private static final String SECRETO = System.getProperty("secreto",
+            "NuclearVET2024ClaveSecretaSuperSeguraParaTokensJWTColombia");
+    private static final String ESCENARIO = System.getProperty("escenario", "reservas");
+    private static final int PETICIONES = Integer.getInteger("peticiones", 1000);
+    private static final int CONCURRENCIA = Integer.getInteger("concurrencia", 200);
+    private static final String ROL = System.getProperty("rol", "VETERINARIO");
+    private static final long USUARIO = Long.getLong("usuario", 1L);
+    private static final long PACIENTE = Long.getLong("paciente", 1L);
+    private static final long HISTORIA = Long.getLong("historia", 1L);
+    private static final int DIA = Integer.getInteger("dia", 30);
+    private static final int TAMANO_ARCHIVO = Integer.getInteger("tamano-archivo", 256 * 1024);
+
+    private static final class Resultado {
+        private final int estado;
+        private final long nanos;
+
+        private Resultado(int estado, long nanos) {
+            this.estado = estado;
+            this.nanos = nanos;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        long[] veterinarios = rango(System.getProperty("veterinarios", "2-21"));
+        String token = firmar();
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        byte[] archivo = new byte[TAMANO_ARCHIVO];
+        ThreadLocalRandom.current().nextBytes(archivo);
+
+        // Calentamiento con pocas peticiones en serie, fuera de la medición
+        for (int i = 0; i < 20; i++) {
+            enviar(cliente, peticion(token, veterinarios, PETICIONES + i, archivo));
+        }
+
+        ExecutorService clientes = Executors.newFixedThreadPool(CONCURRENCIA);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<Resultado>> pendientes = new ArrayList<>(PETICIONES);
+        for (int i = 0; i < PETICIONES; i++) {
+            HttpRequest peticion = peticion(token, veterinarios, i, archivo);
+            pendientes.add(clientes.submit(() -> {
+                salida.await();
+                return enviar(cliente, peticion);
+            }));
+        }
+        long inicio = System.nanoTime();
+        salida.countDown();
+        long[] latencias = new long[PETICIONES];
+        Map<Integer, Integer> estados = new TreeMap<>();
+        for (int i = 0; i < PETICIONES; i++) {
+            Resultado resultado = pendientes.get(i).get();
+            latencias[i] = resultado.nanos;
+            estados.merge(resultado.estado, 1, Integer::sum);
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        clientes.shutdown();
+
+        Arrays.sort(latencias);
+        System.out.printf("%s: %d peticiones, concurrencia %d, %.1f s, %.0f pet/s%n",
+                ESCENARIO, PETICIONES, CONCURRENCIA, segundos, PETICIONES / segundos);
+        System.out.printf("  estados %s%n", estados);
+        System.out.printf("  p50 %d ms, p99 %d ms, máx %d ms%n",
+                percentil(latencias, 0.50), percentil(latencias, 0.99), latencias[latencias.length - 1] / 1_000_000);
+    }
+
+    private static HttpRequest peticion(String token, long[] veterinarios, int i, byte[] archivo) {
+        HttpRequest.Builder peticion = HttpRequest.newBuilder()
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(120));
+        if ("archivos".equals(ESCENARIO)) {
+            String limite = "----carga" + i;
+            return peticion.uri(URI.create(URL + "/api/archivos-medicos"))
+                    .header("Content-Type", "multipart/form-data; boundary=" + limite)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(multipart(limite, i, archivo)))
+                    .build();
+        }
+        long veterinario = veterinarios[i % veterinarios.length];
+        LocalDateTime fechaHora = LocalDate.now().plusDays(DIA).atStartOfDay()
+                .plusMinutes(30L * (i / veterinarios.length));
+        String cuerpo = String.format("{\"pacienteId\":%d,\"veterinarioId\":%d,\"fechaHora\":\"%s\"," +
+                        "\"duracionEstimada\":30,\"tipoCita\":\"CONSULTA_GENERAL\",\"motivoConsulta\":\"Carga %d\"}",
+                PACIENTE, veterinario, fechaHora, i);
+        return peticion.uri(URI.create(URL + "/api/citas"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+    }
+
+    private static Resultado enviar(HttpClient cliente, HttpRequest peticion) {
+        long inicio = System.nanoTime();
+        int estado;
+        try {
+            estado = cliente.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            estado = -1;
+        }
+        return new Resultado(estado, System.nanoTime() - inicio);
+    }
+
+    private static byte[] multipart(String limite, int i, byte[] archivo) {
+        String cabecera = campo(limite, "tipoArchivo", "OTRO") + campo(limite, "historiaClinicaId", Long.toString(HISTORIA))
+                + "--" + limite + "\r\nContent-Disposition: form-data; name=\"archivo\"; filename=\"carga-" + i
+                + ".bin\"\r\nContent-Type: application/octet-stream\r\n\r\n";
+        byte[] inicio = cabecera.getBytes(StandardCharsets.UTF_8);
+        byte[] fin = ("\r\n--" + limite + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] cuerpo = new byte[inicio.length + archivo.length + fin.length];
+        System.arraycopy(inicio, 0, cuerpo, 0, inicio.length);
+        // Contenido distinto por petición para que ninguna subida se resuelva por huella repetida
+        byte[] propio = archivo.clone();
+        propio[0] = (byte) i;
+        propio[1] = (byte) (i >> 8);
+        System.arraycopy(propio, 0, cuerpo, inicio.length, propio.length);
+        System.arraycopy(fin, 0, cuerpo, inicio.length + propio.length, fin.length);
+        return cuerpo;
+    }
+
+    private static String campo(String limite, String nombre, String valor) {
+        return "--" + limite + "\r\nContent-Disposition: form-data; name=\"" + nombre + "\"\r\n\r\n" + valor + "\r\n";
+    }
+
+    private static String firmar() throws Exception {
+        long ahora = System.currentTimeMillis() / 1000;
+        Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+        String cabecera = base64.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8));
+        String carga = base64.encodeToString(String.format(
+                "{\"sub\":\"carga@nuclearvet.com\",\"uid\":%d,\"rol\":\"%s\",\"iat\":%d,\"exp\":%d}",
+                USUARIO, ROL, ahora, ahora + 3600).getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(Base64.getDecoder().decode(SECRETO), "HmacSHA256"));
+        byte[] firma = mac.doFinal((cabecera + "." + carga).getBytes(StandardCharsets.UTF_8));
+        return cabecera + "." + carga + "." + base64.encodeToString(firma);
+    }
+
+    private static long[] rango(String texto) {
+        String[] extremos = texto.split("-");
+        long desde = Long.parseLong(extremos[0]);
+        long hasta = Long.parseLong(extremos[extremos.length - 1]);
+        long[] ids = new long[(int) (hasta - desde + 1)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = desde + i;
+        }
+        return ids;
+    }
+
+    private static long percentil(long[] ordenadas, double p) {
+        return ordenadas[Math.min(ordenadas.length - 1, (int) Math.ceil(p * ordenadas.length) - 1)] / 1_000_000;
+    }
+}
@@ -0,0 +1,156 @@
+package com.nuclearvet.infraestructura.concurrencia;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carga sobre LimiteConcurrenciaFiltro con un pool de conexiones simulado: cada operación
+ * lanza una ola de peticiones simultáneas que ocupan una conexión mientras dura su consulta,
+ * mientras dos tareas en segundo plano (como el despacho de recordatorios y la bandeja de
+ * correos) toman conexiones sin pasar por el filtro.
+ *
+ * Compara el pool de Tomcat con hilos de plataforma (200 hilos) frente a un hilo virtual por
+ * petición, y el límite igual al pool frente al pool menos las conexiones de segundo plano.
+ * Los contadores informan cuántas peticiones respondieron 503 en el filtro y cuántas
+ * agotaron la espera de conexión (el equivalente al connection-timeout de HikariCP).
+ * La comparación de extremo a extremo contra PostgreSQL está en CargaReservasYArchivos.
+ *
+ * Requiere Java 21 para hilos=virtuales; en Java 17:
+ * mvn -P benchmarks test-compile exec:exec -Djmh.incluir=LimiteConcurrencia -Djmh.args="-p hilos=plataforma"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LimiteConcurrenciaBenchmark {
+
+    private static final int CONEXIONES = 10;
+    private static final int TAREAS_SEGUNDO_PLANO = 2;
+    private static final int HILOS_TOMCAT = 200;
+    private static final long CONSULTA_MS = 5;
+    private static final long ESPERA_FILTRO_MS = 1_000;
+    private static final long ESPERA_CONEXION_MS = 2_000;
+
+    @Param({"plataforma", "virtuales"})
+    public String hilos;
+
+    @Param({"1000"})
+    public int peticiones;
+
+    /** Conexiones que el filtro deja a las tareas en segundo plano */
+    @Param({"0", "2"})
+    public int reservadas;
+
+    private Semaphore conexiones;
+    private LimiteConcurrenciaFiltro filtro;
+    private ExecutorService ejecutor;
+    private ExecutorService segundoPlano;
+    private volatile boolean activo;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Resultados {
+        public long rechazadas;
+        public long sinConexion;
+    }
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        conexiones = new Semaphore(CONEXIONES, true);
+        filtro = new LimiteConcurrenciaFiltro(CONEXIONES - reservadas, ESPERA_FILTRO_MS,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        ejecutor = "virtuales".equals(hilos) ? porHiloVirtual() : Executors.newFixedThreadPool(HILOS_TOMCAT);
+
+        activo = true;
+        segundoPlano = Executors.newFixedThreadPool(TAREAS_SEGUNDO_PLANO);
+        for (int i = 0; i < TAREAS_SEGUNDO_PLANO; i++) {
+            segundoPlano.execute(() -> {
+                while (activo) {
+                    consultar();
+                }
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() throws InterruptedException {
+        activo = false;
+        segundoPlano.shutdown();
+        ejecutor.shutdown();
+        segundoPlano.awaitTermination(10, TimeUnit.SECONDS);
+        ejecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void olaDePeticiones(Resultados resultados) {
+        FilterChain cadena = (request, response) -> {
+            if (!consultar()) {
+                ((MockHttpServletResponse) response).setStatus(500);
+            }
+        };
+        List<CompletableFuture<Integer>> respuestas = new ArrayList<>(peticiones);
+        for (int i = 0; i < peticiones; i++) {
+            respuestas.add(CompletableFuture.supplyAsync(() -> atender(cadena), ejecutor));
+        }
+        for (CompletableFuture<Integer> respuesta : respuestas) {
+            int estado = respuesta.join();
+            if (estado == 503) {
+                resultados.rechazadas++;
+            } else if (estado == 500) {
+                resultados.sinConexion++;
+            }
+        }
+    }
+
+    private int atender(FilterChain cadena) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filtro.doFilter(new MockHttpServletRequest("GET", "/api/citas"), response, cadena);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response.getStatus();
+    }
+
+    /**
+     * Toma una conexión, simula la consulta y la devuelve; false si no hubo conexión a tiempo
+     */
+    private boolean consultar() {
+        try {
+            if (!conexiones.tryAcquire(ESPERA_CONEXION_MS, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            try {
+                Thread.sleep(CONSULTA_MS);
+            } finally {
+                conexiones.release();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static ExecutorService porHiloVirtual() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("hilos=virtuales requiere Java 21 (Java " + Runtime.version().feature() + ")", e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.nuclearvet.infraestructura.inventario;
+
+import com.nuclearvet.dominio.entidades.Lote;
+import com.nuclearvet.dominio.enumeraciones.EstadoLote;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recálculo nocturno de estados sobre 1M de lotes en PostgreSQL: recorrido anterior
+ * (cargar todos los lotes, Lote.actualizarEstado y un UPDATE por lote que cambió) frente
+ * a TransicionEstadosLotes (cuatro UPDATE por conjuntos).
+ *
+ * "inicial" parte de todos los lotes en DISPONIBLE (primera ejecución tras una carga
+ * masiva); "diario" parte de los estados del día anterior, que es el caso habitual. El
+ * recorrido anterior se mide con JDBC directo y actualizaciones en batch, sin el costo de
+ * Hibernate ni de las alertas, así que es una cota inferior de lo que costaba.
+ *
+ * Necesita una base PostgreSQL; crea y llena su propio esquema (jmh_lotes):
+ * mvn -P benchmarks test-compile exec:exec -Djmh.incluir=TransicionEstadosLotes -Djmh.perfilador=
+ *     -Djmh.args="-jvmArgsAppend -Djmh.jdbc.url=jdbc:postgresql://localhost:5432/nuclearvet"
+ * (también -Djmh.jdbc.usuario y -Djmh.jdbc.contrasena)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TransicionEstadosLotesBenchmark {
+
+    private static final int LOTES = 1_000_000;
+
+    @Param({"inicial", "diario"})
+    private String escenario;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private LocalDate hoy;
+
+    @Setup(Level.Trial)
+    public void crearDatos() {
+        dataSource = new SingleConnectionDataSource(
+                System.getProperty("jmh.jdbc.url", "jdbc:postgresql://localhost:5432/nuclearvet"),
+                System.getProperty("jmh.jdbc.usuario", "postgres"),
+                System.getProperty("jmh.jdbc.contrasena", "postgres"),
+                true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        hoy = LocalDate.now();
+
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS jmh_lotes CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA jmh_lotes");
+        jdbcTemplate.execute("SET search_path TO jmh_lotes");
+        jdbcTemplate.execute("CREATE TABLE lotes (id BIGSERIAL PRIMARY KEY, cantidad_disponible INTEGER NOT NULL, " +
+                "fecha_vencimiento DATE NOT NULL, estado VARCHAR(20) NOT NULL, fecha_actualizacion TIMESTAMP)");
+        // Vencimientos repartidos entre 60 días atrás y casi dos años adelante; 1 de cada 20 sin existencias
+        jdbcTemplate.update("INSERT INTO lotes (cantidad_disponible, fecha_vencimiento, estado) " +
+                "SELECT CASE WHEN i % 20 = 0 THEN 0 ELSE 10 END, CAST(? AS DATE) + (i % 760) - 60, 'DISPONIBLE' " +
+                "FROM generate_series(1, ?) i", java.sql.Date.valueOf(hoy), LOTES);
+        jdbcTemplate.execute("CREATE INDEX idx_lote_vencimiento ON lotes(fecha_vencimiento)");
+        jdbcTemplate.execute("VACUUM ANALYZE lotes");
+    }
+
+    @Setup(Level.Iteration)
+    public void restablecerEstados() {
+        jdbcTemplate.update("UPDATE lotes SET estado = 'DISPONIBLE' WHERE estado <> 'DISPONIBLE'");
+        if ("diario".equals(escenario)) {
+            new TransicionEstadosLotes(jdbcTemplate).aplicar(hoy.minusDays(1));
+        }
+        jdbcTemplate.execute("VACUUM lotes");
+    }
+
+    @TearDown(Level.Trial)
+    public void eliminarDatos() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS jmh_lotes CASCADE");
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public int recorridoCompleto() {
+        List<Lote> lotes = jdbcTemplate.query("SELECT id, cantidad_disponible, fecha_vencimiento, estado FROM lotes",
+                (rs, fila) -> Lote.builder()
+                        .id(rs.getLong(1))
+                        .cantidadDisponible(rs.getInt(2))
+                        .fechaVencimiento(rs.getDate(3).toLocalDate())
+                        .estado(EstadoLote.valueOf(rs.getString(4)))
+                        .build());
+
+        List<Object[]> cambios = new ArrayList<>();
+        for (Lote lote : lotes) {
+            EstadoLote estadoAnterior = lote.getEstado();
+            lote.actualizarEstado();
+            if (estadoAnterior != lote.getEstado()) {
+                cambios.add(new Object[]{lote.getEstado().name(), lote.getId()});
+            }
+        }
+        jdbcTemplate.batchUpdate("UPDATE lotes SET estado = ?, fecha_actualizacion = now() WHERE id = ?", cambios);
+        return cambios.size();
+    }
+
+    @Benchmark
+    public TransicionEstadosLotes.Resultado porConjuntos() {
+        return new TransicionEstadosLotes(jdbcTemplate).aplicar(hoy);
+    }
+}
@@ -0,0 +1,157 @@
+package com.nuclearvet.infraestructura.seguridad;
+
+import com.nuclearvet.dominio.entidades.Rol;
+import com.nuclearvet.dominio.entidades.Usuario;
+import com.nuclearvet.infraestructura.persistencia.RevocacionUsuarioRepositorio;
+import com.nuclearvet.infraestructura.persistencia.TokenRevocadoRepositorio;
+import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por petición del filtro JWT: verificación anterior frente a la actual.
+ *
+ * El camino anterior reproduce el filtro original: clave reconstruida y dos parseos por
+ * token, y el principal cargado con loadUserByUsername, que consultaba usuarios (con su
+ * rol) en cada petición. Esa consulta se hace de verdad contra una base H2 en memoria con
+ * una conexión ya abierta, así que en PostgreSQL la diferencia es mayor por el viaje de
+ * red. El camino actual usa la clave precalculada, un parseo y el principal construido
+ * desde los claims, sin base de datos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFiltroBenchmark {
+
+    private static final String SECRETO = "NuclearVET2024ClaveSecretaSuperSeguraParaTokensJWTColombia";
+    private static final String CORREO = "vet@nuclearvet.co";
+
+    private static final String SQL_USUARIO =
+            "SELECT u.correo_electronico, u.contrasena, u.activo, r.nombre FROM usuarios u " +
+            "JOIN roles r ON r.id = u.rol_id WHERE u.correo_electronico = ?";
+
+    private JwtUtil jwtUtil;
+    private Connection conexion;
+    private JwtFiltroAutenticacion filtro;
+    private String cabecera;
+    private final FilterChain cadena = (request, response) -> { };
+
+    @Setup
+    public void preparar() throws SQLException {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secreto", SECRETO);
+        ReflectionTestUtils.setField(jwtUtil, "tiempoExpiracion", 3_600_000L);
+        jwtUtil.inicializar();
+
+        CachePrincipales cache = new CachePrincipales();
+        ReflectionTestUtils.setField(cache, "ttlSegundos", 300L);
+        ReflectionTestUtils.setField(cache, "capacidad", 1000);
+        UsuarioRepositorio repositorio = Mockito.mock(UsuarioRepositorio.class);
+        Usuario usuario = Usuario.builder().id(7L).correoElectronico(CORREO).contrasena("hash").activo(true)
+                .rol(Rol.builder().nombre("VETERINARIO").build()).build();
+        Mockito.when(repositorio.findByCorreoElectronico(CORREO)).thenReturn(Optional.of(usuario));
+        DetallesUsuarioServicioImpl detallesUsuarioServicio = new DetallesUsuarioServicioImpl(repositorio, cache);
+
+        conexion = DriverManager.getConnection("jdbc:h2:mem:jwt-filtro;DB_CLOSE_DELAY=-1");
+        try (Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("CREATE TABLE roles (id BIGINT PRIMARY KEY, nombre VARCHAR(50) NOT NULL UNIQUE)");
+            sentencia.execute("CREATE TABLE usuarios (id BIGINT PRIMARY KEY, correo_electronico VARCHAR(255) NOT NULL UNIQUE, " +
+                    "contrasena VARCHAR(255) NOT NULL, activo BOOLEAN, rol_id BIGINT REFERENCES roles(id))");
+            sentencia.execute("INSERT INTO roles VALUES (1, 'VETERINARIO')");
+            sentencia.execute("INSERT INTO usuarios VALUES (7, '" + CORREO + "', 'hash', TRUE, 1)");
+        }
+
+        ListaRevocacionTokens revocacion = new ListaRevocacionTokens(Mockito.mock(TokenRevocadoRepositorio.class),
+                Mockito.mock(RevocacionUsuarioRepositorio.class));
+        filtro = new JwtFiltroAutenticacion(jwtUtil, detallesUsuarioServicio, revocacion);
+        cabecera = "Bearer " + jwtUtil.generarToken(new UsuarioAutenticado(7L, CORREO, "hash", "VETERINARIO"));
+    }
+
+    @TearDown
+    public void cerrar() throws SQLException {
+        conexion.close();
+    }
+
+    @Benchmark
+    public void filtroAnterior(Blackhole bh) throws SQLException {
+        String jwt = cabecera.substring(7);
+        String correo = parsearAnterior(jwt).getSubject();
+        UserDetails detalles = cargarUsuarioAnterior(correo);
+        boolean valido = correo.equals(detalles.getUsername()) && !parsearAnterior(jwt).getExpiration().before(new Date());
+        if (valido) {
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(detalles, null, detalles.getAuthorities()));
+        }
+        bh.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void filtroActual(Blackhole bh) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", cabecera);
+        filtro.doFilter(request, new MockHttpServletResponse(), cadena);
+        bh.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * loadUserByUsername tal como lo hacía DetallesUsuarioServicioImpl antes: consulta el usuario y su rol cada vez
+     */
+    private UserDetails cargarUsuarioAnterior(String correo) throws SQLException {
+        try (PreparedStatement consulta = conexion.prepareStatement(SQL_USUARIO)) {
+            consulta.setString(1, correo);
+            try (ResultSet fila = consulta.executeQuery()) {
+                if (!fila.next()) {
+                    throw new UsernameNotFoundException("Usuario no encontrado con correo: " + correo);
+                }
+                boolean activo = fila.getBoolean(3);
+                return User.builder()
+                        .username(fila.getString(1))
+                        .password(fila.getString(2))
+                        .authorities(Collections.singletonList(new SimpleGrantedAuthority(fila.getString(4))))
+                        .accountLocked(!activo)
+                        .disabled(!activo)
+                        .build();
+            }
+        }
+    }
+
+    /**
+     * Parseo tal como lo hacía JwtUtil antes: decodifica el secreto y construye la clave y el parser cada vez
+     */
+    private static Claims parsearAnterior(String token) {
+        SecretKey clave = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRETO));
+        return Jwts.parser().verifyWith(clave).build().parseSignedClaims(token).getPayload();
+    }
+}
@@ -0,0 +1,51 @@
+package com.nuclearvet.infraestructura.seguridad;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Firma y verificación de tokens con JwtUtil, sin el filtro HTTP alrededor
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRETO = "NuclearVET2024ClaveSecretaSuperSeguraParaTokensJWTColombia";
+
+    private JwtUtil jwtUtil;
+    private UsuarioAutenticado usuario;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secreto", SECRETO);
+        ReflectionTestUtils.setField(jwtUtil, "tiempoExpiracion", 3_600_000L);
+        jwtUtil.inicializar();
+        usuario = new UsuarioAutenticado(7L, "vet@nuclearvet.co", "hash", "VETERINARIO");
+        token = jwtUtil.generarToken(usuario);
+    }
+
+    @Benchmark
+    public String firmar() {
+        return jwtUtil.generarToken(usuario);
+    }
+
+    @Benchmark
+    public Optional<Claims> verificar() {
+        return jwtUtil.verificar(token);
+    }
+
+    @Benchmark
+    public Optional<UsuarioAutenticado> verificarYConstruirPrincipal() {
+        return jwtUtil.verificar(token).flatMap(jwtUtil::aPrincipal);
+    }
+}
@@ -3,12 +3,12 @@ package com.nuclearvet.aplicacion.controladores;
 import com.nuclearvet.aplicacion.dtos.ArchivoMedicoDTO;
 import com.nuclearvet.aplicacion.servicios.ArchivoMedicoServicio;
 import com.nuclearvet.dominio.enums.TipoArchivo;
+import com.nuclearvet.infraestructura.archivos.EntregaArchivos;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -16,6 +16,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -30,6 +31,7 @@ import java.util.List;
 public class ArchivoMedicoControlador {
 
     private final ArchivoMedicoServicio archivoMedicoServicio;
+    private final EntregaArchivos entregaArchivos;
 
     /**
      * Subir archivo médico
@@ -116,24 +118,16 @@ public class ArchivoMedicoControlador {
      */
     @GetMapping("/{id}/descargar")
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'VETERINARIO', 'ASISTENTE')")
-    @Operation(summary = "Descargar archivo", description = "Descarga el contenido del archivo médico")
-    public ResponseEntity<Resource> descargarArchivo(@PathVariable Long id) {
-        // Obtener información del archivo
-        ArchivoMedicoDTO archivoInfo = archivoMedicoServicio.obtenerPorId(id);
-        
-        // Obtener recurso del archivo
-        Resource recurso = archivoMedicoServicio.descargarArchivo(id);
-        
-        // Configurar headers para descarga
-        String contentType = archivoInfo.getTipoContenido() != null 
-                ? archivoInfo.getTipoContenido() 
-                : "application/octet-stream";
-        
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, 
-                        "attachment; filename=\"" + archivoInfo.getNombreArchivo() + "\"")
-                .body(recurso);
+    @Operation(summary = "Descargar archivo", description = "Descarga el contenido del archivo médico; admite rangos de bytes y GET condicional con ETag")
+    public ResponseEntity<StreamingResponseBody> descargarArchivo(
+            @PathVariable Long id,
+            @RequestHeader HttpHeaders cabeceras
+    ) {
+        ArchivoMedicoServicio.Descarga descarga = archivoMedicoServicio.descargarArchivo(id);
+        MediaType tipo = descarga.getTipoContenido() != null
+                ? MediaType.parseMediaType(descarga.getTipoContenido())
+                : MediaType.APPLICATION_OCTET_STREAM;
+        return entregaArchivos.entregar(cabeceras, descarga.getRuta(), descarga.getHash(), descarga.getNombreArchivo(), tipo);
     }
 
     /**
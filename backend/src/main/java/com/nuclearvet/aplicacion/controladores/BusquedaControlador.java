@@ -0,0 +1,43 @@
+package com.nuclearvet.aplicacion.controladores;
+
+import com.nuclearvet.aplicacion.dtos.PaginaBusquedaDTO;
+import com.nuclearvet.aplicacion.servicios.BusquedaServicio;
+import com.nuclearvet.dominio.enumeraciones.TipoResultadoBusqueda;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador REST de la búsqueda general (caja de búsqueda de recepción)
+ */
+@RestController
+@RequestMapping("/api/busqueda")
+@RequiredArgsConstructor
+@Tag(name = "Búsqueda", description = "Búsqueda general de pacientes, propietarios y productos")
+@SecurityRequirement(name = "Bearer Authentication")
+public class BusquedaControlador {
+
+    private final BusquedaServicio busquedaServicio;
+
+    @GetMapping
+    @Operation(summary = "Buscar pacientes, propietarios y productos",
+            description = "Coincidencias por nombre, código, microchip, identificación o teléfono, ordenadas por relevancia")
+    @PreAuthorize("hasAnyAuthority('ADMINISTRADOR', 'VETERINARIO', 'ASISTENTE')")
+    public ResponseEntity<PaginaBusquedaDTO> buscar(
+            @Parameter(description = "Texto a buscar") @RequestParam("q") String consulta,
+            @Parameter(description = "Tipos a incluir; todos si se omite") @RequestParam(required = false) List<TipoResultadoBusqueda> tipos,
+            @RequestParam(required = false) Integer pagina,
+            @RequestParam(required = false) Integer tamano) {
+        return ResponseEntity.ok(busquedaServicio.buscar(consulta, tipos, pagina, tamano));
+    }
+}
@@ -2,8 +2,15 @@ package com.nuclearvet.aplicacion.controladores;
 
 import com.nuclearvet.aplicacion.dtos.CitaDTO;
 import com.nuclearvet.aplicacion.dtos.CrearCitaDTO;
+import com.nuclearvet.aplicacion.dtos.HuecoAgendaDTO;
 import com.nuclearvet.aplicacion.servicios.CitaServicio;
+import com.nuclearvet.aplicacion.servicios.DisponibilidadVeterinarioServicio;
+import com.nuclearvet.compartido.exportacion.ColumnaExcel;
+import com.nuclearvet.compartido.exportacion.EscritorExcel;
+import com.nuclearvet.compartido.paginacion.EscritorNdjson;
+import com.nuclearvet.compartido.paginacion.PaginaCursor;
 import com.nuclearvet.dominio.enums.EstadoCita;
+import com.nuclearvet.infraestructura.agenda.CacheAgendaDiaria;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -11,12 +18,16 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -29,7 +40,24 @@ import java.util.List;
 @SecurityRequirement(name = "bearerAuth")
 public class CitaControlador {
 
+    private static final List<ColumnaExcel<CitaDTO>> COLUMNAS_EXCEL = List.of(
+            ColumnaExcel.de("Número", CitaDTO::getNumeroCita),
+            ColumnaExcel.de("Fecha y hora", CitaDTO::getFechaHora),
+            ColumnaExcel.de("Duración (min)", CitaDTO::getDuracionEstimada),
+            ColumnaExcel.de("Tipo", CitaDTO::getTipoCita),
+            ColumnaExcel.de("Estado", CitaDTO::getEstado),
+            ColumnaExcel.de("Prioridad", CitaDTO::getPrioridad),
+            ColumnaExcel.de("Paciente", CitaDTO::getPacienteNombre),
+            ColumnaExcel.de("Propietario", CitaDTO::getPropietarioNombre),
+            ColumnaExcel.de("Teléfono", CitaDTO::getPropietarioTelefono),
+            ColumnaExcel.de("Veterinario", CitaDTO::getVeterinarioNombre),
+            ColumnaExcel.de("Motivo", CitaDTO::getMotivoConsulta),
+            ColumnaExcel.de("Costo", CitaDTO::getCostoConsulta));
+
     private final CitaServicio citaServicio;
+    private final DisponibilidadVeterinarioServicio disponibilidadServicio;
+    private final EscritorNdjson escritorNdjson;
+    private final EscritorExcel escritorExcel;
 
     /**
      * Crear nueva cita
@@ -64,6 +92,38 @@ public class CitaControlador {
         return ResponseEntity.ok(citaServicio.listarCitas());
     }
 
+    /**
+     * Listar citas paginadas por cursor
+     */
+    @GetMapping("/pagina")
+    @PreAuthorize("hasAnyRole('VETERINARIO', 'ASISTENTE')")
+    @Operation(summary = "Listar citas paginadas", description = "Obtiene las citas por páginas usando un cursor opaco (más recientes primero)")
+    public ResponseEntity<PaginaCursor<CitaDTO>> listarCitasPaginadas(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        return ResponseEntity.ok(citaServicio.listarCitasPaginadas(cursor, tamano));
+    }
+
+    /**
+     * Transmitir todas las citas como NDJSON
+     */
+    @GetMapping(value = "/flujo", produces = EscritorNdjson.NDJSON)
+    @PreAuthorize("hasAnyRole('VETERINARIO', 'ASISTENTE')")
+    @Operation(summary = "Transmitir todas las citas", description = "Exporta todas las citas como NDJSON sin cargarlas en memoria")
+    public ResponseEntity<StreamingResponseBody> transmitirCitas() {
+        return escritorNdjson.respuesta(citaServicio::transmitirCitas);
+    }
+
+    /**
+     * Exportar todas las citas a Excel
+     */
+    @GetMapping(value = "/excel", produces = EscritorExcel.XLSX)
+    @PreAuthorize("hasAnyRole('VETERINARIO', 'ASISTENTE')")
+    @Operation(summary = "Exportar citas a Excel", description = "Exporta todas las citas a .xlsx sin cargarlas en memoria")
+    public ResponseEntity<StreamingResponseBody> exportarExcel() {
+        return escritorExcel.respuesta("citas", COLUMNAS_EXCEL, citaServicio::transmitirCitas);
+    }
+
     /**
      * Listar citas por estado
      */
@@ -99,10 +159,42 @@ public class CitaControlador {
      */
     @GetMapping("/fecha/{fecha}")
     @PreAuthorize("hasAnyRole('VETERINARIO', 'ASISTENTE')")
-    @Operation(summary = "Listar citas por fecha", description = "Obtiene todas las citas de un día específico")
+    @Operation(summary = "Listar citas por fecha",
+            description = "Agenda de un día específico, en orden de hora. Responde 304 si la agenda no cambió desde el ETag enviado")
     public ResponseEntity<List<CitaDTO>> listarCitasPorFecha(
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
-        return ResponseEntity.ok(citaServicio.listarCitasPorFecha(fecha));
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha,
+            WebRequest webRequest) {
+        return responderAgenda(citaServicio.obtenerAgendaDelDia(fecha, null), webRequest);
+    }
+
+    /**
+     * Agenda del día de un veterinario
+     */
+    @GetMapping("/veterinario/{veterinarioId}/fecha/{fecha}")
+    @PreAuthorize("hasAnyRole('VETERINARIO', 'ASISTENTE')")
+    @Operation(summary = "Agenda del día de un veterinario",
+            description = "Citas del veterinario en un día, en orden de hora. Responde 304 si la agenda no cambió desde el ETag enviado")
+    public ResponseEntity<List<CitaDTO>> listarAgendaDelVeterinario(
+            @PathVariable Long veterinarioId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha,
+            WebRequest webRequest) {
+        return responderAgenda(citaServicio.obtenerAgendaDelDia(fecha, veterinarioId), webRequest);
+    }
+
+    /**
+     * Próximos huecos libres
+     */
+    @GetMapping("/huecos")
+    @PreAuthorize("hasAnyRole('VETERINARIO', 'ASISTENTE', 'CLIENTE')")
+    @Operation(summary = "Próximos huecos libres",
+            description = "Primeros horarios en los que cabe una cita de la duración indicada, según el horario de atención " +
+                    "y las citas de cada veterinario (o solo del indicado)")
+    public ResponseEntity<List<HuecoAgendaDTO>> buscarHuecos(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) Integer duracion,
+            @RequestParam(required = false) Integer cantidad,
+            @RequestParam(required = false) Long veterinarioId) {
+        return ResponseEntity.ok(disponibilidadServicio.buscarHuecos(desde, duracion, cantidad, veterinarioId));
     }
 
     /**
@@ -130,4 +222,14 @@ public class CitaControlador {
         citaServicio.cancelarCita(id, motivo, request);
         return ResponseEntity.noContent().build();
     }
+
+    private ResponseEntity<List<CitaDTO>> responderAgenda(CacheAgendaDiaria.Instantanea<CitaDTO> agenda, WebRequest webRequest) {
+        if (webRequest.checkNotModified(agenda.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(agenda.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(agenda.getCitas());
+    }
 }
@@ -0,0 +1,42 @@
+package com.nuclearvet.aplicacion.controladores;
+
+import com.nuclearvet.aplicacion.dtos.DisponibilidadVeterinarioDTO;
+import com.nuclearvet.aplicacion.servicios.DisponibilidadVeterinarioServicio;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST del horario de atención de los veterinarios
+ */
+@RestController
+@RequestMapping("/api/veterinarios/{veterinarioId}/horario")
+@RequiredArgsConstructor
+@Tag(name = "Horario de veterinarios", description = "Franjas semanales de atención usadas para ofrecer huecos de citas")
+@SecurityRequirement(name = "bearerAuth")
+public class DisponibilidadVeterinarioControlador {
+
+    private final DisponibilidadVeterinarioServicio disponibilidadServicio;
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'VETERINARIO', 'ASISTENTE')")
+    @Operation(summary = "Obtener horario", description = "Franjas semanales de atención del veterinario")
+    public ResponseEntity<List<DisponibilidadVeterinarioDTO>> listarHorario(@PathVariable Long veterinarioId) {
+        return ResponseEntity.ok(disponibilidadServicio.listarHorario(veterinarioId));
+    }
+
+    @PutMapping
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'VETERINARIO')")
+    @Operation(summary = "Reemplazar horario", description = "Sustituye todas las franjas semanales de atención del veterinario")
+    public ResponseEntity<List<DisponibilidadVeterinarioDTO>> reemplazarHorario(
+            @PathVariable Long veterinarioId,
+            @RequestBody List<DisponibilidadVeterinarioDTO> franjas) {
+        return ResponseEntity.ok(disponibilidadServicio.reemplazarHorario(veterinarioId, franjas));
+    }
+}
@@ -0,0 +1,52 @@
+package com.nuclearvet.aplicacion.controladores;
+
+import com.nuclearvet.aplicacion.servicios.EventoServicio;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Controlador del canal de eventos en vivo (Server-Sent Events)
+ */
+@RestController
+@RequestMapping("/api/eventos")
+@RequiredArgsConstructor
+@Tag(name = "Eventos", description = "Notificaciones y alertas de inventario en vivo")
+@SecurityRequirement(name = "Bearer Authentication")
+public class EventoControlador {
+
+    private final EventoServicio eventoServicio;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Suscribirse a los eventos del usuario",
+            description = "Envía CONTADORES al conectar y luego NOTIFICACION, ALERTA_INVENTARIO y " +
+                    "RECORDATORIOS_DESPACHADOS. Con Last-Event-ID se reenvían los eventos perdidos, " +
+                    "o RESINCRONIZAR si ya no están disponibles")
+    public ResponseEntity<SseEmitter> suscribir(
+            @Parameter(description = "ID del último evento recibido, al reconectar")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEventoId) {
+        try {
+            return ResponseEntity.ok()
+                    .header("X-Accel-Buffering", "no")
+                    .body(eventoServicio.suscribir(ultimoEventoId));
+        } catch (RejectedExecutionException e) {
+            // El cuerpo JSON del manejador global no se puede negociar como text/event-stream
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+    }
+}
@@ -2,6 +2,12 @@ package com.nuclearvet.aplicacion.controladores;
 
 import com.nuclearvet.aplicacion.dto.administrativo.CrearFacturaDTO;
 import com.nuclearvet.aplicacion.dto.administrativo.FacturaDTO;
+import com.nuclearvet.aplicacion.servicios.ImpresionServicio;
+import com.nuclearvet.compartido.excepciones.ValidacionExcepcion;
+import com.nuclearvet.compartido.exportacion.ColumnaExcel;
+import com.nuclearvet.compartido.exportacion.EscritorExcel;
+import com.nuclearvet.compartido.paginacion.EscritorNdjson;
+import com.nuclearvet.compartido.paginacion.PaginaCursor;
 import com.nuclearvet.dominio.enumeraciones.EstadoFactura;
 import com.nuclearvet.dominio.servicios.FacturaServicio;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,14 +15,19 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 
@@ -26,7 +37,25 @@ import java.util.Map;
 @Tag(name = "Facturas", description = "Gestión de facturación y cuentas por cobrar")
 public class FacturaControlador {
 
+    private static final List<ColumnaExcel<FacturaDTO>> COLUMNAS_EXCEL = List.of(
+            ColumnaExcel.de("Número", FacturaDTO::getNumeroFactura),
+            ColumnaExcel.de("Fecha emisión", FacturaDTO::getFechaEmision),
+            ColumnaExcel.de("Fecha vencimiento", FacturaDTO::getFechaVencimiento),
+            ColumnaExcel.de("Propietario", FacturaDTO::getPropietarioNombre),
+            ColumnaExcel.de("Paciente", FacturaDTO::getPacienteNombre),
+            ColumnaExcel.de("Estado", FacturaDTO::getEstado),
+            ColumnaExcel.de("Subtotal", FacturaDTO::getSubtotal),
+            ColumnaExcel.de("Impuestos", FacturaDTO::getImpuestos),
+            ColumnaExcel.de("Descuento", FacturaDTO::getDescuento),
+            ColumnaExcel.de("Total", FacturaDTO::getTotal),
+            ColumnaExcel.de("Saldo pendiente", FacturaDTO::getSaldoPendiente),
+            ColumnaExcel.de("Creada por", FacturaDTO::getUsuarioCreadorNombre),
+            ColumnaExcel.de("Observaciones", FacturaDTO::getObservaciones));
+
     private final FacturaServicio facturaServicio;
+    private final EscritorNdjson escritorNdjson;
+    private final EscritorExcel escritorExcel;
+    private final ImpresionServicio impresionServicio;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'RECEPCIONISTA', 'VETERINARIO')")
@@ -35,6 +64,35 @@ public class FacturaControlador {
         return ResponseEntity.ok(facturaServicio.listarTodas());
     }
 
+    @GetMapping("/pagina")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'RECEPCIONISTA', 'VETERINARIO')")
+    @Operation(summary = "Listar facturas paginadas por cursor")
+    public ResponseEntity<PaginaCursor<FacturaDTO>> listarPaginadas(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        return ResponseEntity.ok(facturaServicio.listarPaginadas(cursor, tamano));
+    }
+
+    @GetMapping(value = "/flujo", produces = EscritorNdjson.NDJSON)
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'RECEPCIONISTA', 'VETERINARIO')")
+    @Operation(summary = "Transmitir todas las facturas como NDJSON")
+    public ResponseEntity<StreamingResponseBody> transmitirTodas() {
+        return escritorNdjson.respuesta(facturaServicio::transmitirTodas);
+    }
+
+    @GetMapping(value = "/excel", produces = EscritorExcel.XLSX)
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'RECEPCIONISTA')")
+    @Operation(summary = "Exportar a Excel las facturas emitidas en un rango de fechas")
+    public ResponseEntity<StreamingResponseBody> exportarExcel(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin) {
+        if (fin.isBefore(inicio)) {
+            throw new ValidacionExcepcion("Rango de fechas inválido", Map.of("fin", "Debe ser igual o posterior a inicio"));
+        }
+        return escritorExcel.respuesta("facturas", COLUMNAS_EXCEL,
+                consumidor -> facturaServicio.transmitirPorRangoFechas(inicio, fin, consumidor));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'RECEPCIONISTA', 'VETERINARIO')")
     @Operation(summary = "Obtener factura por ID")
@@ -42,6 +100,33 @@ public class FacturaControlador {
         return ResponseEntity.ok(facturaServicio.obtenerPorId(id));
     }
 
+    @GetMapping(value = "/{id}/pdf", produces = MediaType.APPLICATION_PDF_VALUE)
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'RECEPCIONISTA', 'VETERINARIO')")
+    @Operation(summary = "Descargar factura en PDF")
+    public ResponseEntity<byte[]> descargarPdf(@PathVariable Long id) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.inline().filename("factura-" + id + ".pdf").build().toString())
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(impresionServicio.generarFactura(id));
+    }
+
+    @GetMapping(value = "/pdf/mes", produces = "application/zip")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'RECEPCIONISTA')")
+    @Operation(summary = "Descargar en un ZIP los PDF de las facturas emitidas en un mes")
+    public ResponseEntity<StreamingResponseBody> descargarPdfDelMes(@RequestParam int anio, @RequestParam int mes) {
+        if (mes < 1 || mes > 12) {
+            throw new ValidacionExcepcion("Mes inválido", Map.of("mes", "Debe estar entre 1 y 12"));
+        }
+        YearMonth periodo = YearMonth.of(anio, mes);
+        StreamingResponseBody cuerpo = salida -> impresionServicio.generarFacturasDelMes(periodo, salida);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("facturas-" + periodo + ".zip").build().toString())
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(cuerpo);
+    }
+
     @GetMapping("/numero/{numero}")
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'RECEPCIONISTA', 'VETERINARIO')")
     @Operation(summary = "Obtener factura por número")
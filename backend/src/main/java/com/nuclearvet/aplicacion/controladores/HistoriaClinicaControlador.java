@@ -3,13 +3,17 @@ package com.nuclearvet.aplicacion.controladores;
 import com.nuclearvet.aplicacion.dtos.ActualizarHistoriaClinicaDTO;
 import com.nuclearvet.aplicacion.dtos.HistoriaClinicaDTO;
 import com.nuclearvet.aplicacion.servicios.HistoriaClinicaServicio;
+import com.nuclearvet.aplicacion.servicios.ImpresionServicio;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -28,6 +32,7 @@ import java.util.Map;
 public class HistoriaClinicaControlador {
 
     private final HistoriaClinicaServicio historiaClinicaServicio;
+    private final ImpresionServicio impresionServicio;
 
     /**
      * Crear historia clínica para un paciente
@@ -57,6 +62,20 @@ public class HistoriaClinicaControlador {
         return ResponseEntity.ok(historiaClinica);
     }
 
+    /**
+     * Descargar historia clínica en PDF
+     */
+    @GetMapping(value = "/{id}/pdf", produces = MediaType.APPLICATION_PDF_VALUE)
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'VETERINARIO', 'ASISTENTE')")
+    @Operation(summary = "Descargar historia clínica en PDF")
+    public ResponseEntity<byte[]> descargarPdf(@PathVariable Long id) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.inline().filename("historia-" + id + ".pdf").build().toString())
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(impresionServicio.generarHistoriaClinica(id));
+    }
+
     /**
      * Obtener historia clínica por número
      */
@@ -1,6 +1,8 @@
 package com.nuclearvet.aplicacion.controladores;
 
 import com.nuclearvet.aplicacion.dto.notificaciones.HistorialCorreoDTO;
+import com.nuclearvet.compartido.paginacion.EscritorNdjson;
+import com.nuclearvet.compartido.paginacion.PaginaCursor;
 import com.nuclearvet.dominio.enumeraciones.EstadoCorreo;
 import com.nuclearvet.dominio.servicios.HistorialCorreoServicio;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,6 +11,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -24,6 +27,7 @@ import java.util.Map;
 public class HistorialCorreoControlador {
 
     private final HistorialCorreoServicio historialServicio;
+    private final EscritorNdjson escritorNdjson;
 
     @Operation(summary = "Listar todo el historial de correos")
     @GetMapping
@@ -31,6 +35,20 @@ public class HistorialCorreoControlador {
         return ResponseEntity.ok(historialServicio.listarTodos());
     }
 
+    @Operation(summary = "Listar historial de correos paginado por cursor")
+    @GetMapping("/pagina")
+    public ResponseEntity<PaginaCursor<HistorialCorreoDTO>> listarPaginados(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        return ResponseEntity.ok(historialServicio.listarPaginados(cursor, tamano));
+    }
+
+    @Operation(summary = "Transmitir todo el historial de correos como NDJSON")
+    @GetMapping(value = "/flujo", produces = EscritorNdjson.NDJSON)
+    public ResponseEntity<StreamingResponseBody> transmitirTodos() {
+        return escritorNdjson.respuesta(historialServicio::transmitirTodos);
+    }
+
     @Operation(summary = "Listar correos por destinatario")
     @GetMapping("/destinatario/{email}")
     public ResponseEntity<List<HistorialCorreoDTO>> listarPorDestinatario(@PathVariable String email) {
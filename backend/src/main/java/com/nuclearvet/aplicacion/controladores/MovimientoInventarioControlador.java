@@ -2,8 +2,13 @@ package com.nuclearvet.aplicacion.controladores;
 
 import com.nuclearvet.aplicacion.dtos.CrearMovimientoEntradaDTO;
 import com.nuclearvet.aplicacion.dtos.CrearMovimientoSalidaDTO;
+import com.nuclearvet.aplicacion.dtos.CrearRecepcionInventarioDTO;
 import com.nuclearvet.aplicacion.dtos.MovimientoInventarioDTO;
 import com.nuclearvet.aplicacion.servicios.MovimientoInventarioServicio;
+import com.nuclearvet.compartido.exportacion.ColumnaExcel;
+import com.nuclearvet.compartido.exportacion.EscritorExcel;
+import com.nuclearvet.compartido.paginacion.EscritorNdjson;
+import com.nuclearvet.compartido.paginacion.PaginaCursor;
 import com.nuclearvet.dominio.enumeraciones.TipoMovimiento;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -14,6 +19,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -27,7 +33,25 @@ import java.util.List;
 @Tag(name = "Movimientos de Inventario", description = "API para registro y consulta de movimientos de inventario")
 public class MovimientoInventarioControlador {
 
+    private static final List<ColumnaExcel<MovimientoInventarioDTO>> COLUMNAS_EXCEL = List.of(
+            ColumnaExcel.de("Número", MovimientoInventarioDTO::getNumeroMovimiento),
+            ColumnaExcel.de("Fecha", MovimientoInventarioDTO::getFechaMovimiento),
+            ColumnaExcel.de("Tipo", MovimientoInventarioDTO::getTipoMovimiento),
+            ColumnaExcel.de("Código producto", MovimientoInventarioDTO::getProductoCodigo),
+            ColumnaExcel.de("Producto", MovimientoInventarioDTO::getProductoNombre),
+            ColumnaExcel.de("Lote", MovimientoInventarioDTO::getLoteNumero),
+            ColumnaExcel.de("Cantidad", MovimientoInventarioDTO::getCantidad),
+            ColumnaExcel.de("Precio unitario", MovimientoInventarioDTO::getPrecioUnitario),
+            ColumnaExcel.de("Valor total", MovimientoInventarioDTO::getValorTotal),
+            ColumnaExcel.de("Stock anterior", MovimientoInventarioDTO::getStockAnterior),
+            ColumnaExcel.de("Stock nuevo", MovimientoInventarioDTO::getStockNuevo),
+            ColumnaExcel.de("Documento", MovimientoInventarioDTO::getNumeroDocumento),
+            ColumnaExcel.de("Usuario", MovimientoInventarioDTO::getUsuarioNombre),
+            ColumnaExcel.de("Observaciones", MovimientoInventarioDTO::getObservaciones));
+
     private final MovimientoInventarioServicio movimientoServicio;
+    private final EscritorNdjson escritorNdjson;
+    private final EscritorExcel escritorExcel;
 
     @PostMapping("/entrada")
     @Operation(summary = "Registrar entrada", description = "Registra una entrada de mercancía al inventario")
@@ -38,19 +62,49 @@ public class MovimientoInventarioControlador {
     }
 
     @PostMapping("/salida")
-    @Operation(summary = "Registrar salida", description = "Registra una salida de mercancía del inventario")
-    public ResponseEntity<MovimientoInventarioDTO> registrarSalida(
+    @Operation(summary = "Registrar salida", description = "Registra una salida de mercancía del inventario; sin lote indicado " +
+            "se reparte entre lotes en orden de vencimiento (FEFO), con un movimiento por lote")
+    public ResponseEntity<List<MovimientoInventarioDTO>> registrarSalida(
             @Valid @RequestBody CrearMovimientoSalidaDTO dto,
             HttpServletRequest request) {
         return new ResponseEntity<>(movimientoServicio.registrarSalida(dto, request), HttpStatus.CREATED);
     }
 
+    @PostMapping("/recepcion")
+    @Operation(summary = "Registrar recepción", description = "Registra de una vez una entrega de proveedor: crea un lote " +
+            "y un movimiento de entrada por línea. Si alguna línea no es válida no se registra ninguna")
+    public ResponseEntity<List<MovimientoInventarioDTO>> registrarRecepcion(
+            @Valid @RequestBody CrearRecepcionInventarioDTO dto,
+            HttpServletRequest request) {
+        return new ResponseEntity<>(movimientoServicio.registrarRecepcion(dto, request), HttpStatus.CREATED);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Obtener movimiento por ID", description = "Obtiene un movimiento por su identificador")
     public ResponseEntity<MovimientoInventarioDTO> obtenerPorId(@PathVariable Long id) {
         return ResponseEntity.ok(movimientoServicio.obtenerPorId(id));
     }
 
+    @GetMapping("/pagina")
+    @Operation(summary = "Listar paginado", description = "Lista los movimientos por páginas usando un cursor (más recientes primero)")
+    public ResponseEntity<PaginaCursor<MovimientoInventarioDTO>> listarPaginados(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        return ResponseEntity.ok(movimientoServicio.listarPaginados(cursor, tamano));
+    }
+
+    @GetMapping(value = "/flujo", produces = EscritorNdjson.NDJSON)
+    @Operation(summary = "Transmitir todos", description = "Exporta todos los movimientos como NDJSON sin cargarlos en memoria")
+    public ResponseEntity<StreamingResponseBody> transmitirTodos() {
+        return escritorNdjson.respuesta(movimientoServicio::transmitirTodos);
+    }
+
+    @GetMapping(value = "/excel", produces = EscritorExcel.XLSX)
+    @Operation(summary = "Exportar a Excel", description = "Exporta todos los movimientos a .xlsx sin cargarlos en memoria")
+    public ResponseEntity<StreamingResponseBody> exportarExcel() {
+        return escritorExcel.respuesta("movimientos-inventario", COLUMNAS_EXCEL, movimientoServicio::transmitirTodos);
+    }
+
     @GetMapping("/producto/{productoId}")
     @Operation(summary = "Listar por producto", description = "Lista todos los movimientos de un producto")
     public ResponseEntity<List<MovimientoInventarioDTO>> listarPorProducto(@PathVariable Long productoId) {
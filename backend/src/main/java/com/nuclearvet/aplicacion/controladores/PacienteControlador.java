@@ -4,6 +4,8 @@ import com.nuclearvet.aplicacion.dtos.ActualizarPacienteDTO;
 import com.nuclearvet.aplicacion.dtos.CrearPacienteDTO;
 import com.nuclearvet.aplicacion.dtos.PacienteDTO;
 import com.nuclearvet.aplicacion.servicios.PacienteServicio;
+import com.nuclearvet.compartido.paginacion.EscritorNdjson;
+import com.nuclearvet.compartido.paginacion.PaginaCursor;
 import com.nuclearvet.dominio.enums.Especie;
 import com.nuclearvet.dominio.enums.EstadoPaciente;
 import io.swagger.v3.oas.annotations.Operation;
@@ -19,6 +21,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -34,6 +37,7 @@ import java.util.List;
 public class PacienteControlador {
 
     private final PacienteServicio pacienteServicio;
+    private final EscritorNdjson escritorNdjson;
 
     @Operation(summary = "Listar todos los pacientes")
     @GetMapping
@@ -42,6 +46,22 @@ public class PacienteControlador {
         return ResponseEntity.ok(pacienteServicio.listarPacientes());
     }
 
+    @Operation(summary = "Listar pacientes paginados por cursor")
+    @GetMapping("/pagina")
+    @PreAuthorize("hasAnyAuthority('ADMINISTRADOR', 'VETERINARIO', 'ASISTENTE')")
+    public ResponseEntity<PaginaCursor<PacienteDTO>> listarPacientesPaginados(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        return ResponseEntity.ok(pacienteServicio.listarPacientesPaginados(cursor, tamano));
+    }
+
+    @Operation(summary = "Transmitir todos los pacientes como NDJSON")
+    @GetMapping(value = "/flujo", produces = EscritorNdjson.NDJSON)
+    @PreAuthorize("hasAnyAuthority('ADMINISTRADOR', 'VETERINARIO', 'ASISTENTE')")
+    public ResponseEntity<StreamingResponseBody> transmitirPacientes() {
+        return escritorNdjson.respuesta(pacienteServicio::transmitirPacientes);
+    }
+
     @Operation(summary = "Listar pacientes activos")
     @GetMapping("/activos")
     @PreAuthorize("hasAnyAuthority('ADMINISTRADOR', 'VETERINARIO', 'ASISTENTE')")
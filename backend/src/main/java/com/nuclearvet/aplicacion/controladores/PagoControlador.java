@@ -2,6 +2,9 @@ package com.nuclearvet.aplicacion.controladores;
 
 import com.nuclearvet.aplicacion.dto.administrativo.PagoDTO;
 import com.nuclearvet.aplicacion.dto.administrativo.RegistrarPagoDTO;
+import com.nuclearvet.compartido.excepciones.ValidacionExcepcion;
+import com.nuclearvet.compartido.exportacion.ColumnaExcel;
+import com.nuclearvet.compartido.exportacion.EscritorExcel;
 import com.nuclearvet.dominio.enumeraciones.MetodoPago;
 import com.nuclearvet.dominio.servicios.PagoServicio;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,8 +16,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -25,7 +30,18 @@ import java.util.Map;
 @Tag(name = "Pagos", description = "Gestión de pagos y registro de transacciones")
 public class PagoControlador {
 
+    private static final List<ColumnaExcel<PagoDTO>> COLUMNAS_EXCEL = List.of(
+            ColumnaExcel.de("Número", PagoDTO::getNumeroPago),
+            ColumnaExcel.de("Fecha", PagoDTO::getFechaPago),
+            ColumnaExcel.de("Factura", PagoDTO::getFacturaNumero),
+            ColumnaExcel.de("Monto", PagoDTO::getMonto),
+            ColumnaExcel.de("Método", PagoDTO::getMetodoPago),
+            ColumnaExcel.de("Referencia", PagoDTO::getReferencia),
+            ColumnaExcel.de("Registrado por", PagoDTO::getUsuarioRegistroNombre),
+            ColumnaExcel.de("Observaciones", PagoDTO::getObservaciones));
+
     private final PagoServicio pagoServicio;
+    private final EscritorExcel escritorExcel;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'RECEPCIONISTA')")
@@ -71,6 +87,19 @@ public class PagoControlador {
         return ResponseEntity.ok(pagoServicio.listarPorRangoFechas(inicio, fin));
     }
 
+    @GetMapping(value = "/excel", produces = EscritorExcel.XLSX)
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'RECEPCIONISTA')")
+    @Operation(summary = "Exportar a Excel los pagos de un rango de fechas (ambos días incluidos)")
+    public ResponseEntity<StreamingResponseBody> exportarExcel(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin) {
+        if (fin.isBefore(inicio)) {
+            throw new ValidacionExcepcion("Rango de fechas inválido", Map.of("fin", "Debe ser igual o posterior a inicio"));
+        }
+        return escritorExcel.respuesta("pagos", COLUMNAS_EXCEL,
+                consumidor -> pagoServicio.transmitirPorRangoFechas(inicio, fin, consumidor));
+    }
+
     @GetMapping("/propietario/{propietarioId}")
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'RECEPCIONISTA', 'VETERINARIO')")
     @Operation(summary = "Listar pagos por propietario")
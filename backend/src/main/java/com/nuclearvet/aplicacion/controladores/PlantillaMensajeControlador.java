@@ -112,6 +112,14 @@ public class PlantillaMensajeControlador {
         return ResponseEntity.ok(plantillaServicio.renderizarAsunto(id, variables));
     }
 
+    @Operation(summary = "Renderizar plantilla para un lote de juegos de variables")
+    @PostMapping("/{id}/renderizar-lote")
+    public ResponseEntity<List<String>> renderizarLote(
+            @PathVariable Long id,
+            @RequestBody List<Map<String, String>> lote) {
+        return ResponseEntity.ok(plantillaServicio.renderizarLote(id, lote));
+    }
+
     @Operation(summary = "Contar plantillas por tipo")
     @GetMapping("/estadisticas/por-tipo")
     public ResponseEntity<Map<TipoPlantilla, Long>> contarPorTipo() {
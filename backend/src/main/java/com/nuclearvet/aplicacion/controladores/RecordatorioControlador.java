@@ -2,6 +2,8 @@ package com.nuclearvet.aplicacion.controladores;
 
 import com.nuclearvet.aplicacion.dto.notificaciones.CrearRecordatorioDTO;
 import com.nuclearvet.aplicacion.dto.notificaciones.RecordatorioDTO;
+import com.nuclearvet.compartido.paginacion.EscritorNdjson;
+import com.nuclearvet.compartido.paginacion.PaginaCursor;
 import com.nuclearvet.dominio.enumeraciones.TipoRecordatorio;
 import com.nuclearvet.dominio.servicios.RecordatorioServicio;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,6 +14,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -27,6 +30,7 @@ import java.util.Map;
 public class RecordatorioControlador {
 
     private final RecordatorioServicio recordatorioServicio;
+    private final EscritorNdjson escritorNdjson;
 
     @Operation(summary = "Listar todos los recordatorios")
     @GetMapping
@@ -34,6 +38,20 @@ public class RecordatorioControlador {
         return ResponseEntity.ok(recordatorioServicio.listarTodos());
     }
 
+    @Operation(summary = "Listar recordatorios paginados por cursor")
+    @GetMapping("/pagina")
+    public ResponseEntity<PaginaCursor<RecordatorioDTO>> listarPaginados(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        return ResponseEntity.ok(recordatorioServicio.listarPaginados(cursor, tamano));
+    }
+
+    @Operation(summary = "Transmitir todos los recordatorios como NDJSON")
+    @GetMapping(value = "/flujo", produces = EscritorNdjson.NDJSON)
+    public ResponseEntity<StreamingResponseBody> transmitirTodos() {
+        return escritorNdjson.respuesta(recordatorioServicio::transmitirTodos);
+    }
+
     @Operation(summary = "Listar recordatorios por paciente")
     @GetMapping("/paciente/{pacienteId}")
     public ResponseEntity<List<RecordatorioDTO>> listarPorPaciente(@PathVariable Long pacienteId) {
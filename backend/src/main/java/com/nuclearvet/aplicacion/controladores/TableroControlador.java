@@ -0,0 +1,35 @@
+package com.nuclearvet.aplicacion.controladores;
+
+import com.nuclearvet.aplicacion.dtos.TableroDTO;
+import com.nuclearvet.aplicacion.servicios.TableroServicio;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controlador REST del tablero principal. Expone cifras de toda la clínica (cartera, facturas y
+ * correos por estado), así que se limita a los mismos perfiles que el reporte de cuentas por cobrar
+ */
+@RestController
+@RequestMapping("/api/tablero")
+@RequiredArgsConstructor
+@Tag(name = "Tablero", description = "Indicadores del tablero principal")
+@SecurityRequirement(name = "bearer-jwt")
+@PreAuthorize("hasAnyAuthority('ADMINISTRADOR', 'RECEPCIONISTA')")
+public class TableroControlador {
+
+    private final TableroServicio tableroServicio;
+
+    @GetMapping
+    @Operation(summary = "Obtener tablero",
+            description = "Pacientes activos, facturas y correos por estado, cuentas por cobrar, alertas de inventario y notificaciones no leídas del usuario")
+    public ResponseEntity<TableroDTO> obtenerTablero() {
+        return ResponseEntity.ok(tableroServicio.obtenerTablero());
+    }
+}
@@ -3,8 +3,12 @@ package com.nuclearvet.aplicacion.controladores;
 import com.nuclearvet.aplicacion.dtos.ActualizarUsuarioDTO;
 import com.nuclearvet.aplicacion.dtos.CambiarContrasenaDTO;
 import com.nuclearvet.aplicacion.dtos.CrearUsuarioDTO;
+import com.nuclearvet.aplicacion.dtos.RegistroActividadDTO;
 import com.nuclearvet.aplicacion.dtos.UsuarioDTO;
+import com.nuclearvet.aplicacion.servicios.RegistroActividadServicio;
 import com.nuclearvet.aplicacion.servicios.UsuarioServicio;
+import com.nuclearvet.compartido.paginacion.EscritorNdjson;
+import com.nuclearvet.compartido.paginacion.PaginaCursor;
 import com.nuclearvet.dominio.enums.TipoRol;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -21,8 +25,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador REST para gestión de usuarios
@@ -36,6 +42,8 @@ import java.util.List;
 public class UsuarioControlador {
 
     private final UsuarioServicio usuarioServicio;
+    private final RegistroActividadServicio registroActividadServicio;
+    private final EscritorNdjson escritorNdjson;
 
     @Operation(summary = "Listar todos los usuarios",
             description = "Obtiene la lista completa de usuarios del sistema")
@@ -162,4 +170,28 @@ public class UsuarioControlador {
         usuarioServicio.cambiarContrasena(id, cambiarContrasenaDTO, request);
         return ResponseEntity.ok().build();
     }
+
+    @Operation(summary = "Estadísticas del registro de actividad",
+            description = "Muestra el estado de la cola de escritura asíncrona del registro de actividad")
+    @GetMapping("/actividad/escritor")
+    @PreAuthorize("hasAuthority('ADMINISTRADOR')")
+    public ResponseEntity<Map<String, Object>> obtenerEstadisticasEscritorActividad() {
+        return ResponseEntity.ok(registroActividadServicio.obtenerEstadisticasEscritor());
+    }
+
+    @Operation(summary = "Registro de actividad paginado por cursor")
+    @GetMapping("/actividad/pagina")
+    @PreAuthorize("hasAuthority('ADMINISTRADOR')")
+    public ResponseEntity<PaginaCursor<RegistroActividadDTO>> obtenerActividadesPaginadas(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        return ResponseEntity.ok(registroActividadServicio.obtenerActividadesPaginadas(cursor, tamano));
+    }
+
+    @Operation(summary = "Transmitir todo el registro de actividad como NDJSON")
+    @GetMapping(value = "/actividad/flujo", produces = EscritorNdjson.NDJSON)
+    @PreAuthorize("hasAuthority('ADMINISTRADOR')")
+    public ResponseEntity<StreamingResponseBody> transmitirActividades() {
+        return escritorNdjson.respuesta(registroActividadServicio::transmitirActividades);
+    }
 }
@@ -25,6 +25,8 @@ public class HistorialCorreoDTO {
     private String plantillaNombre;
     private EstadoCorreo estado;
     private String errorMensaje;
+    private Integer intentos;
+    private LocalDateTime proximoIntento;
     private LocalDateTime fechaCreacion;
     private LocalDateTime fechaEnvio;
 }
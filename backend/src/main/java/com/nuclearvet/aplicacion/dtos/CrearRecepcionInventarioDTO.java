@@ -0,0 +1,36 @@
+package com.nuclearvet.aplicacion.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO para registrar de una vez la recepción de una entrega de proveedor (remisión completa)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CrearRecepcionInventarioDTO {
+    
+    @NotBlank(message = "El número de documento es obligatorio")
+    @Size(max = 50, message = "El número de documento no puede exceder 50 caracteres")
+    private String numeroDocumento;
+    
+    private LocalDate fechaIngreso; // Opcional, por defecto la fecha actual
+    
+    private String observaciones;
+    
+    @NotEmpty(message = "La recepción debe tener al menos una línea")
+    @Size(max = 500, message = "La recepción no puede exceder 500 líneas")
+    @Valid
+    private List<LineaRecepcionDTO> lineas;
+}
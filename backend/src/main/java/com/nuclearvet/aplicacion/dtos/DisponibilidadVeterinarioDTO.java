@@ -0,0 +1,39 @@
+package com.nuclearvet.aplicacion.dtos;
+
+import com.nuclearvet.dominio.enums.DiaSemana;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+
+/**
+ * DTO de una franja semanal de atención de un veterinario
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisponibilidadVeterinarioDTO {
+
+    private Long id;
+
+    private Long veterinarioId;
+
+    @NotNull(message = "El día de la semana es obligatorio")
+    @Schema(description = "Día de la semana", example = "LUNES")
+    private DiaSemana diaSemana;
+
+    @NotNull(message = "La hora de inicio es obligatoria")
+    @Schema(description = "Hora de inicio", example = "08:00:00")
+    private LocalTime horaInicio;
+
+    @NotNull(message = "La hora de fin es obligatoria")
+    @Schema(description = "Hora de fin", example = "12:00:00")
+    private LocalTime horaFin;
+
+    private Boolean activo;
+}
@@ -0,0 +1,26 @@
+package com.nuclearvet.aplicacion.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de un hueco libre en la agenda de un veterinario
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HuecoAgendaDTO {
+
+    private Long veterinarioId;
+
+    private String veterinarioNombre;
+
+    private LocalDateTime inicio;
+
+    private LocalDateTime fin;
+}
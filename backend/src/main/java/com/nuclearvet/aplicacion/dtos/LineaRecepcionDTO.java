@@ -0,0 +1,44 @@
+package com.nuclearvet.aplicacion.dtos;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO para una línea de una recepción de mercancía: el lote nuevo que entra al inventario
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LineaRecepcionDTO {
+    
+    @NotNull(message = "El producto es obligatorio")
+    private Long productoId;
+    
+    @NotBlank(message = "El número de lote es obligatorio")
+    @Size(max = 30, message = "El número de lote no puede exceder 30 caracteres")
+    private String numeroLote;
+    
+    private LocalDate fechaFabricacion;
+    
+    private LocalDate fechaVencimiento;
+    
+    @NotNull(message = "La cantidad es obligatoria")
+    @Min(value = 1, message = "La cantidad debe ser mayor a 0")
+    private Integer cantidad;
+    
+    @DecimalMin(value = "0.0", inclusive = false, message = "El precio de compra debe ser mayor a 0")
+    @Digits(integer = 8, fraction = 2, message = "El precio debe tener máximo 8 enteros y 2 decimales")
+    private BigDecimal precioCompraUnitario;
+    
+    @Size(max = 100, message = "La ubicación física no puede exceder 100 caracteres")
+    private String ubicacionFisica;
+    
+    private String observaciones;
+}
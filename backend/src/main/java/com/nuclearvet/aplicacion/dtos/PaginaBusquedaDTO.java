@@ -0,0 +1,27 @@
+package com.nuclearvet.aplicacion.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con una página de resultados de la búsqueda general
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaginaBusquedaDTO {
+
+    private List<ResultadoBusquedaDTO> resultados;
+
+    private Integer pagina;
+
+    private Integer tamano;
+
+    /** Total de coincidencias de la consulta en todas las páginas */
+    private Integer total;
+}
@@ -0,0 +1,32 @@
+package com.nuclearvet.aplicacion.dtos;
+
+import com.nuclearvet.dominio.enumeraciones.TipoResultadoBusqueda;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de un resultado de la búsqueda general
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultadoBusquedaDTO {
+
+    private TipoResultadoBusqueda tipo;
+
+    private Long id;
+
+    /** Nombre del paciente, propietario o producto */
+    private String titulo;
+
+    /** Código, especie, propietario, identificación o teléfono según el tipo */
+    private String detalle;
+
+    private Boolean activo;
+
+    /** Relevancia frente a la consulta; mayor es mejor */
+    private Integer puntaje;
+}
@@ -0,0 +1,38 @@
+package com.nuclearvet.aplicacion.dtos;
+
+import com.nuclearvet.dominio.enumeraciones.EstadoCorreo;
+import com.nuclearvet.dominio.enumeraciones.EstadoFactura;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO con los indicadores del tablero principal
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TableroDTO {
+
+    private Long pacientesActivos;
+
+    private Map<EstadoFactura, Long> facturasPorEstado;
+
+    private BigDecimal cuentasPorCobrar;
+
+    private Map<EstadoCorreo, Long> correosPorEstado;
+
+    private Long alertasInventarioNoLeidas;
+
+    /** Notificaciones no leídas del usuario que consulta */
+    private Long notificacionesNoLeidas;
+
+    /** Última conciliación de los contadores con la base de datos */
+    private LocalDateTime fechaConciliacion;
+}
@@ -0,0 +1,112 @@
+package com.nuclearvet.aplicacion.impresion;
+
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.HorizontalAlignment;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import com.nuclearvet.aplicacion.dto.administrativo.FacturaDTO;
+import com.nuclearvet.aplicacion.dto.administrativo.ItemFacturaDTO;
+import com.nuclearvet.aplicacion.dto.administrativo.PagoDTO;
+import com.nuclearvet.infraestructura.pdf.DocumentoPdf;
+import com.nuclearvet.infraestructura.pdf.RecursosPdf;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.nuclearvet.aplicacion.impresion.FormatoPdf.*;
+
+/**
+ * Factura imprimible con sus ítems, totales y pagos registrados
+ */
+public class DocumentoFactura implements DocumentoPdf {
+
+    private static final float[] ANCHOS_ITEMS = {5, 1, 2, 2, 2, 2};
+    private static final String[] ENCABEZADOS_ITEMS = {"Descripción", "Cant.", "Precio unitario", "Descuento", "Impuesto", "Valor"};
+    private static final float[] ANCHOS_PAGOS = {2, 2, 2, 2};
+    private static final String[] ENCABEZADOS_PAGOS = {"Número", "Fecha", "Método", "Monto"};
+
+    private final FacturaDTO factura;
+    private final List<PagoDTO> pagos;
+
+    public DocumentoFactura(FacturaDTO factura, List<PagoDTO> pagos) {
+        this.factura = factura;
+        this.pagos = pagos;
+    }
+
+    @Override
+    public String getNombreArchivo() {
+        return "factura-" + factura.getNumeroFactura() + ".pdf";
+    }
+
+    @Override
+    public void componer(Document documento, RecursosPdf.Fuentes fuentes) {
+        documento.add(titulo("Factura de venta " + factura.getNumeroFactura(), fuentes));
+
+        Table datos = datos();
+        dato(datos, "Fecha de emisión", fecha(factura.getFechaEmision()), fuentes);
+        dato(datos, "Fecha de vencimiento", fecha(factura.getFechaVencimiento()), fuentes);
+        dato(datos, "Propietario", factura.getPropietarioNombre(), fuentes);
+        dato(datos, "Paciente", factura.getPacienteNombre(), fuentes);
+        dato(datos, "Estado", factura.getEstado() != null ? factura.getEstado().getDescripcion() : null, fuentes);
+        documento.add(datos);
+
+        documento.add(seccion("Detalle", fuentes));
+        Table items = tabla(ANCHOS_ITEMS, ENCABEZADOS_ITEMS, fuentes);
+        if (factura.getItems() != null) {
+            for (ItemFacturaDTO item : factura.getItems()) {
+                BigDecimal valor = item.getPrecioUnitario() != null && item.getCantidad() != null
+                        ? item.getPrecioUnitario().multiply(BigDecimal.valueOf(item.getCantidad()))
+                        : null;
+                items.addCell(celda(item.getDescripcion()));
+                items.addCell(celdaNumero(texto(item.getCantidad())));
+                items.addCell(celdaNumero(moneda(item.getPrecioUnitario())));
+                items.addCell(celdaNumero(moneda(item.getDescuento())));
+                items.addCell(celda(item.getTipoImpuesto() != null ? item.getTipoImpuesto().getDescripcion() : null));
+                items.addCell(celdaNumero(moneda(valor)));
+            }
+        }
+        documento.add(items);
+
+        Table totales = new Table(UnitValue.createPercentArray(new float[]{2, 2}))
+                .setWidth(UnitValue.createPercentValue(40)).setHorizontalAlignment(HorizontalAlignment.RIGHT)
+                .setMarginTop(6);
+        total(totales, "Subtotal", factura.getSubtotal(), fuentes, false);
+        total(totales, "Impuestos", factura.getImpuestos(), fuentes, false);
+        total(totales, "Descuento", factura.getDescuento(), fuentes, false);
+        total(totales, "Total", factura.getTotal(), fuentes, true);
+        total(totales, "Saldo pendiente", factura.getSaldoPendiente(), fuentes, true);
+        documento.add(totales);
+
+        if (pagos != null && !pagos.isEmpty()) {
+            documento.add(seccion("Pagos", fuentes));
+            Table tablaPagos = tabla(ANCHOS_PAGOS, ENCABEZADOS_PAGOS, fuentes);
+            for (PagoDTO pago : pagos) {
+                tablaPagos.addCell(celda(pago.getNumeroPago()));
+                tablaPagos.addCell(celda(fecha(pago.getFechaPago())));
+                tablaPagos.addCell(celda(pago.getMetodoPago() != null ? pago.getMetodoPago().getDescripcion() : null));
+                tablaPagos.addCell(celdaNumero(moneda(pago.getMonto())));
+            }
+            documento.add(tablaPagos);
+        }
+
+        if (factura.getObservaciones() != null && !factura.getObservaciones().isBlank()) {
+            documento.add(seccion("Observaciones", fuentes));
+            documento.add(new Paragraph(factura.getObservaciones()));
+        }
+    }
+
+    private static void total(Table tabla, String etiqueta, BigDecimal valor, RecursosPdf.Fuentes fuentes, boolean resaltar) {
+        Paragraph texto = new Paragraph(etiqueta);
+        Paragraph monto = new Paragraph(moneda(valor));
+        if (resaltar) {
+            texto.setFont(fuentes.getNegrita());
+            monto.setFont(fuentes.getNegrita());
+        }
+        tabla.addCell(new Cell().setBorder(Border.NO_BORDER).setPadding(1).add(texto));
+        tabla.addCell(new Cell().setBorder(Border.NO_BORDER).setPadding(1).setTextAlignment(TextAlignment.RIGHT).add(monto));
+    }
+}
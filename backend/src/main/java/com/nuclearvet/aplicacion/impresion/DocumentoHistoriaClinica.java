@@ -0,0 +1,112 @@
+package com.nuclearvet.aplicacion.impresion;
+
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.nuclearvet.aplicacion.dtos.ArchivoMedicoDTO;
+import com.nuclearvet.aplicacion.dtos.ConsultaDTO;
+import com.nuclearvet.aplicacion.dtos.HistoriaClinicaDTO;
+import com.nuclearvet.infraestructura.pdf.DocumentoPdf;
+import com.nuclearvet.infraestructura.pdf.RecursosPdf;
+
+import java.util.List;
+
+import static com.nuclearvet.aplicacion.impresion.FormatoPdf.*;
+
+/**
+ * Historia clínica imprimible: antecedentes, consultas (la más reciente primero) y
+ * relación de archivos médicos
+ */
+public class DocumentoHistoriaClinica implements DocumentoPdf {
+
+    private static final float[] ANCHOS_ARCHIVOS = {4, 2, 2, 2};
+    private static final String[] ENCABEZADOS_ARCHIVOS = {"Archivo", "Tipo", "Tamaño", "Fecha"};
+
+    private final HistoriaClinicaDTO historia;
+    private final List<ConsultaDTO> consultas;
+    private final List<ArchivoMedicoDTO> archivos;
+
+    public DocumentoHistoriaClinica(HistoriaClinicaDTO historia, List<ConsultaDTO> consultas,
+                                    List<ArchivoMedicoDTO> archivos) {
+        this.historia = historia;
+        this.consultas = consultas;
+        this.archivos = archivos;
+    }
+
+    @Override
+    public String getNombreArchivo() {
+        return "historia-" + historia.getNumeroHistoria() + ".pdf";
+    }
+
+    @Override
+    public void componer(Document documento, RecursosPdf.Fuentes fuentes) {
+        documento.add(titulo("Historia clínica " + historia.getNumeroHistoria(), fuentes));
+
+        Table datos = datos();
+        dato(datos, "Paciente", historia.getPacienteNombre(), fuentes);
+        dato(datos, "Código", historia.getPacienteCodigo(), fuentes);
+        dato(datos, "Apertura", fecha(historia.getFechaCreacion()), fuentes);
+        dato(datos, "Total de consultas", consultas.size(), fuentes);
+        documento.add(datos);
+
+        documento.add(seccion("Antecedentes", fuentes));
+        Table antecedentes = datos();
+        dato(antecedentes, "Alergias", historia.getAlergiasConocidas(), fuentes);
+        dato(antecedentes, "Enfermedades crónicas", historia.getEnfermedadesCronicas(), fuentes);
+        dato(antecedentes, "Cirugías previas", historia.getCirugiasPrevias(), fuentes);
+        dato(antecedentes, "Medicamentos actuales", historia.getMedicamentosActuales(), fuentes);
+        dato(antecedentes, "Vacunas", historia.getVacunas(), fuentes);
+        dato(antecedentes, "Observaciones", historia.getObservacionesGenerales(), fuentes);
+        documento.add(antecedentes);
+
+        if (consultas.isEmpty()) {
+            documento.add(new Paragraph("Sin consultas registradas").setMarginTop(10));
+        }
+        for (ConsultaDTO consulta : consultas) {
+            documento.add(seccion("Consulta " + consulta.getNumeroConsulta() + " - " + fecha(consulta.getFechaConsulta()), fuentes));
+            Table detalle = datos();
+            dato(detalle, "Veterinario", consulta.getVeterinarioNombre(), fuentes);
+            dato(detalle, "Estado", consulta.getEstado(), fuentes);
+            dato(detalle, "Motivo", consulta.getMotivoConsulta(), fuentes);
+            dato(detalle, "Síntomas", consulta.getSintomas(), fuentes);
+            dato(detalle, "Signos vitales", signosVitales(consulta), fuentes);
+            dato(detalle, "Examen físico", consulta.getExamenFisico(), fuentes);
+            dato(detalle, "Diagnóstico", consulta.getDiagnostico(), fuentes);
+            dato(detalle, "Tratamiento", consulta.getTratamiento(), fuentes);
+            dato(detalle, "Medicamentos", consulta.getMedicamentos(), fuentes);
+            dato(detalle, "Exámenes solicitados", consulta.getExamenesSolicitados(), fuentes);
+            dato(detalle, "Recomendaciones", consulta.getRecomendaciones(), fuentes);
+            dato(detalle, "Próxima cita", fecha(consulta.getProximaCita()), fuentes);
+            documento.add(detalle);
+        }
+
+        if (!archivos.isEmpty()) {
+            documento.add(seccion("Archivos médicos", fuentes));
+            Table tabla = tabla(ANCHOS_ARCHIVOS, ENCABEZADOS_ARCHIVOS, fuentes);
+            for (ArchivoMedicoDTO archivo : archivos) {
+                tabla.addCell(celda(archivo.getNombreArchivo()));
+                tabla.addCell(celda(archivo.getTipoArchivo()));
+                tabla.addCell(celda(archivo.getTamanoFormateado()));
+                tabla.addCell(celda(fecha(archivo.getFechaSubida())));
+            }
+            documento.add(tabla);
+        }
+    }
+
+    private static String signosVitales(ConsultaDTO consulta) {
+        StringBuilder signos = new StringBuilder();
+        if (consulta.getTemperatura() != null) {
+            signos.append("Temp. ").append(consulta.getTemperatura()).append(" °C  ");
+        }
+        if (consulta.getPeso() != null) {
+            signos.append("Peso ").append(consulta.getPeso()).append(" kg  ");
+        }
+        if (consulta.getFrecuenciaCardiaca() != null) {
+            signos.append("FC ").append(consulta.getFrecuenciaCardiaca()).append(" lpm  ");
+        }
+        if (consulta.getFrecuenciaRespiratoria() != null) {
+            signos.append("FR ").append(consulta.getFrecuenciaRespiratoria()).append(" rpm");
+        }
+        return signos.toString().trim();
+    }
+}
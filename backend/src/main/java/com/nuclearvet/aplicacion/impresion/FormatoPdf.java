@@ -0,0 +1,86 @@
+package com.nuclearvet.aplicacion.impresion;
+
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import com.nuclearvet.infraestructura.pdf.RecursosPdf;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Formatos y bloques comunes a los documentos impresos
+ */
+final class FormatoPdf {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter FORMATO_FECHA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final Locale LOCALE = Locale.forLanguageTag("es-CO");
+
+    private FormatoPdf() {
+    }
+
+    static String fecha(LocalDate fecha) {
+        return fecha != null ? fecha.format(FORMATO_FECHA) : "";
+    }
+
+    static String fecha(LocalDateTime fecha) {
+        return fecha != null ? fecha.format(FORMATO_FECHA_HORA) : "";
+    }
+
+    static String moneda(BigDecimal valor) {
+        return String.format(LOCALE, "$ %,.2f", valor != null ? valor : BigDecimal.ZERO);
+    }
+
+    static String texto(Object valor) {
+        return valor != null ? valor.toString() : "";
+    }
+
+    static Paragraph titulo(String texto, RecursosPdf.Fuentes fuentes) {
+        return new Paragraph(texto).setFont(fuentes.getNegrita()).setFontSize(14).setMarginBottom(6);
+    }
+
+    static Paragraph seccion(String texto, RecursosPdf.Fuentes fuentes) {
+        return new Paragraph(texto).setFont(fuentes.getNegrita()).setFontSize(10)
+                .setMarginTop(10).setMarginBottom(4);
+    }
+
+    /**
+     * Tabla de dos columnas etiqueta / valor sin bordes
+     */
+    static Table datos() {
+        return new Table(UnitValue.createPercentArray(new float[]{1, 3})).useAllAvailableWidth();
+    }
+
+    static void dato(Table tabla, String etiqueta, Object valor, RecursosPdf.Fuentes fuentes) {
+        tabla.addCell(new Cell().setBorder(Border.NO_BORDER).setPadding(1)
+                .add(new Paragraph(etiqueta).setFont(fuentes.getNegrita())));
+        tabla.addCell(new Cell().setBorder(Border.NO_BORDER).setPadding(1).add(new Paragraph(texto(valor))));
+    }
+
+    static Table tabla(float[] anchos, String[] encabezados, RecursosPdf.Fuentes fuentes) {
+        Table tabla = new Table(UnitValue.createPercentArray(anchos)).useAllAvailableWidth();
+        for (String encabezado : encabezados) {
+            tabla.addHeaderCell(new Cell().setBackgroundColor(ColorConstants.LIGHT_GRAY)
+                    .setBorder(new SolidBorder(ColorConstants.GRAY, 0.5f))
+                    .add(new Paragraph(encabezado).setFont(fuentes.getNegrita())));
+        }
+        return tabla;
+    }
+
+    static Cell celda(Object valor) {
+        return new Cell().setBorder(new SolidBorder(ColorConstants.GRAY, 0.5f)).add(new Paragraph(texto(valor)));
+    }
+
+    static Cell celdaNumero(String valor) {
+        return celda(valor).setTextAlignment(TextAlignment.RIGHT);
+    }
+}
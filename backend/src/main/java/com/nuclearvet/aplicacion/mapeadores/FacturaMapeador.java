@@ -16,6 +16,14 @@ public interface FacturaMapeador {
     @Mapping(source = "usuarioCreador.nombreCompleto", target = "usuarioCreadorNombre")
     FacturaDTO aDTO(Factura factura);
 
+    /**
+     * Sin ítems, para exportaciones que recorren muchas facturas
+     */
+    @Named("resumen")
+    @InheritConfiguration(name = "aDTO")
+    @Mapping(target = "items", ignore = true)
+    FacturaDTO aResumenDTO(Factura factura);
+
     @Mapping(source = "propietarioId", target = "propietario.id")
     @Mapping(source = "pacienteId", target = "paciente.id")
     @Mapping(target = "numeroFactura", ignore = true)
@@ -28,6 +28,7 @@ public interface LoteMapeador {
     @Mapping(target = "fechaActualizacion", ignore = true)
     @Mapping(target = "producto", ignore = true)
     @Mapping(target = "estado", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Lote aEntidad(LoteDTO loteDTO);
 
     default Integer calcularDiasParaVencer(Lote lote) {
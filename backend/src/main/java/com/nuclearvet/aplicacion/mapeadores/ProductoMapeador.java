@@ -29,6 +29,7 @@ public interface ProductoMapeador {
     @Mapping(target = "alertas", ignore = true)
     @Mapping(target = "categoria", ignore = true)
     @Mapping(target = "proveedor", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Producto aEntidad(ProductoDTO productoDTO);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
@@ -41,5 +42,6 @@ public interface ProductoMapeador {
     @Mapping(target = "alertas", ignore = true)
     @Mapping(target = "categoria", ignore = true)
     @Mapping(target = "proveedor", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void actualizarEntidad(ProductoDTO dto, @MappingTarget Producto producto);
 }
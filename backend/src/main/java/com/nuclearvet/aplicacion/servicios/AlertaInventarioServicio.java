@@ -7,38 +7,80 @@ import com.nuclearvet.dominio.entidades.AlertaInventario;
 import com.nuclearvet.dominio.entidades.Lote;
 import com.nuclearvet.dominio.entidades.Producto;
 import com.nuclearvet.dominio.enumeraciones.EstadoLote;
+import com.nuclearvet.dominio.enumeraciones.TipoEventoPush;
+import com.nuclearvet.infraestructura.eventos.CanalEventos;
+import com.nuclearvet.infraestructura.inventario.IndiceAlertasInventario;
+import com.nuclearvet.infraestructura.inventario.TransicionEstadosLotes;
 import com.nuclearvet.infraestructura.persistencia.AlertaInventarioRepositorio;
-import com.nuclearvet.infraestructura.persistencia.LoteRepositorio;
-import com.nuclearvet.infraestructura.persistencia.ProductoRepositorio;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Servicio para gestión de alertas de inventario
+ *
+ * Las alertas se evalúan solo para los productos y lotes que cambian (entradas, salidas,
+ * creación y actualización de lotes); IndiceAlertasInventario evita duplicarlas sin
+ * consultar la base de datos. Una conciliación nocturna en una sola sentencia SQL genera
+ * las alertas que falten, por ejemplo lotes que entran en la ventana de vencimiento.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AlertaInventarioServicio {
 
+    /** Lotes por sentencia INSERT ... SELECT al generar alertas de vencimiento en bloque */
+    private static final int TAMANO_LOTE_ALERTAS = 1000;
+
     private final AlertaInventarioRepositorio alertaRepositorio;
-    private final ProductoRepositorio productoRepositorio;
-    private final LoteRepositorio loteRepositorio;
     private final AlertaInventarioMapeador alertaMapeador;
+    private final IndiceAlertasInventario indiceAlertas;
+    private final ContadoresTablero contadores;
+    private final CanalEventos canalEventos;
+
+    /**
+     * Genera la alerta de stock que corresponda al producto tras un cambio de stock
+     */
+    @Transactional
+    public void evaluarProducto(Producto producto) {
+        if (!Boolean.TRUE.equals(producto.getActivo())) {
+            return;
+        }
+        if (producto.getStockActual() == 0) {
+            generarAlertaProductoAgotado(producto);
+        } else if (producto.stockBajo()) {
+            generarAlertaStockBajo(producto);
+        }
+    }
+
+    /**
+     * Genera la alerta de vencimiento que corresponda al lote tras crearlo o modificarlo
+     */
+    @Transactional
+    public void evaluarLote(Lote lote) {
+        if (lote.getEstado() == EstadoLote.PROXIMO_VENCER) {
+            generarAlertaLoteProximoVencer(lote);
+        } else if (lote.getEstado() == EstadoLote.VENCIDO) {
+            generarAlertaLoteVencido(lote);
+        }
+    }
 
     @Transactional
     public void generarAlertaStockBajo(Producto producto) {
         log.info("Generando alerta de stock bajo para producto: {}", producto.getNombre());
 
         // Verificar si ya existe alerta activa para este producto
-        boolean existeAlerta = alertaRepositorio.existsByProductoIdAndLeidaFalse(producto.getId());
-        if (existeAlerta) {
+        if (!indiceAlertas.reservarProducto(producto.getId(), IndiceAlertasInventario.STOCK_BAJO)) {
             log.debug("Ya existe alerta activa de stock bajo para producto ID: {}", producto.getId());
             return;
         }
@@ -57,6 +99,8 @@ public class AlertaInventarioServicio {
                 .build();
 
         alertaRepositorio.save(alerta);
+        contadores.sumarAlertasNoLeidas(1);
+        publicarAlertas(alertaMapeador.aDTO(alerta), 1);
         log.info("Alerta de stock bajo generada para producto: {}", producto.getNombre());
     }
 
@@ -64,8 +108,7 @@ public class AlertaInventarioServicio {
     public void generarAlertaProductoAgotado(Producto producto) {
         log.info("Generando alerta de producto agotado: {}", producto.getNombre());
 
-        boolean existeAlerta = alertaRepositorio.existsByProductoIdAndLeidaFalse(producto.getId());
-        if (existeAlerta) {
+        if (!indiceAlertas.reservarProducto(producto.getId(), IndiceAlertasInventario.PRODUCTO_AGOTADO)) {
             return;
         }
 
@@ -80,6 +123,8 @@ public class AlertaInventarioServicio {
                 .build();
 
         alertaRepositorio.save(alerta);
+        contadores.sumarAlertasNoLeidas(1);
+        publicarAlertas(alertaMapeador.aDTO(alerta), 1);
         log.warn("Alerta de producto agotado generada: {}", producto.getNombre());
     }
 
@@ -87,8 +132,7 @@ public class AlertaInventarioServicio {
     public void generarAlertaLoteProximoVencer(Lote lote) {
         log.info("Generando alerta de lote próximo a vencer: {}", lote.getNumeroLote());
 
-        boolean existeAlerta = alertaRepositorio.existsByLoteIdAndLeidaFalse(lote.getId());
-        if (existeAlerta) {
+        if (!indiceAlertas.reservarLote(lote.getId(), IndiceAlertasInventario.PROXIMO_VENCER)) {
             return;
         }
 
@@ -108,6 +152,8 @@ public class AlertaInventarioServicio {
                 .build();
 
         alertaRepositorio.save(alerta);
+        contadores.sumarAlertasNoLeidas(1);
+        publicarAlertas(alertaMapeador.aDTO(alerta), 1);
         log.info("Alerta de lote próximo a vencer generada");
     }
 
@@ -115,8 +161,7 @@ public class AlertaInventarioServicio {
     public void generarAlertaLoteVencido(Lote lote) {
         log.info("Generando alerta de lote vencido: {}", lote.getNumeroLote());
 
-        boolean existeAlerta = alertaRepositorio.existsByLoteIdAndLeidaFalse(lote.getId());
-        if (existeAlerta) {
+        if (!indiceAlertas.reservarLote(lote.getId(), IndiceAlertasInventario.LOTE_VENCIDO)) {
             return;
         }
 
@@ -135,41 +180,60 @@ public class AlertaInventarioServicio {
                 .build();
 
         alertaRepositorio.save(alerta);
+        contadores.sumarAlertasNoLeidas(1);
+        publicarAlertas(alertaMapeador.aDTO(alerta), 1);
         log.warn("Alerta de lote vencido generada");
     }
 
+    /**
+     * Genera por lotes de sentencias las alertas de vencimiento de los lotes que acaban de
+     * cambiar de estado, omitiendo los que ya tienen una alerta abierta igual o más grave
+     *
+     * @param tipo PROXIMO_VENCER o LOTE_VENCIDO
+     * @return cantidad de alertas generadas
+     */
     @Transactional
-    public void verificarYGenerarAlertas() {
-        log.info("Verificando inventario para generar alertas automáticas");
-
-        // Productos con stock bajo
-        List<Producto> productosStockBajo = productoRepositorio.findProductosConStockBajo();
-        for (Producto producto : productosStockBajo) {
-            generarAlertaStockBajo(producto);
+    public int generarAlertasLotes(String tipo, List<Long> loteIds) {
+        List<Long> pendientes = new ArrayList<>();
+        for (Long loteId : loteIds) {
+            if (indiceAlertas.reservarLote(loteId, tipo)) {
+                pendientes.add(loteId);
+            }
         }
 
-        // Productos agotados
-        List<Producto> productosAgotados = productoRepositorio.findProductosAgotados();
-        for (Producto producto : productosAgotados) {
-            generarAlertaProductoAgotado(producto);
+        LocalDateTime ahora = LocalDateTime.now();
+        int generadas = 0;
+        for (int desde = 0; desde < pendientes.size(); desde += TAMANO_LOTE_ALERTAS) {
+            List<Long> bloque = pendientes.subList(desde, Math.min(desde + TAMANO_LOTE_ALERTAS, pendientes.size()));
+            generadas += alertaRepositorio.insertarAlertasLotes(tipo, bloque, ahora);
         }
-
-        // Lotes próximos a vencer
-        LocalDate fechaLimite = LocalDate.now().plusDays(30);
-        List<Lote> lotesProximosVencer = loteRepositorio.findLotesProximosVencer(fechaLimite);
-        for (Lote lote : lotesProximosVencer) {
-            if (lote.getEstado() == EstadoLote.PROXIMO_VENCER) {
-                generarAlertaLoteProximoVencer(lote);
-            }
+        if (generadas > 0) {
+            contadores.sumarAlertasNoLeidas(generadas);
+            publicarAlertas(null, generadas);
+            log.info("Generadas {} alertas {} de lotes", generadas, tipo);
         }
+        return generadas;
+    }
 
-        // Lotes vencidos
-        List<Lote> lotesVencidos = loteRepositorio.findLotesVencidos();
-        for (Lote lote : lotesVencidos) {
-            generarAlertaLoteVencido(lote);
+    /**
+     * Conciliación nocturna: genera en una sola sentencia las alertas que falten para todo
+     * el catálogo y vuelve a cargar el índice en memoria
+     *
+     * @return cantidad de alertas generadas
+     */
+    @Scheduled(cron = "${nuclearvet.inventario.alertas.conciliacion-cron:0 15 2 * * *}")
+    @Transactional
+    public int verificarYGenerarAlertas() {
+        log.info("Conciliando alertas de inventario");
+        LocalDate hoy = LocalDate.now();
+        int generadas = alertaRepositorio.insertarAlertasFaltantes(hoy, hoy.plusDays(TransicionEstadosLotes.DIAS_PROXIMO_VENCER), LocalDateTime.now());
+        indiceAlertas.recargarDespuesDeConfirmar();
+        contadores.sumarAlertasNoLeidas(generadas);
+        if (generadas > 0) {
+            publicarAlertas(null, generadas);
         }
-
-        log.info("Verificación de alertas completada");
+        log.info("Conciliación de alertas completada: {} alertas generadas", generadas);
+        return generadas;
     }
 
     @Transactional(readOnly = true)
@@ -204,23 +268,33 @@ public class AlertaInventarioServicio {
     public void marcarComoLeida(Long id) {
         AlertaInventario alerta = alertaRepositorio.findById(id)
                 .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Alerta no encontrada"));
+        boolean abierta = alerta.noLeida();
         alerta.marcarComoLeida();
         alertaRepositorio.save(alerta);
+        if (abierta) {
+            liberar(alerta);
+        }
         log.info("Alerta ID {} marcada como leída", id);
     }
 
     @Transactional
     public void marcarTodasComoLeidas() {
-        alertaRepositorio.marcarTodasComoLeidas();
+        int marcadas = alertaRepositorio.marcarTodasComoLeidas();
+        indiceAlertas.liberarTodas();
+        contadores.sumarAlertasNoLeidas(-marcadas);
         log.info("Todas las alertas marcadas como leídas");
     }
 
     @Transactional
     public void eliminar(Long id) {
-        if (!alertaRepositorio.existsById(id)) {
+        AlertaInventario alerta = alertaRepositorio.findByIdConRelaciones(id);
+        if (alerta == null) {
             throw new RecursoNoEncontradoExcepcion("Alerta no encontrada");
         }
-        alertaRepositorio.deleteById(id);
+        alertaRepositorio.delete(alerta);
+        if (alerta.noLeida()) {
+            liberar(alerta);
+        }
         log.info("Alerta ID {} eliminada", id);
     }
 
@@ -228,4 +302,27 @@ public class AlertaInventarioServicio {
     public long contarNoLeidas() {
         return alertaRepositorio.countByLeidaFalse();
     }
+
+    /**
+     * Avisa al personal conectado cuando la transacción confirma
+     *
+     * @param alerta alerta generada; null cuando se generaron varias en bloque
+     */
+    private void publicarAlertas(AlertaInventarioDTO alerta, int generadas) {
+        canalEventos.publicar(TipoEventoPush.ALERTA_INVENTARIO, null, () -> {
+            Map<String, Object> datos = new LinkedHashMap<>();
+            if (alerta != null) {
+                datos.put("alerta", alerta);
+            }
+            datos.put("generadas", generadas);
+            datos.put("alertasNoLeidas", contadores.getAlertasNoLeidas());
+            return datos;
+        });
+    }
+
+    private void liberar(AlertaInventario alerta) {
+        contadores.sumarAlertasNoLeidas(-1);
+        indiceAlertas.liberar(alerta.getProducto().getId(),
+                alerta.getLote() != null ? alerta.getLote().getId() : null, alerta.getTipo());
+    }
 }
@@ -9,16 +9,17 @@ import com.nuclearvet.dominio.entidades.HistoriaClinica;
 import com.nuclearvet.dominio.entidades.Usuario;
 import com.nuclearvet.dominio.enums.TipoAccion;
 import com.nuclearvet.dominio.enums.TipoArchivo;
+import com.nuclearvet.infraestructura.archivos.CalculoHuellasPendientes;
+import com.nuclearvet.infraestructura.archivos.EntregaArchivos;
 import com.nuclearvet.infraestructura.persistencia.ArchivoMedicoRepositorio;
 import com.nuclearvet.infraestructura.persistencia.ConsultaRepositorio;
 import com.nuclearvet.infraestructura.persistencia.HistoriaClinicaRepositorio;
 import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
+import com.nuclearvet.infraestructura.seguridad.UsuarioAutenticado;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -27,14 +28,18 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -52,6 +57,7 @@ public class ArchivoMedicoServicio {
     private final UsuarioRepositorio usuarioRepositorio;
     private final ArchivoMedicoMapeador archivoMedicoMapeador;
     private final RegistroActividadServicio registroActividadServicio;
+    private final CalculoHuellasPendientes calculoHuellas;
 
     @Value("${nuclearvet.archivos.ruta-base:uploads/archivos-medicos}")
     private String rutaBase;
@@ -92,15 +98,13 @@ public class ArchivoMedicoServicio {
                     .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Consulta no encontrada con ID: " + consultaId));
         }
 
-        // Obtener usuario autenticado
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String correoElectronico = authentication.getName();
-        Usuario usuario = usuarioRepositorio.findByCorreoElectronico(correoElectronico)
-                .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Usuario no encontrado"));
+        // Obtener usuario autenticado (el filtro JWT ya resolvió su ID)
+        Usuario usuario = obtenerUsuarioActual();
 
         try {
             // Guardar archivo en el sistema de archivos
-            String rutaArchivo = guardarArchivoEnDisco(archivo, historiaClinica.getNumeroHistoria());
+            MessageDigest digest = EntregaArchivos.nuevoDigest();
+            String rutaArchivo = guardarArchivoEnDisco(archivo, historiaClinica.getNumeroHistoria(), digest);
 
             // Crear registro en la base de datos
             ArchivoMedico archivoMedico = ArchivoMedico.builder()
@@ -109,6 +113,7 @@ public class ArchivoMedicoServicio {
                     .rutaArchivo(rutaArchivo)
                     .tipoContenido(archivo.getContentType())
                     .tamanoBytes(archivo.getSize())
+                    .hashContenido(HexFormat.of().formatHex(digest.digest()))
                     .descripcion(descripcion)
                     .historiaClinica(historiaClinica)
                     .consulta(consulta)
@@ -207,28 +212,25 @@ public class ArchivoMedicoServicio {
     }
 
     /**
-     * Descargar archivo
+     * Descargar archivo. Los archivos subidos antes de registrar la huella se entregan sin
+     * ella (con ETag débil) mientras se calcula en segundo plano, fuera de esta transacción
      */
     @Transactional(readOnly = true)
-    public Resource descargarArchivo(Long id) {
+    public Descarga descargarArchivo(Long id) {
         log.debug("Descargando archivo médico ID: {}", id);
-        
+
         ArchivoMedico archivoMedico = archivoMedicoRepositorio.findById(id)
                 .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Archivo médico no encontrado con ID: " + id));
-        
-        try {
-            Path rutaArchivo = Paths.get(archivoMedico.getRutaArchivo());
-            Resource resource = new UrlResource(rutaArchivo.toUri());
-            
-            if (resource.exists() && resource.isReadable()) {
-                return resource;
-            } else {
-                throw new RuntimeException("No se puede leer el archivo: " + archivoMedico.getNombreArchivo());
-            }
-        } catch (MalformedURLException e) {
-            log.error("Error al descargar archivo", e);
-            throw new RuntimeException("Error al descargar el archivo: " + e.getMessage());
+
+        Path rutaArchivo = Paths.get(archivoMedico.getRutaArchivo());
+        if (!Files.isReadable(rutaArchivo)) {
+            throw new RuntimeException("No se puede leer el archivo: " + archivoMedico.getNombreArchivo());
         }
+        if (archivoMedico.getHashContenido() == null) {
+            calculoHuellas.programar(id, rutaArchivo);
+        }
+        return new Descarga(rutaArchivo, archivoMedico.getNombreArchivo(), archivoMedico.getTipoContenido(),
+                archivoMedico.getHashContenido());
     }
 
     /**
@@ -264,10 +266,23 @@ public class ArchivoMedicoServicio {
         }
     }
 
+    /**
+     * Usuario autenticado, sin volver a consultarlo si el filtro JWT ya resolvió su ID
+     */
+    private Usuario obtenerUsuarioActual() {
+        Optional<UsuarioAutenticado> autenticado = UsuarioAutenticado.actual();
+        if (autenticado.isPresent()) {
+            return usuarioRepositorio.getReferenceById(autenticado.get().getUsuarioId());
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return usuarioRepositorio.findByCorreoElectronico(authentication.getName())
+                .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Usuario no encontrado"));
+    }
+
     /**
      * Guardar archivo en el disco
      */
-    private String guardarArchivoEnDisco(MultipartFile archivo, String numeroHistoria) throws IOException {
+    private String guardarArchivoEnDisco(MultipartFile archivo, String numeroHistoria, MessageDigest digest) throws IOException {
         // Crear directorio base si no existe
         Path directorioBase = Paths.get(rutaBase);
         if (!Files.exists(directorioBase)) {
@@ -292,8 +307,44 @@ public class ArchivoMedicoServicio {
 
         // Guardar archivo
         Path rutaDestino = directorioHistoria.resolve(nombreArchivo);
-        Files.copy(archivo.getInputStream(), rutaDestino, StandardCopyOption.REPLACE_EXISTING);
+        // La huella se calcula mientras se copia, sin volver a leer el archivo
+        try (InputStream entrada = new DigestInputStream(archivo.getInputStream(), digest)) {
+            Files.copy(entrada, rutaDestino, StandardCopyOption.REPLACE_EXISTING);
+        }
 
         return rutaDestino.toString();
     }
+
+    /**
+     * Archivo a entregar, con la huella de su contenido (null si aún no se ha calculado)
+     */
+    public static final class Descarga {
+        private final Path ruta;
+        private final String nombreArchivo;
+        private final String tipoContenido;
+        private final String hash;
+
+        public Descarga(Path ruta, String nombreArchivo, String tipoContenido, String hash) {
+            this.ruta = ruta;
+            this.nombreArchivo = nombreArchivo;
+            this.tipoContenido = tipoContenido;
+            this.hash = hash;
+        }
+
+        public Path getRuta() {
+            return ruta;
+        }
+
+        public String getNombreArchivo() {
+            return nombreArchivo;
+        }
+
+        public String getTipoContenido() {
+            return tipoContenido;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+    }
 }
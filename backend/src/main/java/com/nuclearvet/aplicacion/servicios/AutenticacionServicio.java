@@ -7,14 +7,15 @@ import com.nuclearvet.compartido.excepciones.AutenticacionExcepcion;
 import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
 import com.nuclearvet.dominio.entidades.Usuario;
 import com.nuclearvet.dominio.enums.TipoAccion;
+import com.nuclearvet.dominio.servicios.HistorialCorreoServicio;
 import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
+import com.nuclearvet.infraestructura.seguridad.CachePrincipales;
 import com.nuclearvet.infraestructura.seguridad.JwtUtil;
+import com.nuclearvet.infraestructura.seguridad.ListaRevocacionTokens;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -42,14 +43,13 @@ public class AutenticacionServicio {
     private final UsuarioRepositorio usuarioRepositorio;
     private final PasswordEncoder passwordEncoder;
     private final RegistroActividadServicio registroActividadServicio;
-    private final JavaMailSender mailSender;
+    private final HistorialCorreoServicio historialCorreoServicio;
+    private final CachePrincipales cachePrincipales;
+    private final ListaRevocacionTokens listaRevocacionTokens;
 
     @Value("${jwt.expiracion}")
     private long jwtExpiracion;
 
-    @Value("${spring.mail.username:noreply@nuclearvet.com}")
-    private String emailFrom;
-
     /**
      * Iniciar sesión y generar token JWT
      * RF1.3 - Inicio de sesión seguro
@@ -162,6 +162,8 @@ public class AutenticacionServicio {
         usuario.setFechaExpiracionToken(null);
 
         usuarioRepositorio.save(usuario);
+        cachePrincipales.invalidar(usuario.getCorreoElectronico());
+        listaRevocacionTokens.revocarUsuario(usuario.getId());
 
         // Registrar actividad
         registroActividadServicio.registrarActividad(
@@ -189,13 +191,20 @@ public class AutenticacionServicio {
     }
 
     /**
-     * Cerrar sesión (invalida el token en el cliente)
+     * Cerrar sesión (revoca el token presentado)
      */
     @Transactional
     public void cerrarSesion(String correoElectronico, HttpServletRequest request) {
         Usuario usuario = usuarioRepositorio.findByCorreoElectronico(correoElectronico)
                 .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Usuario", "correo", correoElectronico));
 
+        // Revocar el token presentado hasta su expiración
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            jwtUtil.verificar(authHeader.substring(7))
+                    .ifPresent(claims -> listaRevocacionTokens.revocar(claims.getId(), claims.getExpiration()));
+        }
+
         // Registrar actividad
         registroActividadServicio.registrarActividad(
                 usuario.getId(),
@@ -208,30 +217,24 @@ public class AutenticacionServicio {
     }
 
     /**
-     * Enviar correo de recuperación de contraseña
+     * Encolar correo de recuperación de contraseña en la bandeja de salida; se envía
+     * en segundo plano cuando la transacción confirma
      */
     private void enviarCorreoRecuperacion(String destinatario, String token) {
-        try {
-            SimpleMailMessage mensaje = new SimpleMailMessage();
-            mensaje.setFrom(emailFrom);
-            mensaje.setTo(destinatario);
-            mensaje.setSubject("Recuperación de Contraseña - NuclearVET");
-            mensaje.setText(String.format(
-                    "Hola,\n\n" +
-                            "Has solicitado recuperar tu contraseña en NuclearVET.\n\n" +
-                            "Tu token de recuperación es: %s\n\n" +
-                            "Este token es válido por 24 horas.\n\n" +
-                            "Si no solicitaste esta recuperación, ignora este correo.\n\n" +
-                            "Saludos,\n" +
-                            "Equipo NuclearVET",
-                    token
-            ));
-
-            mailSender.send(mensaje);
-            log.info("Correo de recuperación enviado a: {}", destinatario);
-        } catch (Exception e) {
-            log.error("Error al enviar correo de recuperación: {}", e.getMessage());
-            // No lanzamos excepción para no bloquear el proceso
-        }
+        historialCorreoServicio.registrar(
+                destinatario,
+                "Recuperación de Contraseña - NuclearVET",
+                String.format(
+                        "Hola,\n\n" +
+                                "Has solicitado recuperar tu contraseña en NuclearVET.\n\n" +
+                                "Tu token de recuperación es: %s\n\n" +
+                                "Este token es válido por 24 horas.\n\n" +
+                                "Si no solicitaste esta recuperación, ignora este correo.\n\n" +
+                                "Saludos,\n" +
+                                "Equipo NuclearVET",
+                        token
+                ),
+                null);
+        log.info("Correo de recuperación encolado para: {}", destinatario);
     }
 }
@@ -0,0 +1,55 @@
+package com.nuclearvet.aplicacion.servicios;
+
+import com.nuclearvet.aplicacion.dtos.PaginaBusquedaDTO;
+import com.nuclearvet.aplicacion.dtos.ResultadoBusquedaDTO;
+import com.nuclearvet.dominio.enumeraciones.TipoResultadoBusqueda;
+import com.nuclearvet.infraestructura.busqueda.IndiceBusqueda;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Servicio de la búsqueda general sobre pacientes, propietarios y productos.
+ * Se atiende desde el índice en memoria, sin consultar la base de datos
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BusquedaServicio {
+
+    static final int TAMANO_POR_DEFECTO = 20;
+    static final int TAMANO_MAXIMO = 100;
+
+    private final IndiceBusqueda indiceBusqueda;
+
+    public PaginaBusquedaDTO buscar(String consulta, List<TipoResultadoBusqueda> tipos, Integer pagina, Integer tamano) {
+        int numeroPagina = pagina == null || pagina < 0 ? 0 : pagina;
+        int limite = tamano == null || tamano <= 0 ? TAMANO_POR_DEFECTO : Math.min(tamano, TAMANO_MAXIMO);
+        Set<TipoResultadoBusqueda> filtro = tipos == null || tipos.isEmpty()
+                ? EnumSet.noneOf(TipoResultadoBusqueda.class) : EnumSet.copyOf(tipos);
+        log.debug("Búsqueda general: '{}' en {} (página {})", consulta, filtro, numeroPagina);
+
+        IndiceBusqueda.Resultado resultado = indiceBusqueda.buscar(consulta, filtro,
+                (int) Math.min((long) numeroPagina * limite, Integer.MAX_VALUE), limite);
+        List<ResultadoBusquedaDTO> resultados = resultado.getCoincidencias().stream()
+                .map(c -> ResultadoBusquedaDTO.builder()
+                        .tipo(c.getTipo())
+                        .id(c.getId())
+                        .titulo(c.getTitulo())
+                        .detalle(c.getDetalle())
+                        .activo(c.isActivo())
+                        .puntaje(c.getPuntaje())
+                        .build())
+                .toList();
+        return PaginaBusquedaDTO.builder()
+                .resultados(resultados)
+                .pagina(numeroPagina)
+                .tamano(limite)
+                .total(resultado.getTotal())
+                .build();
+    }
+}
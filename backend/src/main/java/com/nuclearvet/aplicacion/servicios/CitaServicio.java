@@ -4,24 +4,32 @@ import com.nuclearvet.aplicacion.dtos.CitaDTO;
 import com.nuclearvet.aplicacion.dtos.CrearCitaDTO;
 import com.nuclearvet.aplicacion.mapeadores.CitaMapeador;
 import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
+import com.nuclearvet.compartido.paginacion.CursorPaginacion;
+import com.nuclearvet.compartido.paginacion.PaginaCursor;
+import com.nuclearvet.compartido.paginacion.ProcesadorFlujo;
 import com.nuclearvet.dominio.entidades.Cita;
 import com.nuclearvet.dominio.entidades.Paciente;
 import com.nuclearvet.dominio.entidades.Propietario;
 import com.nuclearvet.dominio.entidades.Usuario;
 import com.nuclearvet.dominio.enums.EstadoCita;
 import com.nuclearvet.dominio.enums.TipoAccion;
+import com.nuclearvet.infraestructura.agenda.CacheAgendaDiaria;
+import com.nuclearvet.infraestructura.agenda.IndiceDisponibilidadVeterinario;
+import com.nuclearvet.infraestructura.numeracion.GeneradorNumeracion;
 import com.nuclearvet.infraestructura.persistencia.CitaRepositorio;
 import com.nuclearvet.infraestructura.persistencia.PacienteRepositorio;
 import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Servicio para gestión de citas
@@ -37,6 +45,10 @@ public class CitaServicio {
     private final UsuarioRepositorio usuarioRepositorio;
     private final CitaMapeador citaMapeador;
     private final RegistroActividadServicio registroActividadServicio;
+    private final IndiceDisponibilidadVeterinario indiceDisponibilidad;
+    private final GeneradorNumeracion generadorNumeracion;
+    private final ProcesadorFlujo procesadorFlujo;
+    private final CacheAgendaDiaria cacheAgenda;
 
     /**
      * Crear una nueva cita
@@ -51,9 +63,13 @@ public class CitaServicio {
         Usuario veterinario = usuarioRepositorio.findById(dto.getVeterinarioId())
                 .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Veterinario", "id", dto.getVeterinarioId()));
 
-        // Verificar disponibilidad
-        if (citaRepositorio.existeSolapamiento(veterinario.getId(), dto.getFechaHora(), 
-                dto.getFechaHora().plusMinutes(dto.getDuracionEstimada()))) {
+        // Verificar disponibilidad: el índice en memoria descarta los choques conocidos por esta
+        // instancia y la base de datos, que ven todas las instancias, tiene la última palabra
+        LocalDateTime inicio = dto.getFechaHora();
+        LocalDateTime fin = inicio.plusMinutes(dto.getDuracionEstimada());
+        IndiceDisponibilidadVeterinario.Reserva reserva = indiceDisponibilidad.reservar(veterinario.getId(), inicio, fin);
+        if (reserva.getResultado() == IndiceDisponibilidadVeterinario.Resultado.OCUPADO
+                || citaRepositorio.existeSolapamiento(veterinario.getId(), inicio, fin)) {
             throw new IllegalStateException("El veterinario no está disponible en ese horario");
         }
 
@@ -68,6 +84,8 @@ public class CitaServicio {
         cita.setNumeroCita(generarNumeroCita());
 
         Cita citaGuardada = citaRepositorio.save(cita);
+        indiceDisponibilidad.vincular(reserva, citaGuardada.getId());
+        cacheAgenda.invalidar(inicio.toLocalDate(), veterinario.getId());
 
         // Registrar actividad
         registroActividadServicio.registrarActividad(
@@ -99,6 +117,26 @@ public class CitaServicio {
         return citaMapeador.aDTOLista(citaRepositorio.findAll());
     }
 
+    /**
+     * Listar citas paginadas por cursor (más recientes primero)
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<CitaDTO> listarCitasPaginadas(String cursor, Integer tamano) {
+        CursorPaginacion desde = CursorPaginacion.decodificar(cursor);
+        int limite = CursorPaginacion.normalizarTamano(tamano);
+        List<Cita> filas = citaRepositorio.findPaginaAnteriorA(desde.getFecha(), desde.getId(), PageRequest.of(0, limite + 1));
+        return PaginaCursor.de(filas, limite, c -> new CursorPaginacion(c.getFechaHora(), c.getId()),
+                citaMapeador::aDTOLista);
+    }
+
+    /**
+     * Transmitir todas las citas en memoria constante
+     */
+    @Transactional(readOnly = true)
+    public void transmitirCitas(Consumer<CitaDTO> consumidor) {
+        procesadorFlujo.procesar(citaRepositorio.streamTodas(), citaMapeador::aDTO, consumidor);
+    }
+
     /**
      * Listar citas por estado
      */
@@ -126,11 +164,22 @@ public class CitaServicio {
     /**
      * Listar citas por fecha
      */
-    @Transactional(readOnly = true)
     public List<CitaDTO> listarCitasPorFecha(LocalDate fecha) {
+        return obtenerAgendaDelDia(fecha, null).getCitas();
+    }
+
+    /**
+     * Agenda del día, de toda la clínica o de un veterinario, desde el cache de agendas.
+     * Fuera de transacción: si la agenda está en el cache no se consulta la base de datos
+     *
+     * @param veterinarioId veterinario; null para todos
+     */
+    public CacheAgendaDiaria.Instantanea<CitaDTO> obtenerAgendaDelDia(LocalDate fecha, Long veterinarioId) {
         LocalDateTime inicio = fecha.atStartOfDay();
         LocalDateTime fin = fecha.plusDays(1).atStartOfDay();
-        return citaMapeador.aDTOLista(citaRepositorio.findByFechaHoraBetween(inicio, fin));
+        return cacheAgenda.obtener(fecha, veterinarioId, () -> citaMapeador.aDTOLista(veterinarioId == null
+                ? citaRepositorio.findCitasDelDia(inicio, fin)
+                : citaRepositorio.findCitasDelDiaPorVeterinario(veterinarioId, inicio, fin)));
     }
 
     /**
@@ -143,6 +192,8 @@ public class CitaServicio {
 
         cita.setEstado(EstadoCita.CONFIRMADA);
         Cita citaActualizada = citaRepositorio.save(cita);
+        indiceDisponibilidad.registrar(citaActualizada);
+        cacheAgenda.invalidar(cita.getFechaHora().toLocalDate(), cita.getVeterinario().getId());
 
         registroActividadServicio.registrarActividad(
                 cita.getVeterinario().getId(),
@@ -166,6 +217,8 @@ public class CitaServicio {
         cita.setObservaciones((cita.getObservaciones() != null ? cita.getObservaciones() + "\n" : "") 
                 + "CANCELADA: " + motivo);
         citaRepositorio.save(cita);
+        indiceDisponibilidad.liberar(cita.getVeterinario().getId(), cita.getId());
+        cacheAgenda.invalidar(cita.getFechaHora().toLocalDate(), cita.getVeterinario().getId());
 
         registroActividadServicio.registrarActividad(
                 cita.getVeterinario().getId(),
@@ -181,9 +234,9 @@ public class CitaServicio {
      * Generar número único de cita
      */
     private String generarNumeroCita() {
-        LocalDateTime now = LocalDateTime.now();
-        long count = citaRepositorio.count() + 1;
+        LocalDate hoy = LocalDate.now();
+        long consecutivo = generadorNumeracion.siguiente("CIT", GeneradorNumeracion.Periodicidad.DIARIA, hoy);
         return String.format("CIT-%04d%02d%02d-%05d", 
-                now.getYear(), now.getMonthValue(), now.getDayOfMonth(), count);
+                hoy.getYear(), hoy.getMonthValue(), hoy.getDayOfMonth(), consecutivo);
     }
 }
@@ -8,6 +8,9 @@ import com.nuclearvet.dominio.entidades.*;
 import com.nuclearvet.dominio.enums.EstadoCita;
 import com.nuclearvet.dominio.enums.EstadoConsulta;
 import com.nuclearvet.dominio.enums.TipoAccion;
+import com.nuclearvet.infraestructura.agenda.CacheAgendaDiaria;
+import com.nuclearvet.infraestructura.agenda.IndiceDisponibilidadVeterinario;
+import com.nuclearvet.infraestructura.numeracion.GeneradorNumeracion;
 import com.nuclearvet.infraestructura.persistencia.*;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +18,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -34,6 +38,9 @@ public class ConsultaServicio {
     private final CitaRepositorio citaRepositorio;
     private final ConsultaMapeador consultaMapeador;
     private final RegistroActividadServicio registroActividadServicio;
+    private final IndiceDisponibilidadVeterinario indiceDisponibilidad;
+    private final GeneradorNumeracion generadorNumeracion;
+    private final CacheAgendaDiaria cacheAgenda;
 
     /**
      * Crear nueva consulta
@@ -69,6 +76,7 @@ public class ConsultaServicio {
             if (cita.getEstado() == EstadoCita.CONFIRMADA) {
                 cita.setEstado(EstadoCita.EN_CURSO);
                 citaRepositorio.save(cita);
+                cacheAgenda.invalidar(cita.getFechaHora().toLocalDate(), cita.getVeterinario().getId());
             }
         }
 
@@ -230,6 +238,8 @@ public class ConsultaServicio {
             Cita cita = consulta.getCita();
             cita.setEstado(EstadoCita.COMPLETADA);
             citaRepositorio.save(cita);
+            indiceDisponibilidad.liberar(cita.getVeterinario().getId(), cita.getId());
+            cacheAgenda.invalidar(cita.getFechaHora().toLocalDate(), cita.getVeterinario().getId());
         }
 
         // Registrar actividad
@@ -302,22 +312,9 @@ public class ConsultaServicio {
      * Formato: CONS-YYYYMMDD-XXXXX
      */
     private String generarNumeroConsulta() {
-        String fecha = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String prefijo = "CONS-" + fecha + "-";
-        
-        // Buscar el último número generado hoy
-        LocalDateTime inicioDia = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime finDia = LocalDateTime.now().withHour(23).withMinute(59).withSecond(59);
-        
-        List<Consulta> consultasHoy = consultaRepositorio.findByFechaConsultaBetweenOrderByFechaConsultaDesc(inicioDia, finDia);
-        Long contador = (long) consultasHoy.size() + 1;
-        
-        String numeroConsulta;
-        do {
-            numeroConsulta = prefijo + String.format("%05d", contador);
-            contador++;
-        } while (consultaRepositorio.existsByNumeroConsulta(numeroConsulta));
-        
-        return numeroConsulta;
+        LocalDate hoy = LocalDate.now();
+        String fecha = hoy.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        long consecutivo = generadorNumeracion.siguiente("CONS", GeneradorNumeracion.Periodicidad.DIARIA, hoy);
+        return "CONS-" + fecha + "-" + String.format("%05d", consecutivo);
     }
 }
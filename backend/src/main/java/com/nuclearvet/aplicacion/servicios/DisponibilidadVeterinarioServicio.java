@@ -0,0 +1,144 @@
+package com.nuclearvet.aplicacion.servicios;
+
+import com.nuclearvet.aplicacion.dtos.DisponibilidadVeterinarioDTO;
+import com.nuclearvet.aplicacion.dtos.HuecoAgendaDTO;
+import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
+import com.nuclearvet.compartido.excepciones.ValidacionExcepcion;
+import com.nuclearvet.dominio.entidades.DisponibilidadVeterinario;
+import com.nuclearvet.dominio.entidades.Usuario;
+import com.nuclearvet.infraestructura.agenda.CalendarioDisponibilidad;
+import com.nuclearvet.infraestructura.persistencia.DisponibilidadVeterinarioRepositorio;
+import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio del horario de atención de los veterinarios y de la búsqueda de huecos libres
+ * RF3.1 - Agendamiento de citas
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DisponibilidadVeterinarioServicio {
+
+    static final int DURACION_POR_DEFECTO = 30;
+    static final int CANTIDAD_POR_DEFECTO = 10;
+    static final int CANTIDAD_MAXIMA = 100;
+
+    private final DisponibilidadVeterinarioRepositorio disponibilidadRepositorio;
+    private final UsuarioRepositorio usuarioRepositorio;
+    private final CalendarioDisponibilidad calendario;
+
+    /**
+     * Franjas semanales del veterinario, ordenadas por día y hora
+     */
+    @Transactional(readOnly = true)
+    public List<DisponibilidadVeterinarioDTO> listarHorario(Long veterinarioId) {
+        return disponibilidadRepositorio.findByVeterinarioIdOrderByDiaSemanaAscHoraInicioAsc(veterinarioId).stream()
+                .map(this::aDTO)
+                .toList();
+    }
+
+    /**
+     * Reemplaza el horario semanal completo del veterinario
+     */
+    @Transactional
+    public List<DisponibilidadVeterinarioDTO> reemplazarHorario(Long veterinarioId, List<DisponibilidadVeterinarioDTO> franjas) {
+        Usuario veterinario = usuarioRepositorio.findById(veterinarioId)
+                .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Veterinario", "id", veterinarioId));
+        validarFranjas(franjas);
+
+        disponibilidadRepositorio.eliminarPorVeterinario(veterinarioId);
+        List<DisponibilidadVeterinario> nuevas = new ArrayList<>();
+        for (DisponibilidadVeterinarioDTO franja : franjas) {
+            nuevas.add(DisponibilidadVeterinario.builder()
+                    .veterinario(veterinario)
+                    .diaSemana(franja.getDiaSemana().getNumero())
+                    .horaInicio(franja.getHoraInicio())
+                    .horaFin(franja.getHoraFin())
+                    .activo(franja.getActivo() == null || franja.getActivo())
+                    .build());
+        }
+        List<DisponibilidadVeterinario> guardadas = disponibilidadRepositorio.saveAll(nuevas);
+        calendario.recargarHorariosDespuesDeConfirmar();
+
+        log.info("Horario del veterinario {} actualizado: {} franjas", veterinarioId, guardadas.size());
+        return guardadas.stream()
+                .sorted(Comparator.comparing(DisponibilidadVeterinario::getDiaSemana)
+                        .thenComparing(DisponibilidadVeterinario::getHoraInicio))
+                .map(this::aDTO)
+                .toList();
+    }
+
+    /**
+     * Próximos huecos libres en los que cabe una cita de la duración dada.
+     * Se responde desde el calendario en memoria
+     *
+     * @param veterinarioId veterinario a consultar; null para todos
+     */
+    public List<HuecoAgendaDTO> buscarHuecos(LocalDateTime desde, Integer duracionMinutos, Integer cantidad, Long veterinarioId) {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime inicio = desde == null || desde.isBefore(ahora) ? ahora : desde;
+        int duracion = duracionMinutos == null || duracionMinutos <= 0 ? DURACION_POR_DEFECTO : duracionMinutos;
+        int limite = cantidad == null || cantidad <= 0 ? CANTIDAD_POR_DEFECTO : Math.min(cantidad, CANTIDAD_MAXIMA);
+
+        return calendario.proximosHuecos(inicio, duracion, limite, veterinarioId).stream()
+                .map(hueco -> HuecoAgendaDTO.builder()
+                        .veterinarioId(hueco.getVeterinarioId())
+                        .veterinarioNombre(hueco.getVeterinarioNombre())
+                        .inicio(hueco.getInicio())
+                        .fin(hueco.getFin())
+                        .build())
+                .toList();
+    }
+
+    private void validarFranjas(List<DisponibilidadVeterinarioDTO> franjas) {
+        Map<String, String> errores = new LinkedHashMap<>();
+        for (int i = 0; i < franjas.size(); i++) {
+            DisponibilidadVeterinarioDTO franja = franjas.get(i);
+            if (franja.getDiaSemana() == null || franja.getHoraInicio() == null || franja.getHoraFin() == null) {
+                errores.put("franjas[" + i + "]", "El día, la hora de inicio y la hora de fin son obligatorios");
+                continue;
+            }
+            if (!franja.getHoraInicio().isBefore(franja.getHoraFin())) {
+                errores.put("franjas[" + i + "]", "La hora de inicio debe ser anterior a la hora de fin");
+                continue;
+            }
+            for (int j = 0; j < i; j++) {
+                DisponibilidadVeterinarioDTO otra = franjas.get(j);
+                if (errores.containsKey("franjas[" + j + "]")) {
+                    continue;
+                }
+                if (otra.getDiaSemana() == franja.getDiaSemana()
+                        && otra.getHoraInicio().isBefore(franja.getHoraFin())
+                        && franja.getHoraInicio().isBefore(otra.getHoraFin())) {
+                    errores.put("franjas[" + i + "]", "Se solapa con la franja " + j + " del mismo día");
+                    break;
+                }
+            }
+        }
+        if (!errores.isEmpty()) {
+            throw new ValidacionExcepcion("Horario de atención inválido", errores);
+        }
+    }
+
+    private DisponibilidadVeterinarioDTO aDTO(DisponibilidadVeterinario franja) {
+        return DisponibilidadVeterinarioDTO.builder()
+                .id(franja.getId())
+                .veterinarioId(franja.getVeterinario().getId())
+                .diaSemana(franja.getDia())
+                .horaInicio(franja.getHoraInicio())
+                .horaFin(franja.getHoraFin())
+                .activo(franja.getActivo())
+                .build();
+    }
+}
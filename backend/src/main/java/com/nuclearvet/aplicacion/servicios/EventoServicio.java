@@ -0,0 +1,48 @@
+package com.nuclearvet.aplicacion.servicios;
+
+import com.nuclearvet.compartido.excepciones.AutenticacionExcepcion;
+import com.nuclearvet.infraestructura.eventos.CanalEventos;
+import com.nuclearvet.infraestructura.seguridad.UsuarioAutenticado;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Servicio del canal de eventos en vivo del usuario autenticado.
+ * Reemplaza la consulta periódica de notificaciones y alertas no leídas
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EventoServicio {
+
+    private static final String ROL_CLIENTE = "CLIENTE";
+
+    private final CanalEventos canalEventos;
+    private final ContadoresTablero contadores;
+
+    /**
+     * Abre el canal de eventos. Al conectar se envían los contadores de no leídas, así el
+     * cliente no necesita consultarlos; las alertas de inventario solo llegan al personal
+     *
+     * @param ultimoEventoId cabecera Last-Event-ID al reconectar
+     */
+    public SseEmitter suscribir(Long ultimoEventoId) {
+        UsuarioAutenticado usuario = UsuarioAutenticado.actual()
+                .orElseThrow(() -> new AutenticacionExcepcion("Se requiere un usuario autenticado"));
+        boolean personal = !ROL_CLIENTE.equals(usuario.getRol());
+
+        Map<String, Object> noLeidas = new LinkedHashMap<>();
+        noLeidas.put("notificacionesNoLeidas", contadores.getNotificacionesNoLeidas(usuario.getUsuarioId()));
+        if (personal) {
+            noLeidas.put("alertasNoLeidas", contadores.getAlertasNoLeidas());
+        }
+        log.debug("Canal de eventos abierto para usuario {} desde el evento {}", usuario.getUsuarioId(), ultimoEventoId);
+        return canalEventos.suscribir(usuario.getUsuarioId(), personal, ultimoEventoId, noLeidas);
+    }
+}
@@ -7,6 +7,7 @@ import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
 import com.nuclearvet.dominio.entidades.HistoriaClinica;
 import com.nuclearvet.dominio.entidades.Paciente;
 import com.nuclearvet.dominio.enums.TipoAccion;
+import com.nuclearvet.infraestructura.numeracion.GeneradorNumeracion;
 import com.nuclearvet.infraestructura.persistencia.HistoriaClinicaRepositorio;
 import com.nuclearvet.infraestructura.persistencia.PacienteRepositorio;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,7 +16,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
@@ -34,6 +35,7 @@ public class HistoriaClinicaServicio {
     private final PacienteRepositorio pacienteRepositorio;
     private final HistoriaClinicaMapeador historiaClinicaMapeador;
     private final RegistroActividadServicio registroActividadServicio;
+    private final GeneradorNumeracion generadorNumeracion;
 
     /**
      * Crear historia clínica para un paciente
@@ -205,10 +207,11 @@ public class HistoriaClinicaServicio {
     public Map<String, Object> obtenerEstadisticas() {
         log.debug("Obteniendo estadísticas de historias clínicas");
         
+        Object[] conteos = historiaClinicaRepositorio.contarEstadisticas().get(0);
         Map<String, Object> estadisticas = new HashMap<>();
-        estadisticas.put("totalHistoriasClinicas", historiaClinicaRepositorio.contarTotal());
-        estadisticas.put("historiasConAlergias", historiaClinicaRepositorio.findHistoriasConAlergias().size());
-        estadisticas.put("historiasConEnfermedadesCronicas", historiaClinicaRepositorio.findHistoriasConEnfermedadesCronicas().size());
+        estadisticas.put("totalHistoriasClinicas", conteos[0]);
+        estadisticas.put("historiasConAlergias", conteos[1] != null ? conteos[1] : 0L);
+        estadisticas.put("historiasConEnfermedadesCronicas", conteos[2] != null ? conteos[2] : 0L);
         
         return estadisticas;
     }
@@ -218,18 +221,9 @@ public class HistoriaClinicaServicio {
      * Formato: HIST-YYYYMMDD-XXXXX
      */
     private String generarNumeroHistoria() {
-        String fecha = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String prefijo = "HIST-" + fecha + "-";
-        
-        // Buscar el último número generado hoy
-        Long contador = historiaClinicaRepositorio.contarTotal() + 1;
-        
-        String numeroHistoria;
-        do {
-            numeroHistoria = prefijo + String.format("%05d", contador);
-            contador++;
-        } while (historiaClinicaRepositorio.existsByNumeroHistoria(numeroHistoria));
-        
-        return numeroHistoria;
+        LocalDate hoy = LocalDate.now();
+        String fecha = hoy.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        long consecutivo = generadorNumeracion.siguiente("HIST", GeneradorNumeracion.Periodicidad.DIARIA, hoy);
+        return "HIST-" + fecha + "-" + String.format("%05d", consecutivo);
     }
 }
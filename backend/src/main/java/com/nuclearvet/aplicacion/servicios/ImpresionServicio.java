@@ -0,0 +1,167 @@
+package com.nuclearvet.aplicacion.servicios;
+
+import com.nuclearvet.aplicacion.dto.administrativo.PagoDTO;
+import com.nuclearvet.aplicacion.dtos.HistoriaClinicaDTO;
+import com.nuclearvet.aplicacion.impresion.DocumentoFactura;
+import com.nuclearvet.aplicacion.impresion.DocumentoHistoriaClinica;
+import com.nuclearvet.aplicacion.mapeadores.ArchivoMedicoMapeador;
+import com.nuclearvet.aplicacion.mapeadores.ConsultaMapeador;
+import com.nuclearvet.aplicacion.mapeadores.FacturaMapeador;
+import com.nuclearvet.aplicacion.mapeadores.HistoriaClinicaMapeador;
+import com.nuclearvet.aplicacion.mapeadores.PagoMapeador;
+import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
+import com.nuclearvet.dominio.entidades.Factura;
+import com.nuclearvet.dominio.entidades.HistoriaClinica;
+import com.nuclearvet.infraestructura.pdf.DocumentoPdf;
+import com.nuclearvet.infraestructura.pdf.GeneradorPdf;
+import com.nuclearvet.infraestructura.persistencia.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Impresión de facturas e historias clínicas en PDF.
+ *
+ * Los datos se copian a DTO en una transacción de solo lectura corta y el renderizado
+ * ocurre después, en el pool de GeneradorPdf, sin conexión abierta. El cierre de mes se
+ * arma en un ZIP lote a lote: cada lote de facturas se carga, se renderiza y se escribe
+ * antes de cargar el siguiente.
+ */
+@Service
+@Slf4j
+public class ImpresionServicio {
+
+    private final FacturaRepositorio facturaRepositorio;
+    private final PagoRepositorio pagoRepositorio;
+    private final HistoriaClinicaRepositorio historiaClinicaRepositorio;
+    private final ConsultaRepositorio consultaRepositorio;
+    private final ArchivoMedicoRepositorio archivoMedicoRepositorio;
+    private final FacturaMapeador facturaMapeador;
+    private final PagoMapeador pagoMapeador;
+    private final HistoriaClinicaMapeador historiaClinicaMapeador;
+    private final ConsultaMapeador consultaMapeador;
+    private final ArchivoMedicoMapeador archivoMedicoMapeador;
+    private final GeneradorPdf generadorPdf;
+    private final TransactionTemplate lectura;
+    private final int tamanoLote;
+
+    public ImpresionServicio(
+            FacturaRepositorio facturaRepositorio,
+            PagoRepositorio pagoRepositorio,
+            HistoriaClinicaRepositorio historiaClinicaRepositorio,
+            ConsultaRepositorio consultaRepositorio,
+            ArchivoMedicoRepositorio archivoMedicoRepositorio,
+            FacturaMapeador facturaMapeador,
+            PagoMapeador pagoMapeador,
+            HistoriaClinicaMapeador historiaClinicaMapeador,
+            ConsultaMapeador consultaMapeador,
+            ArchivoMedicoMapeador archivoMedicoMapeador,
+            GeneradorPdf generadorPdf,
+            PlatformTransactionManager transactionManager,
+            @Value("${nuclearvet.pdf.tamano-lote:20}") int tamanoLote) {
+        this.facturaRepositorio = facturaRepositorio;
+        this.pagoRepositorio = pagoRepositorio;
+        this.historiaClinicaRepositorio = historiaClinicaRepositorio;
+        this.consultaRepositorio = consultaRepositorio;
+        this.archivoMedicoRepositorio = archivoMedicoRepositorio;
+        this.facturaMapeador = facturaMapeador;
+        this.pagoMapeador = pagoMapeador;
+        this.historiaClinicaMapeador = historiaClinicaMapeador;
+        this.consultaMapeador = consultaMapeador;
+        this.archivoMedicoMapeador = archivoMedicoMapeador;
+        this.generadorPdf = generadorPdf;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.tamanoLote = tamanoLote;
+    }
+
+    private DocumentoPdf documentoFactura(Long id) {
+        return lectura.execute(estado -> {
+            List<DocumentoPdf> documentos = documentosFacturas(List.of(id));
+            if (documentos.isEmpty()) {
+                throw new RecursoNoEncontradoExcepcion("Factura no encontrada con ID: " + id);
+            }
+            return documentos.get(0);
+        });
+    }
+
+    public byte[] generarFactura(Long id) {
+        log.debug("Generando PDF de la factura {}", id);
+        return generadorPdf.generar(documentoFactura(id));
+    }
+
+    private DocumentoPdf documentoHistoriaClinica(Long id) {
+        return lectura.execute(estado -> {
+            HistoriaClinica historia = historiaClinicaRepositorio.findById(id)
+                    .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Historia clínica no encontrada con ID: " + id));
+            HistoriaClinicaDTO dto = historiaClinicaMapeador.aDTO(historia);
+            return new DocumentoHistoriaClinica(dto,
+                    consultaMapeador.aDTOLista(consultaRepositorio.findByHistoriaClinicaIdOrderByFechaConsultaDesc(id)),
+                    archivoMedicoMapeador.aDTOLista(archivoMedicoRepositorio.findByHistoriaClinicaIdOrderByFechaSubidaDesc(id)));
+        });
+    }
+
+    public byte[] generarHistoriaClinica(Long id) {
+        log.debug("Generando PDF de la historia clínica {}", id);
+        return generadorPdf.generar(documentoHistoriaClinica(id));
+    }
+
+    /**
+     * Escribe en la salida un ZIP con el PDF de cada factura emitida en el mes
+     *
+     * @return cantidad de facturas incluidas
+     */
+    public int generarFacturasDelMes(YearMonth mes, OutputStream salida) throws IOException {
+        List<Long> ids = lectura.execute(estado -> facturaRepositorio.findIdsPorRangoFechas(mes.atDay(1), mes.atEndOfMonth()));
+        log.info("Generando ZIP de {} facturas de {}", ids.size(), mes);
+        Iterator<List<Long>> lotesIds = particionar(ids, tamanoLote).iterator();
+        Iterator<List<DocumentoPdf>> lotes = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return lotesIds.hasNext();
+            }
+
+            @Override
+            public List<DocumentoPdf> next() {
+                List<Long> lote = lotesIds.next();
+                return lectura.execute(estado -> documentosFacturas(lote));
+            }
+        };
+        return generadorPdf.generarZip(lotes, salida);
+    }
+
+    /**
+     * Facturas con ítems y pagos del lote, con dos consultas (requiere transacción)
+     */
+    private List<DocumentoPdf> documentosFacturas(List<Long> ids) {
+        List<Factura> facturas = facturaRepositorio.findConItemsPorIds(ids);
+        if (facturas.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<PagoDTO>> pagos = pagoRepositorio.findByFacturaIds(ids).stream()
+                .map(pagoMapeador::aDTO)
+                .collect(Collectors.groupingBy(PagoDTO::getFacturaId));
+        List<DocumentoPdf> documentos = new ArrayList<>(facturas.size());
+        for (Factura factura : facturas) {
+            documentos.add(new DocumentoFactura(facturaMapeador.aDTO(factura),
+                    pagos.getOrDefault(factura.getId(), List.of())));
+        }
+        return documentos;
+    }
+
+    private static List<List<Long>> particionar(List<Long> ids, int tamano) {
+        List<List<Long>> lotes = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += tamano) {
+            lotes.add(ids.subList(i, Math.min(i + tamano, ids.size())));
+        }
+        return lotes;
+    }
+}
@@ -6,10 +6,14 @@ import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
 import com.nuclearvet.dominio.entidades.Lote;
 import com.nuclearvet.dominio.entidades.Producto;
 import com.nuclearvet.dominio.enumeraciones.EstadoLote;
+import com.nuclearvet.infraestructura.inventario.ColaFefoLotes;
+import com.nuclearvet.infraestructura.inventario.IndiceAlertasInventario;
+import com.nuclearvet.infraestructura.inventario.TransicionEstadosLotes;
 import com.nuclearvet.infraestructura.persistencia.LoteRepositorio;
 import com.nuclearvet.infraestructura.persistencia.ProductoRepositorio;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +33,8 @@ public class LoteServicio {
     private final ProductoRepositorio productoRepositorio;
     private final AlertaInventarioServicio alertaServicio;
     private final LoteMapeador loteMapeador;
+    private final TransicionEstadosLotes transicionEstados;
+    private final ColaFefoLotes colaFefo;
 
     @Transactional
     public LoteDTO crear(LoteDTO dto) {
@@ -47,14 +53,11 @@ public class LoteServicio {
         lote.actualizarEstado(); // Calcula el estado según fecha de vencimiento
 
         Lote guardado = loteRepositorio.save(lote);
+        colaFefo.invalidar(producto.getId());
         log.info("Lote creado con ID: {}", guardado.getId());
 
-        // Generar alerta si está próximo a vencer
-        if (guardado.getEstado() == EstadoLote.PROXIMO_VENCER) {
-            alertaServicio.generarAlertaLoteProximoVencer(guardado);
-        } else if (guardado.getEstado() == EstadoLote.VENCIDO) {
-            alertaServicio.generarAlertaLoteVencido(guardado);
-        }
+        // Generar alerta si está próximo a vencer o vencido
+        alertaServicio.evaluarLote(guardado);
 
         return loteMapeador.aDTO(guardado);
     }
@@ -79,6 +82,8 @@ public class LoteServicio {
         lote.actualizarEstado();
 
         Lote actualizado = loteRepositorio.save(lote);
+        colaFefo.invalidar(actualizado.getProducto().getId());
+        alertaServicio.evaluarLote(actualizado);
         log.info("Lote ID {} actualizado", id);
 
         return loteMapeador.aDTO(actualizado);
@@ -129,29 +134,20 @@ public class LoteServicio {
         return loteMapeador.aDTOLista(loteRepositorio.findByEstado(estado));
     }
 
+    /**
+     * Recalcula el estado de todos los lotes con sentencias por conjuntos y genera las
+     * alertas de los que pasan a próximo a vencer o vencido en la misma transacción
+     */
+    @Scheduled(cron = "${nuclearvet.inventario.lotes.estados-cron:0 0 2 * * *}")
     @Transactional
     public void actualizarEstados() {
         log.info("Actualizando estados de todos los lotes");
-        List<Lote> lotes = loteRepositorio.findAll();
-        
-        for (Lote lote : lotes) {
-            EstadoLote estadoAnterior = lote.getEstado();
-            lote.actualizarEstado();
-            
-            if (estadoAnterior != lote.getEstado()) {
-                loteRepositorio.save(lote);
-                
-                // Generar alertas según nuevo estado
-                if (lote.getEstado() == EstadoLote.PROXIMO_VENCER) {
-                    alertaServicio.generarAlertaLoteProximoVencer(lote);
-                } else if (lote.getEstado() == EstadoLote.VENCIDO) {
-                    alertaServicio.generarAlertaLoteVencido(lote);
-                } else if (lote.getEstado() == EstadoLote.AGOTADO) {
-                    log.info("Lote {} agotado", lote.getNumeroLote());
-                }
-            }
-        }
-        
+        TransicionEstadosLotes.Resultado resultado = transicionEstados.aplicar(LocalDate.now());
+
+        alertaServicio.generarAlertasLotes(IndiceAlertasInventario.LOTE_VENCIDO, resultado.getVencidos());
+        alertaServicio.generarAlertasLotes(IndiceAlertasInventario.PROXIMO_VENCER, resultado.getProximosVencer());
+        colaFefo.invalidarTodas();
+
         log.info("Estados de lotes actualizados");
     }
 
@@ -163,6 +159,7 @@ public class LoteServicio {
         lote.setEstado(EstadoLote.BLOQUEADO);
         lote.setObservaciones("BLOQUEADO: " + motivo);
         loteRepositorio.save(lote);
+        colaFefo.invalidar(lote.getProducto().getId());
         log.warn("Lote ID {} bloqueado. Motivo: {}", id, motivo);
     }
 
@@ -177,6 +174,7 @@ public class LoteServicio {
 
         lote.actualizarEstado(); // Recalcula el estado correcto
         loteRepositorio.save(lote);
+        colaFefo.invalidar(lote.getProducto().getId());
         log.info("Lote ID {} desbloqueado", id);
     }
 
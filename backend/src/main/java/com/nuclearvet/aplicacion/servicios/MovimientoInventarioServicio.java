@@ -2,22 +2,36 @@ package com.nuclearvet.aplicacion.servicios;
 
 import com.nuclearvet.aplicacion.dtos.CrearMovimientoEntradaDTO;
 import com.nuclearvet.aplicacion.dtos.CrearMovimientoSalidaDTO;
+import com.nuclearvet.aplicacion.dtos.CrearRecepcionInventarioDTO;
+import com.nuclearvet.aplicacion.dtos.LineaRecepcionDTO;
 import com.nuclearvet.aplicacion.dtos.MovimientoInventarioDTO;
 import com.nuclearvet.aplicacion.mapeadores.MovimientoInventarioMapeador;
 import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
+import com.nuclearvet.compartido.excepciones.ValidacionExcepcion;
+import com.nuclearvet.compartido.paginacion.CursorPaginacion;
+import com.nuclearvet.compartido.paginacion.PaginaCursor;
+import com.nuclearvet.compartido.paginacion.ProcesadorFlujo;
 import com.nuclearvet.dominio.entidades.*;
+import com.nuclearvet.dominio.enumeraciones.EstadoLote;
 import com.nuclearvet.dominio.enumeraciones.TipoMovimiento;
+import com.nuclearvet.infraestructura.inventario.IndiceAlertasInventario;
+import com.nuclearvet.infraestructura.inventario.LibroExistencias;
+import com.nuclearvet.infraestructura.inventario.RecepcionMercancia;
+import com.nuclearvet.infraestructura.numeracion.GeneradorNumeracion;
 import com.nuclearvet.infraestructura.persistencia.*;
+import com.nuclearvet.infraestructura.seguridad.UsuarioAutenticado;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Servicio para gestión de movimientos de inventario
@@ -28,34 +42,35 @@ import java.util.List;
 public class MovimientoInventarioServicio {
 
     private final MovimientoInventarioRepositorio movimientoRepositorio;
-    private final ProductoRepositorio productoRepositorio;
-    private final LoteRepositorio loteRepositorio;
     private final UsuarioRepositorio usuarioRepositorio;
     private final AlertaInventarioServicio alertaServicio;
     private final MovimientoInventarioMapeador movimientoMapeador;
+    private final GeneradorNumeracion generadorNumeracion;
+    private final LibroExistencias libroExistencias;
+    private final RecepcionMercancia recepcionMercancia;
+    private final ProductoRepositorio productoRepositorio;
+    private final LoteRepositorio loteRepositorio;
+    private final ProcesadorFlujo procesadorFlujo;
 
     @Transactional
     public MovimientoInventarioDTO registrarEntrada(CrearMovimientoEntradaDTO dto, HttpServletRequest request) {
         log.info("Registrando entrada de inventario para producto ID: {}", dto.getProductoId());
 
-        Producto producto = productoRepositorio.findById(dto.getProductoId())
-                .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Producto no encontrado"));
-
-        Lote lote = loteRepositorio.findById(dto.getLoteId())
-                .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Lote no encontrado"));
-
         Usuario usuario = obtenerUsuarioActual(request);
 
-        int stockAnterior = producto.getStockActual();
-        int stockNuevo = stockAnterior + dto.getCantidad();
+        // Actualizar stock del producto y lote
+        LibroExistencias.Asiento asiento = libroExistencias.registrarEntrada(
+                dto.getProductoId(), dto.getLoteId(), dto.getCantidad());
+        Producto producto = asiento.getProducto();
+        Lote lote = asiento.getPartidas().get(0).getLote();
 
         MovimientoInventario movimiento = MovimientoInventario.builder()
                 .numeroMovimiento(generarNumeroMovimiento(TipoMovimiento.ENTRADA_COMPRA))
                 .tipoMovimiento(TipoMovimiento.ENTRADA_COMPRA)
                 .cantidad(dto.getCantidad())
                 .precioUnitario(lote.getPrecioCompraUnitario())
-                .stockAnterior(stockAnterior)
-                .stockNuevo(stockNuevo)
+                .stockAnterior(asiento.getStockAnterior())
+                .stockNuevo(asiento.getStockNuevo())
                 .numeroDocumento(dto.getNumeroDocumento())
                 .observaciones(dto.getObservaciones())
                 .producto(producto)
@@ -63,88 +78,186 @@ public class MovimientoInventarioServicio {
                 .usuario(usuario)
                 .build();
 
-        // Actualizar stock del producto y lote
-        producto.actualizarStock(dto.getCantidad());
-        lote.agregarCantidad(dto.getCantidad());
-
-        productoRepositorio.save(producto);
-        loteRepositorio.save(lote);
         MovimientoInventario guardado = movimientoRepositorio.save(movimiento);
 
-        log.info("Entrada registrada. Stock actualizado de {} a {}", stockAnterior, stockNuevo);
+        // Evaluar alertas solo del producto y lote afectados
+        alertaServicio.evaluarProducto(producto);
+        alertaServicio.evaluarLote(lote);
+
+        log.info("Entrada registrada. Stock actualizado de {} a {}", asiento.getStockAnterior(), asiento.getStockNuevo());
 
         return movimientoMapeador.aDTO(guardado);
     }
 
+    /**
+     * Registra la salida del lote indicado o, si no se especifica, repartida entre los lotes
+     * en orden de vencimiento (FEFO), con un movimiento por lote
+     */
     @Transactional
-    public MovimientoInventarioDTO registrarSalida(CrearMovimientoSalidaDTO dto, HttpServletRequest request) {
+    public List<MovimientoInventarioDTO> registrarSalida(CrearMovimientoSalidaDTO dto, HttpServletRequest request) {
         log.info("Registrando salida de inventario para producto ID: {}", dto.getProductoId());
 
-        Producto producto = productoRepositorio.findById(dto.getProductoId())
-                .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Producto no encontrado"));
-
-        if (!producto.tieneStock(dto.getCantidad())) {
-            throw new IllegalArgumentException("Stock insuficiente. Disponible: " + producto.getStockActual());
-        }
-
         Usuario usuario = obtenerUsuarioActual(request);
 
-        // Seleccionar lote automáticamente si no se especifica (FIFO)
-        Lote lote = null;
-        if (dto.getLoteId() != null) {
-            lote = loteRepositorio.findById(dto.getLoteId())
-                    .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Lote no encontrado"));
-            
-            if (!lote.tieneDisponible(dto.getCantidad())) {
-                throw new IllegalArgumentException("Lote no tiene cantidad suficiente");
-            }
-        } else {
-            // Seleccionar primer lote disponible (FIFO)
-            List<Lote> lotesDisponibles = loteRepositorio.findLotesDisponiblesPorProducto(dto.getProductoId());
-            for (Lote l : lotesDisponibles) {
-                if (l.tieneDisponible(dto.getCantidad())) {
-                    lote = l;
-                    break;
-                }
-            }
-            if (lote == null) {
-                throw new IllegalArgumentException("No hay lotes disponibles con cantidad suficiente");
-            }
+        LibroExistencias.Asiento asiento = libroExistencias.registrarSalida(
+                dto.getProductoId(), dto.getLoteId(), dto.getCantidad());
+        Producto producto = asiento.getProducto();
+
+        List<MovimientoInventario> movimientos = new ArrayList<>(asiento.getPartidas().size());
+        int stockAnterior = asiento.getStockAnterior();
+        for (LibroExistencias.Partida partida : asiento.getPartidas()) {
+            movimientos.add(MovimientoInventario.builder()
+                    .numeroMovimiento(generarNumeroMovimiento(dto.getTipoSalida()))
+                    .tipoMovimiento(dto.getTipoSalida())
+                    .cantidad(partida.getCantidad())
+                    .precioUnitario(producto.getPrecioVenta())
+                    .stockAnterior(stockAnterior)
+                    .stockNuevo(stockAnterior - partida.getCantidad())
+                    .numeroDocumento(dto.getNumeroDocumento())
+                    .observaciones(dto.getObservaciones())
+                    .producto(producto)
+                    .lote(partida.getLote())
+                    .usuario(usuario)
+                    .build());
+            stockAnterior -= partida.getCantidad();
         }
+        List<MovimientoInventario> guardados = movimientoRepositorio.saveAll(movimientos);
 
-        int stockAnterior = producto.getStockActual();
-        int stockNuevo = stockAnterior - dto.getCantidad();
+        // Una salida solo puede agotar lotes, lo que no genera alertas de lote
+        alertaServicio.evaluarProducto(producto);
 
-        MovimientoInventario movimiento = MovimientoInventario.builder()
-                .numeroMovimiento(generarNumeroMovimiento(dto.getTipoSalida()))
-                .tipoMovimiento(dto.getTipoSalida())
-                .cantidad(dto.getCantidad())
-                .precioUnitario(producto.getPrecioVenta())
-                .stockAnterior(stockAnterior)
-                .stockNuevo(stockNuevo)
-                .numeroDocumento(dto.getNumeroDocumento())
-                .observaciones(dto.getObservaciones())
-                .producto(producto)
-                .lote(lote)
-                .usuario(usuario)
-                .build();
+        log.info("Salida registrada en {} lote(s). Stock actualizado de {} a {}",
+                movimientos.size(), asiento.getStockAnterior(), asiento.getStockNuevo());
 
-        // Actualizar stock del producto y lote
-        producto.actualizarStock(-dto.getCantidad());
-        lote.descontarCantidad(dto.getCantidad());
+        return movimientoMapeador.aDTOLista(guardados);
+    }
 
-        productoRepositorio.save(producto);
-        loteRepositorio.save(lote);
-        MovimientoInventario guardado = movimientoRepositorio.save(movimiento);
+    /**
+     * Registra la recepción completa de una entrega de proveedor: un lote nuevo y un
+     * movimiento de entrada por línea, con el stock de todos los productos sumado en una
+     * sola sentencia. Es todo o nada: si alguna línea no es válida no se registra ninguna
+     * y se informan los errores de cada línea
+     */
+    @Transactional
+    public List<MovimientoInventarioDTO> registrarRecepcion(CrearRecepcionInventarioDTO dto, HttpServletRequest request) {
+        List<LineaRecepcionDTO> lineas = dto.getLineas();
+        log.info("Registrando recepción {} con {} líneas", dto.getNumeroDocumento(), lineas.size());
 
-        // Generar alerta si stock bajo
-        if (producto.stockBajo()) {
-            alertaServicio.generarAlertaStockBajo(producto);
+        validarRecepcion(lineas);
+        Usuario usuario = obtenerUsuarioActual(request);
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDate fechaIngreso = dto.getFechaIngreso() != null ? dto.getFechaIngreso() : ahora.toLocalDate();
+
+        // Lotes nuevos con el estado calculado como al crearlos uno a uno
+        List<Lote> lotes = new ArrayList<>(lineas.size());
+        Map<Long, Integer> cantidades = new TreeMap<>();
+        for (LineaRecepcionDTO linea : lineas) {
+            Lote lote = Lote.builder()
+                    .numeroLote(linea.getNumeroLote())
+                    .fechaIngreso(fechaIngreso)
+                    .fechaFabricacion(linea.getFechaFabricacion())
+                    .fechaVencimiento(linea.getFechaVencimiento())
+                    .cantidadInicial(linea.getCantidad())
+                    .cantidadDisponible(linea.getCantidad())
+                    .precioCompraUnitario(linea.getPrecioCompraUnitario())
+                    .ubicacionFisica(linea.getUbicacionFisica())
+                    .observaciones(linea.getObservaciones())
+                    .producto(productoRepositorio.getReferenceById(linea.getProductoId()))
+                    .build();
+            lote.actualizarEstado();
+            lotes.add(lote);
+            cantidades.merge(linea.getProductoId(), linea.getCantidad(), Integer::sum);
+        }
+        recepcionMercancia.insertarLotes(lotes, ahora);
+        Map<Long, Integer> stockNuevo = recepcionMercancia.sumarStock(cantidades, ahora);
+
+        // Un movimiento por línea, con el stock de su producto acumulado en el orden de la remisión
+        Map<Long, Integer> stockActual = new HashMap<>();
+        cantidades.forEach((productoId, cantidad) -> stockActual.put(productoId, stockNuevo.get(productoId) - cantidad));
+        List<MovimientoInventario> movimientos = new ArrayList<>(lotes.size());
+        for (int i = 0; i < lotes.size(); i++) {
+            Lote lote = lotes.get(i);
+            Long productoId = lote.getProducto().getId();
+            int stockAnterior = stockActual.get(productoId);
+            movimientos.add(MovimientoInventario.builder()
+                    .numeroMovimiento(generarNumeroMovimiento(TipoMovimiento.ENTRADA_COMPRA))
+                    .tipoMovimiento(TipoMovimiento.ENTRADA_COMPRA)
+                    .cantidad(lote.getCantidadInicial())
+                    .precioUnitario(lote.getPrecioCompraUnitario())
+                    .stockAnterior(stockAnterior)
+                    .stockNuevo(stockAnterior + lote.getCantidadInicial())
+                    .numeroDocumento(dto.getNumeroDocumento())
+                    .observaciones(lineas.get(i).getObservaciones() != null
+                            ? lineas.get(i).getObservaciones() : dto.getObservaciones())
+                    .producto(lote.getProducto())
+                    .lote(lote)
+                    .usuario(usuario)
+                    .build());
+            stockActual.put(productoId, stockAnterior + lote.getCantidadInicial());
+        }
+        recepcionMercancia.insertarMovimientos(movimientos, ahora);
+
+        // Alertas de los productos (una lectura para todos) y de los lotes que llegan por vencer
+        productoRepositorio.findAllById(cantidades.keySet()).forEach(alertaServicio::evaluarProducto);
+        List<Long> proximosVencer = new ArrayList<>();
+        List<Long> vencidos = new ArrayList<>();
+        for (Lote lote : lotes) {
+            if (lote.getEstado() == EstadoLote.PROXIMO_VENCER) {
+                proximosVencer.add(lote.getId());
+            } else if (lote.getEstado() == EstadoLote.VENCIDO) {
+                vencidos.add(lote.getId());
+            }
+        }
+        if (!proximosVencer.isEmpty()) {
+            alertaServicio.generarAlertasLotes(IndiceAlertasInventario.PROXIMO_VENCER, proximosVencer);
+        }
+        if (!vencidos.isEmpty()) {
+            alertaServicio.generarAlertasLotes(IndiceAlertasInventario.LOTE_VENCIDO, vencidos);
         }
 
-        log.info("Salida registrada. Stock actualizado de {} a {}", stockAnterior, stockNuevo);
+        log.info("Recepción {} registrada: {} lotes de {} productos", dto.getNumeroDocumento(),
+                lotes.size(), cantidades.size());
 
-        return movimientoMapeador.aDTO(guardado);
+        return movimientoMapeador.aDTOLista(movimientos);
+    }
+
+    /**
+     * Valida todas las líneas con una consulta de productos y otra de números de lote,
+     * acumulando los errores por línea (lineas[i].campo)
+     */
+    private void validarRecepcion(List<LineaRecepcionDTO> lineas) {
+        Set<Long> productoIds = new HashSet<>();
+        Set<String> numerosLote = new HashSet<>();
+        for (LineaRecepcionDTO linea : lineas) {
+            productoIds.add(linea.getProductoId());
+            numerosLote.add(linea.getNumeroLote());
+        }
+        Set<Long> productosExistentes = new HashSet<>(productoRepositorio.findIdsExistentes(productoIds));
+        Set<String> lotesExistentes = new HashSet<>(loteRepositorio.findNumerosLoteExistentes(numerosLote));
+
+        Map<String, String> errores = new LinkedHashMap<>();
+        Map<String, Integer> primeraLinea = new HashMap<>();
+        for (int i = 0; i < lineas.size(); i++) {
+            LineaRecepcionDTO linea = lineas.get(i);
+            String prefijo = "lineas[" + i + "].";
+            if (!productosExistentes.contains(linea.getProductoId())) {
+                errores.put(prefijo + "productoId", "Producto no encontrado");
+            }
+            Integer repetida = primeraLinea.putIfAbsent(linea.getNumeroLote(), i);
+            if (lotesExistentes.contains(linea.getNumeroLote())) {
+                errores.put(prefijo + "numeroLote", "Ya existe un lote con ese número");
+            } else if (repetida != null) {
+                errores.put(prefijo + "numeroLote", "Número de lote repetido en la línea " + repetida);
+            }
+            if (linea.getFechaFabricacion() != null && linea.getFechaVencimiento() != null
+                    && !linea.getFechaVencimiento().isAfter(linea.getFechaFabricacion())) {
+                errores.put(prefijo + "fechaVencimiento", "La fecha de vencimiento debe ser posterior a la de fabricación");
+            }
+        }
+        if (!errores.isEmpty()) {
+            throw new ValidacionExcepcion("La recepción tiene " + errores.size() + " error(es); no se registró ninguna línea",
+                    errores);
+        }
     }
 
     @Transactional(readOnly = true)
@@ -177,14 +290,36 @@ public class MovimientoInventarioServicio {
         return movimientoMapeador.aDTOLista(movimientoRepositorio.findMovimientosRecientes(fecha));
     }
 
+    @Transactional(readOnly = true)
+    public PaginaCursor<MovimientoInventarioDTO> listarPaginados(String cursor, Integer tamano) {
+        CursorPaginacion desde = CursorPaginacion.decodificar(cursor);
+        int limite = CursorPaginacion.normalizarTamano(tamano);
+        List<MovimientoInventario> filas = movimientoRepositorio.findPaginaAnteriorA(desde.getFecha(), desde.getId(), PageRequest.of(0, limite + 1));
+        return PaginaCursor.de(filas, limite, m -> new CursorPaginacion(m.getFechaMovimiento(), m.getId()),
+                movimientoMapeador::aDTOLista);
+    }
+
+    @Transactional(readOnly = true)
+    public void transmitirTodos(Consumer<MovimientoInventarioDTO> consumidor) {
+        procesadorFlujo.procesar(movimientoRepositorio.streamTodos(), movimientoMapeador::aDTO, consumidor);
+    }
+
     private String generarNumeroMovimiento(TipoMovimiento tipo) {
         String prefijo = tipo.name().startsWith("ENTRADA") ? "ENT" : "SAL";
-        String fecha = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        Long cantidad = movimientoRepositorio.count();
-        return String.format("MOV-%s-%s-%05d", prefijo, fecha, cantidad + 1);
+        LocalDate hoy = LocalDate.now();
+        String fecha = hoy.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        long consecutivo = generadorNumeracion.siguiente("MOV-" + prefijo, GeneradorNumeracion.Periodicidad.DIARIA, hoy);
+        return String.format("MOV-%s-%s-%05d", prefijo, fecha, consecutivo);
     }
 
+    /**
+     * Usuario de la petición, sin volver a consultarlo si el filtro JWT ya dejó su ID en la petición
+     */
     private Usuario obtenerUsuarioActual(HttpServletRequest request) {
+        Object usuarioId = request.getAttribute(UsuarioAutenticado.ATRIBUTO_USUARIO_ID);
+        if (usuarioId instanceof Long id) {
+            return usuarioRepositorio.getReferenceById(id);
+        }
         String username = (String) request.getAttribute("username");
         return usuarioRepositorio.findByEmail(username)
                 .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Usuario no encontrado"));
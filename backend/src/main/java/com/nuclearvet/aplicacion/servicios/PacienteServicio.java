@@ -5,24 +5,32 @@ import com.nuclearvet.aplicacion.dtos.CrearPacienteDTO;
 import com.nuclearvet.aplicacion.dtos.PacienteDTO;
 import com.nuclearvet.aplicacion.mapeadores.PacienteMapeador;
 import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
+import com.nuclearvet.compartido.paginacion.CursorPaginacion;
+import com.nuclearvet.compartido.paginacion.PaginaCursor;
+import com.nuclearvet.compartido.paginacion.ProcesadorFlujo;
 import com.nuclearvet.dominio.entidades.Paciente;
 import com.nuclearvet.dominio.entidades.Propietario;
 import com.nuclearvet.dominio.entidades.Usuario;
+import com.nuclearvet.dominio.enumeraciones.TipoResultadoBusqueda;
 import com.nuclearvet.dominio.enums.Especie;
 import com.nuclearvet.dominio.enums.EstadoPaciente;
+import com.nuclearvet.infraestructura.busqueda.IndiceBusqueda;
+import com.nuclearvet.infraestructura.numeracion.GeneradorNumeracion;
 import com.nuclearvet.infraestructura.persistencia.PacienteRepositorio;
 import com.nuclearvet.infraestructura.persistencia.PropietarioRepositorio;
 import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Servicio para gestión de pacientes
@@ -37,6 +45,10 @@ public class PacienteServicio {
     private final PropietarioRepositorio propietarioRepositorio;
     private final UsuarioRepositorio usuarioRepositorio;
     private final PacienteMapeador pacienteMapeador;
+    private final GeneradorNumeracion generadorNumeracion;
+    private final ProcesadorFlujo procesadorFlujo;
+    private final ContadoresTablero contadores;
+    private final IndiceBusqueda indiceBusqueda;
 
     /**
      * Crear un nuevo paciente
@@ -69,6 +81,8 @@ public class PacienteServicio {
         }
 
         paciente = pacienteRepositorio.save(paciente);
+        contadores.cambiarEstadoPaciente(null, paciente.getEstado());
+        indiceBusqueda.indexar(paciente);
 
         log.info("Paciente creado: {} - {} ({})", 
                 paciente.getCodigo(), paciente.getNombre(), paciente.getEspecie());
@@ -83,14 +97,13 @@ public class PacienteServicio {
      */
     private String generarCodigoPaciente(Especie especie) {
         String iniciales = obtenerInicialesEspecie(especie);
-        String fecha = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMM"));
+        LocalDate hoy = LocalDate.now();
+        String fecha = hoy.format(DateTimeFormatter.ofPattern("yyyyMM"));
         
-        // Buscar el último código generado para esta especie y mes
+        // Consecutivo mensual por especie (mínimo 3 dígitos)
         String patron = iniciales + fecha;
-        Long count = pacienteRepositorio.count();
-        
-        // Generar secuencial (3 dígitos)
-        String secuencial = String.format("%03d", (count % 1000) + 1);
+        long consecutivo = generadorNumeracion.siguiente("PAC-" + iniciales, GeneradorNumeracion.Periodicidad.MENSUAL, hoy);
+        String secuencial = String.format("%03d", consecutivo);
         
         return patron + secuencial;
     }
@@ -140,6 +153,26 @@ public class PacienteServicio {
         return pacienteMapeador.aDTOLista(pacientes);
     }
 
+    /**
+     * Listar pacientes paginados por cursor (más recientes primero)
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<PacienteDTO> listarPacientesPaginados(String cursor, Integer tamano) {
+        CursorPaginacion desde = CursorPaginacion.decodificar(cursor);
+        int limite = CursorPaginacion.normalizarTamano(tamano);
+        List<Paciente> filas = pacienteRepositorio.findPaginaAnteriorA(desde.getFecha(), desde.getId(), PageRequest.of(0, limite + 1));
+        return PaginaCursor.de(filas, limite, p -> new CursorPaginacion(p.getFechaRegistro(), p.getId()),
+                pacienteMapeador::aDTOLista);
+    }
+
+    /**
+     * Transmitir todos los pacientes en memoria constante
+     */
+    @Transactional(readOnly = true)
+    public void transmitirPacientes(Consumer<PacienteDTO> consumidor) {
+        procesadorFlujo.procesar(pacienteRepositorio.streamTodos(), pacienteMapeador::aDTO, consumidor);
+    }
+
     /**
      * Listar pacientes activos
      */
@@ -226,8 +259,11 @@ public class PacienteServicio {
             paciente.setVeterinarioAsignado(veterinario);
         }
 
+        EstadoPaciente estadoAnterior = paciente.getEstado();
         pacienteMapeador.actualizarEntidad(dto, paciente);
         paciente = pacienteRepositorio.save(paciente);
+        contadores.cambiarEstadoPaciente(estadoAnterior, paciente.getEstado());
+        indiceBusqueda.indexar(paciente);
 
         log.info("Paciente actualizado: {} - {}", paciente.getCodigo(), paciente.getNombre());
 
@@ -245,6 +281,8 @@ public class PacienteServicio {
         EstadoPaciente estadoAnterior = paciente.getEstado();
         paciente.setEstado(nuevoEstado);
         paciente = pacienteRepositorio.save(paciente);
+        contadores.cambiarEstadoPaciente(estadoAnterior, nuevoEstado);
+        indiceBusqueda.indexar(paciente);
 
         log.info("Estado del paciente {} cambiado de {} a {}", 
                 paciente.getCodigo(), estadoAnterior, nuevoEstado);
@@ -264,6 +302,8 @@ public class PacienteServicio {
         // (Esta validación se implementará cuando tengamos el módulo de historias clínicas)
         
         pacienteRepositorio.delete(paciente);
+        contadores.cambiarEstadoPaciente(paciente.getEstado(), null);
+        indiceBusqueda.eliminar(TipoResultadoBusqueda.PACIENTE, paciente.getId());
         log.warn("Paciente eliminado permanentemente: {}", paciente.getCodigo());
     }
 
@@ -7,6 +7,7 @@ import com.nuclearvet.dominio.entidades.CategoriaProducto;
 import com.nuclearvet.dominio.entidades.Producto;
 import com.nuclearvet.dominio.entidades.Proveedor;
 import com.nuclearvet.dominio.enumeraciones.TipoProducto;
+import com.nuclearvet.infraestructura.busqueda.IndiceBusqueda;
 import com.nuclearvet.infraestructura.persistencia.CategoriaProductoRepositorio;
 import com.nuclearvet.infraestructura.persistencia.ProductoRepositorio;
 import com.nuclearvet.infraestructura.persistencia.ProveedorRepositorio;
@@ -30,6 +31,7 @@ public class ProductoServicio {
     private final CategoriaProductoRepositorio categoriaRepositorio;
     private final ProveedorRepositorio proveedorRepositorio;
     private final ProductoMapeador productoMapeador;
+    private final IndiceBusqueda indiceBusqueda;
 
     @Transactional
     public ProductoDTO crear(ProductoDTO productoDTO) {
@@ -54,6 +56,7 @@ public class ProductoServicio {
         }
 
         Producto guardado = productoRepositorio.save(producto);
+        indiceBusqueda.indexar(guardado);
         log.info("Producto creado exitosamente con ID: {}", guardado.getId());
 
         return productoMapeador.aDTO(guardado);
@@ -86,6 +89,7 @@ public class ProductoServicio {
         }
 
         Producto actualizado = productoRepositorio.save(producto);
+        indiceBusqueda.indexar(actualizado);
         log.info("Producto actualizado exitosamente");
 
         return productoMapeador.aDTO(actualizado);
@@ -148,6 +152,7 @@ public class ProductoServicio {
         
         producto.setActivo(false);
         productoRepositorio.save(producto);
+        indiceBusqueda.indexar(producto);
         log.info("Producto desactivado exitosamente");
     }
 
@@ -159,6 +164,7 @@ public class ProductoServicio {
         
         producto.setActivo(true);
         productoRepositorio.save(producto);
+        indiceBusqueda.indexar(producto);
         log.info("Producto activado exitosamente");
     }
 
@@ -6,8 +6,10 @@ import com.nuclearvet.aplicacion.dtos.PropietarioDTO;
 import com.nuclearvet.aplicacion.mapeadores.PropietarioMapeador;
 import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
 import com.nuclearvet.dominio.entidades.Propietario;
+import com.nuclearvet.dominio.enumeraciones.TipoResultadoBusqueda;
 import com.nuclearvet.dominio.enums.TipoAccion;
 import com.nuclearvet.dominio.enums.TipoIdentificacion;
+import com.nuclearvet.infraestructura.busqueda.IndiceBusqueda;
 import com.nuclearvet.infraestructura.persistencia.PropietarioRepositorio;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +31,7 @@ public class PropietarioServicio {
     private final PropietarioRepositorio propietarioRepositorio;
     private final PropietarioMapeador propietarioMapeador;
     private final RegistroActividadServicio registroActividadServicio;
+    private final IndiceBusqueda indiceBusqueda;
 
     /**
      * Crear un nuevo propietario
@@ -43,6 +46,7 @@ public class PropietarioServicio {
 
         Propietario propietario = propietarioMapeador.aEntidad(dto);
         propietario = propietarioRepositorio.save(propietario);
+        indiceBusqueda.indexar(propietario);
 
         log.info("Propietario creado: {} - {}", propietario.getId(), propietario.getNombreCompleto());
 
@@ -142,6 +146,7 @@ public class PropietarioServicio {
 
         propietarioMapeador.actualizarEntidad(dto, propietario);
         propietario = propietarioRepositorio.save(propietario);
+        indiceBusqueda.indexar(propietario);
 
         log.info("Propietario actualizado: {} - {}", propietario.getId(), propietario.getNombreCompleto());
 
@@ -158,6 +163,7 @@ public class PropietarioServicio {
 
         propietario.setActivo(false);
         propietarioRepositorio.save(propietario);
+        indiceBusqueda.indexar(propietario);
 
         log.info("Propietario desactivado: {} - {}", propietario.getId(), propietario.getNombreCompleto());
     }
@@ -172,6 +178,7 @@ public class PropietarioServicio {
 
         propietario.setActivo(true);
         propietario = propietarioRepositorio.save(propietario);
+        indiceBusqueda.indexar(propietario);
 
         log.info("Propietario activado: {} - {}", propietario.getId(), propietario.getNombreCompleto());
 
@@ -192,6 +199,7 @@ public class PropietarioServicio {
         }
 
         propietarioRepositorio.delete(propietario);
+        indiceBusqueda.eliminar(TipoResultadoBusqueda.PROPIETARIO, propietario.getId());
         log.warn("Propietario eliminado permanentemente: {}", id);
     }
 
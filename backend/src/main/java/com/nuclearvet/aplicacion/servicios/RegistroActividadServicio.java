@@ -2,20 +2,25 @@ package com.nuclearvet.aplicacion.servicios;
 
 import com.nuclearvet.aplicacion.dtos.RegistroActividadDTO;
 import com.nuclearvet.aplicacion.mapeadores.UsuarioMapeador;
-import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
+import com.nuclearvet.compartido.paginacion.CursorPaginacion;
+import com.nuclearvet.compartido.paginacion.PaginaCursor;
+import com.nuclearvet.compartido.paginacion.ProcesadorFlujo;
 import com.nuclearvet.dominio.entidades.RegistroActividad;
-import com.nuclearvet.dominio.entidades.Usuario;
 import com.nuclearvet.dominio.enums.TipoAccion;
+import com.nuclearvet.infraestructura.auditoria.EntradaActividad;
+import com.nuclearvet.infraestructura.auditoria.EscritorRegistroActividad;
 import com.nuclearvet.infraestructura.persistencia.RegistroActividadRepositorio;
-import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Servicio para gestión de registro de actividad
@@ -27,37 +32,44 @@ import java.util.List;
 public class RegistroActividadServicio {
 
     private final RegistroActividadRepositorio registroActividadRepositorio;
-    private final UsuarioRepositorio usuarioRepositorio;
     private final UsuarioMapeador usuarioMapeador;
+    private final EscritorRegistroActividad escritorRegistroActividad;
+    private final ProcesadorFlujo procesadorFlujo;
 
     /**
-     * Registra una actividad del usuario
+     * Registra una actividad del usuario.
+     * La escritura es asíncrona y por lotes; solo ocurre si la transacción del llamador confirma.
      */
-    @Transactional
     public void registrarActividad(Long usuarioId, TipoAccion tipoAccion, String descripcion, HttpServletRequest request) {
         try {
-            Usuario usuario = usuarioRepositorio.findById(usuarioId)
-                    .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Usuario", "id", usuarioId));
+            if (usuarioId == null) {
+                log.warn("Actividad sin usuario no registrada: Acción={}, Descripción={}", tipoAccion, descripcion);
+                return;
+            }
 
             String ipOrigen = obtenerIpCliente(request);
 
-            RegistroActividad registro = RegistroActividad.builder()
-                    .usuario(usuario)
+            escritorRegistroActividad.registrar(EntradaActividad.builder()
+                    .usuarioId(usuarioId)
                     .tipoAccion(tipoAccion)
                     .descripcion(descripcion)
                     .ipOrigen(ipOrigen)
                     .fechaHora(LocalDateTime.now())
-                    .build();
+                    .build());
 
-            registroActividadRepositorio.save(registro);
-            
-            log.info("Actividad registrada: Usuario={}, Acción={}, IP={}", 
-                    usuario.getCorreoElectronico(), tipoAccion, ipOrigen);
+            log.info("Actividad registrada: UsuarioId={}, Acción={}, IP={}", usuarioId, tipoAccion, ipOrigen);
         } catch (Exception e) {
             log.error("Error al registrar actividad: {}", e.getMessage());
         }
     }
 
+    /**
+     * Estadísticas del escritor asíncrono del registro de actividad
+     */
+    public Map<String, Object> obtenerEstadisticasEscritor() {
+        return escritorRegistroActividad.obtenerEstadisticas();
+    }
+
     /**
      * Obtiene el historial de actividad de un usuario
      */
@@ -95,6 +107,26 @@ public class RegistroActividadServicio {
         return usuarioMapeador.aRegistroActividadDTOLista(registros);
     }
 
+    /**
+     * Obtiene actividades paginadas por cursor (más recientes primero)
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<RegistroActividadDTO> obtenerActividadesPaginadas(String cursor, Integer tamano) {
+        CursorPaginacion desde = CursorPaginacion.decodificar(cursor);
+        int limite = CursorPaginacion.normalizarTamano(tamano);
+        List<RegistroActividad> filas = registroActividadRepositorio.findPaginaAnteriorA(desde.getFecha(), desde.getId(), PageRequest.of(0, limite + 1));
+        return PaginaCursor.de(filas, limite, r -> new CursorPaginacion(r.getFechaHora(), r.getId()),
+                usuarioMapeador::aRegistroActividadDTOLista);
+    }
+
+    /**
+     * Transmite todas las actividades en memoria constante
+     */
+    @Transactional(readOnly = true)
+    public void transmitirActividades(Consumer<RegistroActividadDTO> consumidor) {
+        procesadorFlujo.procesar(registroActividadRepositorio.streamTodos(), usuarioMapeador::aDTO, consumidor);
+    }
+
     /**
      * Obtiene la dirección IP del cliente
      */
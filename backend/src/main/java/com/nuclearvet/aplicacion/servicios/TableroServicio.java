@@ -0,0 +1,33 @@
+package com.nuclearvet.aplicacion.servicios;
+
+import com.nuclearvet.aplicacion.dtos.TableroDTO;
+import com.nuclearvet.infraestructura.seguridad.UsuarioAutenticado;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Servicio del tablero principal. Lee los contadores en memoria, sin consultar la base de datos
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TableroServicio {
+
+    private final ContadoresTablero contadores;
+
+    public TableroDTO obtenerTablero() {
+        log.debug("Obteniendo indicadores del tablero");
+        Long usuarioId = UsuarioAutenticado.actual().map(UsuarioAutenticado::getUsuarioId).orElse(null);
+        return TableroDTO.builder()
+                .pacientesActivos(contadores.getPacientesActivos())
+                .facturasPorEstado(contadores.getFacturasPorEstado())
+                .cuentasPorCobrar(contadores.getCuentasPorCobrar())
+                .correosPorEstado(contadores.getCorreosPorEstado())
+                .alertasInventarioNoLeidas(contadores.getAlertasNoLeidas())
+                .notificacionesNoLeidas(contadores.getNotificacionesNoLeidas(usuarioId))
+                .fechaConciliacion(contadores.getUltimaConciliacion())
+                .build();
+    }
+}
@@ -11,6 +11,8 @@ import com.nuclearvet.dominio.entidades.Usuario;
 import com.nuclearvet.dominio.enums.TipoAccion;
 import com.nuclearvet.infraestructura.persistencia.RolRepositorio;
 import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
+import com.nuclearvet.infraestructura.seguridad.CachePrincipales;
+import com.nuclearvet.infraestructura.seguridad.ListaRevocacionTokens;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +21,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Servicio para gestión de usuarios
@@ -34,6 +37,8 @@ public class UsuarioServicio {
     private final UsuarioMapeador usuarioMapeador;
     private final PasswordEncoder passwordEncoder;
     private final RegistroActividadServicio registroActividadServicio;
+    private final CachePrincipales cachePrincipales;
+    private final ListaRevocacionTokens listaRevocacionTokens;
 
     /**
      * Crear un nuevo usuario
@@ -145,6 +150,9 @@ public class UsuarioServicio {
             usuarioRepositorio.existsByCorreoElectronico(dto.getCorreoElectronico())) {
             throw new IllegalArgumentException("El correo electrónico ya está en uso");
         }
+        cachePrincipales.invalidar(usuario.getCorreoElectronico());
+        String correoAnterior = usuario.getCorreoElectronico();
+        Rol rolAnterior = usuario.getRol();
 
         // Actualizar campos
         usuarioMapeador.actualizarEntidad(dto, usuario);
@@ -158,6 +166,12 @@ public class UsuarioServicio {
 
         // Guardar
         Usuario usuarioActualizado = usuarioRepositorio.save(usuario);
+        cachePrincipales.invalidar(usuarioActualizado.getCorreoElectronico());
+        if (!Objects.equals(correoAnterior, usuarioActualizado.getCorreoElectronico())
+                || rolAnterior != usuarioActualizado.getRol()) {
+            // Los tokens emitidos llevan el correo y el rol anteriores
+            listaRevocacionTokens.revocarUsuario(usuarioActualizado.getId());
+        }
 
         // Registrar actividad
         registroActividadServicio.registrarActividad(
@@ -181,6 +195,8 @@ public class UsuarioServicio {
 
         usuario.setActivo(false);
         usuarioRepositorio.save(usuario);
+        cachePrincipales.invalidar(usuario.getCorreoElectronico());
+        listaRevocacionTokens.revocarUsuario(usuario.getId());
 
         // Registrar actividad
         registroActividadServicio.registrarActividad(
@@ -237,6 +253,8 @@ public class UsuarioServicio {
         // Actualizar contraseña
         usuario.setContrasena(passwordEncoder.encode(dto.getContrasenaNueva()));
         usuarioRepositorio.save(usuario);
+        cachePrincipales.invalidar(usuario.getCorreoElectronico());
+        listaRevocacionTokens.revocarUsuario(usuario.getId());
 
         // Registrar actividad
         registroActividadServicio.registrarActividad(
@@ -258,6 +276,8 @@ public class UsuarioServicio {
                 .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Usuario", "id", id));
 
         usuarioRepositorio.delete(usuario);
+        cachePrincipales.invalidar(usuario.getCorreoElectronico());
+        listaRevocacionTokens.revocarUsuario(usuario.getId());
         log.warn("Usuario eliminado permanentemente: {}", usuario.getCorreoElectronico());
     }
 }
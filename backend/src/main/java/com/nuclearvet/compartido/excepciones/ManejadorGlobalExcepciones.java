@@ -1,5 +1,6 @@
 package com.nuclearvet.compartido.excepciones;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Manejador global de excepciones de la aplicación
@@ -49,6 +51,26 @@ public class ManejadorGlobalExcepciones {
         return new ResponseEntity<>(respuesta, HttpStatus.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> manejarConflictoConcurrente(OptimisticLockingFailureException ex) {
+        Map<String, Object> respuesta = new HashMap<>();
+        respuesta.put("timestamp", LocalDateTime.now());
+        respuesta.put("estado", HttpStatus.CONFLICT.value());
+        respuesta.put("error", "Conflicto de concurrencia");
+        respuesta.put("mensaje", "El registro fue modificado por otra operación. Vuelva a cargarlo e intente de nuevo");
+        return new ResponseEntity<>(respuesta, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, Object>> manejarSaturacion(RejectedExecutionException ex) {
+        Map<String, Object> respuesta = new HashMap<>();
+        respuesta.put("timestamp", LocalDateTime.now());
+        respuesta.put("estado", HttpStatus.SERVICE_UNAVAILABLE.value());
+        respuesta.put("error", "Servicio ocupado");
+        respuesta.put("mensaje", "Hay demasiadas solicitudes en proceso. Intente de nuevo en unos segundos");
+        return new ResponseEntity<>(respuesta, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> manejarValidacion(MethodArgumentNotValidException ex) {
         Map<String, String> errores = new HashMap<>();
@@ -66,6 +88,17 @@ public class ManejadorGlobalExcepciones {
         return new ResponseEntity<>(respuesta, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ValidacionExcepcion.class)
+    public ResponseEntity<Map<String, Object>> manejarValidacionNegocio(ValidacionExcepcion ex) {
+        Map<String, Object> respuesta = new HashMap<>();
+        respuesta.put("timestamp", LocalDateTime.now());
+        respuesta.put("estado", HttpStatus.BAD_REQUEST.value());
+        respuesta.put("error", "Errores de validación");
+        respuesta.put("mensaje", ex.getMessage());
+        respuesta.put("errores", ex.getErrores());
+        return new ResponseEntity<>(respuesta, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> manejarExcepcionGeneral(Exception ex) {
         Map<String, Object> respuesta = new HashMap<>();
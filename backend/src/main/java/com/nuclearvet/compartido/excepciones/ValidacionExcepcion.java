@@ -0,0 +1,21 @@
+package com.nuclearvet.compartido.excepciones;
+
+import java.util.Map;
+
+/**
+ * Excepción lanzada cuando una solicitud no supera las validaciones de negocio, con el
+ * mensaje de error de cada campo
+ */
+public class ValidacionExcepcion extends RuntimeException {
+
+    private final Map<String, String> errores;
+
+    public ValidacionExcepcion(String mensaje, Map<String, String> errores) {
+        super(mensaje);
+        this.errores = errores;
+    }
+
+    public Map<String, String> getErrores() {
+        return errores;
+    }
+}
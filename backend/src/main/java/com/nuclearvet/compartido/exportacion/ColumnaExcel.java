@@ -0,0 +1,29 @@
+package com.nuclearvet.compartido.exportacion;
+
+import java.util.function.Function;
+
+/**
+ * Columna de una hoja de exportación: título del encabezado y valor de cada fila
+ */
+public final class ColumnaExcel<T> {
+
+    private final String titulo;
+    private final Function<T, ?> valor;
+
+    private ColumnaExcel(String titulo, Function<T, ?> valor) {
+        this.titulo = titulo;
+        this.valor = valor;
+    }
+
+    public static <T> ColumnaExcel<T> de(String titulo, Function<T, ?> valor) {
+        return new ColumnaExcel<>(titulo, valor);
+    }
+
+    public String getTitulo() {
+        return titulo;
+    }
+
+    public Object valor(T elemento) {
+        return valor.apply(elemento);
+    }
+}
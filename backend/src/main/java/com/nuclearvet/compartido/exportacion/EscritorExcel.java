@@ -0,0 +1,160 @@
+package com.nuclearvet.compartido.exportacion;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Construye respuestas .xlsx con SXSSFWorkbook: solo las últimas filas quedan en memoria
+ * y el resto se vuelca a un archivo temporal comprimido, así que la exportación ocupa
+ * memoria constante sin importar cuántas filas produzca el servicio. Al terminar, el libro
+ * se escribe directamente en la salida de la respuesta y se borran los temporales.
+ *
+ * Si las filas superan el máximo de una hoja de Excel, continúan en una hoja nueva.
+ */
+@Component
+@Slf4j
+public class EscritorExcel {
+
+    public static final String XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private static final int FILAS_EN_MEMORIA = 100;
+    private static final int MAX_FILAS_HOJA = SpreadsheetVersion.EXCEL2007.getMaxRows();
+    private static final int ANCHO_MINIMO = 12;
+
+    public <T> ResponseEntity<StreamingResponseBody> respuesta(String nombre, List<ColumnaExcel<T>> columnas,
+                                                               Consumer<Consumer<T>> productor) {
+        StreamingResponseBody cuerpo = salida -> escribir(nombre, columnas, productor, salida);
+        String archivo = nombre + "-" + LocalDate.now() + ".xlsx";
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(XLSX))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(archivo).build().toString())
+                .body(cuerpo);
+    }
+
+    /**
+     * Escribe el libro completo en la salida
+     *
+     * @return cantidad de filas de datos escritas
+     */
+    <T> long escribir(String nombre, List<ColumnaExcel<T>> columnas, Consumer<Consumer<T>> productor,
+                      OutputStream salida) throws IOException {
+        SXSSFWorkbook libro = new SXSSFWorkbook(FILAS_EN_MEMORIA);
+        libro.setCompressTempFiles(true);
+        try {
+            Hoja<T> hoja = new Hoja<>(libro, nombre, columnas);
+            productor.accept(hoja::agregar);
+            libro.write(salida);
+            log.debug("Exportación {} completada: {} filas", nombre, hoja.filas);
+            return hoja.filas;
+        } finally {
+            libro.dispose();
+            libro.close();
+        }
+    }
+
+    /**
+     * Hoja en curso, con los estilos compartidos por todas sus celdas
+     */
+    private static final class Hoja<T> {
+        private final SXSSFWorkbook libro;
+        private final String nombre;
+        private final List<ColumnaExcel<T>> columnas;
+        private final CellStyle encabezado;
+        private final CellStyle fecha;
+        private final CellStyle fechaHora;
+        private final CellStyle moneda;
+        private SXSSFSheet actual;
+        private int fila;
+        private long filas;
+
+        private Hoja(SXSSFWorkbook libro, String nombre, List<ColumnaExcel<T>> columnas) {
+            this.libro = libro;
+            this.nombre = nombre;
+            this.columnas = columnas;
+            short formatoFecha = libro.createDataFormat().getFormat("yyyy-mm-dd");
+            short formatoFechaHora = libro.createDataFormat().getFormat("yyyy-mm-dd hh:mm");
+            short formatoMoneda = libro.createDataFormat().getFormat("#,##0.00");
+            Font negrita = libro.createFont();
+            negrita.setBold(true);
+            encabezado = libro.createCellStyle();
+            encabezado.setFont(negrita);
+            fecha = libro.createCellStyle();
+            fecha.setDataFormat(formatoFecha);
+            fechaHora = libro.createCellStyle();
+            fechaHora.setDataFormat(formatoFechaHora);
+            moneda = libro.createCellStyle();
+            moneda.setDataFormat(formatoMoneda);
+            nuevaHoja();
+        }
+
+        private void nuevaHoja() {
+            int numero = libro.getNumberOfSheets() + 1;
+            actual = libro.createSheet(numero == 1 ? nombre : nombre + " (" + numero + ")");
+            Row titulos = actual.createRow(0);
+            for (int i = 0; i < columnas.size(); i++) {
+                String titulo = columnas.get(i).getTitulo();
+                Cell celda = titulos.createCell(i);
+                celda.setCellValue(titulo);
+                celda.setCellStyle(encabezado);
+                actual.setColumnWidth(i, Math.max(ANCHO_MINIMO, titulo.length() + 2) * 256);
+            }
+            actual.createFreezePane(0, 1);
+            fila = 1;
+        }
+
+        private void agregar(T elemento) {
+            if (fila == MAX_FILAS_HOJA) {
+                nuevaHoja();
+            }
+            Row registro = actual.createRow(fila++);
+            for (int i = 0; i < columnas.size(); i++) {
+                Object valor = columnas.get(i).valor(elemento);
+                if (valor != null) {
+                    asignar(registro.createCell(i), valor);
+                }
+            }
+            filas++;
+        }
+
+        private void asignar(Cell celda, Object valor) {
+            if (valor instanceof BigDecimal decimal) {
+                celda.setCellValue(decimal.doubleValue());
+                celda.setCellStyle(moneda);
+            } else if (valor instanceof Number numero) {
+                celda.setCellValue(numero.doubleValue());
+            } else if (valor instanceof LocalDateTime instante) {
+                celda.setCellValue(instante);
+                celda.setCellStyle(fechaHora);
+            } else if (valor instanceof LocalDate dia) {
+                celda.setCellValue(dia);
+                celda.setCellStyle(fecha);
+            } else if (valor instanceof Boolean logico) {
+                celda.setCellValue(logico);
+            } else if (valor instanceof Enum<?> constante) {
+                celda.setCellValue(constante.name());
+            } else {
+                celda.setCellValue(valor.toString());
+            }
+        }
+    }
+}
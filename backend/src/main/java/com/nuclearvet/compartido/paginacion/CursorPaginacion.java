@@ -0,0 +1,65 @@
+package com.nuclearvet.compartido.paginacion;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para paginación por conjunto de claves (keyset) sobre (fecha, id).
+ * Las páginas se recorren de la más reciente a la más antigua.
+ */
+@Getter
+public final class CursorPaginacion {
+
+    public static final int TAMANO_POR_DEFECTO = 50;
+    public static final int TAMANO_MAXIMO = 500;
+
+    /**
+     * Cursor anterior a cualquier registro: devuelve la primera página
+     */
+    public static final CursorPaginacion INICIO = new CursorPaginacion(LocalDateTime.of(9999, 12, 31, 23, 59), Long.MAX_VALUE);
+
+    private final LocalDateTime fecha;
+    private final Long id;
+
+    public CursorPaginacion(LocalDateTime fecha, Long id) {
+        this.fecha = fecha;
+        this.id = id;
+    }
+
+    /**
+     * Decodifica el cursor recibido del cliente; vacío equivale a la primera página
+     */
+    public static CursorPaginacion decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return INICIO;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf('|');
+            return new CursorPaginacion(
+                    LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.valueOf(valor.substring(separador + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+
+    public String codificar() {
+        String valor = fecha + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Acota el tamaño de página solicitado
+     */
+    public static int normalizarTamano(Integer tamano) {
+        if (tamano == null || tamano <= 0) {
+            return TAMANO_POR_DEFECTO;
+        }
+        return Math.min(tamano, TAMANO_MAXIMO);
+    }
+}
@@ -0,0 +1,54 @@
+package com.nuclearvet.compartido.paginacion;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Construye respuestas NDJSON (un objeto JSON por línea) que se escriben
+ * directamente en la salida a medida que el servicio produce los elementos
+ */
+@Component
+@RequiredArgsConstructor
+public class EscritorNdjson {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final int ELEMENTOS_POR_FLUSH = 200;
+
+    private final ObjectMapper objectMapper;
+
+    public <T> ResponseEntity<StreamingResponseBody> respuesta(Consumer<Consumer<T>> productor) {
+        ObjectWriter escritor = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody cuerpo = salida -> {
+            try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+                generador.setRootValueSeparator(null);
+                long[] escritos = {0};
+                productor.accept(elemento -> {
+                    try {
+                        escritor.writeValue(generador, elemento);
+                        generador.writeRaw('\n');
+                        if (++escritos[0] % ELEMENTOS_POR_FLUSH == 0) {
+                            generador.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(cuerpo);
+    }
+}
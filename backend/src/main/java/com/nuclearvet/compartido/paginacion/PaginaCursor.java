@@ -0,0 +1,33 @@
+package com.nuclearvet.compartido.paginacion;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados con cursor para solicitar la siguiente
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursor<T> {
+
+    private List<T> elementos;
+    private String siguienteCursor;
+    private boolean hayMas;
+
+    /**
+     * Construye la página a partir de las filas leídas (se piden tamano + 1 para saber si hay más)
+     */
+    public static <E, D> PaginaCursor<D> de(List<E> filas, int tamano,
+                                            Function<E, CursorPaginacion> cursorDe,
+                                            Function<List<E>, List<D>> mapeo) {
+        boolean hayMas = filas.size() > tamano;
+        List<E> pagina = hayMas ? filas.subList(0, tamano) : filas;
+        String siguiente = hayMas ? cursorDe.apply(pagina.get(pagina.size() - 1)).codificar() : null;
+        return new PaginaCursor<>(mapeo.apply(pagina), siguiente, hayMas);
+    }
+}
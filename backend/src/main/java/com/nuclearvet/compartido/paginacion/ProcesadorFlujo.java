@@ -0,0 +1,38 @@
+package com.nuclearvet.compartido.paginacion;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Recorre un Stream de entidades JPA en memoria constante:
+ * mapea cada fila a DTO y vacía el contexto de persistencia periódicamente.
+ * Debe invocarse dentro de una transacción de solo lectura.
+ */
+@Component
+public class ProcesadorFlujo {
+
+    private static final int FILAS_POR_LIMPIEZA = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public <E, D> long procesar(Stream<E> flujo, Function<E, D> mapeo, Consumer<D> consumidor) {
+        long total = 0;
+        try (flujo) {
+            Iterator<E> iterador = flujo.iterator();
+            while (iterador.hasNext()) {
+                consumidor.accept(mapeo.apply(iterador.next()));
+                if (++total % FILAS_POR_LIMPIEZA == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return total;
+    }
+}
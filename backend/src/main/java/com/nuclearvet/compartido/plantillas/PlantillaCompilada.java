@@ -0,0 +1,112 @@
+package com.nuclearvet.compartido.plantillas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plantilla de texto con variables {{nombre}} analizada una sola vez en una lista de
+ * segmentos literales y variables, para renderizarla en una única pasada.
+ *
+ * Conserva la semántica de String.replace: las variables sin valor en el mapa se dejan
+ * tal cual y los valores null se sustituyen por cadena vacía. A diferencia del reemplazo
+ * sucesivo, un valor que contenga {{otra}} no se vuelve a sustituir.
+ */
+public final class PlantillaCompilada {
+
+    private static final String APERTURA = "{{";
+    private static final String CIERRE = "}}";
+
+    public static final PlantillaCompilada VACIA = new PlantillaCompilada(new String[0], new boolean[0], 0);
+
+    /** Texto literal o nombre de variable según la posición en esVariable */
+    private final String[] segmentos;
+    private final boolean[] esVariable;
+    private final int longitudLiteral;
+
+    private PlantillaCompilada(String[] segmentos, boolean[] esVariable, int longitudLiteral) {
+        this.segmentos = segmentos;
+        this.esVariable = esVariable;
+        this.longitudLiteral = longitudLiteral;
+    }
+
+    public static PlantillaCompilada compilar(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return VACIA;
+        }
+        List<String> partes = new ArrayList<>();
+        List<Boolean> variables = new ArrayList<>();
+        int longitudLiteral = 0;
+        int inicio = 0;
+        while (inicio < texto.length()) {
+            int primeraApertura = texto.indexOf(APERTURA, inicio);
+            int cierre = primeraApertura < 0 ? -1 : texto.indexOf(CIERRE, primeraApertura + APERTURA.length());
+            if (cierre < 0) {
+                break;
+            }
+            // Con "{{{{x}}" la variable empieza en la última apertura antes del cierre, igual que String.replace
+            int apertura = texto.lastIndexOf(APERTURA, cierre - APERTURA.length());
+            if (apertura > inicio) {
+                partes.add(texto.substring(inicio, apertura));
+                variables.add(false);
+                longitudLiteral += apertura - inicio;
+            }
+            partes.add(texto.substring(apertura + APERTURA.length(), cierre));
+            variables.add(true);
+            inicio = cierre + CIERRE.length();
+        }
+        if (inicio < texto.length()) {
+            partes.add(texto.substring(inicio));
+            variables.add(false);
+            longitudLiteral += texto.length() - inicio;
+        }
+
+        boolean[] esVariable = new boolean[variables.size()];
+        for (int i = 0; i < esVariable.length; i++) {
+            esVariable[i] = variables.get(i);
+        }
+        return new PlantillaCompilada(partes.toArray(new String[0]), esVariable, longitudLiteral);
+    }
+
+    public String renderizar(Map<String, String> variables) {
+        if (segmentos.length == 1 && !esVariable[0]) {
+            return segmentos[0];
+        }
+        StringBuilder destino = new StringBuilder(longitudLiteral + 16 * segmentos.length);
+        renderizar(variables, destino);
+        return destino.toString();
+    }
+
+    /**
+     * Agrega el resultado al final de destino, que el llamador puede reutilizar entre renderizados
+     */
+    public void renderizar(Map<String, String> variables, StringBuilder destino) {
+        for (int i = 0; i < segmentos.length; i++) {
+            String segmento = segmentos[i];
+            if (!esVariable[i]) {
+                destino.append(segmento);
+            } else if (variables.containsKey(segmento)) {
+                String valor = variables.get(segmento);
+                if (valor != null) {
+                    destino.append(valor);
+                }
+            } else {
+                destino.append(APERTURA).append(segmento).append(CIERRE);
+            }
+        }
+    }
+
+    /**
+     * Renderiza la plantilla para cada mapa de variables reutilizando un único StringBuilder
+     */
+    public List<String> renderizarLote(List<Map<String, String>> lote) {
+        List<String> resultados = new ArrayList<>(lote.size());
+        StringBuilder destino = new StringBuilder(longitudLiteral + 16 * segmentos.length);
+        for (Map<String, String> variables : lote) {
+            destino.setLength(0);
+            renderizar(variables, destino);
+            resultados.add(destino.toString());
+        }
+        return resultados;
+    }
+}
@@ -0,0 +1,63 @@
+package com.nuclearvet.compartido.transacciones;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Acciones ligadas al desenlace de la transacción actual, para los caches e índices en
+ * memoria que deben reflejar solo lo que ya está confirmado en la base de datos
+ */
+public final class TransaccionUtil {
+
+    private TransaccionUtil() {
+    }
+
+    /**
+     * Ejecuta la acción cuando la transacción actual confirma; sin transacción activa,
+     * de inmediato. Si la transacción se revierte, la acción no se ejecuta
+     */
+    public static void despuesDeConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    /**
+     * Ejecuta la acción si la transacción actual se revierte; sin transacción activa no hace
+     * nada. Sirve para deshacer reservas hechas en memoria antes de confirmar
+     */
+    public static void siSeRevierte(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    if (estado != STATUS_COMMITTED) {
+                        accion.run();
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Ejecuta la acción al terminar la transacción actual, confirme o no; sin transacción
+     * activa no hace nada
+     */
+    public static void alTerminar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    accion.run();
+                }
+            });
+        }
+    }
+}
@@ -52,6 +52,10 @@ public class ArchivoMedico {
     @Column(name = "tamano_bytes")
     private Long tamanoBytes;
 
+    /** SHA-256 del contenido en hexadecimal, usado como ETag */
+    @Column(name = "hash_contenido", length = 64)
+    private String hashContenido;
+
     @Column(name = "descripcion", columnDefinition = "TEXT")
     private String descripcion;
 
@@ -0,0 +1,48 @@
+package com.nuclearvet.dominio.entidades;
+
+import com.nuclearvet.dominio.enums.DiaSemana;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalTime;
+
+/**
+ * Franja semanal de atención de un veterinario (por ejemplo, lunes de 08:00 a 12:00).
+ * Un veterinario puede tener varias franjas el mismo día.
+ * RF3.1 - Agendamiento de citas
+ */
+@Entity
+@Table(name = "disponibilidad_veterinarios")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DisponibilidadVeterinario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "veterinario_id", nullable = false)
+    private Usuario veterinario;
+
+    /** 1=Lunes ... 7=Domingo, como DiaSemana.getNumero() */
+    @Column(name = "dia_semana", nullable = false)
+    private Integer diaSemana;
+
+    @Column(name = "hora_inicio", nullable = false)
+    private LocalTime horaInicio;
+
+    @Column(name = "hora_fin", nullable = false)
+    private LocalTime horaFin;
+
+    @Column(name = "activo")
+    @Builder.Default
+    private Boolean activo = true;
+
+    public DiaSemana getDia() {
+        return DiaSemana.deNumero(diaSemana);
+    }
+}
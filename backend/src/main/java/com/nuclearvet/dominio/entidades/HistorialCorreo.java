@@ -46,6 +46,16 @@ public class HistorialCorreo {
     @Column(name = "fecha_envio")
     private LocalDateTime fechaEnvio;
 
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer intentos = 0;
+
+    @Column(name = "proximo_intento")
+    private LocalDateTime proximoIntento;
+
+    @Column(name = "arrendado_por", length = 64)
+    private String arrendadoPor;
+
     @Column(name = "fecha_creacion", nullable = false, updatable = false)
     private LocalDateTime fechaCreacion;
 
@@ -55,6 +65,9 @@ public class HistorialCorreo {
         if (estado == null) {
             estado = EstadoCorreo.PENDIENTE;
         }
+        if (intentos == null) {
+            intentos = 0;
+        }
     }
 
     /**
@@ -80,6 +93,8 @@ public class HistorialCorreo {
      */
     public void marcarComoReintentando() {
         this.estado = EstadoCorreo.REINTENTANDO;
+        this.intentos = 0;
+        this.proximoIntento = LocalDateTime.now();
     }
 
     /**
@@ -56,6 +56,10 @@ public class Lote {
     @Column(columnDefinition = "TEXT")
     private String observaciones;
 
+    /** Control optimista: las ediciones no pisan un stock modificado por un movimiento concurrente */
+    @Version
+    private Long version;
+
     @Column(name = "fecha_creacion", nullable = false, updatable = false)
     private LocalDateTime fechaCreacion;
 
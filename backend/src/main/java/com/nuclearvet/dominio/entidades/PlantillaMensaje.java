@@ -1,5 +1,6 @@
 package com.nuclearvet.dominio.entidades;
 
+import com.nuclearvet.compartido.plantillas.PlantillaCompilada;
 import com.nuclearvet.dominio.enumeraciones.TipoPlantilla;
 import jakarta.persistence.*;
 import lombok.*;
@@ -67,12 +68,7 @@ public class PlantillaMensaje {
      * @return Contenido renderizado
      */
     public String renderizar(java.util.Map<String, String> variables) {
-        String resultado = contenido;
-        for (java.util.Map.Entry<String, String> entry : variables.entrySet()) {
-            String placeholder = "{{" + entry.getKey() + "}}";
-            resultado = resultado.replace(placeholder, entry.getValue() != null ? entry.getValue() : "");
-        }
-        return resultado;
+        return PlantillaCompilada.compilar(contenido).renderizar(variables);
     }
 
     /**
@@ -80,11 +76,6 @@ public class PlantillaMensaje {
      */
     public String renderizarAsunto(java.util.Map<String, String> variables) {
         if (asunto == null) return "";
-        String resultado = asunto;
-        for (java.util.Map.Entry<String, String> entry : variables.entrySet()) {
-            String placeholder = "{{" + entry.getKey() + "}}";
-            resultado = resultado.replace(placeholder, entry.getValue() != null ? entry.getValue() : "");
-        }
-        return resultado;
+        return PlantillaCompilada.compilar(asunto).renderizar(variables);
     }
 }
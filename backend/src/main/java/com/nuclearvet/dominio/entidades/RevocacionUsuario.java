@@ -0,0 +1,29 @@
+package com.nuclearvet.dominio.entidades;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Instante desde el cual son válidos los tokens de un usuario; los emitidos antes
+ * quedan revocados por un cambio de contraseña, rol o estado
+ */
+@Entity
+@Table(name = "revocaciones_usuarios")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevocacionUsuario {
+
+    @Id
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Column(name = "tokens_validos_desde", nullable = false)
+    private LocalDateTime tokensValidosDesde;
+}
@@ -0,0 +1,28 @@
+package com.nuclearvet.dominio.entidades;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Token JWT revocado al cerrar sesión, identificado por su jti, hasta su expiración
+ */
+@Entity
+@Table(name = "tokens_revocados")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocado {
+
+    @Id
+    @Column(name = "jti", length = 64)
+    private String jti;
+
+    @Column(name = "expiracion", nullable = false)
+    private LocalDateTime expiracion;
+}
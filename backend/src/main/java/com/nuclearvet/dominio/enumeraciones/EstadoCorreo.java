@@ -7,7 +7,8 @@ public enum EstadoCorreo {
     PENDIENTE("Pendiente de envío"),
     ENVIADO("Enviado correctamente"),
     ERROR("Error en el envío"),
-    REINTENTANDO("Reintentando envío");
+    REINTENTANDO("Reintentando envío"),
+    DESCARTADO("Descartado tras agotar los reintentos");
 
     private final String descripcion;
 
@@ -0,0 +1,22 @@
+package com.nuclearvet.dominio.enumeraciones;
+
+/**
+ * Eventos que se envían a los clientes por el canal de eventos (SSE)
+ */
+public enum TipoEventoPush {
+    CONTADORES("Contadores de no leídas al conectar"),
+    NOTIFICACION("Notificación nueva para el usuario"),
+    ALERTA_INVENTARIO("Alerta de inventario generada"),
+    RECORDATORIOS_DESPACHADOS("Recordatorios encolados para envío"),
+    RESINCRONIZAR("Los eventos perdidos ya no están en el historial; el cliente debe recargar");
+
+    private final String descripcion;
+
+    TipoEventoPush(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+}
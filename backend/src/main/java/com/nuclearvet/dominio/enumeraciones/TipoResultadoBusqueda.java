@@ -0,0 +1,20 @@
+package com.nuclearvet.dominio.enumeraciones;
+
+/**
+ * Entidades que cubre la búsqueda general
+ */
+public enum TipoResultadoBusqueda {
+    PACIENTE("Paciente"),
+    PROPIETARIO("Propietario"),
+    PRODUCTO("Producto");
+
+    private final String descripcion;
+
+    TipoResultadoBusqueda(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+}
@@ -1,5 +1,7 @@
 package com.nuclearvet.dominio.enums;
 
+import java.time.DayOfWeek;
+
 /**
  * Días de la semana para disponibilidad
  */
@@ -27,4 +29,18 @@ public enum DiaSemana {
     public int getNumero() {
         return numero;
     }
+
+    /**
+     * Día correspondiente al número guardado en disponibilidad_veterinarios (1=Lunes ... 7=Domingo)
+     */
+    public static DiaSemana deNumero(int numero) {
+        if (numero < 1 || numero > 7) {
+            throw new IllegalArgumentException("Día de la semana inválido: " + numero);
+        }
+        return values()[numero - 1];
+    }
+
+    public static DiaSemana de(DayOfWeek dia) {
+        return values()[dia.getValue() - 1];
+    }
 }
@@ -4,6 +4,7 @@ import com.nuclearvet.aplicacion.dto.administrativo.ConfiguracionClinicaDTO;
 import com.nuclearvet.aplicacion.mapeadores.ConfiguracionClinicaMapeador;
 import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
 import com.nuclearvet.dominio.entidades.ConfiguracionClinica;
+import com.nuclearvet.infraestructura.pdf.RecursosPdf;
 import com.nuclearvet.infraestructura.persistencia.ConfiguracionClinicaRepositorio;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +18,7 @@ public class ConfiguracionClinicaServicio {
 
     private final ConfiguracionClinicaRepositorio configuracionRepositorio;
     private final ConfiguracionClinicaMapeador configuracionMapeador;
+    private final RecursosPdf recursosPdf;
 
     @Transactional(readOnly = true)
     public ConfiguracionClinicaDTO obtenerConfiguracionActual() {
@@ -39,6 +41,7 @@ public class ConfiguracionClinicaServicio {
 
         ConfiguracionClinica config = configuracionMapeador.aEntidad(dto);
         ConfiguracionClinica configGuardada = configuracionRepositorio.save(config);
+        recursosPdf.invalidar();
 
         log.info("Configuración creada exitosamente con ID: {}", configGuardada.getId());
         return configuracionMapeador.aDTO(configGuardada);
@@ -51,6 +54,7 @@ public class ConfiguracionClinicaServicio {
         ConfiguracionClinica config = buscarConfiguracionPorId(id);
         configuracionMapeador.actualizarEntidad(dto, config);
         ConfiguracionClinica configActualizada = configuracionRepositorio.save(config);
+        recursosPdf.invalidar();
 
         log.info("Configuración actualizada exitosamente: {}", id);
         return configuracionMapeador.aDTO(configActualizada);
@@ -65,6 +69,7 @@ public class ConfiguracionClinicaServicio {
         
         configuracionMapeador.actualizarEntidad(dto, config);
         ConfiguracionClinica configActualizada = configuracionRepositorio.save(config);
+        recursosPdf.invalidar();
 
         log.info("Configuración actual actualizada exitosamente");
         return configuracionMapeador.aDTO(configActualizada);
@@ -4,11 +4,18 @@ import com.nuclearvet.aplicacion.dto.administrativo.CrearFacturaDTO;
 import com.nuclearvet.aplicacion.dto.administrativo.FacturaDTO;
 import com.nuclearvet.aplicacion.mapeadores.FacturaMapeador;
 import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
+import com.nuclearvet.compartido.paginacion.CursorPaginacion;
+import com.nuclearvet.compartido.paginacion.PaginaCursor;
+import com.nuclearvet.compartido.paginacion.ProcesadorFlujo;
 import com.nuclearvet.dominio.entidades.*;
 import com.nuclearvet.dominio.enumeraciones.EstadoFactura;
+import com.nuclearvet.infraestructura.numeracion.GeneradorNumeracion;
 import com.nuclearvet.infraestructura.persistencia.*;
+import com.nuclearvet.infraestructura.seguridad.UsuarioAutenticado;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -19,6 +26,8 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -33,6 +42,9 @@ public class FacturaServicio {
     private final ServicioRepositorio servicioRepositorio;
     private final ProductoRepositorio productoRepositorio;
     private final FacturaMapeador facturaMapeador;
+    private final GeneradorNumeracion generadorNumeracion;
+    private final ProcesadorFlujo procesadorFlujo;
+    private final ContadoresTablero contadores;
 
     @Transactional(readOnly = true)
     public List<FacturaDTO> listarTodas() {
@@ -42,6 +54,31 @@ public class FacturaServicio {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public PaginaCursor<FacturaDTO> listarPaginadas(String cursor, Integer tamano) {
+        log.debug("Listando página de facturas");
+        CursorPaginacion desde = CursorPaginacion.decodificar(cursor);
+        int limite = CursorPaginacion.normalizarTamano(tamano);
+        List<Factura> filas = facturaRepositorio.findPaginaAnteriorA(desde.getFecha(), desde.getId(), PageRequest.of(0, limite + 1));
+        return PaginaCursor.de(filas, limite, f -> new CursorPaginacion(f.getFechaCreacion(), f.getId()),
+                pagina -> pagina.stream().map(facturaMapeador::aDTO).collect(Collectors.toList()));
+    }
+
+    @Transactional(readOnly = true)
+    public void transmitirTodas(Consumer<FacturaDTO> consumidor) {
+        log.debug("Transmitiendo todas las facturas");
+        procesadorFlujo.procesar(facturaRepositorio.streamTodas(), facturaMapeador::aDTO, consumidor);
+    }
+
+    /**
+     * Transmitir, sin ítems, las facturas emitidas en el rango
+     */
+    @Transactional(readOnly = true)
+    public void transmitirPorRangoFechas(LocalDate inicio, LocalDate fin, Consumer<FacturaDTO> consumidor) {
+        log.debug("Transmitiendo facturas entre {} y {}", inicio, fin);
+        procesadorFlujo.procesar(facturaRepositorio.streamPorRangoFechas(inicio, fin), facturaMapeador::aResumenDTO, consumidor);
+    }
+
     @Transactional(readOnly = true)
     public FacturaDTO obtenerPorId(Long id) {
         log.debug("Obteniendo factura con ID: {}", id);
@@ -162,6 +199,7 @@ public class FacturaServicio {
         });
 
         Factura facturaGuardada = facturaRepositorio.save(factura);
+        contadores.cambiarFactura(null, null, facturaGuardada.getEstado(), facturaGuardada.getSaldoPendiente());
         log.info("Factura creada exitosamente: {}", facturaGuardada.getNumeroFactura());
         return facturaMapeador.aDTO(facturaGuardada);
     }
@@ -179,6 +217,8 @@ public class FacturaServicio {
             throw new IllegalStateException("No se puede anular una factura con pagos registrados");
         }
 
+        contadores.cambiarFactura(factura.getEstado(), factura.getSaldoPendiente(),
+                EstadoFactura.ANULADA, factura.getSaldoPendiente());
         factura.setEstado(EstadoFactura.ANULADA);
         factura.setObservaciones(factura.getObservaciones() + "\nANULADA: " + motivo);
         
@@ -192,6 +232,8 @@ public class FacturaServicio {
         
         vencidas.forEach(factura -> {
             if (factura.getEstado() != EstadoFactura.VENCIDA) {
+                contadores.cambiarFactura(factura.getEstado(), factura.getSaldoPendiente(),
+                        EstadoFactura.VENCIDA, factura.getSaldoPendiente());
                 factura.setEstado(EstadoFactura.VENCIDA);
                 facturaRepositorio.save(factura);
             }
@@ -223,12 +265,17 @@ public class FacturaServicio {
     }
 
     private String generarNumeroFactura() {
-        String fecha = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        long count = facturaRepositorio.count() + 1;
-        return String.format("FAC-%s-%05d", fecha, count);
+        LocalDate hoy = LocalDate.now();
+        String fecha = hoy.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        long consecutivo = generadorNumeracion.siguiente("FAC", GeneradorNumeracion.Periodicidad.DIARIA, hoy);
+        return String.format("FAC-%s-%05d", fecha, consecutivo);
     }
 
     private Usuario obtenerUsuarioActual() {
+        Optional<UsuarioAutenticado> autenticado = UsuarioAutenticado.actual();
+        if (autenticado.isPresent()) {
+            return usuarioRepositorio.getReferenceById(autenticado.get().getUsuarioId());
+        }
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
         return usuarioRepositorio.findByCorreoElectronico(email)
@@ -3,19 +3,26 @@ package com.nuclearvet.dominio.servicios;
 import com.nuclearvet.aplicacion.dto.notificaciones.HistorialCorreoDTO;
 import com.nuclearvet.aplicacion.mapeadores.HistorialCorreoMapeador;
 import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
+import com.nuclearvet.compartido.paginacion.CursorPaginacion;
+import com.nuclearvet.compartido.paginacion.PaginaCursor;
+import com.nuclearvet.compartido.paginacion.ProcesadorFlujo;
 import com.nuclearvet.dominio.entidades.HistorialCorreo;
 import com.nuclearvet.dominio.entidades.PlantillaMensaje;
 import com.nuclearvet.dominio.enumeraciones.EstadoCorreo;
+import com.nuclearvet.infraestructura.correo.BandejaSalidaCorreos;
 import com.nuclearvet.infraestructura.persistencia.HistorialCorreoRepositorio;
 import com.nuclearvet.infraestructura.persistencia.PlantillaMensajeRepositorio;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +36,9 @@ public class HistorialCorreoServicio {
     private final HistorialCorreoRepositorio historialRepositorio;
     private final PlantillaMensajeRepositorio plantillaRepositorio;
     private final HistorialCorreoMapeador historialMapeador;
+    private final ProcesadorFlujo procesadorFlujo;
+    private final BandejaSalidaCorreos bandejaSalida;
+    private final ContadoresTablero contadores;
 
     @Transactional(readOnly = true)
     public List<HistorialCorreoDTO> listarTodos() {
@@ -38,6 +48,22 @@ public class HistorialCorreoServicio {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public PaginaCursor<HistorialCorreoDTO> listarPaginados(String cursor, Integer tamano) {
+        log.debug("Listando página del historial de correos");
+        CursorPaginacion desde = CursorPaginacion.decodificar(cursor);
+        int limite = CursorPaginacion.normalizarTamano(tamano);
+        List<HistorialCorreo> filas = historialRepositorio.findPaginaAnteriorA(desde.getFecha(), desde.getId(), PageRequest.of(0, limite + 1));
+        return PaginaCursor.de(filas, limite, h -> new CursorPaginacion(h.getFechaCreacion(), h.getId()),
+                pagina -> pagina.stream().map(historialMapeador::aDTO).collect(Collectors.toList()));
+    }
+
+    @Transactional(readOnly = true)
+    public void transmitirTodos(Consumer<HistorialCorreoDTO> consumidor) {
+        log.debug("Transmitiendo todo el historial de correos");
+        procesadorFlujo.procesar(historialRepositorio.streamTodos(), historialMapeador::aDTO, consumidor);
+    }
+
     @Transactional(readOnly = true)
     public List<HistorialCorreoDTO> listarPorDestinatario(String email) {
         log.debug("Listando historial de correos para destinatario: {}", email);
@@ -120,6 +146,8 @@ public class HistorialCorreoServicio {
         }
         
         HistorialCorreo historialGuardado = historialRepositorio.save(historial);
+        contadores.cambiarEstadoCorreo(null, historialGuardado.getEstado());
+        bandejaSalida.notificarNuevos();
         log.info("Correo registrado exitosamente con ID: {}", historialGuardado.getId());
         return historialMapeador.aDTO(historialGuardado);
     }
@@ -128,8 +156,10 @@ public class HistorialCorreoServicio {
     public HistorialCorreoDTO marcarComoEnviado(Long id) {
         log.info("Marcando correo como enviado: {}", id);
         HistorialCorreo historial = buscarHistorialPorId(id);
+        EstadoCorreo estadoAnterior = historial.getEstado();
         historial.marcarComoEnviado();
         HistorialCorreo historialActualizado = historialRepositorio.save(historial);
+        contadores.cambiarEstadoCorreo(estadoAnterior, historialActualizado.getEstado());
         return historialMapeador.aDTO(historialActualizado);
     }
 
@@ -137,8 +167,10 @@ public class HistorialCorreoServicio {
     public HistorialCorreoDTO marcarComoError(Long id, String mensajeError) {
         log.warn("Marcando correo con error: {} - {}", id, mensajeError);
         HistorialCorreo historial = buscarHistorialPorId(id);
+        EstadoCorreo estadoAnterior = historial.getEstado();
         historial.marcarComoError(mensajeError);
         HistorialCorreo historialActualizado = historialRepositorio.save(historial);
+        contadores.cambiarEstadoCorreo(estadoAnterior, historialActualizado.getEstado());
         return historialMapeador.aDTO(historialActualizado);
     }
 
@@ -146,24 +178,25 @@ public class HistorialCorreoServicio {
     public HistorialCorreoDTO marcarComoReintentando(Long id) {
         log.info("Marcando correo para reintento: {}", id);
         HistorialCorreo historial = buscarHistorialPorId(id);
+        EstadoCorreo estadoAnterior = historial.getEstado();
         historial.marcarComoReintentando();
         HistorialCorreo historialActualizado = historialRepositorio.save(historial);
+        contadores.cambiarEstadoCorreo(estadoAnterior, historialActualizado.getEstado());
+        bandejaSalida.notificarNuevos();
         return historialMapeador.aDTO(historialActualizado);
     }
 
+    /**
+     * Devuelve a la bandeja de salida los correos con error o descartados, con los intentos reiniciados
+     */
     @Transactional
     public void reintentarEnviosFallidos() {
         log.info("Reintentando envíos fallidos");
-        List<HistorialCorreo> correosFallidos = historialRepositorio.findConError();
-        
-        for (HistorialCorreo correo : correosFallidos) {
-            // Aquí se implementaría la lógica de reintento de envío
-            log.info("Reintentando envío de correo ID: {} a {}", correo.getId(), correo.getDestinatarioEmail());
-            correo.marcarComoReintentando();
-            historialRepositorio.save(correo);
-        }
-        
-        log.info("Procesados {} correos fallidos para reintento", correosFallidos.size());
+        int reencolados = historialRepositorio.reencolar(
+                List.of(EstadoCorreo.ERROR, EstadoCorreo.DESCARTADO), EstadoCorreo.REINTENTANDO);
+        contadores.conciliarDespuesDeConfirmar();
+        bandejaSalida.notificarNuevos();
+        log.info("Procesados {} correos fallidos para reintento", reencolados);
     }
 
     @Transactional
@@ -171,6 +204,7 @@ public class HistorialCorreoServicio {
         log.info("Eliminando historial de correo con ID: {}", id);
         HistorialCorreo historial = buscarHistorialPorId(id);
         historialRepositorio.delete(historial);
+        contadores.cambiarEstadoCorreo(historial.getEstado(), null);
         log.info("Historial eliminado exitosamente: {}", id);
     }
 
@@ -180,6 +214,7 @@ public class HistorialCorreoServicio {
         LocalDateTime fechaLimite = LocalDateTime.now().minusDays(dias);
         List<HistorialCorreo> correos = historialRepositorio.findEnviadosAntiguos(fechaLimite);
         historialRepositorio.deleteAll(correos);
+        contadores.restarCorreos(EstadoCorreo.ENVIADO, correos.size());
         log.info("Eliminados {} correos antiguos", correos.size());
     }
 
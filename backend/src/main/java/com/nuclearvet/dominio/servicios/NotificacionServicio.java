@@ -7,15 +7,19 @@ import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
 import com.nuclearvet.dominio.entidades.Notificacion;
 import com.nuclearvet.dominio.entidades.Usuario;
 import com.nuclearvet.dominio.enumeraciones.PrioridadNotificacion;
+import com.nuclearvet.dominio.enumeraciones.TipoEventoPush;
 import com.nuclearvet.dominio.enumeraciones.TipoNotificacion;
+import com.nuclearvet.infraestructura.eventos.CanalEventos;
 import com.nuclearvet.infraestructura.persistencia.NotificacionRepositorio;
 import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -31,6 +35,8 @@ public class NotificacionServicio {
     private final NotificacionRepositorio notificacionRepositorio;
     private final UsuarioRepositorio usuarioRepositorio;
     private final NotificacionMapeador notificacionMapeador;
+    private final ContadoresTablero contadores;
+    private final CanalEventos canalEventos;
 
     @Transactional(readOnly = true)
     public List<NotificacionDTO> listarPorUsuario(Long usuarioId) {
@@ -91,15 +97,29 @@ public class NotificacionServicio {
         Notificacion notificacion = notificacionMapeador.aEntidad(dto);
         notificacion.setUsuarioDestinatario(usuario);
         Notificacion notificacionGuardada = notificacionRepositorio.save(notificacion);
+        if (!Boolean.TRUE.equals(notificacionGuardada.getLeida())) {
+            contadores.sumarNotificacionesNoLeidas(usuario.getId(), 1);
+        }
         
         log.info("Notificación creada exitosamente con ID: {}", notificacionGuardada.getId());
-        return notificacionMapeador.aDTO(notificacionGuardada);
+        NotificacionDTO creada = notificacionMapeador.aDTO(notificacionGuardada);
+        Long usuarioId = usuario.getId();
+        canalEventos.publicar(TipoEventoPush.NOTIFICACION, usuarioId, () -> {
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("notificacion", creada);
+            datos.put("notificacionesNoLeidas", contadores.getNotificacionesNoLeidas(usuarioId));
+            return datos;
+        });
+        return creada;
     }
 
     @Transactional
     public NotificacionDTO marcarComoLeida(Long id) {
         log.info("Marcando notificación como leída: {}", id);
         Notificacion notificacion = buscarNotificacionPorId(id);
+        if (!Boolean.TRUE.equals(notificacion.getLeida())) {
+            contadores.sumarNotificacionesNoLeidas(notificacion.getUsuarioDestinatario().getId(), -1);
+        }
         notificacion.marcarComoLeida();
         Notificacion notificacionActualizada = notificacionRepositorio.save(notificacion);
         return notificacionMapeador.aDTO(notificacionActualizada);
@@ -109,6 +129,9 @@ public class NotificacionServicio {
     public NotificacionDTO marcarComoNoLeida(Long id) {
         log.info("Marcando notificación como no leída: {}", id);
         Notificacion notificacion = buscarNotificacionPorId(id);
+        if (Boolean.TRUE.equals(notificacion.getLeida())) {
+            contadores.sumarNotificacionesNoLeidas(notificacion.getUsuarioDestinatario().getId(), 1);
+        }
         notificacion.marcarComoNoLeida();
         Notificacion notificacionActualizada = notificacionRepositorio.save(notificacion);
         return notificacionMapeador.aDTO(notificacionActualizada);
@@ -117,13 +140,15 @@ public class NotificacionServicio {
     @Transactional
     public void marcarTodasComoLeidasPorUsuario(Long usuarioId) {
         log.info("Marcando todas las notificaciones como leídas para usuario: {}", usuarioId);
-        notificacionRepositorio.marcarTodasComoLeidasPorUsuario(usuarioId);
+        int marcadas = notificacionRepositorio.marcarTodasComoLeidasPorUsuario(usuarioId);
+        contadores.sumarNotificacionesNoLeidas(usuarioId, -marcadas);
     }
 
     @Transactional
     public void marcarComoLeidasPorTipo(Long usuarioId, TipoNotificacion tipo) {
         log.info("Marcando notificaciones como leídas para usuario: {} y tipo: {}", usuarioId, tipo);
-        notificacionRepositorio.marcarComoLeidasPorTipo(usuarioId, tipo);
+        int marcadas = notificacionRepositorio.marcarComoLeidasPorTipo(usuarioId, tipo);
+        contadores.sumarNotificacionesNoLeidas(usuarioId, -marcadas);
     }
 
     @Transactional
@@ -131,6 +156,9 @@ public class NotificacionServicio {
         log.info("Eliminando notificación con ID: {}", id);
         Notificacion notificacion = buscarNotificacionPorId(id);
         notificacionRepositorio.delete(notificacion);
+        if (!Boolean.TRUE.equals(notificacion.getLeida())) {
+            contadores.sumarNotificacionesNoLeidas(notificacion.getUsuarioDestinatario().getId(), -1);
+        }
         log.info("Notificación eliminada exitosamente: {}", id);
     }
 
@@ -4,13 +4,18 @@ import com.nuclearvet.aplicacion.dto.administrativo.PagoDTO;
 import com.nuclearvet.aplicacion.dto.administrativo.RegistrarPagoDTO;
 import com.nuclearvet.aplicacion.mapeadores.PagoMapeador;
 import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
+import com.nuclearvet.compartido.paginacion.ProcesadorFlujo;
 import com.nuclearvet.dominio.entidades.Factura;
 import com.nuclearvet.dominio.entidades.Pago;
 import com.nuclearvet.dominio.entidades.Usuario;
+import com.nuclearvet.dominio.enumeraciones.EstadoFactura;
 import com.nuclearvet.dominio.enumeraciones.MetodoPago;
+import com.nuclearvet.infraestructura.numeracion.GeneradorNumeracion;
 import com.nuclearvet.infraestructura.persistencia.FacturaRepositorio;
 import com.nuclearvet.infraestructura.persistencia.PagoRepositorio;
 import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
+import com.nuclearvet.infraestructura.seguridad.UsuarioAutenticado;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
@@ -19,10 +24,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -34,6 +42,9 @@ public class PagoServicio {
     private final FacturaRepositorio facturaRepositorio;
     private final UsuarioRepositorio usuarioRepositorio;
     private final PagoMapeador pagoMapeador;
+    private final GeneradorNumeracion generadorNumeracion;
+    private final ContadoresTablero contadores;
+    private final ProcesadorFlujo procesadorFlujo;
 
     @Transactional(readOnly = true)
     public List<PagoDTO> listarTodos() {
@@ -82,6 +93,16 @@ public class PagoServicio {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Transmitir los pagos registrados entre los días inicio y fin, ambos incluidos
+     */
+    @Transactional(readOnly = true)
+    public void transmitirPorRangoFechas(LocalDate inicio, LocalDate fin, Consumer<PagoDTO> consumidor) {
+        log.debug("Transmitiendo pagos entre {} y {}", inicio, fin);
+        procesadorFlujo.procesar(pagoRepositorio.streamPorRangoFechas(inicio.atStartOfDay(), fin.plusDays(1).atStartOfDay()),
+                pagoMapeador::aDTO, consumidor);
+    }
+
     @Transactional(readOnly = true)
     public List<PagoDTO> listarPorPropietario(Long propietarioId) {
         log.debug("Listando pagos para propietario: {}", propietarioId);
@@ -121,9 +142,12 @@ public class PagoServicio {
         Pago pagoGuardado = pagoRepositorio.save(pago);
 
         // Actualizar factura
+        EstadoFactura estadoAnterior = factura.getEstado();
+        BigDecimal saldoAnterior = factura.getSaldoPendiente();
         factura.recalcularSaldoPendiente();
         factura.actualizarEstado();
         facturaRepositorio.save(factura);
+        contadores.cambiarFactura(estadoAnterior, saldoAnterior, factura.getEstado(), factura.getSaldoPendiente());
 
         log.info("Pago registrado exitosamente: {}", pagoGuardado.getNumeroPago());
         return pagoMapeador.aDTO(pagoGuardado);
@@ -151,12 +175,17 @@ public class PagoServicio {
     }
 
     private String generarNumeroPago() {
-        String fecha = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        long count = pagoRepositorio.count() + 1;
-        return String.format("PAG-%s-%04d", fecha, count);
+        LocalDateTime ahora = LocalDateTime.now();
+        String fecha = ahora.format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        long consecutivo = generadorNumeracion.siguiente("PAG", GeneradorNumeracion.Periodicidad.DIARIA, ahora.toLocalDate());
+        return String.format("PAG-%s-%04d", fecha, consecutivo);
     }
 
     private Usuario obtenerUsuarioActual() {
+        Optional<UsuarioAutenticado> autenticado = UsuarioAutenticado.actual();
+        if (autenticado.isPresent()) {
+            return usuarioRepositorio.getReferenceById(autenticado.get().getUsuarioId());
+        }
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
         return usuarioRepositorio.findByCorreoElectronico(email)
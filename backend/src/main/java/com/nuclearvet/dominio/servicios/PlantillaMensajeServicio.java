@@ -8,6 +8,7 @@ import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
 import com.nuclearvet.dominio.entidades.PlantillaMensaje;
 import com.nuclearvet.dominio.enumeraciones.TipoPlantilla;
 import com.nuclearvet.infraestructura.persistencia.PlantillaMensajeRepositorio;
+import com.nuclearvet.infraestructura.plantillas.CachePlantillasCompiladas;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -27,6 +28,7 @@ public class PlantillaMensajeServicio {
 
     private final PlantillaMensajeRepositorio plantillaRepositorio;
     private final PlantillaMensajeMapeador plantillaMapeador;
+    private final CachePlantillasCompiladas cachePlantillas;
 
     @Transactional(readOnly = true)
     public List<PlantillaMensajeDTO> listarTodas() {
@@ -93,6 +95,7 @@ public class PlantillaMensajeServicio {
         PlantillaMensaje plantilla = buscarPlantillaPorId(id);
         plantillaMapeador.actualizarEntidad(dto, plantilla);
         PlantillaMensaje plantillaActualizada = plantillaRepositorio.save(plantilla);
+        cachePlantillas.invalidar(id);
         
         log.info("Plantilla actualizada exitosamente: {}", id);
         return plantillaMapeador.aDTO(plantillaActualizada);
@@ -103,6 +106,7 @@ public class PlantillaMensajeServicio {
         log.info("Eliminando plantilla con ID: {}", id);
         PlantillaMensaje plantilla = buscarPlantillaPorId(id);
         plantillaRepositorio.delete(plantilla);
+        cachePlantillas.invalidar(id);
         log.info("Plantilla eliminada exitosamente: {}", id);
     }
 
@@ -112,6 +116,7 @@ public class PlantillaMensajeServicio {
         PlantillaMensaje plantilla = buscarPlantillaPorId(id);
         plantilla.setActivo(true);
         PlantillaMensaje plantillaActualizada = plantillaRepositorio.save(plantilla);
+        cachePlantillas.invalidar(id);
         return plantillaMapeador.aDTO(plantillaActualizada);
     }
 
@@ -121,21 +126,23 @@ public class PlantillaMensajeServicio {
         PlantillaMensaje plantilla = buscarPlantillaPorId(id);
         plantilla.setActivo(false);
         PlantillaMensaje plantillaActualizada = plantillaRepositorio.save(plantilla);
+        cachePlantillas.invalidar(id);
         return plantillaMapeador.aDTO(plantillaActualizada);
     }
 
-    @Transactional(readOnly = true)
     public String renderizar(Long id, Map<String, String> variables) {
         log.debug("Renderizando plantilla con ID: {}", id);
-        PlantillaMensaje plantilla = buscarPlantillaPorId(id);
-        return plantilla.renderizar(variables);
+        return obtenerCompilada(id).getContenido().renderizar(variables);
     }
 
-    @Transactional(readOnly = true)
     public String renderizarAsunto(Long id, Map<String, String> variables) {
         log.debug("Renderizando asunto de plantilla con ID: {}", id);
-        PlantillaMensaje plantilla = buscarPlantillaPorId(id);
-        return plantilla.renderizarAsunto(variables);
+        return obtenerCompilada(id).getAsunto().renderizar(variables);
+    }
+
+    public List<String> renderizarLote(Long id, List<Map<String, String>> lote) {
+        log.debug("Renderizando {} mensajes con la plantilla ID: {}", lote.size(), id);
+        return obtenerCompilada(id).getContenido().renderizarLote(lote);
     }
 
     @Transactional(readOnly = true)
@@ -153,6 +160,14 @@ public class PlantillaMensajeServicio {
         return plantillaRepositorio.contarActivas();
     }
 
+    /**
+     * Plantilla compilada desde la caché; solo consulta la base de datos si no está en ella
+     */
+    private CachePlantillasCompiladas.Entrada obtenerCompilada(Long id) {
+        return cachePlantillas.obtener(id)
+                .orElseGet(() -> cachePlantillas.guardar(buscarPlantillaPorId(id)));
+    }
+
     private PlantillaMensaje buscarPlantillaPorId(Long id) {
         return plantillaRepositorio.findById(id)
                 .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Plantilla con ID " + id + " no encontrada"));
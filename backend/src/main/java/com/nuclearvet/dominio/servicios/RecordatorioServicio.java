@@ -4,21 +4,27 @@ import com.nuclearvet.aplicacion.dto.notificaciones.CrearRecordatorioDTO;
 import com.nuclearvet.aplicacion.dto.notificaciones.RecordatorioDTO;
 import com.nuclearvet.aplicacion.mapeadores.RecordatorioMapeador;
 import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
+import com.nuclearvet.compartido.paginacion.CursorPaginacion;
+import com.nuclearvet.compartido.paginacion.PaginaCursor;
+import com.nuclearvet.compartido.paginacion.ProcesadorFlujo;
 import com.nuclearvet.dominio.entidades.Cita;
 import com.nuclearvet.dominio.entidades.Paciente;
 import com.nuclearvet.dominio.entidades.Recordatorio;
 import com.nuclearvet.dominio.enumeraciones.TipoRecordatorio;
+import com.nuclearvet.infraestructura.notificaciones.DespachadorRecordatorios;
 import com.nuclearvet.infraestructura.persistencia.CitaRepositorio;
 import com.nuclearvet.infraestructura.persistencia.PacienteRepositorio;
 import com.nuclearvet.infraestructura.persistencia.RecordatorioRepositorio;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +39,8 @@ public class RecordatorioServicio {
     private final PacienteRepositorio pacienteRepositorio;
     private final CitaRepositorio citaRepositorio;
     private final RecordatorioMapeador recordatorioMapeador;
+    private final ProcesadorFlujo procesadorFlujo;
+    private final DespachadorRecordatorios despachadorRecordatorios;
 
     @Transactional(readOnly = true)
     public List<RecordatorioDTO> listarTodos() {
@@ -42,6 +50,22 @@ public class RecordatorioServicio {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public PaginaCursor<RecordatorioDTO> listarPaginados(String cursor, Integer tamano) {
+        log.debug("Listando página de recordatorios");
+        CursorPaginacion desde = CursorPaginacion.decodificar(cursor);
+        int limite = CursorPaginacion.normalizarTamano(tamano);
+        List<Recordatorio> filas = recordatorioRepositorio.findPaginaAnteriorA(desde.getFecha(), desde.getId(), PageRequest.of(0, limite + 1));
+        return PaginaCursor.de(filas, limite, r -> new CursorPaginacion(r.getFechaCreacion(), r.getId()),
+                pagina -> pagina.stream().map(recordatorioMapeador::aDTO).collect(Collectors.toList()));
+    }
+
+    @Transactional(readOnly = true)
+    public void transmitirTodos(Consumer<RecordatorioDTO> consumidor) {
+        log.debug("Transmitiendo todos los recordatorios");
+        procesadorFlujo.procesar(recordatorioRepositorio.streamTodos(), recordatorioMapeador::aDTO, consumidor);
+    }
+
     @Transactional(readOnly = true)
     public List<RecordatorioDTO> listarPorPaciente(Long pacienteId) {
         log.debug("Listando recordatorios para paciente: {}", pacienteId);
@@ -192,22 +216,14 @@ public class RecordatorioServicio {
         return recordatorioRepositorio.contarPendientesPorPaciente(pacienteId);
     }
 
-    @Transactional
-    public void enviarRecordatoriosPendientes() {
+    /**
+     * Envía los recordatorios vencidos por lotes; cada lote usa su propia transacción
+     */
+    public int enviarRecordatoriosPendientes() {
         log.info("Procesando recordatorios pendientes de envío");
-        List<Recordatorio> recordatorios = recordatorioRepositorio.findRecordatoriosPendientesDeEnvio();
-        
-        for (Recordatorio recordatorio : recordatorios) {
-            if (recordatorio.debeSerEnviado()) {
-                // Aquí se implementaría la lógica de envío (email, SMS, etc.)
-                log.info("Enviando recordatorio ID: {} al propietario del paciente: {}", 
-                        recordatorio.getId(), recordatorio.getPaciente().getNombre());
-                recordatorio.marcarComoEnviado();
-                recordatorioRepositorio.save(recordatorio);
-            }
-        }
-        
-        log.info("Procesados {} recordatorios", recordatorios.size());
+        int enviados = despachadorRecordatorios.despachar();
+        log.info("Procesados {} recordatorios", enviados);
+        return enviados;
     }
 
     private Recordatorio buscarRecordatorioPorId(Long id) {
@@ -0,0 +1,145 @@
+package com.nuclearvet.infraestructura.agenda;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.nuclearvet.compartido.transacciones.TransaccionUtil.despuesDeConfirmar;
+
+/**
+ * Cache de la agenda del día, general y por veterinario.
+ * RF3.1 - Agendamiento de citas
+ *
+ * Recepción y las tabletas de los veterinarios consultan la agenda cada pocos segundos.
+ * Cada agenda se guarda como una instantánea inmutable con su ETag, y se descarta cuando
+ * se confirma una transacción que crea una cita o cambia su estado en ese día (la del
+ * veterinario y la general). Mientras no cambie, las consultas se responden sin abrir una
+ * transacción, y con un If-None-Match vigente el controlador responde 304.
+ *
+ * Cada día lleva un número de generación que avanza antes de descartar sus instantáneas;
+ * una carga que empezó antes de una invalidación no se guarda, así una lectura concurrente
+ * con la confirmación no deja una agenda vieja en el cache. Los datos del paciente o del
+ * propietario que se modifican fuera de la agenda se refrescan al vencer ttl-segundos.
+ * El cache no conoce el tipo de las citas: guarda lo que devuelve el cargador.
+ */
+@Component
+@Slf4j
+public class CacheAgendaDiaria {
+
+    private final TransactionTemplate lectura;
+    private final long ttlNanos;
+
+    /** Distingue las ETag emitidas por distintos arranques de la aplicación */
+    private final String epoca = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong versiones = new AtomicLong();
+    private final Map<String, Entrada<?>> instantaneas = new ConcurrentHashMap<>();
+    private final Map<LocalDate, AtomicLong> generaciones = new ConcurrentHashMap<>();
+
+    public CacheAgendaDiaria(
+            PlatformTransactionManager transactionManager,
+            @Value("${nuclearvet.agenda.cache.ttl-segundos:600}") long ttlSegundos) {
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSegundos);
+    }
+
+    /**
+     * Agenda del día, del cache o cargada con el cargador en una transacción de solo lectura
+     *
+     * @param veterinarioId veterinario; null para la agenda de toda la clínica
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Instantanea<T> obtener(LocalDate dia, Long veterinarioId, Supplier<List<T>> cargador) {
+        String clave = clave(dia, veterinarioId);
+        long ahora = System.nanoTime();
+        // Cada clave se carga siempre con el mismo cargador, y por tanto con el mismo tipo
+        Entrada<T> actual = (Entrada<T>) instantaneas.get(clave);
+        if (actual != null && ahora - actual.cargada < ttlNanos) {
+            return actual.instantanea;
+        }
+
+        AtomicLong generacion = generacion(dia);
+        long generacionInicial = generacion.get();
+        List<T> citas = List.copyOf(lectura.execute(estado -> cargador.get()));
+        // Si la agenda vencida no cambió se conserva su ETag, para no forzar descargas completas
+        String etag = actual != null && actual.instantanea.citas.equals(citas)
+                ? actual.instantanea.etag
+                : "\"" + epoca + "-" + versiones.incrementAndGet() + "\"";
+        Entrada<T> nueva = new Entrada<>(new Instantanea<>(citas, etag), System.nanoTime());
+        instantaneas.compute(clave, (k, previa) -> generacion.get() == generacionInicial ? nueva : previa);
+        return nueva.instantanea;
+    }
+
+    /**
+     * Descarta la agenda del veterinario y la general del día cuando la transacción actual confirma
+     */
+    public void invalidar(LocalDate dia, Long veterinarioId) {
+        despuesDeConfirmar(() -> {
+            generacion(dia).incrementAndGet();
+            instantaneas.remove(clave(dia, veterinarioId));
+            instantaneas.remove(clave(dia, null));
+        });
+    }
+
+    /**
+     * Quita las instantáneas vencidas y las generaciones de días pasados
+     */
+    @Scheduled(fixedDelayString = "${nuclearvet.agenda.cache.purga-ms:600000}")
+    public void purgar() {
+        long ahora = System.nanoTime();
+        instantaneas.values().removeIf(entrada -> ahora - entrada.cargada >= ttlNanos);
+        LocalDate limite = LocalDate.now().minusDays(1);
+        generaciones.keySet().removeIf(dia -> dia.isBefore(limite));
+        log.debug("Cache de agenda purgado: {} instantáneas vigentes", instantaneas.size());
+    }
+
+    private AtomicLong generacion(LocalDate dia) {
+        return generaciones.computeIfAbsent(dia, d -> new AtomicLong());
+    }
+
+    private static String clave(LocalDate dia, Long veterinarioId) {
+        return dia + "/" + (veterinarioId != null ? veterinarioId : "*");
+    }
+
+    private static final class Entrada<T> {
+        private final Instantanea<T> instantanea;
+        private final long cargada;
+
+        private Entrada(Instantanea<T> instantanea, long cargada) {
+            this.instantanea = instantanea;
+            this.cargada = cargada;
+        }
+    }
+
+    /**
+     * Agenda de un día tal como estaba al cargarla. Las citas no deben modificarse
+     */
+    public static final class Instantanea<T> {
+        private final List<T> citas;
+        private final String etag;
+
+        public Instantanea(List<T> citas, String etag) {
+            this.citas = citas;
+            this.etag = etag;
+        }
+
+        public List<T> getCitas() {
+            return citas;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
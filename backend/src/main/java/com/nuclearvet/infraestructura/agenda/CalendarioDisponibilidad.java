@@ -0,0 +1,210 @@
+package com.nuclearvet.infraestructura.agenda;
+
+import com.nuclearvet.dominio.enums.DiaSemana;
+import com.nuclearvet.infraestructura.persistencia.DisponibilidadVeterinarioRepositorio;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+import static com.nuclearvet.infraestructura.agenda.IndiceDisponibilidadVeterinario.BLOQUES_POR_DIA;
+import static com.nuclearvet.infraestructura.agenda.IndiceDisponibilidadVeterinario.MINUTOS_POR_BLOQUE;
+
+import static com.nuclearvet.compartido.transacciones.TransaccionUtil.despuesDeConfirmar;
+
+/**
+ * Calendario de huecos libres de los veterinarios.
+ * RF3.1 - Agendamiento de citas
+ *
+ * El horario semanal (tabla disponibilidad_veterinarios) se guarda en memoria como un mapa
+ * de bits por veterinario y día de la semana, con la misma resolución que la ocupación del
+ * IndiceDisponibilidadVeterinario. Los bloques libres de un día son el horario menos la
+ * ocupación, y un hueco es una racha de bloques libres que alcanza para la duración pedida.
+ * Como la ocupación por día se mantiene al crear, confirmar o cancelar citas, la consulta
+ * no toca la base de datos. El horario se recarga completo cuando se modifica.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CalendarioDisponibilidad {
+
+    private final DisponibilidadVeterinarioRepositorio disponibilidadRepositorio;
+    private final IndiceDisponibilidadVeterinario indiceDisponibilidad;
+
+    /**
+     * Separación entre inicios de huecos consecutivos dentro de una misma franja libre
+     */
+    @Value("${nuclearvet.agenda.calendario.paso-minutos:15}")
+    private int pasoMinutos;
+
+    /**
+     * Días hacia adelante que se revisan antes de dar por terminada la búsqueda
+     */
+    @Value("${nuclearvet.agenda.calendario.dias-maximos:60}")
+    private int diasMaximos;
+
+    private volatile Map<Long, HorarioVeterinario> horarios = Map.of();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarHorarios() {
+        Map<Long, HorarioVeterinario> nuevos = new HashMap<>();
+        List<Object[]> franjas = disponibilidadRepositorio.findFranjasActivas();
+        for (Object[] fila : franjas) {
+            Long veterinarioId = (Long) fila[0];
+            HorarioVeterinario horario = nuevos.computeIfAbsent(veterinarioId,
+                    id -> new HorarioVeterinario(id, (String) fila[1]));
+            horario.agregarFranja(DiaSemana.deNumero((Integer) fila[2]), (LocalTime) fila[3], (LocalTime) fila[4]);
+        }
+        horarios = nuevos;
+        log.info("Horarios de atención cargados: {} franjas de {} veterinarios", franjas.size(), nuevos.size());
+    }
+
+    /**
+     * Recarga el horario cuando la transacción que lo modificó confirma
+     */
+    public void recargarHorariosDespuesDeConfirmar() {
+        despuesDeConfirmar(this::cargarHorarios);
+    }
+
+    /**
+     * Bloques libres del veterinario en el día: horario de atención menos citas
+     */
+    public BitSet bloquesLibres(Long veterinarioId, LocalDate dia) {
+        HorarioVeterinario horario = horarios.get(veterinarioId);
+        if (horario == null) {
+            return new BitSet(BLOQUES_POR_DIA);
+        }
+        BitSet libres = horario.del(DiaSemana.de(dia.getDayOfWeek()));
+        libres.andNot(indiceDisponibilidad.bloquesOcupados(veterinarioId, dia));
+        return libres;
+    }
+
+    /**
+     * Primeros huecos, en orden cronológico, en los que cabe una cita de la duración dada
+     * a partir de la fecha indicada
+     *
+     * @param veterinarioId veterinario a consultar; null para todos
+     */
+    public List<Hueco> proximosHuecos(LocalDateTime desde, int duracionMinutos, int cantidad, Long veterinarioId) {
+        List<HorarioVeterinario> consultados = new ArrayList<>();
+        if (veterinarioId == null) {
+            consultados.addAll(horarios.values());
+        } else if (horarios.containsKey(veterinarioId)) {
+            consultados.add(horarios.get(veterinarioId));
+        }
+        List<Hueco> huecos = new ArrayList<>();
+        if (consultados.isEmpty() || cantidad <= 0) {
+            return huecos;
+        }
+
+        int bloquesNecesarios = Math.max(1, (duracionMinutos + MINUTOS_POR_BLOQUE - 1) / MINUTOS_POR_BLOQUE);
+        int paso = Math.max(1, pasoMinutos / MINUTOS_POR_BLOQUE);
+        long segundosPorBloque = MINUTOS_POR_BLOQUE * 60L;
+        LocalDate primerDia = desde.toLocalDate();
+
+        for (int d = 0; d < diasMaximos && huecos.size() < cantidad; d++) {
+            LocalDate dia = primerDia.plusDays(d);
+            if (!indiceDisponibilidad.cubre(dia.atStartOfDay())) {
+                continue;
+            }
+            int primerBloque = d == 0
+                    ? (int) ((desde.toLocalTime().toSecondOfDay() + segundosPorBloque - 1) / segundosPorBloque)
+                    : 0;
+            int faltantes = cantidad - huecos.size();
+
+            List<Hueco> delDia = new ArrayList<>();
+            for (HorarioVeterinario horario : consultados) {
+                BitSet libres = bloquesLibres(horario.veterinarioId, dia);
+                int encontrados = 0;
+                for (int inicio = libres.nextSetBit(primerBloque); inicio >= 0 && encontrados < faltantes;
+                     inicio = libres.nextSetBit(inicio)) {
+                    int fin = libres.nextClearBit(inicio);
+                    for (int bloque = inicio; bloque + bloquesNecesarios <= fin && encontrados < faltantes; bloque += paso) {
+                        LocalDateTime horaInicio = dia.atStartOfDay().plusMinutes((long) bloque * MINUTOS_POR_BLOQUE);
+                        delDia.add(new Hueco(horario.veterinarioId, horario.nombre,
+                                horaInicio, horaInicio.plusMinutes(duracionMinutos)));
+                        encontrados++;
+                    }
+                    inicio = fin;
+                }
+            }
+            delDia.sort(Comparator.comparing(Hueco::getInicio).thenComparing(Hueco::getVeterinarioId));
+            huecos.addAll(delDia.subList(0, Math.min(faltantes, delDia.size())));
+        }
+        return huecos;
+    }
+
+    /**
+     * Horario semanal de un veterinario: bloques de atención por día de la semana
+     */
+    private static final class HorarioVeterinario {
+        private final Long veterinarioId;
+        private final String nombre;
+        private final BitSet[] porDia = new BitSet[DiaSemana.values().length];
+
+        private HorarioVeterinario(Long veterinarioId, String nombre) {
+            this.veterinarioId = veterinarioId;
+            this.nombre = nombre;
+        }
+
+        /**
+         * Marca los bloques que quedan completos dentro de la franja [inicio, fin)
+         */
+        private void agregarFranja(DiaSemana dia, LocalTime inicio, LocalTime fin) {
+            long segundosPorBloque = MINUTOS_POR_BLOQUE * 60L;
+            int desde = (int) ((inicio.toSecondOfDay() + segundosPorBloque - 1) / segundosPorBloque);
+            int hasta = (int) (fin.toSecondOfDay() / segundosPorBloque);
+            if (desde < hasta) {
+                if (porDia[dia.ordinal()] == null) {
+                    porDia[dia.ordinal()] = new BitSet(BLOQUES_POR_DIA);
+                }
+                porDia[dia.ordinal()].set(desde, hasta);
+            }
+        }
+
+        private BitSet del(DiaSemana dia) {
+            BitSet bloques = porDia[dia.ordinal()];
+            return bloques != null ? (BitSet) bloques.clone() : new BitSet(BLOQUES_POR_DIA);
+        }
+    }
+
+    /**
+     * Intervalo libre de un veterinario en el que cabe la cita consultada
+     */
+    public static final class Hueco {
+        private final Long veterinarioId;
+        private final String veterinarioNombre;
+        private final LocalDateTime inicio;
+        private final LocalDateTime fin;
+
+        public Hueco(Long veterinarioId, String veterinarioNombre, LocalDateTime inicio, LocalDateTime fin) {
+            this.veterinarioId = veterinarioId;
+            this.veterinarioNombre = veterinarioNombre;
+            this.inicio = inicio;
+            this.fin = fin;
+        }
+
+        public Long getVeterinarioId() {
+            return veterinarioId;
+        }
+
+        public String getVeterinarioNombre() {
+            return veterinarioNombre;
+        }
+
+        public LocalDateTime getInicio() {
+            return inicio;
+        }
+
+        public LocalDateTime getFin() {
+            return fin;
+        }
+    }
+}
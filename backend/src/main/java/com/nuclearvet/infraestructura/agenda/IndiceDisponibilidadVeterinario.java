@@ -0,0 +1,349 @@
+package com.nuclearvet.infraestructura.agenda;
+
+import com.nuclearvet.dominio.entidades.Cita;
+import com.nuclearvet.dominio.enums.EstadoCita;
+import com.nuclearvet.infraestructura.persistencia.CitaRepositorio;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.nuclearvet.compartido.transacciones.TransaccionUtil.despuesDeConfirmar;
+import static com.nuclearvet.compartido.transacciones.TransaccionUtil.siSeRevierte;
+
+/**
+ * Índice en memoria de los intervalos ocupados por cada veterinario.
+ * RF3.1 - Agendamiento de citas
+ *
+ * Se precarga desde la tabla citas al iniciar la aplicación y se mantiene
+ * coherente con la creación, confirmación, cancelación y finalización de citas.
+ * La verificación de solapamiento es una búsqueda O(log n) sobre un conjunto
+ * ordenado por hora de inicio que rechaza pronto los choques conocidos; la consulta
+ * nativa en la base de datos se ejecuta siempre después, porque el índice solo ve las
+ * citas creadas por esta instancia.
+ *
+ * Para el calendario de disponibilidad expone además la ocupación de cada día como
+ * un mapa de bits por bloques de MINUTOS_POR_BLOQUE minutos.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IndiceDisponibilidadVeterinario {
+
+    /**
+     * Estados que no ocupan la agenda (mismo criterio que CitaRepositorio.existeSolapamiento)
+     */
+    public static final List<EstadoCita> ESTADOS_LIBRES = List.of(EstadoCita.CANCELADA, EstadoCita.COMPLETADA);
+
+    /**
+     * Resolución de los mapas de ocupación: un bit por bloque, el bit 0 empieza a las 00:00
+     */
+    public static final int MINUTOS_POR_BLOQUE = 5;
+    public static final int BLOQUES_POR_DIA = 24 * 60 / MINUTOS_POR_BLOQUE;
+
+    /**
+     * Resultado de intentar reservar un intervalo en el índice
+     */
+    public enum Resultado {
+        RESERVADO,
+        OCUPADO,
+        SIN_COBERTURA
+    }
+
+    private final CitaRepositorio citaRepositorio;
+
+    @Value("${nuclearvet.agenda.indice.dias-historico:1}")
+    private int diasHistorico;
+
+    private final Map<Long, AgendaVeterinario> agendas = new ConcurrentHashMap<>();
+    private final AtomicLong secuencia = new AtomicLong();
+
+    /**
+     * Primer instante cubierto por el índice; null mientras no se haya precargado
+     */
+    private volatile LocalDateTime horizonte;
+
+    /**
+     * Precarga las citas activas desde la base de datos
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        LocalDateTime nuevoHorizonte = LocalDate.now().minusDays(diasHistorico).atStartOfDay();
+        // Se carga un día adicional para capturar citas que empiezan antes del horizonte y terminan después
+        List<Object[]> filas = citaRepositorio.findIntervalosActivosDesde(nuevoHorizonte.minusDays(1), ESTADOS_LIBRES);
+
+        agendas.clear();
+        for (Object[] fila : filas) {
+            Long citaId = (Long) fila[0];
+            Long veterinarioId = (Long) fila[1];
+            LocalDateTime inicio = (LocalDateTime) fila[2];
+            Integer duracion = (Integer) fila[3];
+            LocalDateTime fin = inicio.plusMinutes(duracion != null ? duracion : 30);
+            agenda(veterinarioId).agregar(new Intervalo(inicio, fin, secuencia.incrementAndGet(), citaId));
+        }
+        horizonte = nuevoHorizonte;
+
+        log.info("Índice de disponibilidad precargado: {} citas de {} veterinarios desde {}",
+                filas.size(), agendas.size(), nuevoHorizonte);
+    }
+
+    /**
+     * Descarta los intervalos ya terminados y avanza el horizonte del índice
+     */
+    @Scheduled(cron = "${nuclearvet.agenda.indice.purga-cron:0 30 3 * * *}")
+    public void purgarIntervalosPasados() {
+        if (horizonte == null) {
+            return;
+        }
+        LocalDateTime nuevoHorizonte = LocalDate.now().minusDays(diasHistorico).atStartOfDay();
+        LocalDateTime limite = nuevoHorizonte.minusDays(1);
+        agendas.values().forEach(agenda -> agenda.purgarHasta(limite));
+        horizonte = nuevoHorizonte;
+        log.debug("Índice de disponibilidad purgado hasta {}", limite);
+    }
+
+    /**
+     * Indica si el índice puede responder por un intervalo que empieza en la fecha dada
+     */
+    public boolean cubre(LocalDateTime inicio) {
+        LocalDateTime actual = horizonte;
+        return actual != null && !inicio.isBefore(actual);
+    }
+
+    /**
+     * Bloques del día ocupados por citas del veterinario; un bloque ocupado en parte cuenta
+     * como ocupado. El mapa se calcula una vez y se descarta cuando cambia una cita de ese
+     * día, así que consultar varias veces la misma agenda no recorre los intervalos.
+     * Se entrega una copia que el llamador puede modificar.
+     */
+    public BitSet bloquesOcupados(Long veterinarioId, LocalDate dia) {
+        AgendaVeterinario agenda = agendas.get(veterinarioId);
+        return agenda != null ? agenda.ocupacion(dia) : new BitSet(BLOQUES_POR_DIA);
+    }
+
+    /**
+     * Reserva atómicamente el intervalo para el veterinario.
+     * Si la transacción actual no confirma, la reserva se libera automáticamente.
+     */
+    public Reserva reservar(Long veterinarioId, LocalDateTime inicio, LocalDateTime fin) {
+        if (!cubre(inicio)) {
+            return new Reserva(Resultado.SIN_COBERTURA, veterinarioId, null);
+        }
+        Intervalo intervalo = new Intervalo(inicio, fin, secuencia.incrementAndGet(), null);
+        if (!agenda(veterinarioId).agregarSiLibre(intervalo)) {
+            return new Reserva(Resultado.OCUPADO, veterinarioId, null);
+        }
+
+        siSeRevierte(() -> agenda(veterinarioId).quitar(intervalo));
+        return new Reserva(Resultado.RESERVADO, veterinarioId, intervalo);
+    }
+
+    /**
+     * Asocia una reserva con la cita ya persistida
+     */
+    public void vincular(Reserva reserva, Long citaId) {
+        if (reserva.intervalo != null) {
+            agenda(reserva.veterinarioId).vincular(reserva.intervalo, citaId);
+        }
+    }
+
+    /**
+     * Asegura que la cita figure en el índice si su estado ocupa la agenda (idempotente)
+     */
+    public void registrar(Cita cita) {
+        Long veterinarioId = cita.getVeterinario().getId();
+        Long citaId = cita.getId();
+        LocalDateTime inicio = cita.getFechaHora();
+        LocalDateTime fin = cita.calcularHoraFin();
+        boolean ocupa = !ESTADOS_LIBRES.contains(cita.getEstado());
+        despuesDeConfirmar(() -> {
+            AgendaVeterinario agenda = agenda(veterinarioId);
+            agenda.quitarCita(citaId);
+            if (ocupa) {
+                agenda.agregar(new Intervalo(inicio, fin, secuencia.incrementAndGet(), citaId));
+            }
+        });
+    }
+
+    /**
+     * Libera el intervalo de una cita (cancelada o completada) cuando la transacción confirma
+     */
+    public void liberar(Long veterinarioId, Long citaId) {
+        despuesDeConfirmar(() -> {
+            AgendaVeterinario agenda = agendas.get(veterinarioId);
+            if (agenda != null) {
+                agenda.quitarCita(citaId);
+            }
+        });
+    }
+
+    private AgendaVeterinario agenda(Long veterinarioId) {
+        return agendas.computeIfAbsent(veterinarioId, id -> new AgendaVeterinario());
+    }
+
+    /**
+     * Resultado de una reserva en el índice
+     */
+    public static final class Reserva {
+        private final Resultado resultado;
+        private final Long veterinarioId;
+        private final Intervalo intervalo;
+
+        private Reserva(Resultado resultado, Long veterinarioId, Intervalo intervalo) {
+            this.resultado = resultado;
+            this.veterinarioId = veterinarioId;
+            this.intervalo = intervalo;
+        }
+
+        public Resultado getResultado() {
+            return resultado;
+        }
+    }
+
+    /**
+     * Intervalo ocupado [inicio, fin) de la agenda de un veterinario
+     */
+    static final class Intervalo {
+        private final LocalDateTime inicio;
+        private final LocalDateTime fin;
+        private final long secuencia;
+        private Long citaId;
+
+        Intervalo(LocalDateTime inicio, LocalDateTime fin, long secuencia, Long citaId) {
+            this.inicio = inicio;
+            this.fin = fin;
+            this.secuencia = secuencia;
+            this.citaId = citaId;
+        }
+    }
+
+    /**
+     * Agenda de un veterinario: intervalos ordenados por inicio.
+     * Guarda la duración máxima vista para acotar la búsqueda hacia atrás.
+     */
+    static final class AgendaVeterinario {
+        private static final Comparator<Intervalo> ORDEN = Comparator
+                .comparing((Intervalo i) -> i.inicio)
+                .thenComparingLong(i -> i.secuencia);
+
+        private final NavigableSet<Intervalo> intervalos = new TreeSet<>(ORDEN);
+        private final Map<Long, Intervalo> porCita = new HashMap<>();
+        private final Map<LocalDate, BitSet> ocupacionPorDia = new HashMap<>();
+        private Duration duracionMaxima = Duration.ZERO;
+
+        synchronized boolean haySolapamiento(LocalDateTime inicio, LocalDateTime fin) {
+            Intervalo desde = new Intervalo(inicio.minus(duracionMaxima), null, Long.MIN_VALUE, null);
+            Intervalo hasta = new Intervalo(fin, null, Long.MIN_VALUE, null);
+            for (Intervalo candidato : intervalos.subSet(desde, true, hasta, false)) {
+                if (candidato.fin.isAfter(inicio)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized boolean agregarSiLibre(Intervalo intervalo) {
+            if (haySolapamiento(intervalo.inicio, intervalo.fin)) {
+                return false;
+            }
+            agregar(intervalo);
+            return true;
+        }
+
+        synchronized void agregar(Intervalo intervalo) {
+            intervalos.add(intervalo);
+            invalidar(intervalo);
+            if (intervalo.citaId != null) {
+                porCita.put(intervalo.citaId, intervalo);
+            }
+            Duration duracion = Duration.between(intervalo.inicio, intervalo.fin);
+            if (duracion.compareTo(duracionMaxima) > 0) {
+                duracionMaxima = duracion;
+            }
+        }
+
+        synchronized void vincular(Intervalo intervalo, Long citaId) {
+            intervalo.citaId = citaId;
+            porCita.put(citaId, intervalo);
+        }
+
+        synchronized void quitar(Intervalo intervalo) {
+            intervalos.remove(intervalo);
+            invalidar(intervalo);
+            if (intervalo.citaId != null) {
+                porCita.remove(intervalo.citaId, intervalo);
+            }
+        }
+
+        synchronized void quitarCita(Long citaId) {
+            Intervalo intervalo = porCita.remove(citaId);
+            if (intervalo != null) {
+                intervalos.remove(intervalo);
+                invalidar(intervalo);
+            }
+        }
+
+        synchronized BitSet ocupacion(LocalDate dia) {
+            BitSet mapa = ocupacionPorDia.get(dia);
+            if (mapa == null) {
+                mapa = calcularOcupacion(dia);
+                ocupacionPorDia.put(dia, mapa);
+            }
+            return (BitSet) mapa.clone();
+        }
+
+        private BitSet calcularOcupacion(LocalDate dia) {
+            LocalDateTime inicioDia = dia.atStartOfDay();
+            LocalDateTime finDia = inicioDia.plusDays(1);
+            long segundosPorBloque = MINUTOS_POR_BLOQUE * 60L;
+            BitSet mapa = new BitSet(BLOQUES_POR_DIA);
+            Intervalo desde = new Intervalo(inicioDia.minus(duracionMaxima), null, Long.MIN_VALUE, null);
+            Intervalo hasta = new Intervalo(finDia, null, Long.MIN_VALUE, null);
+            for (Intervalo intervalo : intervalos.subSet(desde, true, hasta, false)) {
+                if (!intervalo.fin.isAfter(inicioDia)) {
+                    continue;
+                }
+                long inicio = Math.max(0, Duration.between(inicioDia, intervalo.inicio).getSeconds());
+                long fin = Math.min(BLOQUES_POR_DIA * segundosPorBloque, Duration.between(inicioDia, intervalo.fin).getSeconds());
+                mapa.set((int) (inicio / segundosPorBloque), (int) ((fin + segundosPorBloque - 1) / segundosPorBloque));
+            }
+            return mapa;
+        }
+
+        private void invalidar(Intervalo intervalo) {
+            for (LocalDate dia = intervalo.inicio.toLocalDate(); dia.atStartOfDay().isBefore(intervalo.fin); dia = dia.plusDays(1)) {
+                ocupacionPorDia.remove(dia);
+            }
+        }
+
+        synchronized void purgarHasta(LocalDateTime limite) {
+            Intervalo hasta = new Intervalo(limite, null, Long.MIN_VALUE, null);
+            intervalos.headSet(hasta, false).removeIf(intervalo -> {
+                if (intervalo.fin.isAfter(limite)) {
+                    return false;
+                }
+                if (intervalo.citaId != null) {
+                    porCita.remove(intervalo.citaId, intervalo);
+                }
+                return true;
+            });
+            ocupacionPorDia.keySet().removeIf(dia -> dia.isBefore(limite.toLocalDate()));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.nuclearvet.infraestructura.archivos;
+
+import com.nuclearvet.infraestructura.persistencia.ArchivoMedicoRepositorio;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo en segundo plano de la huella SHA-256 de los archivos médicos subidos antes de
+ * que se registrara al subir.
+ *
+ * Leer un archivo de cientos de megas no debe retener la petición de descarga ni su
+ * conexión a la base de datos: la descarga se atiende enseguida con una ETag débil y la
+ * huella se guarda cuando termina de calcularse, en una transacción corta propia. Cada
+ * archivo se calcula una sola vez aunque se descargue varias veces mientras tanto; si la
+ * cola está llena se omite y se vuelve a intentar en la siguiente descarga.
+ */
+@Component
+@Slf4j
+public class CalculoHuellasPendientes {
+
+    private final ArchivoMedicoRepositorio archivoMedicoRepositorio;
+    private final TransactionTemplate transaccion;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> enCurso = ConcurrentHashMap.newKeySet();
+
+    public CalculoHuellasPendientes(
+            ArchivoMedicoRepositorio archivoMedicoRepositorio,
+            PlatformTransactionManager transactionManager,
+            @Value("${nuclearvet.archivos.huellas.cola:100}") int capacidadCola) {
+        this.archivoMedicoRepositorio = archivoMedicoRepositorio;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "huellas-archivos");
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Programa el cálculo de la huella del archivo si no está ya en curso
+     */
+    public void programar(Long archivoId, Path ruta) {
+        if (!enCurso.add(archivoId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> calcular(archivoId, ruta));
+        } catch (RejectedExecutionException e) {
+            enCurso.remove(archivoId);
+            log.debug("Cola de huellas llena; el archivo médico ID {} se reintentará en otra descarga", archivoId);
+        }
+    }
+
+    private void calcular(Long archivoId, Path ruta) {
+        try {
+            String hash = EntregaArchivos.huella(ruta);
+            transaccion.executeWithoutResult(estado -> archivoMedicoRepositorio.registrarHash(archivoId, hash));
+            log.info("Huella registrada para el archivo médico ID: {}", archivoId);
+        } catch (RuntimeException e) {
+            log.warn("No fue posible calcular la huella del archivo médico ID {}: {}", archivoId, e.getMessage());
+        } finally {
+            enCurso.remove(archivoId);
+        }
+    }
+}
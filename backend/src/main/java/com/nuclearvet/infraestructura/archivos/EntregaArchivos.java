@@ -0,0 +1,185 @@
+package com.nuclearvet.infraestructura.archivos;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Entrega de archivos almacenados en disco con soporte HTTP completo: rangos de bytes
+ * (una radiografía o un video se puede retomar o recorrer sin volver a bajarlo entero),
+ * GET condicional con ETag igual a la huella SHA-256 del contenido, y Cache-Control
+ * privado (son datos clínicos). Mientras un archivo antiguo no tiene huella, la ETag es
+ * débil (tamaño y fecha de modificación): sirve para GET condicional pero no para If-Range.
+ *
+ * El cuerpo se copia con FileChannel.transferTo directo desde el archivo, por tramos y sin
+ * cargarlo en memoria, así que el consumo de heap no depende del tamaño del archivo.
+ */
+@Component
+public class EntregaArchivos {
+
+    private static final String ALGORITMO_HASH = "SHA-256";
+
+    private final CacheControl cacheControl;
+
+    public EntregaArchivos(@Value("${nuclearvet.archivos.cache-segundos:3600}") long cacheSegundos) {
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(cacheSegundos)).cachePrivate().mustRevalidate();
+    }
+
+    /**
+     * Responde la solicitud con el archivo completo (200), un rango (206), sin cuerpo si el
+     * cliente ya tiene esta versión (304) o 416 si el rango pedido no existe
+     *
+     * @param solicitud cabeceras de la solicitud (Range, If-Range, If-None-Match)
+     * @param hash      huella SHA-256 del contenido, en hexadecimal; null si aún no se conoce
+     */
+    public ResponseEntity<StreamingResponseBody> entregar(HttpHeaders solicitud, Path ruta, String hash,
+                                                          String nombreArchivo, MediaType tipo) {
+        long tamano;
+        String etag;
+        try {
+            tamano = Files.size(ruta);
+            etag = hash != null
+                    ? "\"" + hash + "\""
+                    : "W/\"" + Long.toHexString(tamano) + "-"
+                            + Long.toHexString(Files.getLastModifiedTime(ruta).toMillis()) + "\"";
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se puede leer el archivo: " + nombreArchivo, e);
+        }
+
+        if (coincide(solicitud.getIfNoneMatch(), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        ResponseEntity.BodyBuilder respuesta;
+        long inicio = 0;
+        long largo = tamano;
+        HttpRange rango = rangoSolicitado(solicitud, etag);
+        if (rango == null) {
+            respuesta = ResponseEntity.ok();
+        } else {
+            long fin;
+            try {
+                inicio = rango.getRangeStart(tamano);
+                fin = rango.getRangeEnd(tamano);
+            } catch (IllegalArgumentException e) {
+                fin = -1;
+            }
+            if (inicio >= tamano || fin < inicio) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + tamano)
+                        .build();
+            }
+            largo = fin - inicio + 1;
+            respuesta = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + (inicio + largo - 1) + "/" + tamano);
+        }
+
+        long desde = inicio;
+        long cantidad = largo;
+        return respuesta
+                .contentType(tipo)
+                .contentLength(largo)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(nombreArchivo).build().toString())
+                .body(salida -> transferir(ruta, desde, cantidad, salida));
+    }
+
+    /**
+     * Huella SHA-256 en hexadecimal de un archivo, leyéndolo por tramos
+     */
+    public static String huella(Path ruta) {
+        MessageDigest digest = nuevoDigest();
+        try (InputStream entrada = new DigestInputStream(Files.newInputStream(ruta), digest)) {
+            entrada.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static MessageDigest nuevoDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITMO_HASH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Solo se atiende un rango; con varios, o si If-Range no corresponde a esta versión, se
+     * entrega el archivo completo (el RFC 9110 lo permite). If-Range exige una ETag fuerte
+     */
+    private static HttpRange rangoSolicitado(HttpHeaders solicitud, String etag) {
+        List<HttpRange> rangos;
+        try {
+            rangos = solicitud.getRange();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (rangos.size() != 1) {
+            return null;
+        }
+        String siRango = solicitud.getFirst(HttpHeaders.IF_RANGE);
+        if (siRango != null && (etag.startsWith("W/") || !siRango.equals(etag))) {
+            return null;
+        }
+        return rangos.get(0);
+    }
+
+    /**
+     * Comparación débil, la que corresponde a If-None-Match
+     */
+    private static boolean coincide(List<String> etiquetas, String etag) {
+        String opaca = etag.replaceFirst("^W/", "");
+        for (String etiqueta : etiquetas) {
+            if (etiqueta.equals("*") || etiqueta.replaceFirst("^W/", "").equals(opaca)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static void transferir(Path ruta, long inicio, long largo, OutputStream salida) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            WritableByteChannel destino = Channels.newChannel(salida);
+            long posicion = inicio;
+            long restante = largo;
+            while (restante > 0) {
+                long enviados = canal.transferTo(posicion, restante, destino);
+                if (enviados <= 0) {
+                    throw new IOException("El archivo se truncó durante la descarga: " + ruta.getFileName());
+                }
+                posicion += enviados;
+                restante -= enviados;
+            }
+        }
+        salida.flush();
+    }
+}
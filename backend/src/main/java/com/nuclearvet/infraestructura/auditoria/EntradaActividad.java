@@ -0,0 +1,22 @@
+package com.nuclearvet.infraestructura.auditoria;
+
+import com.nuclearvet.dominio.enums.TipoAccion;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada inmutable del registro de actividad pendiente de escritura.
+ * Referencia al usuario solo por ID para no cargar la entidad.
+ */
+@Value
+@Builder
+public class EntradaActividad {
+
+    Long usuarioId;
+    TipoAccion tipoAccion;
+    String descripcion;
+    String ipOrigen;
+    LocalDateTime fechaHora;
+}
@@ -0,0 +1,349 @@
+package com.nuclearvet.infraestructura.auditoria;
+
+import com.nuclearvet.dominio.enums.TipoAccion;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.nuclearvet.compartido.transacciones.TransaccionUtil.despuesDeConfirmar;
+
+/**
+ * Escritor asíncrono del registro de actividad
+ * RF1.5 - Registro de actividad relevante
+ *
+ * Las entradas se encolan en un buffer acotado al confirmar la transacción del llamador
+ * y un hilo en segundo plano las inserta por lotes con JDBC. Si el buffer está lleno,
+ * la entrada se escribe de forma síncrona en el hilo del llamador (contrapresión), en una
+ * transacción propia: en afterCommit la conexión del llamador sigue ligada al hilo pero
+ * ya confirmó, y lo escrito en ella no se confirmaría nunca.
+ * Opcionalmente, las entradas que no se pudieron escribir se guardan en un diario en
+ * disco que se reprocesa al siguiente arranque (entrega al menos una vez: si el arranque
+ * se interrumpe a mitad del reproceso, alguna entrada puede quedar duplicada).
+ */
+@Component
+@Slf4j
+public class EscritorRegistroActividad {
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO registro_actividad (usuario_id, tipo_accion, descripcion, ip_origen, fecha_hora) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private static final int LONGITUD_MAXIMA_DESCRIPCION = 500;
+    private static final int LONGITUD_MAXIMA_IP = 45;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccionPropia;
+    private final BlockingQueue<EntradaActividad> cola;
+    private final int tamanoLote;
+    private final long intervaloVaciadoMs;
+    private final Path rutaDiario;
+
+    private final AtomicLong encoladas = new AtomicLong();
+    private final AtomicLong escritas = new AtomicLong();
+    private final AtomicLong lotes = new AtomicLong();
+    private final AtomicLong escritasSincronas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    private final AtomicLong enviadasAlDiario = new AtomicLong();
+
+    private volatile boolean activo;
+    private Thread hiloEscritor;
+
+    public EscritorRegistroActividad(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${nuclearvet.auditoria.capacidad-cola:10000}") int capacidadCola,
+            @Value("${nuclearvet.auditoria.tamano-lote:200}") int tamanoLote,
+            @Value("${nuclearvet.auditoria.intervalo-vaciado-ms:1000}") long intervaloVaciadoMs,
+            @Value("${nuclearvet.auditoria.diario.ruta:}") String rutaDiario) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccionPropia = new TransactionTemplate(transactionManager);
+        this.transaccionPropia.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        this.tamanoLote = tamanoLote;
+        this.intervaloVaciadoMs = intervaloVaciadoMs;
+        this.rutaDiario = rutaDiario == null || rutaDiario.isBlank() ? null : Paths.get(rutaDiario);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        reprocesarDiario();
+        activo = true;
+        hiloEscritor = new Thread(this::ejecutar, "auditoria-escritor");
+        hiloEscritor.setDaemon(true);
+        hiloEscritor.start();
+        log.info("Escritor de registro de actividad iniciado (lote={}, intervalo={} ms, diario={})",
+                tamanoLote, intervaloVaciadoMs, rutaDiario != null ? rutaDiario : "deshabilitado");
+    }
+
+    @PreDestroy
+    public void detener() {
+        activo = false;
+        if (hiloEscritor != null) {
+            hiloEscritor.interrupt();
+            try {
+                hiloEscritor.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Vaciar lo pendiente; lo que no se pueda escribir va al diario
+        List<EntradaActividad> pendientes = new ArrayList<>();
+        cola.drainTo(pendientes);
+        if (!pendientes.isEmpty()) {
+            List<EntradaActividad> noEscritas = escribirLote(pendientes);
+            guardarEnDiario(noEscritas);
+        }
+        log.info("Escritor de registro de actividad detenido: {}", obtenerEstadisticas());
+    }
+
+    /**
+     * Registra una entrada; si hay una transacción activa, solo se encola cuando ésta confirma
+     */
+    public void registrar(EntradaActividad entrada) {
+        despuesDeConfirmar(() -> encolar(entrada));
+    }
+
+    /**
+     * Estadísticas de funcionamiento y contrapresión del escritor
+     */
+    public Map<String, Object> obtenerEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("pendientes", cola.size());
+        estadisticas.put("capacidadRestante", cola.remainingCapacity());
+        estadisticas.put("encoladas", encoladas.get());
+        estadisticas.put("escritas", escritas.get());
+        estadisticas.put("lotes", lotes.get());
+        estadisticas.put("escritasSincronas", escritasSincronas.get());
+        estadisticas.put("descartadas", descartadas.get());
+        estadisticas.put("enviadasAlDiario", enviadasAlDiario.get());
+        return estadisticas;
+    }
+
+    private void encolar(EntradaActividad entrada) {
+        if (activo && cola.offer(entrada)) {
+            encoladas.incrementAndGet();
+            return;
+        }
+        // Buffer lleno o escritor detenido: escribir en el hilo del llamador
+        escritasSincronas.incrementAndGet();
+        guardarEnDiario(escribirIndividualmente(List.of(entrada)));
+    }
+
+    private void ejecutar() {
+        List<EntradaActividad> lote = new ArrayList<>(tamanoLote);
+        while (activo) {
+            try {
+                EntradaActividad primera = cola.poll(intervaloVaciadoMs, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                lote.add(primera);
+                cola.drainTo(lote, tamanoLote - 1);
+                List<EntradaActividad> noEscritas = escribirLote(lote);
+                if (!noEscritas.isEmpty()) {
+                    guardarEnDiario(noEscritas);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Error en el escritor de registro de actividad: {}", e.getMessage());
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Inserta el lote con JDBC; devuelve las entradas que no se pudieron escribir por
+     * errores de infraestructura (las que violan restricciones se descartan)
+     */
+    private List<EntradaActividad> escribirLote(List<EntradaActividad> lote) {
+        try {
+            jdbcTemplate.batchUpdate(SQL_INSERTAR, lote, lote.size(), (ps, entrada) -> {
+                ps.setLong(1, entrada.getUsuarioId());
+                ps.setString(2, entrada.getTipoAccion().name());
+                ps.setString(3, truncar(entrada.getDescripcion(), LONGITUD_MAXIMA_DESCRIPCION));
+                ps.setString(4, truncar(entrada.getIpOrigen(), LONGITUD_MAXIMA_IP));
+                ps.setTimestamp(5, Timestamp.valueOf(entrada.getFechaHora()));
+            });
+            escritas.addAndGet(lote.size());
+            lotes.incrementAndGet();
+            return List.of();
+        } catch (DataIntegrityViolationException e) {
+            // Alguna fila inválida (p. ej. usuario inexistente): reintentar una por una
+            return escribirIndividualmente(lote);
+        } catch (DataAccessException e) {
+            log.error("No fue posible escribir {} entradas de actividad: {}", lote.size(), e.getMessage());
+            return new ArrayList<>(lote);
+        }
+    }
+
+    /**
+     * Inserta cada entrada en su propia transacción, así un error no deja abortada la
+     * de las demás ni escribe sobre la conexión de una transacción ya confirmada
+     */
+    private List<EntradaActividad> escribirIndividualmente(List<EntradaActividad> lote) {
+        List<EntradaActividad> noEscritas = new ArrayList<>();
+        for (EntradaActividad entrada : lote) {
+            try {
+                transaccionPropia.executeWithoutResult(estado -> jdbcTemplate.update(SQL_INSERTAR,
+                        entrada.getUsuarioId(),
+                        entrada.getTipoAccion().name(),
+                        truncar(entrada.getDescripcion(), LONGITUD_MAXIMA_DESCRIPCION),
+                        truncar(entrada.getIpOrigen(), LONGITUD_MAXIMA_IP),
+                        Timestamp.valueOf(entrada.getFechaHora())));
+                escritas.incrementAndGet();
+            } catch (DataIntegrityViolationException e) {
+                descartadas.incrementAndGet();
+                log.error("Entrada de actividad descartada (usuario={}, acción={}): {}",
+                        entrada.getUsuarioId(), entrada.getTipoAccion(), e.getMessage());
+            } catch (DataAccessException e) {
+                noEscritas.add(entrada);
+            }
+        }
+        return noEscritas;
+    }
+
+    private void guardarEnDiario(List<EntradaActividad> entradas) {
+        if (entradas.isEmpty()) {
+            return;
+        }
+        if (rutaDiario == null) {
+            descartadas.addAndGet(entradas.size());
+            log.error("Se perdieron {} entradas de actividad (diario deshabilitado)", entradas.size());
+            return;
+        }
+        synchronized (this) {
+            try {
+                if (rutaDiario.getParent() != null) {
+                    Files.createDirectories(rutaDiario.getParent());
+                }
+                try (BufferedWriter escritor = Files.newBufferedWriter(rutaDiario, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (EntradaActividad entrada : entradas) {
+                        escritor.write(serializar(entrada));
+                        escritor.newLine();
+                    }
+                }
+                enviadasAlDiario.addAndGet(entradas.size());
+            } catch (IOException e) {
+                descartadas.addAndGet(entradas.size());
+                log.error("No fue posible escribir el diario de actividad {}: {}", rutaDiario, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reinserta las entradas guardadas en el diario durante la ejecución anterior. Un
+     * archivo .procesando que quedó de un reproceso interrumpido se reinserta primero
+     */
+    private void reprocesarDiario() {
+        if (rutaDiario == null) {
+            return;
+        }
+        Path procesando = rutaDiario.resolveSibling(rutaDiario.getFileName() + ".procesando");
+        try {
+            if (Files.exists(procesando)) {
+                reprocesar(procesando);
+            }
+            if (Files.exists(rutaDiario)) {
+                Files.move(rutaDiario, procesando);
+                reprocesar(procesando);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("No fue posible reprocesar el diario de actividad {}: {}", rutaDiario, e.getMessage());
+        }
+    }
+
+    private void reprocesar(Path archivo) throws IOException {
+        List<EntradaActividad> entradas = new ArrayList<>();
+        for (String linea : Files.readAllLines(archivo, StandardCharsets.UTF_8)) {
+            if (!linea.isBlank()) {
+                entradas.add(deserializar(linea));
+            }
+        }
+        // Lo que vuelva a fallar se agrega al diario, no al archivo que se está reprocesando
+        for (int i = 0; i < entradas.size(); i += tamanoLote) {
+            guardarEnDiario(escribirLote(entradas.subList(i, Math.min(i + tamanoLote, entradas.size()))));
+        }
+        Files.delete(archivo);
+        log.info("Diario de actividad {} reprocesado: {} entradas", archivo.getFileName(), entradas.size());
+    }
+
+    static String serializar(EntradaActividad entrada) {
+        return entrada.getUsuarioId() + "\t" + entrada.getTipoAccion().name() + "\t" + entrada.getFechaHora()
+                + "\t" + escapar(entrada.getIpOrigen()) + "\t" + escapar(entrada.getDescripcion());
+    }
+
+    static EntradaActividad deserializar(String linea) {
+        String[] campos = linea.split("\t", -1);
+        return EntradaActividad.builder()
+                .usuarioId(Long.valueOf(campos[0]))
+                .tipoAccion(TipoAccion.valueOf(campos[1]))
+                .fechaHora(LocalDateTime.parse(campos[2]))
+                .ipOrigen(desescapar(campos[3]))
+                .descripcion(desescapar(campos[4]))
+                .build();
+    }
+
+    private static String escapar(String valor) {
+        if (valor == null) {
+            return "\\0";
+        }
+        return valor.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String desescapar(String valor) {
+        if ("\\0".equals(valor)) {
+            return null;
+        }
+        StringBuilder resultado = new StringBuilder(valor.length());
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '\\' && i + 1 < valor.length()) {
+                char siguiente = valor.charAt(++i);
+                resultado.append(switch (siguiente) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> siguiente;
+                });
+            } else {
+                resultado.append(c);
+            }
+        }
+        return resultado.toString();
+    }
+
+    private static String truncar(String valor, int longitud) {
+        return valor != null && valor.length() > longitud ? valor.substring(0, longitud) : valor;
+    }
+}
@@ -0,0 +1,473 @@
+package com.nuclearvet.infraestructura.busqueda;
+
+import com.nuclearvet.dominio.entidades.Paciente;
+import com.nuclearvet.dominio.entidades.Producto;
+import com.nuclearvet.dominio.entidades.Propietario;
+import com.nuclearvet.dominio.enumeraciones.TipoResultadoBusqueda;
+import com.nuclearvet.dominio.enums.Especie;
+import com.nuclearvet.dominio.enums.EstadoPaciente;
+import com.nuclearvet.infraestructura.persistencia.PacienteRepositorio;
+import com.nuclearvet.infraestructura.persistencia.ProductoRepositorio;
+import com.nuclearvet.infraestructura.persistencia.PropietarioRepositorio;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import static com.nuclearvet.compartido.transacciones.TransaccionUtil.despuesDeConfirmar;
+
+/**
+ * Índice en memoria para la búsqueda general (caja de búsqueda de recepción) sobre
+ * pacientes (nombre, código, microchip), propietarios (nombre, identificación, teléfono) y
+ * productos (nombre, código).
+ *
+ * Cada campo se normaliza (minúsculas, sin tildes) y se parte en palabras. Los términos de
+ * tres o más caracteres se resuelven con un índice de trigramas (coincidencia en cualquier
+ * parte de la palabra) y los más cortos con un índice ordenado de palabras (coincidencia
+ * por prefijo), así que ninguna consulta recorre todas las entradas. Los candidatos se
+ * verifican contra la entrada vigente y se ordenan por relevancia.
+ *
+ * Los servicios informan cada alta, edición y baja (se aplican al confirmar la
+ * transacción). Cada nuclearvet.busqueda.recarga-ms, y al arrancar, el índice se
+ * reconstruye desde la base de datos sin perder los cambios que lleguen mientras tanto.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IndiceBusqueda {
+
+    private static final int LONGITUD_TRIGRAMA = 3;
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    /** Puntaje por término según cómo coincide con una palabra del campo */
+    private static final int PUNTAJE_EXACTO = 100;
+    private static final int PUNTAJE_PREFIJO = 60;
+    private static final int PUNTAJE_CONTENIDO = 30;
+    /** Bonificación cuando la consulta completa es exactamente un campo (código, microchip, identificación) */
+    private static final int PUNTAJE_CAMPO_EXACTO = 300;
+
+    private final PacienteRepositorio pacienteRepositorio;
+    private final PropietarioRepositorio propietarioRepositorio;
+    private final ProductoRepositorio productoRepositorio;
+
+    private final Object bloqueoRecarga = new Object();
+    private volatile Indice actual = new Indice();
+    private volatile boolean cargado;
+    /** Cambios recibidos durante una recarga, para aplicarlos también al índice nuevo */
+    private List<Consumer<Indice>> diario;
+
+    // ===== Escrituras =====
+
+    public void indexar(Paciente paciente) {
+        Propietario propietario = paciente.getPropietario();
+        Entrada entrada = entradaPaciente(paciente.getId(), paciente.getNombre(), paciente.getCodigo(),
+                paciente.getMicrochip(), paciente.getEspecie(), paciente.getEstado(),
+                propietario != null ? propietario.getNombres() : null,
+                propietario != null ? propietario.getApellidos() : null);
+        alConfirmar(indice -> indice.poner(entrada));
+    }
+
+    public void indexar(Propietario propietario) {
+        Entrada entrada = entradaPropietario(propietario.getId(), propietario.getNombres(), propietario.getApellidos(),
+                propietario.getNumeroIdentificacion(), propietario.getTelefonoPrincipal(), propietario.getActivo());
+        alConfirmar(indice -> indice.poner(entrada));
+    }
+
+    public void indexar(Producto producto) {
+        Entrada entrada = entradaProducto(producto.getId(), producto.getNombre(), producto.getCodigo(), producto.getActivo());
+        alConfirmar(indice -> indice.poner(entrada));
+    }
+
+    public void eliminar(TipoResultadoBusqueda tipo, Long id) {
+        String clave = clave(tipo, id);
+        alConfirmar(indice -> indice.quitar(clave));
+    }
+
+    // ===== Búsqueda =====
+
+    /**
+     * Entradas que contienen todos los términos de la consulta, de la más a la menos relevante
+     *
+     * @param tipos tipos a incluir; vacío para todos
+     */
+    public Resultado buscar(String consulta, Set<TipoResultadoBusqueda> tipos, int desde, int cantidad) {
+        if (!cargado) {
+            cargarSiFalta();
+        }
+        String normalizada = normalizar(consulta);
+        List<String> terminos = palabras(normalizada);
+        if (terminos.isEmpty()) {
+            return new Resultado(List.of(), 0);
+        }
+        Indice indice = actual;
+        Set<Entrada> candidatos = indice.candidatos(terminos);
+        String compacta = String.join("", terminos);
+
+        List<Coincidencia> coincidencias = new ArrayList<>();
+        for (Entrada entrada : candidatos) {
+            if ((!tipos.isEmpty() && !tipos.contains(entrada.tipo)) || !indice.vigente(entrada)) {
+                continue;
+            }
+            int puntaje = entrada.puntuar(terminos, compacta);
+            if (puntaje > 0) {
+                coincidencias.add(new Coincidencia(entrada, entrada.activo ? puntaje : puntaje / 2));
+            }
+        }
+        coincidencias.sort(Comparator.comparingInt(Coincidencia::getPuntaje).reversed()
+                .thenComparing(Coincidencia::getTitulo, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(Coincidencia::getId));
+        int total = coincidencias.size();
+        int inicio = Math.min(desde, total);
+        return new Resultado(new ArrayList<>(coincidencias.subList(inicio, Math.min(inicio + cantidad, total))), total);
+    }
+
+    // ===== Recarga =====
+
+    @Scheduled(fixedDelayString = "${nuclearvet.busqueda.recarga-ms:3600000}")
+    public void recargar() {
+        synchronized (bloqueoRecarga) {
+            synchronized (this) {
+                diario = new ArrayList<>();
+            }
+            try {
+                Indice nuevo = new Indice();
+                for (Object[] fila : pacienteRepositorio.findCamposBusqueda()) {
+                    nuevo.poner(entradaPaciente((Long) fila[0], (String) fila[1], (String) fila[2], (String) fila[3],
+                            (Especie) fila[4], (EstadoPaciente) fila[5], (String) fila[6], (String) fila[7]));
+                }
+                for (Object[] fila : propietarioRepositorio.findCamposBusqueda()) {
+                    nuevo.poner(entradaPropietario((Long) fila[0], (String) fila[1], (String) fila[2], (String) fila[3],
+                            (String) fila[4], (Boolean) fila[5]));
+                }
+                for (Object[] fila : productoRepositorio.findCamposBusqueda()) {
+                    nuevo.poner(entradaProducto((Long) fila[0], (String) fila[1], (String) fila[2], (Boolean) fila[3]));
+                }
+                synchronized (this) {
+                    diario.forEach(cambio -> cambio.accept(nuevo));
+                    actual = nuevo;
+                    cargado = true;
+                }
+                log.debug("Índice de búsqueda cargado con {} entradas", nuevo.entradas.size());
+            } finally {
+                synchronized (this) {
+                    diario = null;
+                }
+            }
+        }
+    }
+
+    private void cargarSiFalta() {
+        synchronized (bloqueoRecarga) {
+            if (!cargado) {
+                recargar();
+            }
+        }
+    }
+
+    private void alConfirmar(Consumer<Indice> cambio) {
+        despuesDeConfirmar(() -> aplicar(cambio));
+    }
+
+    private synchronized void aplicar(Consumer<Indice> cambio) {
+        cambio.accept(actual);
+        if (diario != null) {
+            diario.add(cambio);
+        }
+    }
+
+    // ===== Entradas =====
+
+    private static Entrada entradaPaciente(Long id, String nombre, String codigo, String microchip, Especie especie,
+                                           EstadoPaciente estado, String nombresPropietario, String apellidosPropietario) {
+        StringJoiner detalle = new StringJoiner(" · ");
+        agregar(detalle, codigo);
+        agregar(detalle, especie != null ? especie.getDescripcion() : null);
+        agregar(detalle, unir(nombresPropietario, apellidosPropietario));
+        return new Entrada(TipoResultadoBusqueda.PACIENTE, id, nombre, detalle.toString(),
+                estado == null || estado == EstadoPaciente.ACTIVO,
+                new String[]{nombre, codigo, microchip});
+    }
+
+    private static Entrada entradaPropietario(Long id, String nombres, String apellidos, String identificacion,
+                                              String telefono, Boolean activo) {
+        StringJoiner detalle = new StringJoiner(" · ");
+        agregar(detalle, identificacion);
+        agregar(detalle, telefono);
+        return new Entrada(TipoResultadoBusqueda.PROPIETARIO, id, unir(nombres, apellidos), detalle.toString(),
+                !Boolean.FALSE.equals(activo), new String[]{unir(nombres, apellidos), identificacion, telefono});
+    }
+
+    private static Entrada entradaProducto(Long id, String nombre, String codigo, Boolean activo) {
+        return new Entrada(TipoResultadoBusqueda.PRODUCTO, id, nombre, codigo != null ? codigo : "",
+                !Boolean.FALSE.equals(activo), new String[]{nombre, codigo});
+    }
+
+    private static String unir(String nombres, String apellidos) {
+        StringJoiner nombre = new StringJoiner(" ");
+        agregar(nombre, nombres);
+        agregar(nombre, apellidos);
+        return nombre.toString();
+    }
+
+    private static void agregar(StringJoiner destino, String valor) {
+        if (valor != null && !valor.isBlank()) {
+            destino.add(valor);
+        }
+    }
+
+    private static String clave(TipoResultadoBusqueda tipo, Long id) {
+        return tipo.name() + ":" + id;
+    }
+
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(sinTildes.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static List<String> palabras(String normalizado) {
+        return normalizado.isEmpty() ? List.of() : Arrays.asList(normalizado.split(" "));
+    }
+
+    private static Set<String> trigramas(String palabra) {
+        Set<String> resultado = new HashSet<>();
+        for (int i = 0; i + LONGITUD_TRIGRAMA <= palabra.length(); i++) {
+            resultado.add(palabra.substring(i, i + LONGITUD_TRIGRAMA));
+        }
+        return resultado;
+    }
+
+    /**
+     * Estructuras del índice. Las escrituras están serializadas por IndiceBusqueda; las
+     * lecturas no se bloquean y descartan las entradas que ya fueron reemplazadas
+     */
+    private static final class Indice {
+        private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+        private final Map<String, Set<Entrada>> porTrigrama = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<String, Set<Entrada>> porPalabra = new ConcurrentSkipListMap<>();
+
+        void poner(Entrada entrada) {
+            Entrada anterior = entradas.put(entrada.clave, entrada);
+            if (anterior != null) {
+                desindexar(anterior);
+            }
+            for (String palabra : entrada.palabras) {
+                porPalabra.computeIfAbsent(palabra, p -> ConcurrentHashMap.newKeySet()).add(entrada);
+                for (String trigrama : trigramas(palabra)) {
+                    porTrigrama.computeIfAbsent(trigrama, t -> ConcurrentHashMap.newKeySet()).add(entrada);
+                }
+            }
+        }
+
+        void quitar(String clave) {
+            Entrada anterior = entradas.remove(clave);
+            if (anterior != null) {
+                desindexar(anterior);
+            }
+        }
+
+        private void desindexar(Entrada entrada) {
+            for (String palabra : entrada.palabras) {
+                quitarDe(porPalabra, palabra, entrada);
+                for (String trigrama : trigramas(palabra)) {
+                    quitarDe(porTrigrama, trigrama, entrada);
+                }
+            }
+        }
+
+        private static void quitarDe(Map<String, Set<Entrada>> mapa, String llave, Entrada entrada) {
+            Set<Entrada> conjunto = mapa.get(llave);
+            if (conjunto != null) {
+                conjunto.remove(entrada);
+                if (conjunto.isEmpty()) {
+                    mapa.remove(llave, conjunto);
+                }
+            }
+        }
+
+        boolean vigente(Entrada entrada) {
+            return entradas.get(entrada.clave) == entrada;
+        }
+
+        /**
+         * Entradas que pueden contener todos los términos: intersección de los conjuntos de
+         * cada término, empezando por el más pequeño
+         */
+        Set<Entrada> candidatos(List<String> terminos) {
+            List<Set<Entrada>> conjuntos = new ArrayList<>();
+            for (String termino : terminos) {
+                if (termino.length() >= LONGITUD_TRIGRAMA) {
+                    for (String trigrama : trigramas(termino)) {
+                        conjuntos.add(porTrigrama.getOrDefault(trigrama, Set.of()));
+                    }
+                } else {
+                    Set<Entrada> conPrefijo = new HashSet<>();
+                    porPalabra.subMap(termino, termino + Character.MAX_VALUE).values().forEach(conPrefijo::addAll);
+                    conjuntos.add(conPrefijo);
+                }
+            }
+            conjuntos.sort(Comparator.comparingInt(Set::size));
+            Set<Entrada> resultado = new HashSet<>(conjuntos.get(0));
+            for (int i = 1; i < conjuntos.size() && !resultado.isEmpty(); i++) {
+                resultado.retainAll(conjuntos.get(i));
+            }
+            return resultado;
+        }
+    }
+
+    private static final class Entrada {
+        private final String clave;
+        private final TipoResultadoBusqueda tipo;
+        private final Long id;
+        private final String titulo;
+        private final String detalle;
+        private final boolean activo;
+        /** Palabras normalizadas de cada campo, en orden de campo */
+        private final String[][] camposPalabras;
+        /** Cada campo normalizado y sin espacios, para identificadores y teléfonos escritos de corrido */
+        private final String[] camposCompactos;
+        private final Set<String> palabras = new HashSet<>();
+
+        private Entrada(TipoResultadoBusqueda tipo, Long id, String titulo, String detalle, boolean activo, String[] campos) {
+            this.clave = clave(tipo, id);
+            this.tipo = tipo;
+            this.id = id;
+            this.titulo = titulo != null ? titulo : "";
+            this.detalle = detalle;
+            this.activo = activo;
+            this.camposPalabras = new String[campos.length][];
+            this.camposCompactos = new String[campos.length];
+            for (int i = 0; i < campos.length; i++) {
+                List<String> delCampo = palabras(normalizar(campos[i]));
+                camposPalabras[i] = delCampo.toArray(new String[0]);
+                camposCompactos[i] = String.join("", delCampo);
+                palabras.addAll(delCampo);
+                if (delCampo.size() > 1) {
+                    palabras.add(camposCompactos[i]);
+                }
+            }
+        }
+
+        /**
+         * Suma, por término, la mejor coincidencia en cualquier campo; 0 si algún término no
+         * aparece. Los primeros campos (nombre) pesan más en caso de empate
+         */
+        int puntuar(List<String> terminos, String consultaCompacta) {
+            int total = 0;
+            for (String termino : terminos) {
+                int mejor = 0;
+                for (int campo = 0; campo < camposPalabras.length; campo++) {
+                    int puntaje = coincidencia(termino, camposPalabras[campo], camposCompactos[campo]);
+                    if (puntaje > 0) {
+                        mejor = Math.max(mejor, puntaje + camposPalabras.length - campo);
+                    }
+                }
+                if (mejor == 0) {
+                    return 0;
+                }
+                total += mejor;
+            }
+            for (String compacto : camposCompactos) {
+                if (compacto.equals(consultaCompacta)) {
+                    total += PUNTAJE_CAMPO_EXACTO;
+                    break;
+                }
+            }
+            return total;
+        }
+
+        private static int coincidencia(String termino, String[] palabrasCampo, String compacto) {
+            int mejor = 0;
+            for (String palabra : palabrasCampo) {
+                if (palabra.equals(termino)) {
+                    return PUNTAJE_EXACTO;
+                }
+                if (palabra.startsWith(termino)) {
+                    mejor = PUNTAJE_PREFIJO;
+                } else if (mejor == 0 && palabra.contains(termino)) {
+                    mejor = PUNTAJE_CONTENIDO;
+                }
+            }
+            if (mejor == 0 && compacto.contains(termino)) {
+                mejor = compacto.startsWith(termino) ? PUNTAJE_PREFIJO : PUNTAJE_CONTENIDO;
+            }
+            return mejor;
+        }
+    }
+
+    /**
+     * Entrada encontrada con su puntaje de relevancia
+     */
+    public static final class Coincidencia {
+        private final TipoResultadoBusqueda tipo;
+        private final Long id;
+        private final String titulo;
+        private final String detalle;
+        private final boolean activo;
+        private final int puntaje;
+
+        private Coincidencia(Entrada entrada, int puntaje) {
+            this.tipo = entrada.tipo;
+            this.id = entrada.id;
+            this.titulo = entrada.titulo;
+            this.detalle = entrada.detalle;
+            this.activo = entrada.activo;
+            this.puntaje = puntaje;
+        }
+
+        public TipoResultadoBusqueda getTipo() {
+            return tipo;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getTitulo() {
+            return titulo;
+        }
+
+        public String getDetalle() {
+            return detalle;
+        }
+
+        public boolean isActivo() {
+            return activo;
+        }
+
+        public int getPuntaje() {
+            return puntaje;
+        }
+    }
+
+    /**
+     * Página de coincidencias y total de coincidencias de la consulta
+     */
+    public static final class Resultado {
+        private final List<Coincidencia> coincidencias;
+        private final int total;
+
+        public Resultado(List<Coincidencia> coincidencias, int total) {
+            this.coincidencias = coincidencias;
+            this.total = total;
+        }
+
+        public List<Coincidencia> getCoincidencias() {
+            return coincidencias;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.nuclearvet.infraestructura.concurrencia;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Límite de peticiones de la API atendidas a la vez.
+ *
+ * Con hilos de plataforma el pool de Tomcat acota la concurrencia; con hilos virtuales no
+ * hay tope y miles de peticiones terminarían esperando una conexión de HikariCP hasta su
+ * connection-timeout. Este semáforo, del tamaño del pool de conexiones, deja pasar solo
+ * las peticiones que pueden obtener una; las demás esperan aquí (un hilo virtual bloqueado
+ * no ocupa un hilo del sistema) y, si no hay permiso a tiempo, reciben 503.
+ *
+ * Las respuestas asíncronas (flujos NDJSON, exportaciones, descargas) conservan el permiso
+ * hasta que terminan de enviarse, porque siguen leyendo de la base de datos o del disco. Las
+ * suscripciones de eventos en vivo quedan fuera: duran horas, no usan conexiones y tienen su
+ * propio límite en CanalEventos.
+ */
+@Slf4j
+public class LimiteConcurrenciaFiltro extends OncePerRequestFilter {
+
+    private final Semaphore permisos;
+    private final long esperaMs;
+    private final ObjectMapper objectMapper;
+    private final List<String> rutasExcluidas;
+
+    public LimiteConcurrenciaFiltro(int peticionesMaximas, long esperaMs, ObjectMapper objectMapper,
+                                    String... rutasExcluidas) {
+        this.permisos = new Semaphore(peticionesMaximas, true);
+        this.esperaMs = esperaMs;
+        this.objectMapper = objectMapper;
+        this.rutasExcluidas = List.of(rutasExcluidas);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        return rutasExcluidas.stream().anyMatch(ruta::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        boolean obtenido;
+        try {
+            obtenido = permisos.tryAcquire(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            obtenido = false;
+        }
+        if (!obtenido) {
+            log.warn("Petición rechazada por saturación: {} {}", request.getMethod(), request.getRequestURI());
+            rechazar(response);
+            return;
+        }
+        boolean asincrona = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new LiberarAlTerminar());
+                asincrona = true;
+            }
+        } finally {
+            if (!asincrona) {
+                permisos.release();
+            }
+        }
+    }
+
+    public int getPermisosDisponibles() {
+        return permisos.availablePermits();
+    }
+
+    /**
+     * Devuelve el permiso una sola vez cuando termina la respuesta asíncrona, sea cual sea el motivo
+     */
+    private final class LiberarAlTerminar implements AsyncListener {
+
+        private final AtomicBoolean liberado = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent evento) {
+            liberar();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent evento) {
+            liberar();
+        }
+
+        @Override
+        public void onError(AsyncEvent evento) {
+            liberar();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent evento) {
+            // Un nuevo startAsync descarta los listeners registrados: se vuelve a registrar
+            evento.getAsyncContext().addListener(this);
+        }
+
+        private void liberar() {
+            if (liberado.compareAndSet(false, true)) {
+                permisos.release();
+            }
+        }
+    }
+
+    private void rechazar(HttpServletResponse response) throws IOException {
+        // Mismo cuerpo que ManejadorGlobalExcepciones para RejectedExecutionException
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("timestamp", LocalDateTime.now());
+        respuesta.put("estado", HttpStatus.SERVICE_UNAVAILABLE.value());
+        respuesta.put("error", "Servicio ocupado");
+        respuesta.put("mensaje", "Hay demasiadas solicitudes en proceso. Intente de nuevo en unos segundos");
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), respuesta);
+    }
+}
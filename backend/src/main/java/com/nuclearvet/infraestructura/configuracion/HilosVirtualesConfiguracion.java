@@ -0,0 +1,100 @@
+package com.nuclearvet.infraestructura.configuracion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nuclearvet.infraestructura.concurrencia.LimiteConcurrenciaFiltro;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Modo de ejecución con hilos virtuales (opcional, requiere Java 21).
+ *
+ * Con spring.threads.virtual.enabled=true Spring Boot atiende las peticiones de Tomcat,
+ * las tareas @Async y las tareas @Scheduled en hilos virtuales. Las peticiones que se
+ * bloquean en PostgreSQL, SMTP o disco dejan de ocupar un hilo del sistema, pero la
+ * concurrencia real sigue limitada por el pool de HikariCP: LimiteConcurrenciaFiltro
+ * admite a la vez tantas peticiones como conexiones quedan en el pool después de apartar
+ * las que usan las tareas en segundo plano (despacho de recordatorios, bandeja de correos,
+ * registro de actividad, huellas de archivos). Los pools propios
+ * (PDF, recordatorios, eventos) siguen en hilos de plataforma porque su tamaño acota
+ * trabajo de CPU o el orden de entrega.
+ *
+ * Medido con CargaReservasYArchivos en un núcleo, el modo no mejora el rendimiento de la
+ * reserva de citas ni de la subida de archivos: recorta el p99 rechazando con 503 lo que no
+ * cabe en espera-ms. Por eso sigue desactivado por defecto.
+ */
+@Configuration
+@Slf4j
+public class HilosVirtualesConfiguracion {
+
+    /** Después de la cadena de Spring Security: las peticiones sin autenticar no ocupan permiso */
+    private static final int ORDEN_LIMITE_CONCURRENCIA = 0;
+
+    /** maximum-pool-size por defecto de HikariCP */
+    private static final int TAMANO_POOL_POR_DEFECTO = 10;
+
+    /** Suscripciones SSE: no usan conexiones y las limita CanalEventos */
+    private static final String RUTA_EVENTOS = "/api/eventos";
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public FilterRegistrationBean<LimiteConcurrenciaFiltro> limiteConcurrencia(
+            DataSource dataSource,
+            ObjectMapper objectMapper,
+            @Value("${nuclearvet.concurrencia.peticiones-maximas:0}") int peticionesMaximas,
+            @Value("${nuclearvet.concurrencia.espera-ms:5000}") long esperaMs,
+            @Value("${nuclearvet.concurrencia.conexiones-segundo-plano:4}") int conexionesSegundoPlano) {
+        int tamanoPool = tamanoPool(dataSource);
+        int permisos = peticionesMaximas > 0 ? peticionesMaximas : Math.max(1, tamanoPool - conexionesSegundoPlano);
+        // Referencia de HikariCP: conexiones = núcleos * 2 + discos; más conexiones solo suman contención
+        int recomendado = Runtime.getRuntime().availableProcessors() * 2 + 1;
+        log.info("Hilos virtuales activos: {} peticiones simultáneas para un pool de {} conexiones, {} en segundo plano "
+                        + "(referencia {})", permisos, tamanoPool, conexionesSegundoPlano, recomendado);
+        if (tamanoPool <= conexionesSegundoPlano) {
+            log.warn("El pool de HikariCP ({}) no deja conexiones para peticiones después de las {} en segundo plano",
+                    tamanoPool, conexionesSegundoPlano);
+        }
+        if (tamanoPool > recomendado * 2) {
+            log.warn("El pool de HikariCP ({}) es mucho mayor que la referencia para {} núcleos ({})",
+                    tamanoPool, Runtime.getRuntime().availableProcessors(), recomendado);
+        }
+
+        FilterRegistrationBean<LimiteConcurrenciaFiltro> registro =
+                new FilterRegistrationBean<>(new LimiteConcurrenciaFiltro(permisos, esperaMs, objectMapper, RUTA_EVENTOS));
+        registro.addUrlPatterns("/api/*");
+        registro.setOrder(ORDEN_LIMITE_CONCURRENCIA);
+        return registro;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void informarModo(ApplicationReadyEvent evento) {
+        Environment entorno = evento.getApplicationContext().getEnvironment();
+        boolean solicitado = entorno.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (solicitado && !Threading.VIRTUAL.isActive(entorno)) {
+            log.warn("spring.threads.virtual.enabled requiere Java 21; se usan hilos de plataforma (Java {})",
+                    Runtime.version().feature());
+        }
+    }
+
+    private static int tamanoPool(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.debug("No se pudo leer el tamaño del pool: {}", e.getMessage());
+        }
+        return TAMANO_POOL_POR_DEFECTO;
+    }
+}
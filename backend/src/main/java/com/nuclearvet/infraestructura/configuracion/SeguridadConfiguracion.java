@@ -2,6 +2,7 @@ package com.nuclearvet.infraestructura.configuracion;
 
 import com.nuclearvet.infraestructura.seguridad.JwtFiltroAutenticacion;
 import com.nuclearvet.infraestructura.seguridad.DetallesUsuarioServicioImpl;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -39,6 +40,11 @@ public class SeguridadConfiguracion {
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configure(http))
                 .authorizeHttpRequests(auth -> auth
+                        // Cierre de respuestas asíncronas (flujos NDJSON de los endpoints /flujo,
+                        // eventos SSE): la petición original ya se autorizó y el filtro JWT no
+                        // se vuelve a ejecutar en el despacho asíncrono
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Endpoints públicos
                         .requestMatchers(
                                 "/api/autenticacion/**",
@@ -0,0 +1,266 @@
+package com.nuclearvet.infraestructura.correo;
+
+import com.nuclearvet.dominio.entidades.HistorialCorreo;
+import com.nuclearvet.dominio.enumeraciones.EstadoCorreo;
+import com.nuclearvet.infraestructura.persistencia.HistorialCorreoRepositorio;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.nuclearvet.compartido.transacciones.TransaccionUtil.despuesDeConfirmar;
+
+/**
+ * Bandeja de salida de correo sobre historial_correos.
+ *
+ * Un grupo de trabajadores reclama lotes de correos PENDIENTE/REINTENTANDO con
+ * FOR UPDATE SKIP LOCKED y los aparta con un arrendamiento (proximo_intento) antes de
+ * confirmar, de modo que el envío SMTP ocurre fuera de la transacción y varias
+ * instancias pueden vaciar la bandeja a la vez. Cada trabajador reutiliza su conexión
+ * SMTP entre lotes. Los fallos transitorios se reprograman con espera exponencial y
+ * jitter; al agotar los intentos, o ante un destinatario inválido, el correo pasa a
+ * DESCARTADO. Si un trabajador cae a mitad de lote, sus correos vuelven a la bandeja
+ * al vencer el arrendamiento.
+ *
+ * El resultado solo se guarda si el arrendamiento sigue siendo del trabajador
+ * (arrendado_por y proximo_intento sin cambios): si un envío lento lo dejó vencer y otro
+ * trabajador reclamó el correo, la fila no se toca y el resultado se descarta.
+ */
+@Component
+@Slf4j
+public class BandejaSalidaCorreos {
+
+    private static final String SQL_RESULTADO =
+            "UPDATE historial_correos SET estado = ?, intentos = ?, proximo_intento = ?, error_mensaje = ?, " +
+            "fecha_envio = ?, arrendado_por = NULL WHERE id = ? AND arrendado_por = ? AND proximo_intento = ?";
+    private static final int[] TIPOS_RESULTADO = {Types.VARCHAR, Types.INTEGER, Types.TIMESTAMP, Types.VARCHAR,
+            Types.TIMESTAMP, Types.BIGINT, Types.VARCHAR, Types.TIMESTAMP};
+
+    /** Identifica esta instancia en arrendado_por; cada trabajador le añade el nombre de su hilo */
+    private final String instancia = UUID.randomUUID().toString().substring(0, 8);
+
+    private final HistorialCorreoRepositorio historialRepositorio;
+    private final JavaMailSender mailSender;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccion;
+    private final PoliticaReintentos politicaReintentos;
+    private final ContadoresTablero contadores;
+
+    private final Semaphore senal = new Semaphore(0);
+    private final List<Thread> trabajadores = new ArrayList<>();
+    private final AtomicLong enviados = new AtomicLong();
+    private final AtomicLong reprogramados = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private volatile boolean activo;
+
+    @Value("${nuclearvet.correo.bandeja.habilitada:true}")
+    private boolean habilitada;
+
+    @Value("${nuclearvet.correo.bandeja.trabajadores:2}")
+    private int cantidadTrabajadores;
+
+    @Value("${nuclearvet.correo.bandeja.tamano-lote:20}")
+    private int tamanoLote;
+
+    @Value("${nuclearvet.correo.bandeja.intervalo-sondeo-ms:5000}")
+    private long intervaloSondeoMs;
+
+    @Value("${nuclearvet.correo.bandeja.arrendamiento-segundos:300}")
+    private long arrendamientoSegundos;
+
+    @Value("${spring.mail.username:noreply@nuclearvet.com}")
+    private String remitente;
+
+    public BandejaSalidaCorreos(
+            HistorialCorreoRepositorio historialRepositorio,
+            JavaMailSender mailSender,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            PoliticaReintentos politicaReintentos,
+            ContadoresTablero contadores) {
+        this.historialRepositorio = historialRepositorio;
+        this.mailSender = mailSender;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.politicaReintentos = politicaReintentos;
+        this.contadores = contadores;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitada) {
+            log.info("Bandeja de salida de correo deshabilitada");
+            return;
+        }
+        activo = true;
+        for (int i = 1; i <= cantidadTrabajadores; i++) {
+            Thread hilo = new Thread(this::ejecutar, "correo-trabajador-" + i);
+            hilo.setDaemon(true);
+            hilo.start();
+            trabajadores.add(hilo);
+        }
+        log.info("Bandeja de salida de correo iniciada (trabajadores={}, lote={})", cantidadTrabajadores, tamanoLote);
+    }
+
+    @PreDestroy
+    public void detener() {
+        activo = false;
+        for (Thread hilo : trabajadores) {
+            hilo.interrupt();
+        }
+        for (Thread hilo : trabajadores) {
+            try {
+                hilo.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        trabajadores.clear();
+        log.info("Bandeja de salida de correo detenida: {}", obtenerEstadisticas());
+    }
+
+    /**
+     * Avisa a los trabajadores de que hay correos nuevos; si hay una transacción activa,
+     * al confirmarla
+     */
+    public void notificarNuevos() {
+        despuesDeConfirmar(this::despertar);
+    }
+
+    public Map<String, Object> obtenerEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("trabajadores", trabajadores.size());
+        estadisticas.put("enviados", enviados.get());
+        estadisticas.put("reprogramados", reprogramados.get());
+        estadisticas.put("descartados", descartados.get());
+        return estadisticas;
+    }
+
+    /**
+     * Reclama, envía y registra el resultado de un lote
+     *
+     * @return cantidad de correos reclamados (0 si la bandeja está vacía)
+     */
+    int procesarLote(ConexionSmtp conexion) {
+        LocalDateTime ahora = LocalDateTime.now();
+        // En milisegundos para que el valor comparado al final sea exactamente el guardado
+        LocalDateTime hasta = ahora.plusSeconds(arrendamientoSegundos).truncatedTo(ChronoUnit.MILLIS);
+        String trabajador = instancia + "-" + Thread.currentThread().getName();
+        List<HistorialCorreo> correos = transaccion.execute(estado -> {
+            List<HistorialCorreo> reclamados = historialRepositorio.reclamarParaEnvio(ahora, tamanoLote);
+            if (!reclamados.isEmpty()) {
+                historialRepositorio.arrendar(reclamados.stream().map(HistorialCorreo::getId).toList(),
+                        hasta, trabajador);
+            }
+            return reclamados;
+        });
+        if (correos == null || correos.isEmpty()) {
+            return 0;
+        }
+
+        conexion.verificar();
+        List<Object[]> resultados = new ArrayList<>(correos.size());
+        for (HistorialCorreo correo : correos) {
+            ConexionSmtp.ResultadoEnvio resultado = conexion.enviar(
+                    correo.getDestinatarioEmail(), correo.getAsunto(), correo.getContenido());
+            resultados.add(registrarResultado(correo, resultado, trabajador, Timestamp.valueOf(hasta)));
+        }
+
+        int[] actualizadas = transaccion.execute(estado -> jdbcTemplate.batchUpdate(SQL_RESULTADO, resultados, TIPOS_RESULTADO));
+        for (int i = 0; i < correos.size(); i++) {
+            HistorialCorreo correo = correos.get(i);
+            EstadoCorreo nuevo = EstadoCorreo.valueOf((String) resultados.get(i)[0]);
+            if (actualizadas != null && actualizadas[i] == 0) {
+                log.warn("Correo {} ({}): se perdió el arrendamiento antes de registrar el resultado, se descarta",
+                        correo.getId(), nuevo);
+                continue;
+            }
+            contarResultado(nuevo);
+            contadores.cambiarEstadoCorreo(correo.getEstado(), nuevo);
+        }
+        return correos.size();
+    }
+
+    private Object[] registrarResultado(HistorialCorreo correo, ConexionSmtp.ResultadoEnvio resultado,
+                                        String trabajador, Timestamp arrendadoHasta) {
+        int intentos = (correo.getIntentos() != null ? correo.getIntentos() : 0) + 1;
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+
+        if (resultado.isExitoso()) {
+            return new Object[]{EstadoCorreo.ENVIADO.name(), intentos, null, null, ahora, correo.getId(),
+                    trabajador, arrendadoHasta};
+        }
+        if (resultado.isPermanente() || politicaReintentos.agotado(intentos)) {
+            log.warn("Correo {} a {} descartado tras {} intentos: {}",
+                    correo.getId(), correo.getDestinatarioEmail(), intentos, resultado.getError());
+            return new Object[]{EstadoCorreo.DESCARTADO.name(), intentos, null, resultado.getError(), ahora,
+                    correo.getId(), trabajador, arrendadoHasta};
+        }
+        LocalDateTime proximo = LocalDateTime.now().plus(politicaReintentos.espera(intentos));
+        log.debug("Correo {} reprogramado para {}: {}", correo.getId(), proximo, resultado.getError());
+        return new Object[]{EstadoCorreo.REINTENTANDO.name(), intentos, Timestamp.valueOf(proximo),
+                resultado.getError(), null, correo.getId(), trabajador, arrendadoHasta};
+    }
+
+    private void contarResultado(EstadoCorreo estado) {
+        switch (estado) {
+            case ENVIADO -> enviados.incrementAndGet();
+            case DESCARTADO -> descartados.incrementAndGet();
+            default -> reprogramados.incrementAndGet();
+        }
+    }
+
+    private void ejecutar() {
+        try (ConexionSmtp conexion = new ConexionSmtp(mailSender, remitente)) {
+            while (activo) {
+                int procesados;
+                try {
+                    procesados = procesarLote(conexion);
+                } catch (RuntimeException e) {
+                    log.error("Error procesando la bandeja de salida de correo: {}", e.getMessage());
+                    procesados = 0;
+                }
+                if (procesados == 0) {
+                    conexion.cerrar();
+                    esperar();
+                }
+            }
+        }
+    }
+
+    private void esperar() {
+        try {
+            senal.tryAcquire(intervaloSondeoMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            activo = false;
+        }
+    }
+
+    private void despertar() {
+        // Como mucho un permiso por trabajador, para no acumular vueltas vacías
+        int faltantes = trabajadores.size() - senal.availablePermits();
+        if (faltantes > 0) {
+            senal.release(faltantes);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.nuclearvet.infraestructura.correo;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.util.Date;
+
+/**
+ * Conexión SMTP de un trabajador de la bandeja de salida.
+ *
+ * Con JavaMailSenderImpl la conexión se abre una vez y se reutiliza entre mensajes y
+ * lotes mientras el trabajador tenga correos; se cierra al quedar ocioso o tras un error
+ * de conexión. Con otro JavaMailSender cada mensaje se envía por separado.
+ * No es segura para hilos: cada trabajador usa la suya.
+ */
+@Slf4j
+class ConexionSmtp implements AutoCloseable {
+
+    private final JavaMailSender mailSender;
+    private final String remitente;
+    private Transport transporte;
+    private long conexionesAbiertas;
+
+    ConexionSmtp(JavaMailSender mailSender, String remitente) {
+        this.mailSender = mailSender;
+        this.remitente = remitente;
+    }
+
+    /**
+     * Comprueba al inicio de un lote que la conexión reutilizada siga viva
+     */
+    void verificar() {
+        if (transporte != null && !transporte.isConnected()) {
+            cerrar();
+        }
+    }
+
+    ResultadoEnvio enviar(String destinatario, String asunto, String contenido) {
+        if (!(mailSender instanceof JavaMailSenderImpl remitenteSmtp)) {
+            return enviarSinReutilizar(destinatario, asunto, contenido);
+        }
+
+        MimeMessage mensaje;
+        try {
+            mensaje = remitenteSmtp.createMimeMessage();
+            MimeMessageHelper ayudante = new MimeMessageHelper(mensaje, false, "UTF-8");
+            ayudante.setFrom(remitente);
+            ayudante.setTo(destinatario);
+            ayudante.setSubject(asunto);
+            ayudante.setText(contenido, false);
+            mensaje.setSentDate(new Date());
+            mensaje.saveChanges();
+        } catch (MessagingException e) {
+            return ResultadoEnvio.permanente(e);
+        }
+
+        try {
+            conectar(remitenteSmtp).sendMessage(mensaje, mensaje.getAllRecipients());
+            return ResultadoEnvio.EXITOSO;
+        } catch (SendFailedException e) {
+            // El servidor rechazó el destinatario; la conexión sigue siendo válida
+            Object[] invalidas = e.getInvalidAddresses();
+            return invalidas != null && invalidas.length > 0 ? ResultadoEnvio.permanente(e) : ResultadoEnvio.transitorio(e);
+        } catch (MessagingException e) {
+            cerrar();
+            return ResultadoEnvio.transitorio(e);
+        }
+    }
+
+    long getConexionesAbiertas() {
+        return conexionesAbiertas;
+    }
+
+    void cerrar() {
+        if (transporte == null) {
+            return;
+        }
+        try {
+            transporte.close();
+        } catch (MessagingException e) {
+            log.debug("Error cerrando la conexión SMTP: {}", e.getMessage());
+        }
+        transporte = null;
+    }
+
+    @Override
+    public void close() {
+        cerrar();
+    }
+
+    private Transport conectar(JavaMailSenderImpl remitenteSmtp) throws MessagingException {
+        if (transporte == null) {
+            String protocolo = remitenteSmtp.getProtocol() != null ? remitenteSmtp.getProtocol() : "smtp";
+            Transport nuevo = remitenteSmtp.getSession().getTransport(protocolo);
+            nuevo.connect(remitenteSmtp.getHost(), remitenteSmtp.getPort(),
+                    remitenteSmtp.getUsername(), remitenteSmtp.getPassword());
+            transporte = nuevo;
+            conexionesAbiertas++;
+        }
+        return transporte;
+    }
+
+    private ResultadoEnvio enviarSinReutilizar(String destinatario, String asunto, String contenido) {
+        try {
+            SimpleMailMessage mensaje = new SimpleMailMessage();
+            mensaje.setFrom(remitente);
+            mensaje.setTo(destinatario);
+            mensaje.setSubject(asunto);
+            mensaje.setText(contenido);
+            mailSender.send(mensaje);
+            return ResultadoEnvio.EXITOSO;
+        } catch (MailParseException e) {
+            return ResultadoEnvio.permanente(e);
+        } catch (MailException e) {
+            return ResultadoEnvio.transitorio(e);
+        }
+    }
+
+    static final class ResultadoEnvio {
+        static final ResultadoEnvio EXITOSO = new ResultadoEnvio(true, false, null);
+
+        private final boolean exitoso;
+        private final boolean permanente;
+        private final String error;
+
+        private ResultadoEnvio(boolean exitoso, boolean permanente, String error) {
+            this.exitoso = exitoso;
+            this.permanente = permanente;
+            this.error = error;
+        }
+
+        static ResultadoEnvio permanente(Exception e) {
+            return new ResultadoEnvio(false, true, mensaje(e));
+        }
+
+        static ResultadoEnvio transitorio(Exception e) {
+            return new ResultadoEnvio(false, false, mensaje(e));
+        }
+
+        boolean isExitoso() {
+            return exitoso;
+        }
+
+        boolean isPermanente() {
+            return permanente;
+        }
+
+        String getError() {
+            return error;
+        }
+
+        private static String mensaje(Exception e) {
+            return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.nuclearvet.infraestructura.correo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Política de reintentos de la bandeja de salida: espera exponencial con jitter
+ * (entre la mitad y el total del tope de cada intento) y un máximo de intentos,
+ * tras el cual el correo pasa a DESCARTADO.
+ */
+@Component
+public class PoliticaReintentos {
+
+    private final int maximoIntentos;
+    private final long esperaBaseMs;
+    private final long esperaMaximaMs;
+
+    public PoliticaReintentos(
+            @Value("${nuclearvet.correo.reintentos.maximo-intentos:6}") int maximoIntentos,
+            @Value("${nuclearvet.correo.reintentos.espera-base-segundos:30}") long esperaBaseSegundos,
+            @Value("${nuclearvet.correo.reintentos.espera-maxima-segundos:3600}") long esperaMaximaSegundos) {
+        this.maximoIntentos = maximoIntentos;
+        this.esperaBaseMs = Duration.ofSeconds(esperaBaseSegundos).toMillis();
+        this.esperaMaximaMs = Duration.ofSeconds(esperaMaximaSegundos).toMillis();
+    }
+
+    public boolean agotado(int intentos) {
+        return intentos >= maximoIntentos;
+    }
+
+    /**
+     * Espera antes de volver a intentar un correo que ya falló `intentos` veces
+     */
+    public Duration espera(int intentos) {
+        int exponente = Math.min(Math.max(intentos - 1, 0), 30);
+        long tope = Math.min(esperaMaximaMs, esperaBaseMs << exponente);
+        if (tope <= 0) {
+            tope = esperaMaximaMs;
+        }
+        long minimo = tope / 2;
+        return Duration.ofMillis(minimo + ThreadLocalRandom.current().nextLong(tope - minimo + 1));
+    }
+}
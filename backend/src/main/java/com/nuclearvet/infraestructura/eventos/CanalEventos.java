@@ -0,0 +1,398 @@
+package com.nuclearvet.infraestructura.eventos;
+
+import com.nuclearvet.dominio.enumeraciones.TipoEventoPush;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.nuclearvet.compartido.transacciones.TransaccionUtil.despuesDeConfirmar;
+
+/**
+ * Canal de eventos en vivo (Server-Sent Events) para notificaciones, alertas de inventario
+ * y despachos de recordatorios.
+ *
+ * Los servicios publican al confirmar su transacción y un único hilo despachador numera
+ * los eventos, los guarda en un historial acotado y los deja en el buffer de cada conexión
+ * del destinatario (o de todos, si el evento es general). La numeración, el historial y el
+ * mapa de conexiones solo se tocan desde ese hilo, así que no necesitan sincronización.
+ *
+ * La escritura en el socket, que puede bloquearse con un cliente lento, la hace un pool
+ * de hilos de envío: cada conexión vacía su propio buffer en una tarea, de a una a la vez.
+ * Si un cliente no consume y su buffer se llena, la conexión se cierra; al reconectar
+ * recupera lo perdido con Last-Event-ID. Así un cliente lento nunca frena al despachador
+ * ni a los demás. Cada conexión es una petición asíncrona del contenedor: mientras espera
+ * no ocupa ningún hilo, por lo que miles de clientes en reposo solo cuestan su socket,
+ * su buffer y su entrada en el mapa.
+ *
+ * Al reconectar, el cliente envía Last-Event-ID y recibe los eventos posteriores que sigan
+ * en el historial; si ya se descartaron, recibe RESINCRONIZAR y debe recargar sus listas.
+ * Los identificadores parten de la hora de arranque, de modo que un ID de una ejecución
+ * anterior siempre cae antes del historial. Los eventos no se comparten entre instancias.
+ */
+@Component
+@Slf4j
+public class CanalEventos {
+
+    /** Eventos por conexión que se envían en una misma tarea antes de ceder el hilo */
+    private static final int ENVIOS_POR_TURNO = 16;
+
+    private final ThreadPoolExecutor despachador;
+    private final ThreadPoolExecutor envios;
+    private final int historialMaximo;
+    private final int bufferConexion;
+    private final int conexionesMaximas;
+    private final long timeoutMs;
+    private final AtomicInteger conexionesAbiertas = new AtomicInteger();
+
+    // Solo accedidos desde el hilo despachador
+    private long ultimoId = System.currentTimeMillis() * 1000;
+    private long ultimoDescartado = ultimoId;
+    private final Deque<Evento> historial = new ArrayDeque<>();
+    private final Map<Long, List<Conexion>> conexionesPorUsuario = new HashMap<>();
+
+    public CanalEventos(
+            @Value("${nuclearvet.eventos.historial:1000}") int historialMaximo,
+            @Value("${nuclearvet.eventos.cola:10000}") int capacidadCola,
+            @Value("${nuclearvet.eventos.conexiones-maximas:5000}") int conexionesMaximas,
+            @Value("${nuclearvet.eventos.timeout-ms:1800000}") long timeoutMs,
+            @Value("${nuclearvet.eventos.hilos-envio:4}") int hilosEnvio,
+            @Value("${nuclearvet.eventos.buffer-conexion:64}") int bufferConexion) {
+        this.historialMaximo = historialMaximo;
+        this.bufferConexion = bufferConexion;
+        this.conexionesMaximas = conexionesMaximas;
+        this.timeoutMs = timeoutMs;
+        this.despachador = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "eventos-sse");
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // Cada conexión tiene a lo sumo una tarea de envío pendiente
+        AtomicInteger numeroHilo = new AtomicInteger();
+        this.envios = new ThreadPoolExecutor(hilosEnvio, hilosEnvio, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(conexionesMaximas),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "eventos-sse-envio-" + numeroHilo.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void detener() {
+        try {
+            // Cerrar las conexiones hace que los clientes reconecten contra otra instancia
+            despachador.execute(this::cerrarTodas);
+        } catch (RejectedExecutionException e) {
+            log.debug("No se pudieron cerrar las conexiones de eventos al detener");
+        }
+        terminar(despachador);
+        terminar(envios);
+    }
+
+    private static void terminar(ThreadPoolExecutor executor) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Publica un evento cuando la transacción actual confirma. Los datos se obtienen en ese
+     * momento, así reflejan los contadores ya actualizados por la misma transacción.
+     *
+     * @param usuarioId destinatario; null para enviarlo a todas las conexiones que reciben
+     *                  eventos generales
+     */
+    public void publicar(TipoEventoPush tipo, Long usuarioId, Supplier<Object> datos) {
+        despuesDeConfirmar(() -> {
+            Object valor = datos.get();
+            encolar(() -> difundir(new Evento(++ultimoId, tipo, usuarioId, valor)));
+        });
+    }
+
+    /**
+     * Abre una conexión de eventos para el usuario
+     *
+     * @param generales si recibe también los eventos sin destinatario (alertas, despachos)
+     * @param ultimoEventoId valor de Last-Event-ID al reconectar; null en la primera conexión
+     * @param contadores datos del evento CONTADORES que se envía al conectar
+     * @throws RejectedExecutionException si se alcanzó el máximo de conexiones abiertas
+     */
+    public SseEmitter suscribir(Long usuarioId, boolean generales, Long ultimoEventoId, Object contadores) {
+        if (conexionesAbiertas.incrementAndGet() > conexionesMaximas) {
+            conexionesAbiertas.decrementAndGet();
+            throw new RejectedExecutionException("Se alcanzó el máximo de conexiones de eventos");
+        }
+        SseEmitter emisor = nuevoEmisor(timeoutMs);
+        Conexion conexion = new Conexion(usuarioId, generales, emisor, bufferConexion);
+        emisor.onCompletion(() -> cerrar(conexion));
+        emisor.onTimeout(emisor::complete);
+        emisor.onError(error -> cerrar(conexion));
+        try {
+            despachador.execute(() -> registrar(conexion, ultimoEventoId, contadores));
+        } catch (RejectedExecutionException e) {
+            cerrar(conexion);
+            throw e;
+        }
+        return emisor;
+    }
+
+    /**
+     * Comentario periódico que mantiene abiertas las conexiones a través de proxies y
+     * detecta los clientes que se fueron sin cerrar
+     */
+    @Scheduled(fixedDelayString = "${nuclearvet.eventos.latido-ms:25000}")
+    public void latir() {
+        encolar(() -> {
+            for (List<Conexion> conexiones : conexionesPorUsuario.values()) {
+                for (Conexion conexion : conexiones) {
+                    entregar(conexion, SseEmitter.event().comment("latido"));
+                }
+            }
+            conexionesPorUsuario.values().forEach(conexiones -> conexiones.removeIf(Conexion::cerrada));
+            conexionesPorUsuario.values().removeIf(List::isEmpty);
+        });
+    }
+
+    public int getConexionesAbiertas() {
+        return conexionesAbiertas.get();
+    }
+
+    SseEmitter nuevoEmisor(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    private void encolar(Runnable tarea) {
+        try {
+            despachador.execute(tarea);
+        } catch (RejectedExecutionException e) {
+            log.warn("Cola de eventos llena; se descarta un evento");
+        }
+    }
+
+    private void registrar(Conexion conexion, Long ultimoEventoId, Object contadores) {
+        entregar(conexion, SseEmitter.event().name(TipoEventoPush.CONTADORES.name())
+                .data(contadores, MediaType.APPLICATION_JSON));
+        if (ultimoEventoId != null) {
+            List<Evento> perdidos = new ArrayList<>();
+            if (ultimoEventoId >= ultimoDescartado && ultimoEventoId <= ultimoId) {
+                for (Evento evento : historial) {
+                    if (evento.id > ultimoEventoId && evento.paraConexion(conexion)) {
+                        perdidos.add(evento);
+                    }
+                }
+            }
+            // Si lo perdido no cabe en el buffer, la conexión se cerraría antes de ponerse al día
+            if (ultimoEventoId < ultimoDescartado || ultimoEventoId > ultimoId || perdidos.size() >= bufferConexion) {
+                entregar(conexion, SseEmitter.event().id(Long.toString(ultimoId))
+                        .name(TipoEventoPush.RESINCRONIZAR.name()).data(""));
+            } else {
+                perdidos.forEach(evento -> entregar(conexion, evento.aSse()));
+            }
+        }
+        if (!conexion.cerrada()) {
+            conexionesPorUsuario.computeIfAbsent(conexion.usuarioId, id -> new ArrayList<>()).add(conexion);
+        }
+    }
+
+    private void difundir(Evento evento) {
+        historial.addLast(evento);
+        while (historial.size() > historialMaximo) {
+            ultimoDescartado = historial.removeFirst().id;
+        }
+        if (evento.usuarioId != null) {
+            List<Conexion> conexiones = conexionesPorUsuario.get(evento.usuarioId);
+            if (conexiones != null) {
+                enviarATodas(conexiones, evento);
+                if (conexiones.isEmpty()) {
+                    conexionesPorUsuario.remove(evento.usuarioId);
+                }
+            }
+        } else {
+            for (List<Conexion> conexiones : conexionesPorUsuario.values()) {
+                enviarATodas(conexiones, evento);
+            }
+            conexionesPorUsuario.values().removeIf(List::isEmpty);
+        }
+    }
+
+    private void enviarATodas(List<Conexion> conexiones, Evento evento) {
+        for (Iterator<Conexion> it = conexiones.iterator(); it.hasNext(); ) {
+            Conexion conexion = it.next();
+            // El builder acumula el texto al enviarse, así que cada conexión recibe uno propio
+            if (evento.paraConexion(conexion) && !entregar(conexion, evento.aSse())) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Deja el evento en el buffer de la conexión y programa su envío. Una conexión cuyo
+     * buffer está lleno se cierra: su hilo de envío la completa al terminar lo que esté
+     * escribiendo, sin que el despachador espere al socket.
+     *
+     * @return false si la conexión está cerrada
+     */
+    private boolean entregar(Conexion conexion, SseEmitter.SseEventBuilder evento) {
+        if (conexion.cerrada()) {
+            return false;
+        }
+        if (!conexion.pendientes.offer(evento)) {
+            log.debug("Conexión de eventos del usuario {} atrasada; se cierra", conexion.usuarioId);
+            cerrar(conexion);
+        }
+        programarEnvio(conexion);
+        return !conexion.cerrada();
+    }
+
+    private void programarEnvio(Conexion conexion) {
+        if (conexion.enviando.compareAndSet(false, true)) {
+            try {
+                envios.execute(() -> vaciar(conexion));
+            } catch (RejectedExecutionException e) {
+                conexion.enviando.set(false);
+                cerrar(conexion);
+            }
+        }
+    }
+
+    /**
+     * Envía lo pendiente de una conexión en el hilo de envío. Nunca corre en paralelo para
+     * una misma conexión; tras un turno cede el hilo para no acaparar el pool
+     */
+    private void vaciar(Conexion conexion) {
+        for (int enviados = 0; enviados < ENVIOS_POR_TURNO; enviados++) {
+            if (conexion.cerrada()) {
+                conexion.pendientes.clear();
+                completar(conexion);
+                break;
+            }
+            SseEmitter.SseEventBuilder evento = conexion.pendientes.poll();
+            if (evento == null) {
+                break;
+            }
+            try {
+                conexion.emisor.send(evento);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Conexión de eventos del usuario {} cerrada: {}", conexion.usuarioId, e.getMessage());
+                cerrar(conexion);
+                conexion.pendientes.clear();
+                conexion.completada.set(true);
+                conexion.emisor.completeWithError(e);
+                break;
+            }
+        }
+        conexion.enviando.set(false);
+        // Un evento pudo llegar entre el último poll y liberar la conexión
+        if (!conexion.pendientes.isEmpty() || (conexion.cerrada() && !conexion.completada.get())) {
+            programarEnvio(conexion);
+        }
+    }
+
+    private void completar(Conexion conexion) {
+        if (!conexion.completada.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            conexion.emisor.complete();
+        } catch (IllegalStateException e) {
+            // El cliente ya se había ido y el contenedor recicló la respuesta
+            log.debug("Conexión de eventos del usuario {} ya cerrada", conexion.usuarioId);
+        }
+    }
+
+    private void cerrar(Conexion conexion) {
+        // La conexión se quita del mapa la próxima vez que el despachador la encuentra
+        if (conexion.cerrada.compareAndSet(false, true)) {
+            conexionesAbiertas.decrementAndGet();
+        }
+    }
+
+    private void cerrarTodas() {
+        for (List<Conexion> conexiones : conexionesPorUsuario.values()) {
+            for (Conexion conexion : conexiones) {
+                if (conexion.cerrada()) {
+                    continue;
+                }
+                cerrar(conexion);
+                programarEnvio(conexion);
+            }
+        }
+        conexionesPorUsuario.clear();
+    }
+
+    private static final class Conexion {
+        private final Long usuarioId;
+        private final boolean generales;
+        private final SseEmitter emisor;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> pendientes;
+        private final AtomicBoolean cerrada = new AtomicBoolean();
+        /** Hay una tarea de envío programada o en curso */
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        private final AtomicBoolean completada = new AtomicBoolean();
+
+        private Conexion(Long usuarioId, boolean generales, SseEmitter emisor, int buffer) {
+            this.usuarioId = usuarioId;
+            this.generales = generales;
+            this.emisor = emisor;
+            this.pendientes = new ArrayBlockingQueue<>(buffer);
+        }
+
+        private boolean cerrada() {
+            return cerrada.get();
+        }
+    }
+
+    private static final class Evento {
+        private final long id;
+        private final TipoEventoPush tipo;
+        private final Long usuarioId;
+        private final Object datos;
+
+        private Evento(long id, TipoEventoPush tipo, Long usuarioId, Object datos) {
+            this.id = id;
+            this.tipo = tipo;
+            this.usuarioId = usuarioId;
+            this.datos = datos;
+        }
+
+        private boolean paraConexion(Conexion conexion) {
+            return usuarioId == null ? conexion.generales : usuarioId.equals(conexion.usuarioId);
+        }
+
+        private SseEmitter.SseEventBuilder aSse() {
+            return SseEmitter.event().id(Long.toString(id)).name(tipo.name())
+                    .data(datos, MediaType.APPLICATION_JSON);
+        }
+    }
+}
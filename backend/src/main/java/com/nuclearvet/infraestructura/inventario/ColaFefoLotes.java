@@ -0,0 +1,178 @@
+package com.nuclearvet.infraestructura.inventario;
+
+import com.nuclearvet.infraestructura.persistencia.LoteRepositorio;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.nuclearvet.compartido.transacciones.TransaccionUtil.despuesDeConfirmar;
+import static com.nuclearvet.compartido.transacciones.TransaccionUtil.siSeRevierte;
+
+/**
+ * Cola FEFO (primero en vencer, primero en salir) en memoria por producto: los lotes
+ * despachables ordenados por fecha de vencimiento, con su cantidad disponible estimada.
+ *
+ * Permite repartir una salida entre lotes sin consultar ni reordenar los lotes en cada
+ * venta. La cola es solo una estimación: el descuento real lo hace LibroExistencias con
+ * UPDATE condicionales, y si alguno no aplica (otra instancia despachó o bloqueó el lote)
+ * el reparto se repite releyendo los lotes. Solo se publican colas leídas fuera de una
+ * escritura en curso, para no exponer cantidades sin confirmar. Se carga en el primer uso, caduca tras
+ * nuclearvet.inventario.fefo.ttl-segundos y se descarta cuando cambia un lote del producto.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ColaFefoLotes {
+
+    private final LoteRepositorio loteRepositorio;
+
+    private final Map<Long, Cola> colas = new ConcurrentHashMap<>();
+
+    @Value("${nuclearvet.inventario.fefo.ttl-segundos:300}")
+    private long ttlSegundos;
+
+    /**
+     * Reparte la cantidad entre los lotes del producto en orden de vencimiento y la aparta
+     * en la cola. Si la transacción actual no confirma, la cola del producto se descarta.
+     *
+     * @return porciones por lote, o lista vacía si los lotes conocidos no alcanzan
+     */
+    public List<Porcion> apartar(Long productoId, int cantidad) {
+        Cola cola = colas.get(productoId);
+        if (cola == null || cola.caducada(System.currentTimeMillis() - ttlSegundos * 1000)) {
+            cola = cargar(productoId);
+        }
+        List<Porcion> porciones = cola.apartar(cantidad);
+        if (!porciones.isEmpty()) {
+            Cola apartada = cola;
+            siSeRevierte(() -> colas.remove(productoId, apartada));
+        }
+        return porciones;
+    }
+
+    /**
+     * Reparte la cantidad con los lotes leídos de nuevo, cuando la cola compartida resultó
+     * desactualizada. Dentro de una transacción la lectura incluye sus propios descuentos
+     * sin confirmar, así que no se publica: la cola compartida se descarta al terminar y el
+     * siguiente uso la carga con lo ya confirmado.
+     *
+     * @return porciones por lote, o lista vacía si los lotes no alcanzan
+     */
+    public List<Porcion> apartarReleyendo(Long productoId, int cantidad) {
+        Cola cola = leer(productoId);
+        despuesDeConfirmar(() -> colas.remove(productoId));
+        siSeRevierte(() -> colas.remove(productoId));
+        return cola.apartar(cantidad);
+    }
+
+    private Cola cargar(Long productoId) {
+        Cola cola = leer(productoId);
+        colas.put(productoId, cola);
+        return cola;
+    }
+
+    private Cola leer(Long productoId) {
+        ArrayDeque<Entrada> lotes = new ArrayDeque<>();
+        for (Object[] fila : loteRepositorio.findColaFefo(productoId)) {
+            lotes.add(new Entrada((Long) fila[0], (Integer) fila[1]));
+        }
+        log.debug("Cola FEFO del producto {} leída con {} lotes", productoId, lotes.size());
+        return new Cola(lotes, System.currentTimeMillis());
+    }
+
+    /**
+     * Descarta la cola del producto cuando la transacción actual confirma (se creó, editó,
+     * bloqueó o recibió mercancía en alguno de sus lotes)
+     */
+    public void invalidar(Long productoId) {
+        despuesDeConfirmar(() -> colas.remove(productoId));
+    }
+
+    /**
+     * Descarta todas las colas cuando la transacción actual confirma (recálculo de estados)
+     */
+    public void invalidarTodas() {
+        despuesDeConfirmar(colas::clear);
+    }
+
+    /**
+     * Cantidad a descontar de un lote
+     */
+    public static final class Porcion {
+        private final Long loteId;
+        private final int cantidad;
+
+        public Porcion(Long loteId, int cantidad) {
+            this.loteId = loteId;
+            this.cantidad = cantidad;
+        }
+
+        public Long getLoteId() {
+            return loteId;
+        }
+
+        public int getCantidad() {
+            return cantidad;
+        }
+    }
+
+    private static final class Entrada {
+        private final Long loteId;
+        private int disponible;
+
+        private Entrada(Long loteId, int disponible) {
+            this.loteId = loteId;
+            this.disponible = disponible;
+        }
+    }
+
+    /**
+     * Lotes de un producto, el que vence primero a la cabeza
+     */
+    private static final class Cola {
+        private final ArrayDeque<Entrada> lotes;
+        private final long cargadaEn;
+        private int total;
+
+        private Cola(ArrayDeque<Entrada> lotes, long cargadaEn) {
+            this.lotes = lotes;
+            this.cargadaEn = cargadaEn;
+            for (Entrada entrada : lotes) {
+                total += entrada.disponible;
+            }
+        }
+
+        boolean caducada(long limite) {
+            return cargadaEn < limite;
+        }
+
+        synchronized List<Porcion> apartar(int cantidad) {
+            if (total < cantidad) {
+                return List.of();
+            }
+            List<Porcion> porciones = new ArrayList<>();
+            int restante = cantidad;
+            Iterator<Entrada> iterador = lotes.iterator();
+            while (restante > 0) {
+                Entrada entrada = iterador.next();
+                int tomar = Math.min(restante, entrada.disponible);
+                porciones.add(new Porcion(entrada.loteId, tomar));
+                entrada.disponible -= tomar;
+                restante -= tomar;
+                if (entrada.disponible == 0) {
+                    iterador.remove();
+                }
+            }
+            total -= cantidad;
+            return porciones;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.nuclearvet.infraestructura.inventario;
+
+import com.nuclearvet.infraestructura.persistencia.AlertaInventarioRepositorio;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.nuclearvet.compartido.transacciones.TransaccionUtil.despuesDeConfirmar;
+import static com.nuclearvet.compartido.transacciones.TransaccionUtil.siSeRevierte;
+
+/**
+ * Índice en memoria de las alertas de inventario abiertas (no leídas).
+ *
+ * Guarda, por producto y por lote, el tipo de la alerta abierta más grave, de modo que
+ * evaluar un producto o lote que cambió no requiere consultar la base de datos para
+ * saber si ya tiene alerta. Se carga con una sola consulta en el primer uso y se recarga
+ * tras la conciliación nocturna, que además corrige cualquier desvío (por ejemplo, si
+ * varias instancias comparten la base de datos, cada una mantiene su propio índice).
+ *
+ * La recarga arma los mapas nuevos aparte y los reemplaza bajo el candado de escritura;
+ * reservar y liberar toman el de lectura, así nunca operan sobre un mapa a medio llenar
+ * ni sobre uno que se está descartando.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IndiceAlertasInventario {
+
+    public static final String STOCK_BAJO = "STOCK_BAJO";
+    public static final String PRODUCTO_AGOTADO = "PRODUCTO_AGOTADO";
+    public static final String PROXIMO_VENCER = "PROXIMO_VENCER";
+    public static final String LOTE_VENCIDO = "LOTE_VENCIDO";
+
+    private final AlertaInventarioRepositorio alertaRepositorio;
+
+    private final ReadWriteLock candado = new ReentrantReadWriteLock();
+
+    /** productoId -> tipo de la alerta de stock abierta */
+    private volatile Map<Long, String> productos = new ConcurrentHashMap<>();
+
+    /** loteId -> tipo de la alerta de vencimiento abierta */
+    private volatile Map<Long, String> lotes = new ConcurrentHashMap<>();
+
+    private volatile boolean cargado;
+
+    /**
+     * Recarga el índice desde las alertas no leídas
+     */
+    public synchronized void recargar() {
+        Map<Long, String> nuevosProductos = new ConcurrentHashMap<>();
+        Map<Long, String> nuevosLotes = new ConcurrentHashMap<>();
+        for (Object[] fila : alertaRepositorio.findClavesAbiertas()) {
+            Long productoId = (Long) fila[0];
+            Long loteId = (Long) fila[1];
+            String tipo = (String) fila[2];
+            if (loteId != null) {
+                nuevosLotes.merge(loteId, tipo, IndiceAlertasInventario::masGrave);
+            } else {
+                nuevosProductos.merge(productoId, tipo, IndiceAlertasInventario::masGrave);
+            }
+        }
+        Lock escritura = candado.writeLock();
+        escritura.lock();
+        try {
+            productos = nuevosProductos;
+            lotes = nuevosLotes;
+            cargado = true;
+        } finally {
+            escritura.unlock();
+        }
+        log.info("Índice de alertas de inventario cargado: {} productos y {} lotes con alerta abierta",
+                nuevosProductos.size(), nuevosLotes.size());
+    }
+
+    /**
+     * Reserva la alerta de stock del producto si no tiene ya una abierta del mismo tipo o más grave.
+     * Si la transacción actual no confirma, la reserva se deshace.
+     *
+     * @return true si corresponde generar la alerta
+     */
+    public boolean reservarProducto(Long productoId, String tipo) {
+        return reservar(false, productoId, tipo);
+    }
+
+    /**
+     * Reserva la alerta de vencimiento del lote, con el mismo criterio que reservarProducto
+     */
+    public boolean reservarLote(Long loteId, String tipo) {
+        return reservar(true, loteId, tipo);
+    }
+
+    /**
+     * Olvida la alerta abierta del producto o lote cuando la transacción confirma
+     * (la alerta se marcó como leída o se eliminó)
+     */
+    public void liberar(Long productoId, Long loteId, String tipo) {
+        despuesDeConfirmar(() -> conLectura(() -> {
+            if (loteId != null) {
+                lotes.remove(loteId, tipo);
+            } else if (productoId != null) {
+                productos.remove(productoId, tipo);
+            }
+        }));
+    }
+
+    /**
+     * Olvida todas las alertas abiertas cuando la transacción confirma
+     */
+    public void liberarTodas() {
+        despuesDeConfirmar(() -> conLectura(() -> {
+            productos.clear();
+            lotes.clear();
+        }));
+    }
+
+    /**
+     * Recarga el índice cuando la transacción actual confirma
+     */
+    public void recargarDespuesDeConfirmar() {
+        despuesDeConfirmar(this::recargar);
+    }
+
+    private boolean reservar(boolean deLote, Long clave, String tipo) {
+        if (!cargado) {
+            recargar();
+        }
+        String[] anterior = new String[1];
+        boolean[] reservado = new boolean[1];
+        conLectura(() -> (deLote ? lotes : productos).compute(clave, (id, actual) -> {
+            anterior[0] = actual;
+            reservado[0] = actual == null || gravedad(tipo) > gravedad(actual);
+            return reservado[0] ? tipo : actual;
+        }));
+        if (!reservado[0]) {
+            return false;
+        }
+
+        // Se deshace sobre el mapa vigente al revertir, que puede ser uno recargado después
+        siSeRevierte(() -> conLectura(() -> (deLote ? lotes : productos)
+                .computeIfPresent(clave, (id, actual) -> tipo.equals(actual) ? anterior[0] : actual)));
+        return true;
+    }
+
+    private void conLectura(Runnable operacion) {
+        Lock lectura = candado.readLock();
+        lectura.lock();
+        try {
+            operacion.run();
+        } finally {
+            lectura.unlock();
+        }
+    }
+
+    private static String masGrave(String a, String b) {
+        return gravedad(b) > gravedad(a) ? b : a;
+    }
+
+    /**
+     * Una alerta de agotado cubre la de stock bajo, y una de lote vencido la de próximo a vencer
+     */
+    private static int gravedad(String tipo) {
+        return PRODUCTO_AGOTADO.equals(tipo) || LOTE_VENCIDO.equals(tipo) ? 2 : 1;
+    }
+}
@@ -0,0 +1,233 @@
+package com.nuclearvet.infraestructura.inventario;
+
+import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
+import com.nuclearvet.dominio.entidades.Lote;
+import com.nuclearvet.dominio.entidades.Producto;
+import com.nuclearvet.infraestructura.persistencia.LoteRepositorio;
+import com.nuclearvet.infraestructura.persistencia.ProductoRepositorio;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Libro de existencias: aplica las entradas y salidas de stock de productos y lotes con
+ * UPDATE condicionales (la verificación de disponibilidad y el descuento ocurren en la
+ * misma sentencia), de modo que dos despachos concurrentes del mismo producto no pueden
+ * vender más de lo que hay ni perder actualizaciones, sin bloquear filas de antemano.
+ *
+ * Cada asiento incrementa la versión de la fila, así que una edición de Producto o Lote
+ * cargada antes del movimiento falla por conflicto optimista en lugar de pisar el stock.
+ * El producto se actualiza siempre antes que los lotes, y los lotes en orden de ID, para
+ * que las transacciones tomen los bloqueos de fila en el mismo orden. Debe ejecutarse
+ * dentro de una transacción.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LibroExistencias {
+
+    /** Rondas de reparto FEFO cuando la cola en memoria estaba desactualizada */
+    private static final int MAX_INTENTOS_LOTE = 3;
+
+    private static final String SQL_DESCONTAR_LOTE =
+            "UPDATE lotes SET cantidad_disponible = cantidad_disponible - ?, " +
+            "estado = CASE WHEN cantidad_disponible = ? THEN 'AGOTADO' ELSE estado END, " +
+            "version = version + 1, fecha_actualizacion = ? " +
+            "WHERE id = ? AND cantidad_disponible >= ? AND estado NOT IN ('VENCIDO', 'BLOQUEADO')";
+
+    private final ProductoRepositorio productoRepositorio;
+    private final LoteRepositorio loteRepositorio;
+    private final JdbcTemplate jdbcTemplate;
+    private final ColaFefoLotes colaFefo;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Suma la cantidad al stock del producto y al lote
+     */
+    public Asiento registrarEntrada(Long productoId, Long loteId, int cantidad) {
+        LocalDateTime ahora = LocalDateTime.now();
+        if (productoRepositorio.sumarStock(productoId, cantidad, ahora) == 0) {
+            throw new RecursoNoEncontradoExcepcion("Producto no encontrado");
+        }
+        if (loteRepositorio.sumarCantidad(loteId, cantidad, ahora) == 0) {
+            throw new RecursoNoEncontradoExcepcion("Lote no encontrado");
+        }
+        colaFefo.invalidar(productoId);
+
+        Producto producto = recargar(Producto.class, productoId);
+        Lote lote = recargar(Lote.class, loteId);
+        lote.actualizarEstado();
+        int stockNuevo = producto.getStockActual();
+        return new Asiento(producto, List.of(new Partida(lote, cantidad)), stockNuevo - cantidad, stockNuevo);
+    }
+
+    /**
+     * Descuenta la cantidad del stock del producto y del lote indicado o, si no se indica,
+     * la reparte entre los lotes en orden de vencimiento (FEFO)
+     */
+    public Asiento registrarSalida(Long productoId, Long loteId, int cantidad) {
+        LocalDateTime ahora = LocalDateTime.now();
+        if (productoRepositorio.descontarStock(productoId, cantidad, ahora) == 0) {
+            Producto producto = productoRepositorio.findById(productoId)
+                    .orElseThrow(() -> new RecursoNoEncontradoExcepcion("Producto no encontrado"));
+            throw new IllegalArgumentException("Stock insuficiente. Disponible: " + producto.getStockActual());
+        }
+
+        Map<Long, Integer> descontado = loteId != null
+                ? descontarLote(productoId, loteId, cantidad, Timestamp.valueOf(ahora))
+                : descontarFefo(productoId, cantidad, Timestamp.valueOf(ahora));
+
+        Producto producto = recargar(Producto.class, productoId);
+        List<Partida> partidas = new ArrayList<>(descontado.size());
+        descontado.forEach((id, tomado) -> partidas.add(new Partida(recargar(Lote.class, id), tomado)));
+        int stockNuevo = producto.getStockActual();
+        return new Asiento(producto, partidas, stockNuevo + cantidad, stockNuevo);
+    }
+
+    private Map<Long, Integer> descontarLote(Long productoId, Long loteId, int cantidad, Timestamp ahora) {
+        if (jdbcTemplate.update(SQL_DESCONTAR_LOTE, cantidad, cantidad, ahora, loteId, cantidad) == 0) {
+            if (!loteRepositorio.existsById(loteId)) {
+                throw new RecursoNoEncontradoExcepcion("Lote no encontrado");
+            }
+            throw new IllegalArgumentException("Lote no tiene cantidad suficiente");
+        }
+        // Un descuento fuera de la cola FEFO la deja desactualizada
+        colaFefo.invalidar(productoId);
+        return Map.of(loteId, cantidad);
+    }
+
+    /**
+     * Reparte la salida según la cola FEFO y descuenta todos los lotes en un solo batch. Si
+     * algún descuento no aplica porque la cola estaba desactualizada, reparte lo que falte
+     * releyendo los lotes.
+     *
+     * @return cantidad descontada por lote, en orden de vencimiento
+     */
+    private Map<Long, Integer> descontarFefo(Long productoId, int cantidad, Timestamp ahora) {
+        Map<Long, Integer> descontado = new LinkedHashMap<>();
+        int restante = cantidad;
+        boolean recargada = false;
+        for (int intento = 1; intento <= MAX_INTENTOS_LOTE && restante > 0; intento++) {
+            List<ColaFefoLotes.Porcion> porciones = recargada
+                    ? colaFefo.apartarReleyendo(productoId, restante)
+                    : colaFefo.apartar(productoId, restante);
+            if (porciones.isEmpty()) {
+                if (recargada) {
+                    break;
+                }
+                recargada = true;
+                continue;
+            }
+
+            List<ColaFefoLotes.Porcion> enOrdenDeBloqueo = new ArrayList<>(porciones);
+            enOrdenDeBloqueo.sort(Comparator.comparing(ColaFefoLotes.Porcion::getLoteId));
+            List<Object[]> parametros = new ArrayList<>(enOrdenDeBloqueo.size());
+            for (ColaFefoLotes.Porcion porcion : enOrdenDeBloqueo) {
+                parametros.add(new Object[]{porcion.getCantidad(), porcion.getCantidad(), ahora,
+                        porcion.getLoteId(), porcion.getCantidad()});
+            }
+            int[] filas = jdbcTemplate.batchUpdate(SQL_DESCONTAR_LOTE, parametros);
+
+            Map<Long, Boolean> aplicados = new LinkedHashMap<>();
+            for (int i = 0; i < filas.length; i++) {
+                aplicados.put(enOrdenDeBloqueo.get(i).getLoteId(), filas[i] > 0);
+            }
+            for (ColaFefoLotes.Porcion porcion : porciones) {
+                if (aplicados.get(porcion.getLoteId())) {
+                    descontado.merge(porcion.getLoteId(), porcion.getCantidad(), Integer::sum);
+                    restante -= porcion.getCantidad();
+                }
+            }
+            if (restante > 0) {
+                log.debug("Cola FEFO del producto {} desactualizada, faltan {} unidades (intento {})",
+                        productoId, restante, intento);
+                recargada = true;
+            }
+        }
+        if (restante > 0) {
+            throw new IllegalArgumentException("No hay lotes disponibles con cantidad suficiente");
+        }
+        return descontado;
+    }
+
+    /**
+     * Una sola lectura tanto si la entidad ya estaba en el contexto de persistencia
+     * (desactualizada tras el UPDATE) como si no
+     */
+    private <T> T recargar(Class<T> tipo, Long id) {
+        T entidad = entityManager.getReference(tipo, id);
+        if (!Hibernate.isInitialized(entidad)) {
+            return entityManager.find(tipo, id);
+        }
+        entityManager.refresh(entidad);
+        return entidad;
+    }
+
+    /**
+     * Cantidad movida de un lote
+     */
+    public static final class Partida {
+        private final Lote lote;
+        private final int cantidad;
+
+        public Partida(Lote lote, int cantidad) {
+            this.lote = lote;
+            this.cantidad = cantidad;
+        }
+
+        public Lote getLote() {
+            return lote;
+        }
+
+        public int getCantidad() {
+            return cantidad;
+        }
+    }
+
+    /**
+     * Producto y lotes tras el movimiento, con el stock del producto antes y después
+     */
+    public static final class Asiento {
+        private final Producto producto;
+        private final List<Partida> partidas;
+        private final int stockAnterior;
+        private final int stockNuevo;
+
+        public Asiento(Producto producto, List<Partida> partidas, int stockAnterior, int stockNuevo) {
+            this.producto = producto;
+            this.partidas = partidas;
+            this.stockAnterior = stockAnterior;
+            this.stockNuevo = stockNuevo;
+        }
+
+        public Producto getProducto() {
+            return producto;
+        }
+
+        public List<Partida> getPartidas() {
+            return partidas;
+        }
+
+        public int getStockAnterior() {
+            return stockAnterior;
+        }
+
+        public int getStockNuevo() {
+            return stockNuevo;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.nuclearvet.infraestructura.inventario;
+
+import com.nuclearvet.compartido.excepciones.RecursoNoEncontradoExcepcion;
+import com.nuclearvet.dominio.entidades.Lote;
+import com.nuclearvet.dominio.entidades.MovimientoInventario;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Escritura en bloque de una recepción de mercancía: los lotes y los movimientos se
+ * insertan cada uno con un solo batch JDBC y el stock de todos los productos recibidos
+ * se suma con un único UPDATE, en lugar de dos lecturas y tres escrituras por línea.
+ *
+ * Recibe entidades sin persistir como portadoras de los datos y les asigna los IDs
+ * generados. Debe ejecutarse dentro de una transacción.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecepcionMercancia {
+
+    private static final String SQL_INSERTAR_LOTE =
+            "INSERT INTO lotes (numero_lote, fecha_ingreso, fecha_fabricacion, fecha_vencimiento, cantidad_inicial, " +
+            "cantidad_disponible, precio_compra_unitario, estado, ubicacion_fisica, observaciones, version, " +
+            "fecha_creacion, fecha_actualizacion, producto_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?)";
+
+    private static final String SQL_INSERTAR_MOVIMIENTO =
+            "INSERT INTO movimientos_inventario (numero_movimiento, tipo_movimiento, cantidad, precio_unitario, " +
+            "valor_total, stock_anterior, stock_nuevo, numero_documento, observaciones, fecha_movimiento, " +
+            "fecha_creacion, producto_id, lote_id, usuario_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_SUMAR_STOCK =
+            "UPDATE productos AS p SET stock_actual = p.stock_actual + v.cantidad, version = p.version + 1, " +
+            "fecha_actualizacion = ? FROM (VALUES %s) AS v(id, cantidad) WHERE p.id = v.id " +
+            "RETURNING p.id, p.stock_actual";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ColaFefoLotes colaFefo;
+
+    /**
+     * Inserta los lotes y les asigna el ID generado
+     */
+    public void insertarLotes(List<Lote> lotes, LocalDateTime ahora) {
+        Timestamp marca = Timestamp.valueOf(ahora);
+        KeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                conexion -> conexion.prepareStatement(SQL_INSERTAR_LOTE, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Lote lote = lotes.get(i);
+                        ps.setString(1, lote.getNumeroLote());
+                        ps.setDate(2, Date.valueOf(lote.getFechaIngreso()));
+                        ps.setObject(3, fecha(lote.getFechaFabricacion()), Types.DATE);
+                        ps.setObject(4, fecha(lote.getFechaVencimiento()), Types.DATE);
+                        ps.setInt(5, lote.getCantidadInicial());
+                        ps.setInt(6, lote.getCantidadDisponible());
+                        ps.setBigDecimal(7, lote.getPrecioCompraUnitario());
+                        ps.setString(8, lote.getEstado().name());
+                        ps.setString(9, lote.getUbicacionFisica());
+                        ps.setString(10, lote.getObservaciones());
+                        ps.setTimestamp(11, marca);
+                        ps.setTimestamp(12, marca);
+                        ps.setLong(13, lote.getProducto().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return lotes.size();
+                    }
+                },
+                claves);
+
+        List<Map<String, Object>> generadas = claves.getKeyList();
+        for (int i = 0; i < lotes.size(); i++) {
+            Lote lote = lotes.get(i);
+            lote.setId(((Number) generadas.get(i).get("id")).longValue());
+            lote.setVersion(0L);
+            lote.setFechaCreacion(ahora);
+            lote.setFechaActualizacion(ahora);
+        }
+    }
+
+    /**
+     * Suma a cada producto su cantidad recibida con una sola sentencia
+     *
+     * @param cantidades cantidad total recibida por producto
+     * @return stock resultante por producto
+     */
+    public Map<Long, Integer> sumarStock(Map<Long, Integer> cantidades, LocalDateTime ahora) {
+        List<Object> parametros = new ArrayList<>(cantidades.size() * 2 + 1);
+        parametros.add(Timestamp.valueOf(ahora));
+        StringJoiner valores = new StringJoiner(", ");
+        cantidades.forEach((productoId, cantidad) -> {
+            valores.add("(CAST(? AS BIGINT), CAST(? AS INTEGER))");
+            parametros.add(productoId);
+            parametros.add(cantidad);
+        });
+
+        Map<Long, Integer> stockNuevo = new HashMap<>();
+        jdbcTemplate.query(String.format(SQL_SUMAR_STOCK, valores), rs -> {
+            stockNuevo.put(rs.getLong(1), rs.getInt(2));
+        }, parametros.toArray());
+        if (stockNuevo.size() != cantidades.size()) {
+            throw new RecursoNoEncontradoExcepcion("Producto no encontrado");
+        }
+        cantidades.keySet().forEach(colaFefo::invalidar);
+        return stockNuevo;
+    }
+
+    /**
+     * Inserta los movimientos y les asigna el ID generado
+     */
+    public void insertarMovimientos(List<MovimientoInventario> movimientos, LocalDateTime ahora) {
+        Timestamp marca = Timestamp.valueOf(ahora);
+        KeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                conexion -> conexion.prepareStatement(SQL_INSERTAR_MOVIMIENTO, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        MovimientoInventario movimiento = movimientos.get(i);
+                        ps.setString(1, movimiento.getNumeroMovimiento());
+                        ps.setString(2, movimiento.getTipoMovimiento().name());
+                        ps.setInt(3, movimiento.getCantidad());
+                        ps.setBigDecimal(4, movimiento.getPrecioUnitario());
+                        ps.setBigDecimal(5, valorTotal(movimiento));
+                        ps.setInt(6, movimiento.getStockAnterior());
+                        ps.setInt(7, movimiento.getStockNuevo());
+                        ps.setString(8, movimiento.getNumeroDocumento());
+                        ps.setString(9, movimiento.getObservaciones());
+                        ps.setTimestamp(10, marca);
+                        ps.setTimestamp(11, marca);
+                        ps.setLong(12, movimiento.getProducto().getId());
+                        ps.setLong(13, movimiento.getLote().getId());
+                        ps.setLong(14, movimiento.getUsuario().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return movimientos.size();
+                    }
+                },
+                claves);
+
+        List<Map<String, Object>> generadas = claves.getKeyList();
+        for (int i = 0; i < movimientos.size(); i++) {
+            MovimientoInventario movimiento = movimientos.get(i);
+            movimiento.setId(((Number) generadas.get(i).get("id")).longValue());
+            movimiento.setValorTotal(valorTotal(movimiento));
+            movimiento.setFechaMovimiento(ahora);
+            movimiento.setFechaCreacion(ahora);
+        }
+        log.debug("Recepción registrada: {} movimientos", movimientos.size());
+    }
+
+    private static Date fecha(LocalDate fecha) {
+        return fecha != null ? Date.valueOf(fecha) : null;
+    }
+
+    /**
+     * Mismo cálculo que MovimientoInventario al persistirse
+     */
+    private static BigDecimal valorTotal(MovimientoInventario movimiento) {
+        return movimiento.getPrecioUnitario() != null
+                ? movimiento.getPrecioUnitario().multiply(BigDecimal.valueOf(movimiento.getCantidad()))
+                : null;
+    }
+}
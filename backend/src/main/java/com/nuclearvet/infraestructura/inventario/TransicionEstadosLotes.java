@@ -0,0 +1,104 @@
+package com.nuclearvet.infraestructura.inventario;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Recalcula el estado de todos los lotes con unas pocas sentencias UPDATE por conjuntos,
+ * con los mismos criterios que Lote.actualizarEstado: sin cantidad disponible pasa a
+ * AGOTADO; con cantidad, vencido pasa a VENCIDO, a 30 días o menos de vencer pasa a
+ * PROXIMO_VENCER y más allá vuelve a DISPONIBLE salvo que esté BLOQUEADO.
+ *
+ * Cada sentencia solo toca las filas cuyo estado cambia. Las transiciones que generan
+ * alertas devuelven los IDs afectados con RETURNING para crear las alertas en la misma
+ * transacción. Debe ejecutarse dentro de una transacción.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransicionEstadosLotes {
+
+    /** Mismo umbral que Lote.actualizarEstado */
+    public static final int DIAS_PROXIMO_VENCER = 30;
+
+    private static final String SQL_AGOTADOS =
+            "UPDATE lotes SET estado = 'AGOTADO', fecha_actualizacion = ? " +
+            "WHERE cantidad_disponible = 0 AND estado <> 'AGOTADO'";
+
+    private static final String SQL_VENCIDOS =
+            "UPDATE lotes SET estado = 'VENCIDO', fecha_actualizacion = ? " +
+            "WHERE cantidad_disponible > 0 AND fecha_vencimiento < ? AND estado <> 'VENCIDO' " +
+            "RETURNING id";
+
+    private static final String SQL_PROXIMOS_VENCER =
+            "UPDATE lotes SET estado = 'PROXIMO_VENCER', fecha_actualizacion = ? " +
+            "WHERE cantidad_disponible > 0 AND fecha_vencimiento BETWEEN ? AND ? AND estado <> 'PROXIMO_VENCER' " +
+            "RETURNING id";
+
+    private static final String SQL_DISPONIBLES =
+            "UPDATE lotes SET estado = 'DISPONIBLE', fecha_actualizacion = ? " +
+            "WHERE cantidad_disponible > 0 AND fecha_vencimiento > ? " +
+            "AND estado IN ('PROXIMO_VENCER', 'VENCIDO', 'AGOTADO')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Aplica las transiciones de estado vigentes en la fecha dada
+     */
+    public Resultado aplicar(LocalDate hoy) {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        Date fecha = Date.valueOf(hoy);
+        Date limite = Date.valueOf(hoy.plusDays(DIAS_PROXIMO_VENCER));
+
+        int agotados = jdbcTemplate.update(SQL_AGOTADOS, ahora);
+        List<Long> vencidos = jdbcTemplate.queryForList(SQL_VENCIDOS, Long.class, ahora, fecha);
+        List<Long> proximosVencer = jdbcTemplate.queryForList(SQL_PROXIMOS_VENCER, Long.class, ahora, fecha, limite);
+        int disponibles = jdbcTemplate.update(SQL_DISPONIBLES, ahora, limite);
+
+        Resultado resultado = new Resultado(agotados, vencidos, proximosVencer, disponibles);
+        log.info("Estados de lotes recalculados: {} agotados, {} vencidos, {} próximos a vencer, {} disponibles",
+                agotados, vencidos.size(), proximosVencer.size(), disponibles);
+        return resultado;
+    }
+
+    /**
+     * Lotes que cambiaron de estado en una ejecución
+     */
+    public static final class Resultado {
+        private final int agotados;
+        private final List<Long> vencidos;
+        private final List<Long> proximosVencer;
+        private final int disponibles;
+
+        public Resultado(int agotados, List<Long> vencidos, List<Long> proximosVencer, int disponibles) {
+            this.agotados = agotados;
+            this.vencidos = vencidos;
+            this.proximosVencer = proximosVencer;
+            this.disponibles = disponibles;
+        }
+
+        public int getAgotados() {
+            return agotados;
+        }
+
+        public List<Long> getVencidos() {
+            return vencidos;
+        }
+
+        public List<Long> getProximosVencer() {
+            return proximosVencer;
+        }
+
+        public int getDisponibles() {
+            return disponibles;
+        }
+    }
+}
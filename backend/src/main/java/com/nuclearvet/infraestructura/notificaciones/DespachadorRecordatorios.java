@@ -0,0 +1,338 @@
+package com.nuclearvet.infraestructura.notificaciones;
+
+import com.nuclearvet.dominio.entidades.Cita;
+import com.nuclearvet.dominio.entidades.PlantillaMensaje;
+import com.nuclearvet.dominio.entidades.Propietario;
+import com.nuclearvet.dominio.entidades.Recordatorio;
+import com.nuclearvet.dominio.enumeraciones.EstadoCorreo;
+import com.nuclearvet.dominio.enumeraciones.TipoEventoPush;
+import com.nuclearvet.dominio.enumeraciones.TipoRecordatorio;
+import com.nuclearvet.dominio.servicios.PlantillaMensajeServicio;
+import com.nuclearvet.infraestructura.correo.BandejaSalidaCorreos;
+import com.nuclearvet.infraestructura.eventos.CanalEventos;
+import com.nuclearvet.infraestructura.persistencia.PlantillaMensajeRepositorio;
+import com.nuclearvet.infraestructura.persistencia.RecordatorioRepositorio;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Despacho por lotes de los recordatorios vencidos.
+ *
+ * Cada lote se reserva en su propia transacción con SELECT ... FOR UPDATE SKIP LOCKED,
+ * se renderiza en paralelo en un pool acotado y, antes de confirmar, se encola en la
+ * bandeja de salida (historial_correos PENDIENTE) y se marca como enviado con una sola
+ * sentencia UPDATE. Varias instancias pueden vaciar la cola a la vez: cada una salta las
+ * filas que otra tiene reservadas, y los bloqueos solo duran lo que tarda un lote. La
+ * entrega SMTP y sus reintentos quedan a cargo de BandejaSalidaCorreos; los recordatorios
+ * que no se pueden renderizar quedan pendientes para la siguiente ejecución.
+ */
+@Component
+@Slf4j
+public class DespachadorRecordatorios {
+
+    private static final String PREFIJO_PLANTILLA = "RECORDATORIO_";
+    private static final LocalDateTime INICIO = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm");
+    private static final int LONGITUD_MAXIMA_ASUNTO = 255;
+
+    private static final String SQL_HISTORIAL =
+            "INSERT INTO historial_correos (destinatario_email, asunto, contenido, plantilla_id, estado, " +
+            "intentos, fecha_creacion) VALUES (?, ?, ?, ?, ?, 0, ?)";
+
+    private final RecordatorioRepositorio recordatorioRepositorio;
+    private final PlantillaMensajeRepositorio plantillaRepositorio;
+    private final PlantillaMensajeServicio plantillaServicio;
+    private final BandejaSalidaCorreos bandejaSalida;
+    private final CanalEventos canalEventos;
+    private final ContadoresTablero contadores;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccionLote;
+    private final ThreadPoolExecutor ejecutor;
+    private final int tamanoLote;
+
+    public DespachadorRecordatorios(
+            RecordatorioRepositorio recordatorioRepositorio,
+            PlantillaMensajeRepositorio plantillaRepositorio,
+            PlantillaMensajeServicio plantillaServicio,
+            BandejaSalidaCorreos bandejaSalida,
+            CanalEventos canalEventos,
+            ContadoresTablero contadores,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${nuclearvet.recordatorios.despacho.tamano-lote:100}") int tamanoLote,
+            @Value("${nuclearvet.recordatorios.despacho.hilos:4}") int hilos) {
+        this.recordatorioRepositorio = recordatorioRepositorio;
+        this.plantillaRepositorio = plantillaRepositorio;
+        this.plantillaServicio = plantillaServicio;
+        this.bandejaSalida = bandejaSalida;
+        this.canalEventos = canalEventos;
+        this.contadores = contadores;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccionLote = new TransactionTemplate(transactionManager);
+        this.transaccionLote.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tamanoLote = tamanoLote;
+
+        AtomicInteger contador = new AtomicInteger();
+        // Si la cola se llena, el hilo que reservó el lote renderiza él mismo (contrapresión)
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(tamanoLote),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "recordatorios-envio-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdown();
+        try {
+            if (!ejecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                ejecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            ejecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Scheduled(cron = "${nuclearvet.recordatorios.despacho.cron:0 */5 * * * *}")
+    public void despacharProgramado() {
+        despachar();
+    }
+
+    /**
+     * Encola todos los recordatorios vencidos hasta ahora, lote a lote.
+     * Cada ejecución recorre la cola una sola vez en orden (fecha programada, id).
+     *
+     * @return cantidad de recordatorios marcados como enviados
+     */
+    public int despachar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        Map<TipoRecordatorio, Long> plantillas = resolverPlantillas();
+        LocalDateTime fecha = INICIO;
+        long id = 0;
+        int enviados = 0;
+        int fallidos = 0;
+
+        while (true) {
+            LocalDateTime desdeFecha = fecha;
+            long desdeId = id;
+            ResultadoLote resultado = transaccionLote.execute(estado -> procesarLote(ahora, desdeFecha, desdeId, plantillas));
+            if (resultado == null || resultado.reclamados == 0) {
+                break;
+            }
+            enviados += resultado.enviados;
+            fallidos += resultado.fallidos;
+            fecha = resultado.ultimaFecha;
+            id = resultado.ultimoId;
+            if (resultado.reclamados < tamanoLote) {
+                break;
+            }
+        }
+
+        if (enviados > 0 || fallidos > 0) {
+            log.info("Despacho de recordatorios: {} encolados, {} fallidos", enviados, fallidos);
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("enviados", enviados);
+            datos.put("fallidos", fallidos);
+            canalEventos.publicar(TipoEventoPush.RECORDATORIOS_DESPACHADOS, null, () -> datos);
+        }
+        return enviados;
+    }
+
+    private ResultadoLote procesarLote(LocalDateTime ahora, LocalDateTime fecha, long id,
+                                       Map<TipoRecordatorio, Long> plantillas) {
+        List<Long> ids = recordatorioRepositorio.reclamarPendientesDeEnvio(ahora, fecha, id, tamanoLote);
+        if (ids.isEmpty()) {
+            return new ResultadoLote(0, 0, 0, fecha, id);
+        }
+        List<Recordatorio> recordatorios = recordatorioRepositorio.findParaDespacho(ids);
+
+        // Las variables se extraen en este hilo; el renderizado solo recibe datos planos
+        List<CompletableFuture<Envio>> envios = new ArrayList<>(recordatorios.size());
+        for (Recordatorio recordatorio : recordatorios) {
+            Mensaje mensaje = construirMensaje(recordatorio, plantillas.get(recordatorio.getTipoRecordatorio()));
+            envios.add(CompletableFuture.supplyAsync(() -> renderizar(mensaje), ejecutor));
+        }
+
+        List<Long> exitosos = new ArrayList<>(envios.size());
+        List<Envio> registrados = new ArrayList<>(envios.size());
+        for (CompletableFuture<Envio> futuro : envios) {
+            Envio envio = futuro.join();
+            if (envio.error == null) {
+                exitosos.add(envio.mensaje.recordatorioId);
+            }
+            if (envio.error == null && envio.mensaje.destinatario != null) {
+                registrados.add(envio);
+            }
+        }
+
+        LocalDateTime fechaEnvio = LocalDateTime.now();
+        if (!exitosos.isEmpty()) {
+            recordatorioRepositorio.marcarComoEnviados(exitosos, fechaEnvio);
+        }
+        encolar(registrados, fechaEnvio);
+
+        Recordatorio ultimo = recordatorios.get(recordatorios.size() - 1);
+        return new ResultadoLote(ids.size(), exitosos.size(), envios.size() - exitosos.size(),
+                ultimo.getFechaProgramada(), ultimo.getId());
+    }
+
+    private Envio renderizar(Mensaje mensaje) {
+        String asunto = mensaje.variables.get("titulo");
+        String contenido = "";
+        try {
+            if (mensaje.plantillaId != null) {
+                asunto = plantillaServicio.renderizarAsunto(mensaje.plantillaId, mensaje.variables);
+                contenido = plantillaServicio.renderizar(mensaje.plantillaId, mensaje.variables);
+            } else {
+                contenido = mensaje.variables.getOrDefault("descripcion", asunto);
+            }
+
+            if (mensaje.destinatario == null) {
+                // Sin correo del propietario no hay nada que entregar; se da por atendido
+                log.debug("Recordatorio {} sin correo de destino", mensaje.recordatorioId);
+            }
+            return new Envio(mensaje, asunto, contenido, null);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo renderizar el recordatorio {}: {}", mensaje.recordatorioId, e.getMessage());
+            return new Envio(mensaje, asunto, contenido, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private void encolar(List<Envio> envios, LocalDateTime fechaCreacion) {
+        if (envios.isEmpty()) {
+            return;
+        }
+        Timestamp marca = Timestamp.valueOf(fechaCreacion);
+        jdbcTemplate.batchUpdate(SQL_HISTORIAL, envios, envios.size(), (ps, envio) -> {
+            ps.setString(1, envio.mensaje.destinatario);
+            ps.setString(2, truncar(envio.asunto != null ? envio.asunto : "", LONGITUD_MAXIMA_ASUNTO));
+            ps.setString(3, envio.contenido != null ? envio.contenido : "");
+            if (envio.mensaje.plantillaId != null) {
+                ps.setLong(4, envio.mensaje.plantillaId);
+            } else {
+                ps.setNull(4, Types.BIGINT);
+            }
+            ps.setString(5, EstadoCorreo.PENDIENTE.name());
+            ps.setTimestamp(6, marca);
+        });
+        contadores.sumarCorreos(EstadoCorreo.PENDIENTE, envios.size());
+        bandejaSalida.notificarNuevos();
+    }
+
+    /**
+     * Plantillas activas RECORDATORIO_<TIPO>, resueltas una vez por ejecución
+     */
+    private Map<TipoRecordatorio, Long> resolverPlantillas() {
+        Map<TipoRecordatorio, Long> plantillas = new EnumMap<>(TipoRecordatorio.class);
+        for (PlantillaMensaje plantilla : plantillaRepositorio.findByActivoTrue()) {
+            for (TipoRecordatorio tipo : TipoRecordatorio.values()) {
+                if ((PREFIJO_PLANTILLA + tipo.name()).equals(plantilla.getNombre())) {
+                    plantillas.put(tipo, plantilla.getId());
+                }
+            }
+        }
+        return plantillas;
+    }
+
+    private Mensaje construirMensaje(Recordatorio recordatorio, Long plantillaId) {
+        Propietario propietario = recordatorio.getPaciente().getPropietario();
+        Cita cita = recordatorio.getCita();
+        LocalDateTime fechaCita = cita != null ? cita.getFechaHora() : recordatorio.getFechaProgramada();
+
+        Map<String, String> variables = new HashMap<>();
+        variables.put("titulo", recordatorio.getTitulo());
+        if (recordatorio.getDescripcion() != null) {
+            variables.put("descripcion", recordatorio.getDescripcion());
+        }
+        variables.put("nombre_propietario", propietario.getNombreCompleto());
+        variables.put("nombre_paciente", recordatorio.getPaciente().getNombre());
+        variables.put("fecha_cita", fechaCita.format(FORMATO_FECHA));
+        variables.put("hora_cita", fechaCita.format(FORMATO_HORA));
+        variables.put("nombre_veterinario", cita != null ? cita.getVeterinario().getNombreCompleto() : "");
+        variables.put("motivo", cita != null && cita.getMotivoConsulta() != null
+                ? cita.getMotivoConsulta() : recordatorio.getTitulo());
+        variables.put("nombre_vacuna", recordatorio.getTitulo());
+        variables.put("fecha_vacuna", recordatorio.getFechaProgramada().format(FORMATO_FECHA));
+
+        String destinatario = propietario.getCorreoElectronico();
+        return new Mensaje(recordatorio.getId(), destinatario == null || destinatario.isBlank() ? null : destinatario,
+                plantillaId, variables);
+    }
+
+    private static String truncar(String valor, int longitud) {
+        return valor.length() <= longitud ? valor : valor.substring(0, longitud);
+    }
+
+    private static final class Mensaje {
+        private final Long recordatorioId;
+        private final String destinatario;
+        private final Long plantillaId;
+        private final Map<String, String> variables;
+
+        private Mensaje(Long recordatorioId, String destinatario, Long plantillaId, Map<String, String> variables) {
+            this.recordatorioId = recordatorioId;
+            this.destinatario = destinatario;
+            this.plantillaId = plantillaId;
+            this.variables = variables;
+        }
+    }
+
+    private static final class Envio {
+        private final Mensaje mensaje;
+        private final String asunto;
+        private final String contenido;
+        private final String error;
+
+        private Envio(Mensaje mensaje, String asunto, String contenido, String error) {
+            this.mensaje = mensaje;
+            this.asunto = asunto;
+            this.contenido = contenido;
+            this.error = error;
+        }
+    }
+
+    private static final class ResultadoLote {
+        private final int reclamados;
+        private final int enviados;
+        private final int fallidos;
+        private final LocalDateTime ultimaFecha;
+        private final long ultimoId;
+
+        private ResultadoLote(int reclamados, int enviados, int fallidos, LocalDateTime ultimaFecha, long ultimoId) {
+            this.reclamados = reclamados;
+            this.enviados = enviados;
+            this.fallidos = fallidos;
+            this.ultimaFecha = ultimaFecha;
+            this.ultimoId = ultimoId;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.nuclearvet.infraestructura.numeracion;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de consecutivos para números de documento (citas, facturas, movimientos, etc.)
+ *
+ * Asignador hi/lo: cada instancia reserva bloques de consecutivos en la tabla
+ * numeracion_documentos con un único UPSERT atómico y los entrega desde memoria
+ * con un AtomicLong, sin bloqueos ni consultas en el camino habitual.
+ * Los consecutivos se reinician por día o por mes según la periodicidad de la serie.
+ * Al cambiar de periodo, y al detener la aplicación, la parte no usada de cada bloque se
+ * devuelve a la tabla si ninguna otra instancia reservó después; si otra ya lo hizo, o la
+ * aplicación se cae, quedan huecos en la numeración, nunca duplicados.
+ *
+ * Las reservas usan un pool de conexiones propio. Quien pide un consecutivo suele tener ya
+ * una conexión del pool principal en su transacción; si la reserva saliera del mismo pool,
+ * con todas sus conexiones tomadas por peticiones que esperan un consecutivo, nadie podría
+ * reservar el bloque hasta el connection-timeout de HikariCP.
+ */
+@Component
+@Slf4j
+public class GeneradorNumeracion {
+
+    private static final String SQL_RESERVAR_BLOQUE =
+            "INSERT INTO numeracion_documentos (serie, periodo, ultimo_valor) VALUES (?, ?, ?) " +
+            "ON CONFLICT (serie, periodo) DO UPDATE " +
+            "SET ultimo_valor = numeracion_documentos.ultimo_valor + EXCLUDED.ultimo_valor, " +
+            "fecha_actualizacion = CURRENT_TIMESTAMP " +
+            "RETURNING ultimo_valor";
+
+    private static final String SQL_DEVOLVER_SOBRANTE =
+            "UPDATE numeracion_documentos SET ultimo_valor = ?, fecha_actualizacion = CURRENT_TIMESTAMP " +
+            "WHERE serie = ? AND periodo = ? AND ultimo_valor = ?";
+
+    /**
+     * Periodo de reinicio de una serie
+     */
+    public enum Periodicidad {
+        DIARIA(DateTimeFormatter.ofPattern("yyyyMMdd")),
+        MENSUAL(DateTimeFormatter.ofPattern("yyyyMM"));
+
+        private final DateTimeFormatter formato;
+
+        Periodicidad(DateTimeFormatter formato) {
+            this.formato = formato;
+        }
+
+        public String periodo(LocalDate fecha) {
+            return fecha.format(formato);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccionIndependiente;
+    private final Map<String, Bloque> bloques = new ConcurrentHashMap<>();
+    private final HikariDataSource poolPropio;
+
+    @Value("${nuclearvet.numeracion.tamano-bloque:20}")
+    private int tamanoBloque;
+
+    @Autowired
+    public GeneradorNumeracion(DataSourceProperties propiedades,
+                               @Value("${nuclearvet.numeracion.conexiones:1}") int conexiones) {
+        this(crearPool(propiedades, conexiones));
+    }
+
+    private GeneradorNumeracion(HikariDataSource poolPropio) {
+        this(new JdbcTemplate(poolPropio), new DataSourceTransactionManager(poolPropio), poolPropio);
+    }
+
+    GeneradorNumeracion(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this(jdbcTemplate, transactionManager, null);
+    }
+
+    private GeneradorNumeracion(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                HikariDataSource poolPropio) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccionIndependiente = new TransactionTemplate(transactionManager);
+        this.transaccionIndependiente.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.poolPropio = poolPropio;
+    }
+
+    /**
+     * Pool pequeño con los mismos datos de conexión que el principal; solo se usa al
+     * reservar un bloque, así que no mantiene conexiones ociosas
+     */
+    private static HikariDataSource crearPool(DataSourceProperties propiedades, int conexiones) {
+        HikariDataSource pool = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("numeracion");
+        pool.setMaximumPoolSize(conexiones);
+        pool.setMinimumIdle(0);
+        return pool;
+    }
+
+    /**
+     * Obtiene el siguiente consecutivo de la serie para el periodo que contiene la fecha
+     */
+    public long siguiente(String serie, Periodicidad periodicidad, LocalDate fecha) {
+        String periodo = periodicidad.periodo(fecha);
+        String clave = serie + ":" + periodo;
+        while (true) {
+            Bloque bloque = bloques.get(clave);
+            if (bloque != null) {
+                long valor = bloque.tomar();
+                if (valor > 0) {
+                    return valor;
+                }
+            }
+            recargar(clave, serie, periodo, bloque);
+        }
+    }
+
+    /**
+     * Reserva un nuevo bloque cuando el actual se agota (fuera del camino habitual)
+     */
+    private synchronized void recargar(String clave, String serie, String periodo, Bloque agotado) {
+        if (bloques.get(clave) != agotado) {
+            return;
+        }
+        int tamano = tamanoBloque;
+        Long limite = transaccionIndependiente.execute(estado ->
+                jdbcTemplate.queryForObject(SQL_RESERVAR_BLOQUE, Long.class, serie, periodo, tamano));
+        if (limite == null) {
+            throw new IllegalStateException("No fue posible reservar consecutivos para la serie " + serie);
+        }
+
+        // Cerrar los bloques de periodos anteriores de la misma serie devolviendo lo no usado.
+        // Un llamador rezagado que pide un periodo ya pasado no cierra el bloque del periodo
+        // vigente (los periodos de una serie tienen la misma longitud y se ordenan como texto)
+        Iterator<Map.Entry<String, Bloque>> anteriores = bloques.entrySet().iterator();
+        while (anteriores.hasNext()) {
+            Map.Entry<String, Bloque> anterior = anteriores.next();
+            if (anterior.getKey().startsWith(serie + ":") && anterior.getValue().periodo.compareTo(periodo) < 0) {
+                anteriores.remove();
+                devolverSobrante(anterior.getValue());
+            }
+        }
+        bloques.put(clave, new Bloque(serie, periodo, limite - tamano + 1, limite));
+        log.debug("Bloque de consecutivos reservado: serie={}, periodo={}, hasta={}", serie, periodo, limite);
+    }
+
+    /**
+     * Devuelve los consecutivos no entregados de todos los bloques al detener la aplicación
+     */
+    @PreDestroy
+    public synchronized void detener() {
+        bloques.values().forEach(this::devolverSobrante);
+        bloques.clear();
+        if (poolPropio != null) {
+            poolPropio.close();
+        }
+    }
+
+    /**
+     * Cierra el bloque y, si sigue siendo el último reservado de su serie y periodo, baja el
+     * límite de la tabla al último consecutivo entregado para que no quede hueco
+     */
+    private void devolverSobrante(Bloque bloque) {
+        long primeroLibre = bloque.cerrar();
+        if (primeroLibre < 0) {
+            return;
+        }
+        try {
+            Integer devueltos = transaccionIndependiente.execute(estado -> jdbcTemplate.update(SQL_DEVOLVER_SOBRANTE,
+                    primeroLibre - 1, bloque.serie, bloque.periodo, bloque.limite));
+            if (devueltos != null && devueltos > 0) {
+                log.debug("Consecutivos devueltos: serie={}, periodo={}, desde={}", bloque.serie, bloque.periodo, primeroLibre);
+            }
+        } catch (DataAccessException e) {
+            log.warn("No fue posible devolver los consecutivos sobrantes de la serie {}: {}", bloque.serie, e.getMessage());
+        }
+    }
+
+    /**
+     * Rango [siguiente, limite] de consecutivos reservados
+     */
+    private static final class Bloque {
+        private final String serie;
+        private final String periodo;
+        private final AtomicLong siguiente;
+        private final long limite;
+
+        private Bloque(String serie, String periodo, long inicio, long limite) {
+            this.serie = serie;
+            this.periodo = periodo;
+            this.siguiente = new AtomicLong(inicio);
+            this.limite = limite;
+        }
+
+        private long tomar() {
+            long valor = siguiente.getAndIncrement();
+            return valor <= limite ? valor : -1;
+        }
+
+        /**
+         * Agota el bloque y devuelve el primer consecutivo que no se llegó a entregar, o -1
+         */
+        private long cerrar() {
+            long primeroLibre = siguiente.getAndSet(limite + 1);
+            return primeroLibre <= limite ? primeroLibre : -1;
+        }
+    }
+}
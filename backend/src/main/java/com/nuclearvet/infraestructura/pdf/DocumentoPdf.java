@@ -0,0 +1,17 @@
+package com.nuclearvet.infraestructura.pdf;
+
+import com.itextpdf.layout.Document;
+
+/**
+ * Documento imprimible con los datos ya cargados: GeneradorPdf lo compone fuera de la
+ * transacción, en su propio pool, sobre una página que ya trae el membrete de la clínica
+ */
+public interface DocumentoPdf {
+
+    /**
+     * Nombre del archivo, también usado como entrada dentro de un ZIP
+     */
+    String getNombreArchivo();
+
+    void componer(Document documento, RecursosPdf.Fuentes fuentes);
+}
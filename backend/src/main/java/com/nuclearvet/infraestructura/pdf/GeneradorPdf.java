@@ -0,0 +1,179 @@
+package com.nuclearvet.infraestructura.pdf;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.layout.Document;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renderizado de PDF en un pool propio y acotado, para que una ráfaga de impresiones no
+ * ocupe los hilos de peticiones ni compita sin límite por CPU y memoria. Si el pool y su
+ * cola están llenos, una impresión individual se rechaza (503) en lugar de esperar; un
+ * ZIP por lotes renderiza él mismo lo que no cabe en la cola (contrapresión).
+ *
+ * Los documentos llegan con sus datos ya cargados: aquí no se abre transacción.
+ */
+@Component
+@Slf4j
+public class GeneradorPdf {
+
+    private final RecursosPdf recursos;
+    private final ThreadPoolExecutor ejecutor;
+    private final long timeoutSegundos;
+
+    public GeneradorPdf(
+            RecursosPdf recursos,
+            @Value("${nuclearvet.pdf.hilos:2}") int hilos,
+            @Value("${nuclearvet.pdf.cola:32}") int cola,
+            @Value("${nuclearvet.pdf.timeout-segundos:30}") long timeoutSegundos) {
+        this.recursos = recursos;
+        this.timeoutSegundos = timeoutSegundos;
+
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(cola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "pdf-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdown();
+        try {
+            if (!ejecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                ejecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            ejecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Renderiza un documento en el pool y espera el resultado
+     *
+     * @throws RejectedExecutionException si el pool está saturado
+     */
+    public byte[] generar(DocumentoPdf documento) {
+        Future<byte[]> futuro = ejecutor.submit(() -> renderizar(documento));
+        try {
+            return futuro.get(timeoutSegundos, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            throw new IllegalStateException("Tiempo agotado generando " + documento.getNombreArchivo(), e);
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Generación de PDF interrumpida", e);
+        } catch (ExecutionException e) {
+            throw desenvolver(e.getCause());
+        }
+    }
+
+    /**
+     * Escribe un ZIP con un PDF por documento. Los lotes se piden al iterador de a uno: los
+     * documentos de un lote se renderizan en paralelo y se escriben en orden antes de pedir
+     * el siguiente, así que en memoria solo hay un lote a la vez.
+     *
+     * @return cantidad de documentos escritos
+     */
+    public int generarZip(Iterator<List<DocumentoPdf>> lotes, OutputStream salida) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(salida);
+        // Los PDF ya van comprimidos: basta con la compresión más rápida
+        zip.setLevel(Deflater.BEST_SPEED);
+        int escritos = 0;
+        while (lotes.hasNext()) {
+            List<DocumentoPdf> lote = lotes.next();
+            List<CompletableFuture<byte[]>> pdfs = new ArrayList<>(lote.size());
+            for (DocumentoPdf documento : lote) {
+                pdfs.add(enviar(documento));
+            }
+            for (int i = 0; i < lote.size(); i++) {
+                byte[] pdf = esperar(pdfs.get(i));
+                zip.putNextEntry(new ZipEntry(lote.get(i).getNombreArchivo()));
+                zip.write(pdf);
+                zip.closeEntry();
+                escritos++;
+            }
+            zip.flush();
+        }
+        zip.finish();
+        log.debug("ZIP de PDF generado con {} documentos", escritos);
+        return escritos;
+    }
+
+    private CompletableFuture<byte[]> enviar(DocumentoPdf documento) {
+        try {
+            return CompletableFuture.supplyAsync(() -> renderizar(documento), ejecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(renderizar(documento));
+        }
+    }
+
+    private byte[] esperar(CompletableFuture<byte[]> futuro) {
+        try {
+            return futuro.get(timeoutSegundos, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Tiempo agotado generando PDF", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Generación de PDF interrumpida", e);
+        } catch (ExecutionException e) {
+            throw desenvolver(e.getCause());
+        }
+    }
+
+    byte[] renderizar(DocumentoPdf documento) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(32 * 1024);
+        WriterProperties propiedades = new WriterProperties().setFullCompressionMode(true);
+        try (PdfDocument pdf = new PdfDocument(new PdfWriter(salida, propiedades));
+             Document contenido = new Document(pdf, PageSize.A4)) {
+            RecursosPdf.Fuentes fuentes = recursos.fuentes();
+            recursos.aplicarMembrete(pdf, fuentes);
+            contenido.setMargins(RecursosPdf.MARGEN + RecursosPdf.ALTO_MEMBRETE, RecursosPdf.MARGEN,
+                    RecursosPdf.MARGEN, RecursosPdf.MARGEN);
+            contenido.setFont(fuentes.getNormal()).setFontSize(9);
+            documento.componer(contenido, fuentes);
+        }
+        return salida.toByteArray();
+    }
+
+    private static RuntimeException desenvolver(Throwable causa) {
+        if (causa instanceof RuntimeException excepcion) {
+            return excepcion;
+        }
+        if (causa instanceof IOException excepcion) {
+            return new UncheckedIOException(excepcion);
+        }
+        return new IllegalStateException(causa);
+    }
+}
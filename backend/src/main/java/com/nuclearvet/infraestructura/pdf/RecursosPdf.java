@@ -0,0 +1,245 @@
+package com.nuclearvet.infraestructura.pdf;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.events.Event;
+import com.itextpdf.kernel.events.IEventHandler;
+import com.itextpdf.kernel.events.PdfDocumentEvent;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.Canvas;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.element.Text;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import com.itextpdf.layout.properties.VerticalAlignment;
+import com.nuclearvet.dominio.entidades.ConfiguracionClinica;
+import com.nuclearvet.infraestructura.persistencia.ConfiguracionClinicaRepositorio;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.StringJoiner;
+
+import static com.nuclearvet.compartido.transacciones.TransaccionUtil.despuesDeConfirmar;
+
+/**
+ * Recursos compartidos por todos los PDF: los programas de fuente se cargan una sola vez
+ * y el membrete (logo y datos de ConfiguracionClinica) se dibuja una sola vez en una
+ * página plantilla que se guarda en memoria. Cada documento solo copia esa página como
+ * XObject y la estampa de fondo en cada página, en lugar de volver a leer la
+ * configuración, decodificar el logo y maquetar el encabezado.
+ *
+ * La plantilla se descarta cuando cambia la configuración de la clínica.
+ */
+@Component
+@Slf4j
+public class RecursosPdf {
+
+    public static final float MARGEN = 36;
+    /** Alto reservado para el membrete; los documentos empiezan debajo */
+    public static final float ALTO_MEMBRETE = 80;
+    private static final String NOMBRE_POR_DEFECTO = "NuclearVET";
+
+    private final ConfiguracionClinicaRepositorio configuracionRepositorio;
+    private final FontProgram programaNormal;
+    private final FontProgram programaNegrita;
+
+    private volatile byte[] plantilla;
+
+    public RecursosPdf(ConfiguracionClinicaRepositorio configuracionRepositorio) {
+        this.configuracionRepositorio = configuracionRepositorio;
+        try {
+            this.programaNormal = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+            this.programaNegrita = FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Fuentes para un documento nuevo (un PdfFont pertenece a un solo documento)
+     */
+    public Fuentes fuentes() {
+        return new Fuentes(PdfFontFactory.createFont(programaNormal, PdfEncodings.WINANSI),
+                PdfFontFactory.createFont(programaNegrita, PdfEncodings.WINANSI));
+    }
+
+    /**
+     * Estampa el membrete y el número de página en cada página del documento
+     */
+    public void aplicarMembrete(PdfDocument pdf, Fuentes fuentes) {
+        PdfFormXObject fondo;
+        try (PdfDocument origen = new PdfDocument(new PdfReader(new ByteArrayInputStream(plantilla())))) {
+            fondo = origen.getFirstPage().copyAsFormXObject(pdf);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pdf.addEventHandler(PdfDocumentEvent.END_PAGE, new Membrete(fondo, fuentes.getNormal()));
+    }
+
+    /**
+     * Descarta la plantilla cuando la transacción actual confirma (cambió la configuración)
+     */
+    public void invalidar() {
+        despuesDeConfirmar(() -> plantilla = null);
+    }
+
+    /**
+     * Si dos hilos la construyen a la vez ambos obtienen el mismo resultado, así que no se sincroniza
+     */
+    private byte[] plantilla() {
+        byte[] actual = plantilla;
+        if (actual == null) {
+            actual = construirPlantilla();
+            plantilla = actual;
+        }
+        return actual;
+    }
+
+    private byte[] construirPlantilla() {
+        ConfiguracionClinica config = configuracionRepositorio.findConfiguracionActual().orElse(null);
+        ImageData logo = config != null ? cargarLogo(config.getLogo()) : null;
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (PdfDocument pdf = new PdfDocument(new PdfWriter(salida))) {
+            Fuentes fuentes = new Fuentes(PdfFontFactory.createFont(programaNormal, PdfEncodings.WINANSI),
+                    PdfFontFactory.createFont(programaNegrita, PdfEncodings.WINANSI));
+            PdfPage pagina = pdf.addNewPage(PageSize.A4);
+            Rectangle area = pagina.getPageSize();
+            Rectangle cabecera = new Rectangle(MARGEN, area.getTop() - MARGEN - ALTO_MEMBRETE + 10,
+                    area.getWidth() - 2 * MARGEN, ALTO_MEMBRETE - 10);
+
+            Table tabla = new Table(UnitValue.createPercentArray(new float[]{1, 4})).useAllAvailableWidth();
+            Cell celdaLogo = new Cell().setBorder(Border.NO_BORDER).setVerticalAlignment(VerticalAlignment.MIDDLE);
+            if (logo != null) {
+                celdaLogo.add(new Image(logo).scaleToFit(60, 60));
+            }
+            tabla.addCell(celdaLogo);
+            tabla.addCell(new Cell().setBorder(Border.NO_BORDER).setVerticalAlignment(VerticalAlignment.MIDDLE)
+                    .add(datosClinica(config, fuentes)));
+            try (Canvas lienzo = new Canvas(new PdfCanvas(pagina), cabecera)) {
+                lienzo.add(tabla);
+            }
+            new PdfCanvas(pagina).setLineWidth(0.5f)
+                    .moveTo(MARGEN, cabecera.getBottom() - 2)
+                    .lineTo(area.getRight() - MARGEN, cabecera.getBottom() - 2)
+                    .stroke();
+        }
+        log.debug("Plantilla de membrete PDF generada ({} bytes)", salida.size());
+        return salida.toByteArray();
+    }
+
+    private static Paragraph datosClinica(ConfiguracionClinica config, Fuentes fuentes) {
+        Paragraph datos = new Paragraph().setFont(fuentes.getNormal()).setFontSize(8)
+                .setMultipliedLeading(1.2f).setTextAlignment(TextAlignment.RIGHT);
+        if (config == null) {
+            return datos.add(new Text(NOMBRE_POR_DEFECTO).setFont(fuentes.getNegrita()).setFontSize(14));
+        }
+        datos.add(new Text(config.getNombreClinica()).setFont(fuentes.getNegrita()).setFontSize(14));
+        datos.add("\nNIT " + config.getNit());
+        StringJoiner ubicacion = new StringJoiner(" - ");
+        agregar(ubicacion, config.getDireccion());
+        agregar(ubicacion, config.getCiudad());
+        agregar(ubicacion, config.getDepartamento());
+        datos.add("\n" + ubicacion);
+        StringJoiner contacto = new StringJoiner(" | ");
+        agregar(contacto, config.getTelefono());
+        agregar(contacto, config.getEmail());
+        agregar(contacto, config.getSitioWeb());
+        datos.add("\n" + contacto);
+        return datos;
+    }
+
+    private static void agregar(StringJoiner destino, String valor) {
+        if (valor != null && !valor.isBlank()) {
+            destino.add(valor);
+        }
+    }
+
+    /**
+     * El logo puede ser una URL (http, https, file) o una ruta del sistema de archivos
+     */
+    private static ImageData cargarLogo(String logo) {
+        if (logo == null || logo.isBlank()) {
+            return null;
+        }
+        try {
+            if (logo.matches("^(https?|file):.*")) {
+                return ImageDataFactory.create(new URL(logo));
+            }
+            return ImageDataFactory.create(Files.readAllBytes(Path.of(logo)));
+        } catch (Exception e) {
+            log.warn("No se pudo cargar el logo de la clínica '{}': {}", logo, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Fuentes de un documento
+     */
+    public static final class Fuentes {
+        private final PdfFont normal;
+        private final PdfFont negrita;
+
+        public Fuentes(PdfFont normal, PdfFont negrita) {
+            this.normal = normal;
+            this.negrita = negrita;
+        }
+
+        public PdfFont getNormal() {
+            return normal;
+        }
+
+        public PdfFont getNegrita() {
+            return negrita;
+        }
+    }
+
+    private static final class Membrete implements IEventHandler {
+        private final PdfFormXObject fondo;
+        private final PdfFont fuente;
+
+        private Membrete(PdfFormXObject fondo, PdfFont fuente) {
+            this.fondo = fondo;
+            this.fuente = fuente;
+        }
+
+        @Override
+        public void handleEvent(Event evento) {
+            PdfDocumentEvent eventoPagina = (PdfDocumentEvent) evento;
+            PdfDocument pdf = eventoPagina.getDocument();
+            PdfPage pagina = eventoPagina.getPage();
+            Rectangle area = pagina.getPageSize();
+            PdfCanvas lienzo = new PdfCanvas(pagina.newContentStreamBefore(), pagina.getResources(), pdf);
+            lienzo.addXObjectAt(fondo, 0, 0);
+            lienzo.beginText()
+                    .setFontAndSize(fuente, 8)
+                    .moveText(area.getRight() - MARGEN - 40, MARGEN / 2)
+                    .showText("Página " + pdf.getPageNumber(pagina))
+                    .endText();
+            lienzo.release();
+        }
+    }
+}
@@ -2,11 +2,14 @@ package com.nuclearvet.infraestructura.persistencia;
 
 import com.nuclearvet.dominio.entidades.AlertaInventario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -46,8 +49,9 @@ public interface AlertaInventarioRepositorio extends JpaRepository<AlertaInventa
     @Query("SELECT a FROM AlertaInventario a WHERE a.fechaAlerta >= :fecha ORDER BY a.fechaAlerta DESC")
     List<AlertaInventario> findAlertasRecientes(@Param("fecha") LocalDateTime fecha);
 
-    @Query("UPDATE AlertaInventario a SET a.leida = true WHERE a.leida = false")
-    void marcarTodasComoLeidas();
+    @Modifying
+    @Query("UPDATE AlertaInventario a SET a.leida = true, a.fechaLeida = CURRENT_TIMESTAMP WHERE a.leida = false")
+    int marcarTodasComoLeidas();
 
     // Búsquedas combinadas
     @Query("SELECT a FROM AlertaInventario a WHERE a.producto.id = :productoId AND a.leida = false " +
@@ -90,6 +94,70 @@ public interface AlertaInventarioRepositorio extends JpaRepository<AlertaInventa
     @Query("SELECT a.prioridad, COUNT(a) FROM AlertaInventario a WHERE a.leida = false GROUP BY a.prioridad")
     List<Object[]> contarPorPrioridadNoLeidas();
 
+    /**
+     * Alertas abiertas como [producto_id, lote_id, tipo], para precargar el índice en memoria
+     */
+    @Query("SELECT a.producto.id, l.id, a.tipo FROM AlertaInventario a LEFT JOIN a.lote l WHERE a.leida = false")
+    List<Object[]> findClavesAbiertas();
+
+    /**
+     * Conciliación en una sola sentencia: inserta las alertas de stock bajo, producto agotado,
+     * lote próximo a vencer y lote vencido que falten, sin duplicar una alerta abierta del
+     * mismo tipo o de uno más grave (PRODUCTO_AGOTADO cubre STOCK_BAJO; LOTE_VENCIDO cubre
+     * PROXIMO_VENCER). Mismos criterios y mensajes que AlertaInventarioServicio.
+     *
+     * @return cantidad de alertas insertadas
+     */
+    @Modifying
+    @Query(value = "INSERT INTO alertas_inventario (tipo, mensaje, prioridad, leida, fecha_alerta, fecha_creacion, " +
+           "producto_id, lote_id) " +
+           "SELECT c.tipo, c.mensaje, c.prioridad, false, :ahora, :ahora, c.producto_id, c.lote_id FROM (" +
+           "  SELECT 'PRODUCTO_AGOTADO' AS tipo, 'Producto AGOTADO: ' || p.nombre || '. Stock actual: 0' AS mensaje, " +
+           "         'CRITICA' AS prioridad, p.id AS producto_id, CAST(NULL AS BIGINT) AS lote_id " +
+           "  FROM productos p WHERE p.activo = true AND p.stock_actual = 0 " +
+           "  UNION ALL " +
+           "  SELECT 'STOCK_BAJO', 'Stock bajo para ' || p.nombre || '. Disponible: ' || CAST(p.stock_actual AS VARCHAR) || " +
+           "         '/' || CAST(p.stock_minimo AS VARCHAR) || ' unidades', 'ALTA', p.id, CAST(NULL AS BIGINT) " +
+           "  FROM productos p WHERE p.activo = true AND p.stock_actual > 0 AND p.stock_actual <= p.stock_minimo " +
+           "  UNION ALL " +
+           "  SELECT 'PROXIMO_VENCER', 'Lote ' || l.numero_lote || ' del producto ' || p.nombre || ' vence el ' || " +
+           "         CAST(l.fecha_vencimiento AS VARCHAR), 'MEDIA', p.id, l.id " +
+           "  FROM lotes l JOIN productos p ON p.id = l.producto_id " +
+           "  WHERE l.fecha_vencimiento BETWEEN :hoy AND :limiteVencimiento AND l.cantidad_disponible > 0 " +
+           "    AND l.estado <> 'BLOQUEADO' " +
+           "  UNION ALL " +
+           "  SELECT 'LOTE_VENCIDO', 'Lote ' || l.numero_lote || ' del producto ' || p.nombre || ' VENCIDO desde ' || " +
+           "         CAST(l.fecha_vencimiento AS VARCHAR), 'CRITICA', p.id, l.id " +
+           "  FROM lotes l JOIN productos p ON p.id = l.producto_id " +
+           "  WHERE l.fecha_vencimiento < :hoy AND l.cantidad_disponible > 0 AND l.estado <> 'BLOQUEADO' " +
+           ") c " +
+           "WHERE NOT EXISTS (SELECT 1 FROM alertas_inventario a WHERE a.leida = false " +
+           "  AND a.producto_id = c.producto_id AND a.lote_id IS NOT DISTINCT FROM c.lote_id " +
+           "  AND (a.tipo = c.tipo OR (c.tipo = 'STOCK_BAJO' AND a.tipo = 'PRODUCTO_AGOTADO') " +
+           "       OR (c.tipo = 'PROXIMO_VENCER' AND a.tipo = 'LOTE_VENCIDO')))",
+           nativeQuery = true)
+    int insertarAlertasFaltantes(@Param("hoy") LocalDate hoy,
+                                 @Param("limiteVencimiento") LocalDate limiteVencimiento,
+                                 @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Inserta en una sola sentencia una alerta de vencimiento (PROXIMO_VENCER o LOTE_VENCIDO)
+     * por cada lote indicado, con los mismos mensajes que la conciliación
+     */
+    @Modifying
+    @Query(value = "INSERT INTO alertas_inventario (tipo, mensaje, prioridad, leida, fecha_alerta, fecha_creacion, " +
+           "producto_id, lote_id) " +
+           "SELECT :tipo, 'Lote ' || l.numero_lote || ' del producto ' || p.nombre || " +
+           "       CASE WHEN :tipo = 'LOTE_VENCIDO' THEN ' VENCIDO desde ' ELSE ' vence el ' END || " +
+           "       CAST(l.fecha_vencimiento AS VARCHAR), " +
+           "       CASE WHEN :tipo = 'LOTE_VENCIDO' THEN 'CRITICA' ELSE 'MEDIA' END, " +
+           "       false, :ahora, :ahora, l.producto_id, l.id " +
+           "FROM lotes l JOIN productos p ON p.id = l.producto_id WHERE l.id IN (:loteIds)",
+           nativeQuery = true)
+    int insertarAlertasLotes(@Param("tipo") String tipo,
+                             @Param("loteIds") Collection<Long> loteIds,
+                             @Param("ahora") LocalDateTime ahora);
+
     // Limpieza
     @Query("SELECT a FROM AlertaInventario a WHERE a.leida = true AND a.fechaLeida < :fechaLimite")
     List<AlertaInventario> findAlertasLeidasAntiguas(@Param("fechaLimite") LocalDateTime fechaLimite);
@@ -3,6 +3,7 @@ package com.nuclearvet.infraestructura.persistencia;
 import com.nuclearvet.dominio.entidades.ArchivoMedico;
 import com.nuclearvet.dominio.enums.TipoArchivo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -81,4 +82,11 @@ public interface ArchivoMedicoRepositorio extends JpaRepository<ArchivoMedico, L
      * Buscar archivos por nombre
      */
     List<ArchivoMedico> findByNombreArchivoContainingIgnoreCaseOrderByFechaSubidaDesc(String nombreArchivo);
+
+    /**
+     * Guardar la huella de un archivo subido antes de que se calculara al subir
+     */
+    @Modifying
+    @Query("UPDATE ArchivoMedico a SET a.hashContenido = :hash WHERE a.id = :id AND a.hashContenido IS NULL")
+    int registrarHash(@Param("id") Long id, @Param("hash") String hash);
 }
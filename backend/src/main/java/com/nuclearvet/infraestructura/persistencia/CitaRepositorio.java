@@ -2,14 +2,21 @@ package com.nuclearvet.infraestructura.persistencia;
 
 import com.nuclearvet.dominio.entidades.Cita;
 import com.nuclearvet.dominio.enums.EstadoCita;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para gestión de citas
@@ -17,6 +24,13 @@ import java.util.Optional;
 @Repository
 public interface CitaRepositorio extends JpaRepository<Cita, Long> {
 
+    /**
+     * Listar citas con las asociaciones que necesita el DTO en una sola consulta
+     */
+    @Override
+    @EntityGraph(attributePaths = {"paciente", "propietario", "veterinario.rol"})
+    List<Cita> findAll();
+
     /**
      * Buscar cita por número
      */
@@ -30,26 +44,31 @@ public interface CitaRepositorio extends JpaRepository<Cita, Long> {
     /**
      * Buscar citas por paciente
      */
+    @EntityGraph(attributePaths = {"paciente", "propietario", "veterinario.rol"})
     List<Cita> findByPacienteId(Long pacienteId);
 
     /**
      * Buscar citas por veterinario
      */
+    @EntityGraph(attributePaths = {"paciente", "propietario", "veterinario.rol"})
     List<Cita> findByVeterinarioId(Long veterinarioId);
 
     /**
      * Buscar citas por propietario
      */
+    @EntityGraph(attributePaths = {"paciente", "propietario", "veterinario.rol"})
     List<Cita> findByPropietarioId(Long propietarioId);
 
     /**
      * Buscar citas por estado
      */
+    @EntityGraph(attributePaths = {"paciente", "propietario", "veterinario.rol"})
     List<Cita> findByEstado(EstadoCita estado);
 
     /**
      * Buscar citas por rango de fechas
      */
+    @EntityGraph(attributePaths = {"paciente", "propietario", "veterinario.rol"})
     List<Cita> findByFechaHoraBetween(LocalDateTime inicio, LocalDateTime fin);
 
     /**
@@ -58,14 +77,24 @@ public interface CitaRepositorio extends JpaRepository<Cita, Long> {
     @Query("SELECT c FROM Cita c WHERE c.veterinario.id = :veterinarioId " +
            "AND c.estado IN ('PENDIENTE', 'CONFIRMADA') " +
            "ORDER BY c.fechaHora ASC")
+    @EntityGraph(attributePaths = {"paciente", "propietario", "veterinario.rol"})
     List<Cita> findCitasPendientesPorVeterinario(@Param("veterinarioId") Long veterinarioId);
 
+    /**
+     * Citas que empiezan en [inicio, fin), en orden de hora
+     */
+    @Query("SELECT c FROM Cita c WHERE c.fechaHora >= :inicio AND c.fechaHora < :fin " +
+           "ORDER BY c.fechaHora ASC, c.id ASC")
+    @EntityGraph(attributePaths = {"paciente", "propietario", "veterinario.rol"})
+    List<Cita> findCitasDelDia(@Param("inicio") LocalDateTime inicio, @Param("fin") LocalDateTime fin);
+
     /**
      * Buscar citas del día para un veterinario
      */
     @Query("SELECT c FROM Cita c WHERE c.veterinario.id = :veterinarioId " +
            "AND c.fechaHora >= :inicio AND c.fechaHora < :fin " +
            "ORDER BY c.fechaHora ASC")
+    @EntityGraph(attributePaths = {"paciente", "propietario", "veterinario.rol"})
     List<Cita> findCitasDelDiaPorVeterinario(
             @Param("veterinarioId") Long veterinarioId,
             @Param("inicio") LocalDateTime inicio,
@@ -73,14 +102,16 @@ public interface CitaRepositorio extends JpaRepository<Cita, Long> {
     );
 
     /**
-     * Verificar solapamiento de citas para un veterinario
+     * Verificar solapamiento de citas para un veterinario.
+     * El intervalo se escribe en SQL estándar: Hibernate toma el ':' de un cast '::interval'
+     * como inicio de parámetro y la sentencia llega rota a PostgreSQL
      */
     @Query(value = "SELECT CASE WHEN COUNT(*) > 0 THEN true ELSE false END " +
             "FROM citas c " +
             "WHERE c.veterinario_id = :veterinarioId " +
             "AND c.estado NOT IN ('CANCELADA', 'COMPLETADA') " +
             "AND c.fecha_hora < :fin " +
-            "AND (c.fecha_hora + (c.duracion_estimada || ' minutes')::interval) > :inicio",
+            "AND c.fecha_hora + c.duracion_estimada * INTERVAL '1' MINUTE > :inicio",
             nativeQuery = true)
     boolean existeSolapamiento(
             @Param("veterinarioId") Long veterinarioId,
@@ -88,6 +119,16 @@ public interface CitaRepositorio extends JpaRepository<Cita, Long> {
             @Param("fin") LocalDateTime fin
     );
 
+    /**
+     * Intervalos (id, veterinario, inicio, duración) de citas que ocupan agenda desde una fecha
+     */
+    @Query("SELECT c.id, c.veterinario.id, c.fechaHora, c.duracionEstimada FROM Cita c " +
+           "WHERE c.fechaHora >= :desde AND c.estado NOT IN :estadosLibres")
+    List<Object[]> findIntervalosActivosDesde(
+            @Param("desde") LocalDateTime desde,
+            @Param("estadosLibres") Collection<EstadoCita> estadosLibres
+    );
+
     /**
      * Contar citas por estado
      */
@@ -99,6 +140,7 @@ public interface CitaRepositorio extends JpaRepository<Cita, Long> {
     @Query("SELECT c FROM Cita c WHERE c.fechaHora BETWEEN :ahora AND :limite " +
            "AND c.estado IN ('PENDIENTE', 'CONFIRMADA') " +
            "ORDER BY c.fechaHora ASC")
+    @EntityGraph(attributePaths = {"paciente", "propietario", "veterinario.rol"})
     List<Cita> findCitasProximas(
             @Param("ahora") LocalDateTime ahora,
             @Param("limite") LocalDateTime limite
@@ -111,4 +153,23 @@ public interface CitaRepositorio extends JpaRepository<Cita, Long> {
            "AND c.fechaHora > :ahora " +
            "AND c.estado IN ('PENDIENTE', 'CONFIRMADA')")
     List<Cita> findCitasSinRecordatorio(@Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Página de citas anteriores al cursor (fecha, id), de la más reciente a la más antigua
+     */
+    @Query("SELECT c FROM Cita c WHERE c.fechaHora < :fecha OR (c.fechaHora = :fecha AND c.id < :id) " +
+           "ORDER BY c.fechaHora DESC, c.id DESC")
+    @EntityGraph(attributePaths = {"paciente", "propietario", "veterinario.rol"})
+    List<Cita> findPaginaAnteriorA(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable pagina);
+
+    /**
+     * Recorre todas las citas sin cargarlas en memoria (requiere transacción)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Cita c ORDER BY c.fechaHora DESC, c.id DESC")
+    @EntityGraph(attributePaths = {"paciente", "propietario", "veterinario.rol"})
+    Stream<Cita> streamTodas();
 }
@@ -2,6 +2,7 @@ package com.nuclearvet.infraestructura.persistencia;
 
 import com.nuclearvet.dominio.entidades.Consulta;
 import com.nuclearvet.dominio.enums.EstadoConsulta;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -30,11 +31,13 @@ public interface ConsultaRepositorio extends JpaRepository<Consulta, Long> {
     /**
      * Buscar consultas por historia clínica
      */
+    @EntityGraph(attributePaths = {"historiaClinica.paciente", "veterinario.rol", "cita"})
     List<Consulta> findByHistoriaClinicaIdOrderByFechaConsultaDesc(Long historiaClinicaId);
 
     /**
      * Buscar consultas por veterinario
      */
+    @EntityGraph(attributePaths = {"historiaClinica.paciente", "veterinario.rol", "cita"})
     List<Consulta> findByVeterinarioIdOrderByFechaConsultaDesc(Long veterinarioId);
 
     /**
@@ -45,11 +48,13 @@ public interface ConsultaRepositorio extends JpaRepository<Consulta, Long> {
     /**
      * Buscar consultas por estado
      */
+    @EntityGraph(attributePaths = {"historiaClinica.paciente", "veterinario.rol", "cita"})
     List<Consulta> findByEstadoOrderByFechaConsultaDesc(EstadoConsulta estado);
 
     /**
      * Buscar consultas por rango de fechas
      */
+    @EntityGraph(attributePaths = {"historiaClinica.paciente", "veterinario.rol", "cita"})
     List<Consulta> findByFechaConsultaBetweenOrderByFechaConsultaDesc(
             LocalDateTime inicio, 
             LocalDateTime fin
@@ -61,6 +66,7 @@ public interface ConsultaRepositorio extends JpaRepository<Consulta, Long> {
     @Query("SELECT c FROM Consulta c WHERE c.veterinario.id = :veterinarioId " +
            "AND c.fechaConsulta >= :inicio AND c.fechaConsulta < :fin " +
            "ORDER BY c.fechaConsulta ASC")
+    @EntityGraph(attributePaths = {"historiaClinica.paciente", "veterinario.rol", "cita"})
     List<Consulta> findConsultasDelDiaPorVeterinario(
             @Param("veterinarioId") Long veterinarioId,
             @Param("inicio") LocalDateTime inicio,
@@ -72,6 +78,7 @@ public interface ConsultaRepositorio extends JpaRepository<Consulta, Long> {
      */
     @Query("SELECT c FROM Consulta c WHERE c.historiaClinica.paciente.id = :pacienteId " +
            "ORDER BY c.fechaConsulta DESC")
+    @EntityGraph(attributePaths = {"historiaClinica.paciente", "veterinario.rol", "cita"})
     List<Consulta> findUltimasConsultasPorPaciente(@Param("pacienteId") Long pacienteId);
 
     /**
@@ -80,6 +87,7 @@ public interface ConsultaRepositorio extends JpaRepository<Consulta, Long> {
     @Query("SELECT c FROM Consulta c WHERE c.historiaClinica.paciente.id = :pacienteId " +
            "AND c.estado = 'COMPLETADA' " +
            "ORDER BY c.fechaConsulta DESC")
+    @EntityGraph(attributePaths = {"historiaClinica.paciente", "veterinario.rol", "cita"})
     List<Consulta> findConsultasCompletadasPorPaciente(@Param("pacienteId") Long pacienteId);
 
     /**
@@ -111,5 +119,6 @@ public interface ConsultaRepositorio extends JpaRepository<Consulta, Long> {
      */
     @Query("SELECT c FROM Consulta c WHERE c.fechaConsulta >= :fecha " +
            "ORDER BY c.fechaConsulta DESC")
+    @EntityGraph(attributePaths = {"historiaClinica.paciente", "veterinario.rol", "cita"})
     List<Consulta> findConsultasRecientes(@Param("fecha") LocalDateTime fecha);
 }
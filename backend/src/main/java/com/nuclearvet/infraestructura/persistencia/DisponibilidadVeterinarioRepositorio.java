@@ -0,0 +1,32 @@
+package com.nuclearvet.infraestructura.persistencia;
+
+import com.nuclearvet.dominio.entidades.DisponibilidadVeterinario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio de las franjas semanales de atención de los veterinarios
+ */
+@Repository
+public interface DisponibilidadVeterinarioRepositorio extends JpaRepository<DisponibilidadVeterinario, Long> {
+
+    List<DisponibilidadVeterinario> findByVeterinarioIdOrderByDiaSemanaAscHoraInicioAsc(Long veterinarioId);
+
+    /**
+     * Franjas activas de veterinarios activos, para el calendario en memoria:
+     * veterinario id, nombre, día de la semana, hora de inicio, hora de fin
+     */
+    @Query("SELECT v.id, v.nombreCompleto, d.diaSemana, d.horaInicio, d.horaFin " +
+           "FROM DisponibilidadVeterinario d JOIN d.veterinario v " +
+           "WHERE d.activo = true AND v.activo = true")
+    List<Object[]> findFranjasActivas();
+
+    @Modifying
+    @Query("DELETE FROM DisponibilidadVeterinario d WHERE d.veterinario.id = :veterinarioId")
+    int eliminarPorVeterinario(@Param("veterinarioId") Long veterinarioId);
+}
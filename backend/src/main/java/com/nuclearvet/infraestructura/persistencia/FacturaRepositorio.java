@@ -2,15 +2,23 @@ package com.nuclearvet.infraestructura.persistencia;
 
 import com.nuclearvet.dominio.entidades.Factura;
 import com.nuclearvet.dominio.enumeraciones.EstadoFactura;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para gestión de facturas
@@ -18,31 +26,46 @@ import java.util.Optional;
 @Repository
 public interface FacturaRepositorio extends JpaRepository<Factura, Long> {
 
+    /**
+     * Listar facturas con las asociaciones que necesita el DTO en una sola consulta
+     */
+    @Override
+    @EntityGraph(attributePaths = {"propietario", "paciente", "usuarioCreador.rol", "items"})
+    List<Factura> findAll();
+
     Optional<Factura> findByNumeroFactura(String numeroFactura);
     
+    @EntityGraph(attributePaths = {"propietario", "paciente", "usuarioCreador.rol", "items"})
     List<Factura> findByEstado(EstadoFactura estado);
     
+    @EntityGraph(attributePaths = {"propietario", "paciente", "usuarioCreador.rol", "items"})
     List<Factura> findByPropietarioId(Long propietarioId);
 
     @Query("SELECT f FROM Factura f LEFT JOIN FETCH f.items LEFT JOIN FETCH f.propietario WHERE f.id = :id")
     Optional<Factura> findByIdConItems(@Param("id") Long id);
 
     @Query("SELECT f FROM Factura f WHERE f.propietario.id = :propietarioId ORDER BY f.fechaEmision DESC")
+    @EntityGraph(attributePaths = {"propietario", "paciente", "usuarioCreador.rol", "items"})
     List<Factura> findByPropietarioOrdenadas(@Param("propietarioId") Long propietarioId);
 
     @Query("SELECT f FROM Factura f WHERE f.estado = :estado ORDER BY f.fechaEmision DESC")
+    @EntityGraph(attributePaths = {"propietario", "paciente", "usuarioCreador.rol", "items"})
     List<Factura> findByEstadoOrdenadas(@Param("estado") EstadoFactura estado);
 
     @Query("SELECT f FROM Factura f WHERE f.fechaEmision BETWEEN :inicio AND :fin ORDER BY f.fechaEmision DESC")
+    @EntityGraph(attributePaths = {"propietario", "paciente", "usuarioCreador.rol", "items"})
     List<Factura> findByRangoFechas(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
 
     @Query("SELECT f FROM Factura f WHERE f.estado = 'PENDIENTE' AND f.fechaVencimiento < CURRENT_DATE")
+    @EntityGraph(attributePaths = {"propietario", "paciente", "usuarioCreador.rol", "items"})
     List<Factura> findFacturasVencidas();
 
     @Query("SELECT f FROM Factura f WHERE f.saldoPendiente > 0 ORDER BY f.fechaVencimiento")
+    @EntityGraph(attributePaths = {"propietario", "paciente", "usuarioCreador.rol", "items"})
     List<Factura> findConSaldoPendiente();
 
     @Query("SELECT f FROM Factura f WHERE f.paciente.id = :pacienteId ORDER BY f.fechaEmision DESC")
+    @EntityGraph(attributePaths = {"propietario", "paciente", "usuarioCreador.rol", "items"})
     List<Factura> findByPacienteId(@Param("pacienteId") Long pacienteId);
 
     @Query("SELECT SUM(f.total) FROM Factura f WHERE f.estado = 'PAGADA' " +
@@ -59,5 +82,49 @@ public interface FacturaRepositorio extends JpaRepository<Factura, Long> {
     List<Object[]> contarPorEstados();
 
     @Query("SELECT f FROM Factura f WHERE f.usuarioCreador.id = :usuarioId ORDER BY f.fechaCreacion DESC")
+    @EntityGraph(attributePaths = {"propietario", "paciente", "usuarioCreador.rol", "items"})
     List<Factura> findByUsuarioCreador(@Param("usuarioId") Long usuarioId);
+
+    /**
+     * Página de facturas anteriores al cursor (fecha, id), de la más reciente a la más antigua
+     */
+    @Query("SELECT f FROM Factura f WHERE f.fechaCreacion < :fecha OR (f.fechaCreacion = :fecha AND f.id < :id) " +
+           "ORDER BY f.fechaCreacion DESC, f.id DESC")
+    @EntityGraph(attributePaths = {"propietario", "paciente", "usuarioCreador.rol"})
+    List<Factura> findPaginaAnteriorA(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable pagina);
+
+    /**
+     * Recorre todas las facturas sin cargarlas en memoria (requiere transacción)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT f FROM Factura f ORDER BY f.fechaCreacion DESC, f.id DESC")
+    @EntityGraph(attributePaths = {"propietario", "paciente", "usuarioCreador.rol"})
+    Stream<Factura> streamTodas();
+
+    /**
+     * Recorre las facturas emitidas en el rango sin cargarlas en memoria ni sus ítems (requiere transacción)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT f FROM Factura f WHERE f.fechaEmision BETWEEN :inicio AND :fin ORDER BY f.fechaEmision, f.id")
+    @EntityGraph(attributePaths = {"propietario", "paciente", "usuarioCreador.rol"})
+    Stream<Factura> streamPorRangoFechas(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+
+    /**
+     * IDs de las facturas emitidas en el rango, para recorrerlas por lotes
+     */
+    @Query("SELECT f.id FROM Factura f WHERE f.fechaEmision BETWEEN :inicio AND :fin ORDER BY f.fechaEmision, f.id")
+    List<Long> findIdsPorRangoFechas(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+
+    /**
+     * Facturas completas, con ítems, de un lote de IDs
+     */
+    @Query("SELECT f FROM Factura f WHERE f.id IN :ids ORDER BY f.fechaEmision, f.id")
+    @EntityGraph(attributePaths = {"propietario", "paciente", "usuarioCreador.rol", "items"})
+    List<Factura> findConItemsPorIds(@Param("ids") Collection<Long> ids);
 }
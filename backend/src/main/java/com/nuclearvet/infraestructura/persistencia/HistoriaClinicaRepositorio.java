@@ -58,4 +58,13 @@ public interface HistoriaClinicaRepositorio extends JpaRepository<HistoriaClinic
      */
     @Query("SELECT h FROM HistoriaClinica h WHERE h.enfermedadesCronicas IS NOT NULL AND h.enfermedadesCronicas != ''")
     java.util.List<HistoriaClinica> findHistoriasConEnfermedadesCronicas();
+
+    /**
+     * Total de historias, con alergias y con enfermedades crónicas, en una sola consulta
+     */
+    @Query("SELECT COUNT(h), " +
+           "SUM(CASE WHEN h.alergiasConocidas IS NOT NULL AND h.alergiasConocidas != '' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN h.enfermedadesCronicas IS NOT NULL AND h.enfermedadesCronicas != '' THEN 1 ELSE 0 END) " +
+           "FROM HistoriaClinica h")
+    java.util.List<Object[]> contarEstadisticas();
 }
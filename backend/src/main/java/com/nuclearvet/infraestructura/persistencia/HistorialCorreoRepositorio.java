@@ -2,14 +2,21 @@ package com.nuclearvet.infraestructura.persistencia;
 
 import com.nuclearvet.dominio.entidades.HistorialCorreo;
 import com.nuclearvet.dominio.enumeraciones.EstadoCorreo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para gestión de historial de correos
@@ -34,6 +41,31 @@ public interface HistorialCorreoRepositorio extends JpaRepository<HistorialCorre
     @Query("SELECT h FROM HistorialCorreo h WHERE h.estado = 'REINTENTANDO' ORDER BY h.fechaCreacion")
     List<HistorialCorreo> findReintentando();
 
+    // Bandeja de salida
+    /**
+     * Reserva hasta :limite correos listos para enviar bloqueando sus filas; las filas ya
+     * reservadas por otro trabajador se saltan (requiere transacción)
+     */
+    @Query(value = "SELECT * FROM historial_correos h WHERE h.estado IN ('PENDIENTE', 'REINTENTANDO') " +
+            "AND (h.proximo_intento IS NULL OR h.proximo_intento <= :ahora) " +
+            "ORDER BY h.id LIMIT :limite FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<HistorialCorreo> reclamarParaEnvio(@Param("ahora") LocalDateTime ahora, @Param("limite") int limite);
+
+    /**
+     * Aparta los correos reclamados para :trabajador hasta :hasta; si el trabajador cae,
+     * vuelven a la bandeja al vencer
+     */
+    @Modifying
+    @Query("UPDATE HistorialCorreo h SET h.proximoIntento = :hasta, h.arrendadoPor = :trabajador WHERE h.id IN :ids")
+    int arrendar(@Param("ids") Collection<Long> ids, @Param("hasta") LocalDateTime hasta,
+                 @Param("trabajador") String trabajador);
+
+    @Modifying
+    @Query("UPDATE HistorialCorreo h SET h.estado = :nuevoEstado, h.intentos = 0, h.proximoIntento = CURRENT_TIMESTAMP " +
+           "WHERE h.estado IN :estados")
+    int reencolar(@Param("estados") Collection<EstadoCorreo> estados, @Param("nuevoEstado") EstadoCorreo nuevoEstado);
+
     // Búsquedas por fecha
     @Query("SELECT h FROM HistorialCorreo h WHERE h.fechaEnvio BETWEEN :inicio AND :fin " +
            "ORDER BY h.fechaEnvio DESC")
@@ -93,4 +125,21 @@ public interface HistorialCorreoRepositorio extends JpaRepository<HistorialCorre
     @Query("SELECT h FROM HistorialCorreo h WHERE h.estado = 'ENVIADO' " +
            "AND h.fechaEnvio < :fechaLimite")
     List<HistorialCorreo> findEnviadosAntiguos(@Param("fechaLimite") LocalDateTime fechaLimite);
+
+    /**
+     * Página de correos anteriores al cursor (fecha, id), de la más reciente a la más antigua
+     */
+    @Query("SELECT h FROM HistorialCorreo h WHERE h.fechaCreacion < :fecha OR (h.fechaCreacion = :fecha AND h.id < :id) " +
+           "ORDER BY h.fechaCreacion DESC, h.id DESC")
+    List<HistorialCorreo> findPaginaAnteriorA(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable pagina);
+
+    /**
+     * Recorre todos los correos sin cargarlos en memoria (requiere transacción)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT h FROM HistorialCorreo h ORDER BY h.fechaCreacion DESC, h.id DESC")
+    Stream<HistorialCorreo> streamTodos();
 }
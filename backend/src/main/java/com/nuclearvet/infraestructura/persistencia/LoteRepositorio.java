@@ -3,11 +3,14 @@ package com.nuclearvet.infraestructura.persistencia;
 import com.nuclearvet.dominio.entidades.Lote;
 import com.nuclearvet.dominio.enumeraciones.EstadoLote;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,11 +29,23 @@ public interface LoteRepositorio extends JpaRepository<Lote, Long> {
     
     boolean existsByNumeroLote(String numeroLote);
 
+    @Query("SELECT l.numeroLote FROM Lote l WHERE l.numeroLote IN :numeros")
+    List<String> findNumerosLoteExistentes(@Param("numeros") Collection<String> numeros);
+
     // Búsquedas por disponibilidad
     @Query("SELECT l FROM Lote l WHERE l.producto.id = :productoId AND l.estado = 'DISPONIBLE' " +
            "AND l.cantidadDisponible > 0 ORDER BY l.fechaVencimiento ASC")
     List<Lote> findLotesDisponiblesPorProducto(@Param("productoId") Long productoId);
 
+    /**
+     * Lotes despachables del producto como [id, cantidad_disponible], el que vence primero
+     * al inicio, para la cola FEFO
+     */
+    @Query("SELECT l.id, l.cantidadDisponible FROM Lote l WHERE l.producto.id = :productoId " +
+           "AND l.estado IN ('DISPONIBLE', 'PROXIMO_VENCER') AND l.cantidadDisponible > 0 " +
+           "ORDER BY l.fechaVencimiento ASC NULLS LAST, l.id ASC")
+    List<Object[]> findColaFefo(@Param("productoId") Long productoId);
+
     @Query("SELECT l FROM Lote l LEFT JOIN FETCH l.producto WHERE l.id = :id")
     Optional<Lote> findByIdConProducto(@Param("id") Long id);
 
@@ -47,6 +62,12 @@ public interface LoteRepositorio extends JpaRepository<Lote, Long> {
            "AND l.estado = 'DISPONIBLE' AND l.cantidadDisponible > 0")
     List<Lote> findLotesProximosVencer(@Param("fecha") LocalDate fecha);
 
+    // Entradas de cantidad (los descuentos los aplica LibroExistencias en batch)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Lote l SET l.cantidadDisponible = l.cantidadDisponible + :cantidad, l.version = l.version + 1, " +
+           "l.fechaActualizacion = :ahora WHERE l.id = :id")
+    int sumarCantidad(@Param("id") Long id, @Param("cantidad") int cantidad, @Param("ahora") LocalDateTime ahora);
+
     // Búsquedas por fechas
     @Query("SELECT l FROM Lote l WHERE l.fechaIngreso BETWEEN :fechaInicio AND :fechaFin")
     List<Lote> findByFechaIngresoBetween(@Param("fechaInicio") LocalDate fechaInicio, 
@@ -2,14 +2,20 @@ package com.nuclearvet.infraestructura.persistencia;
 
 import com.nuclearvet.dominio.entidades.MovimientoInventario;
 import com.nuclearvet.dominio.enumeraciones.TipoMovimiento;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para gestión de movimientos de inventario
@@ -87,4 +93,22 @@ public interface MovimientoInventarioRepositorio extends JpaRepository<Movimient
     // Búsqueda por documento
     @Query("SELECT m FROM MovimientoInventario m WHERE LOWER(m.numeroDocumento) = LOWER(:numeroDocumento)")
     List<MovimientoInventario> findByNumeroDocumento(@Param("numeroDocumento") String numeroDocumento);
+
+    /**
+     * Página de movimientos anteriores al cursor (fecha, id), de la más reciente a la más antigua
+     */
+    @Query("SELECT m FROM MovimientoInventario m WHERE m.fechaMovimiento < :fecha OR (m.fechaMovimiento = :fecha AND m.id < :id) " +
+           "ORDER BY m.fechaMovimiento DESC, m.id DESC")
+    List<MovimientoInventario> findPaginaAnteriorA(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable pagina);
+
+    /**
+     * Recorre todos los movimientos sin cargarlos en memoria (requiere transacción)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM MovimientoInventario m ORDER BY m.fechaMovimiento DESC, m.id DESC")
+    @EntityGraph(attributePaths = {"producto", "lote", "usuario.rol"})
+    Stream<MovimientoInventario> streamTodos();
 }
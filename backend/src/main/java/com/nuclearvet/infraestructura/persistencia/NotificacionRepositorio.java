@@ -75,6 +75,10 @@ public interface NotificacionRepositorio extends JpaRepository<Notificacion, Lon
            "WHERE n.usuarioDestinatario.id = :usuarioId AND n.leida = false GROUP BY n.tipoNotificacion")
     List<Object[]> contarNoLeidasPorTipo(@Param("usuarioId") Long usuarioId);
 
+    @Query("SELECT n.usuarioDestinatario.id, COUNT(n) FROM Notificacion n WHERE n.leida = false " +
+           "GROUP BY n.usuarioDestinatario.id")
+    List<Object[]> contarNoLeidasAgrupadasPorUsuario();
+
     // Operaciones masivas
     @Modifying
     @Query("UPDATE Notificacion n SET n.leida = true, n.fechaLeida = CURRENT_TIMESTAMP " +
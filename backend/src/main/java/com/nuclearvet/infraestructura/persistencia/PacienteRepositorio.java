@@ -3,14 +3,20 @@ package com.nuclearvet.infraestructura.persistencia;
 import com.nuclearvet.dominio.entidades.Paciente;
 import com.nuclearvet.dominio.enums.Especie;
 import com.nuclearvet.dominio.enums.EstadoPaciente;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para entidad Paciente
@@ -102,4 +108,29 @@ public interface PacienteRepositorio extends JpaRepository<Paciente, Long> {
      */
     @Query("SELECT p FROM Paciente p WHERE p.estado IN ('EN_TRATAMIENTO', 'EN_OBSERVACION')")
     List<Paciente> findPacientesEnAtencion();
+
+    /**
+     * Página de pacientes anteriores al cursor (fecha, id), de la más reciente a la más antigua
+     */
+    @Query("SELECT p FROM Paciente p WHERE p.fechaRegistro < :fecha OR (p.fechaRegistro = :fecha AND p.id < :id) " +
+           "ORDER BY p.fechaRegistro DESC, p.id DESC")
+    List<Paciente> findPaginaAnteriorA(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable pagina);
+
+    /**
+     * Recorre todos los pacientes sin cargarlos en memoria (requiere transacción)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Paciente p ORDER BY p.fechaRegistro DESC, p.id DESC")
+    Stream<Paciente> streamTodos();
+
+    /**
+     * Campos de búsqueda de todos los pacientes, para el índice en memoria:
+     * id, nombre, código, microchip, especie, estado, nombres y apellidos del propietario
+     */
+    @Query("SELECT p.id, p.nombre, p.codigo, p.microchip, p.especie, p.estado, pr.nombres, pr.apellidos " +
+           "FROM Paciente p LEFT JOIN p.propietario pr")
+    List<Object[]> findCamposBusqueda();
 }
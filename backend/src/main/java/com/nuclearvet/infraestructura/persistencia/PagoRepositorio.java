@@ -2,15 +2,21 @@ package com.nuclearvet.infraestructura.persistencia;
 
 import com.nuclearvet.dominio.entidades.Pago;
 import com.nuclearvet.dominio.enumeraciones.MetodoPago;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para gestión de pagos
@@ -27,9 +33,27 @@ public interface PagoRepositorio extends JpaRepository<Pago, Long> {
     @Query("SELECT p FROM Pago p WHERE p.factura.id = :facturaId ORDER BY p.fechaPago DESC")
     List<Pago> findByFacturaOrdenados(@Param("facturaId") Long facturaId);
 
+    /**
+     * Pagos de un lote de facturas
+     */
+    @Query("SELECT p FROM Pago p WHERE p.factura.id IN :facturaIds ORDER BY p.fechaPago, p.id")
+    @EntityGraph(attributePaths = {"factura", "usuarioRegistro.rol"})
+    List<Pago> findByFacturaIds(@Param("facturaIds") Collection<Long> facturaIds);
+
     @Query("SELECT p FROM Pago p WHERE p.fechaPago BETWEEN :inicio AND :fin ORDER BY p.fechaPago DESC")
     List<Pago> findByRangoFechas(@Param("inicio") LocalDateTime inicio, @Param("fin") LocalDateTime fin);
 
+    /**
+     * Recorre los pagos del rango [inicio, fin) sin cargarlos en memoria (requiere transacción)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Pago p WHERE p.fechaPago >= :inicio AND p.fechaPago < :fin ORDER BY p.fechaPago, p.id")
+    @EntityGraph(attributePaths = {"factura", "usuarioRegistro.rol"})
+    Stream<Pago> streamPorRangoFechas(@Param("inicio") LocalDateTime inicio, @Param("fin") LocalDateTime fin);
+
     @Query("SELECT SUM(p.monto) FROM Pago p WHERE p.fechaPago BETWEEN :inicio AND :fin")
     BigDecimal calcularTotalPagos(@Param("inicio") LocalDateTime inicio, @Param("fin") LocalDateTime fin);
 
@@ -3,10 +3,13 @@ package com.nuclearvet.infraestructura.persistencia;
 import com.nuclearvet.dominio.entidades.Producto;
 import com.nuclearvet.dominio.enumeraciones.TipoProducto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +23,9 @@ public interface ProductoRepositorio extends JpaRepository<Producto, Long> {
     Optional<Producto> findByCodigo(String codigo);
     
     List<Producto> findByActivoTrue();
+
+    @Query("SELECT p.id FROM Producto p WHERE p.id IN :ids")
+    List<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
     
     boolean existsByCodigo(String codigo);
     
@@ -59,6 +65,17 @@ public interface ProductoRepositorio extends JpaRepository<Producto, Long> {
     @Query("SELECT p FROM Producto p WHERE p.stockActual <= :cantidad AND p.activo = true")
     List<Producto> findProductosConStockMenorQue(@Param("cantidad") Integer cantidad);
 
+    // Movimientos de stock: la verificación y el cambio ocurren en la misma sentencia
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Producto p SET p.stockActual = p.stockActual - :cantidad, p.version = p.version + 1, " +
+           "p.fechaActualizacion = :ahora WHERE p.id = :id AND p.stockActual >= :cantidad")
+    int descontarStock(@Param("id") Long id, @Param("cantidad") int cantidad, @Param("ahora") LocalDateTime ahora);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Producto p SET p.stockActual = p.stockActual + :cantidad, p.version = p.version + 1, " +
+           "p.fechaActualizacion = :ahora WHERE p.id = :id")
+    int sumarStock(@Param("id") Long id, @Param("cantidad") int cantidad, @Param("ahora") LocalDateTime ahora);
+
     // Reportes
     @Query("SELECT p FROM Producto p WHERE p.tipoProducto = :tipo AND p.activo = true ORDER BY p.nombre")
     List<Producto> findByTipoProductoOrdenados(@Param("tipo") TipoProducto tipo);
@@ -81,4 +98,10 @@ public interface ProductoRepositorio extends JpaRepository<Producto, Long> {
 
     @Query("SELECT p.tipoProducto, COUNT(p) FROM Producto p WHERE p.activo = true GROUP BY p.tipoProducto")
     List<Object[]> contarPorTipo();
+
+    /**
+     * Campos de búsqueda de todos los productos, para el índice en memoria: id, nombre, código, activo
+     */
+    @Query("SELECT p.id, p.nombre, p.codigo, p.activo FROM Producto p")
+    List<Object[]> findCamposBusqueda();
 }
@@ -67,4 +67,11 @@ public interface PropietarioRepositorio extends JpaRepository<Propietario, Long>
            "LEFT JOIN FETCH p.pacientes " +
            "WHERE SIZE(p.pacientes) > 0")
     List<Propietario> findPropietariosConPacientes();
+
+    /**
+     * Campos de búsqueda de todos los propietarios, para el índice en memoria:
+     * id, nombres, apellidos, identificación, teléfono principal, activo
+     */
+    @Query("SELECT p.id, p.nombres, p.apellidos, p.numeroIdentificacion, p.telefonoPrincipal, p.activo FROM Propietario p")
+    List<Object[]> findCamposBusqueda();
 }
@@ -2,14 +2,22 @@ package com.nuclearvet.infraestructura.persistencia;
 
 import com.nuclearvet.dominio.entidades.Recordatorio;
 import com.nuclearvet.dominio.enumeraciones.TipoRecordatorio;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para gestión de recordatorios
@@ -17,11 +25,21 @@ import java.util.Optional;
 @Repository
 public interface RecordatorioRepositorio extends JpaRepository<Recordatorio, Long> {
 
+    /**
+     * Listar recordatorios con las asociaciones que necesita el DTO en una sola consulta
+     */
+    @Override
+    @EntityGraph(attributePaths = {"paciente.propietario", "cita"})
+    List<Recordatorio> findAll();
+
     // Búsquedas básicas
+    @EntityGraph(attributePaths = {"paciente.propietario", "cita"})
     List<Recordatorio> findByPacienteId(Long pacienteId);
     
+    @EntityGraph(attributePaths = {"paciente.propietario", "cita"})
     List<Recordatorio> findByEnviadoFalse();
     
+    @EntityGraph(attributePaths = {"paciente.propietario", "cita"})
     List<Recordatorio> findByTipoRecordatorio(TipoRecordatorio tipo);
     
     List<Recordatorio> findByCitaId(Long citaId);
@@ -29,19 +47,23 @@ public interface RecordatorioRepositorio extends JpaRepository<Recordatorio, Lon
     // Recordatorios pendientes
     @Query("SELECT r FROM Recordatorio r WHERE r.enviado = false " +
            "AND r.fechaProgramada <= CURRENT_TIMESTAMP ORDER BY r.fechaProgramada")
+    @EntityGraph(attributePaths = {"paciente.propietario", "cita"})
     List<Recordatorio> findRecordatoriosPendientesDeEnvio();
 
     @Query("SELECT r FROM Recordatorio r WHERE r.paciente.id = :pacienteId AND r.enviado = false " +
            "ORDER BY r.fechaProgramada")
+    @EntityGraph(attributePaths = {"paciente.propietario", "cita"})
     List<Recordatorio> findPendientesPorPaciente(@Param("pacienteId") Long pacienteId);
 
     @Query("SELECT r FROM Recordatorio r WHERE r.tipoRecordatorio = :tipo AND r.enviado = false " +
            "ORDER BY r.fechaProgramada")
+    @EntityGraph(attributePaths = {"paciente.propietario", "cita"})
     List<Recordatorio> findPendientesPorTipo(@Param("tipo") TipoRecordatorio tipo);
 
     // Búsquedas por fecha
     @Query("SELECT r FROM Recordatorio r WHERE r.fechaProgramada BETWEEN :inicio AND :fin " +
            "ORDER BY r.fechaProgramada")
+    @EntityGraph(attributePaths = {"paciente.propietario", "cita"})
     List<Recordatorio> findByRangoFechas(@Param("inicio") LocalDateTime inicio,
                                           @Param("fin") LocalDateTime fin);
 
@@ -59,8 +81,31 @@ public interface RecordatorioRepositorio extends JpaRepository<Recordatorio, Lon
     @Query("SELECT r FROM Recordatorio r WHERE r.enviado = false " +
            "AND r.fechaProgramada BETWEEN CURRENT_TIMESTAMP AND :fechaLimite " +
            "ORDER BY r.fechaProgramada")
+    @EntityGraph(attributePaths = {"paciente.propietario", "cita"})
     List<Recordatorio> findProximosAEnviar(@Param("fechaLimite") LocalDateTime fechaLimite);
 
+    // Despacho por lotes
+    /**
+     * Reserva hasta :limite recordatorios vencidos posteriores a (fecha, id) bloqueando sus filas;
+     * las filas ya reservadas por otra instancia se saltan (requiere transacción)
+     */
+    @Query(value = "SELECT r.id FROM recordatorios r WHERE r.enviado = false AND r.fecha_programada <= :ahora " +
+            "AND (r.fecha_programada > :fecha OR (r.fecha_programada = :fecha AND r.id > :id)) " +
+            "ORDER BY r.fecha_programada, r.id LIMIT :limite FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> reclamarPendientesDeEnvio(@Param("ahora") LocalDateTime ahora,
+                                         @Param("fecha") LocalDateTime fecha,
+                                         @Param("id") Long id,
+                                         @Param("limite") int limite);
+
+    @Query("SELECT r FROM Recordatorio r WHERE r.id IN :ids ORDER BY r.fechaProgramada, r.id")
+    @EntityGraph(attributePaths = {"paciente.propietario", "cita.veterinario"})
+    List<Recordatorio> findParaDespacho(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Recordatorio r SET r.enviado = true, r.fechaEnvio = :fechaEnvio WHERE r.id IN :ids")
+    int marcarComoEnviados(@Param("ids") Collection<Long> ids, @Param("fechaEnvio") LocalDateTime fechaEnvio);
+
     // Con relaciones
     @Query("SELECT r FROM Recordatorio r LEFT JOIN FETCH r.paciente " +
            "LEFT JOIN FETCH r.cita WHERE r.id = :id")
@@ -85,10 +130,30 @@ public interface RecordatorioRepositorio extends JpaRepository<Recordatorio, Lon
     // Por propietario
     @Query("SELECT r FROM Recordatorio r WHERE r.paciente.propietario.id = :propietarioId " +
            "AND r.enviado = false ORDER BY r.fechaProgramada")
+    @EntityGraph(attributePaths = {"paciente.propietario", "cita"})
     List<Recordatorio> findPendientesPorPropietario(@Param("propietarioId") Long propietarioId);
 
     // Limpieza
     @Query("SELECT r FROM Recordatorio r WHERE r.enviado = true " +
            "AND r.fechaEnvio < :fechaLimite")
     List<Recordatorio> findEnviadosAntiguos(@Param("fechaLimite") LocalDateTime fechaLimite);
+
+    /**
+     * Página de recordatorios anteriores al cursor (fecha, id), de la más reciente a la más antigua
+     */
+    @Query("SELECT r FROM Recordatorio r WHERE r.fechaCreacion < :fecha OR (r.fechaCreacion = :fecha AND r.id < :id) " +
+           "ORDER BY r.fechaCreacion DESC, r.id DESC")
+    @EntityGraph(attributePaths = {"paciente.propietario", "cita"})
+    List<Recordatorio> findPaginaAnteriorA(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable pagina);
+
+    /**
+     * Recorre todos los recordatorios sin cargarlos en memoria (requiere transacción)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r FROM Recordatorio r ORDER BY r.fechaCreacion DESC, r.id DESC")
+    @EntityGraph(attributePaths = {"paciente.propietario", "cita"})
+    Stream<Recordatorio> streamTodos();
 }
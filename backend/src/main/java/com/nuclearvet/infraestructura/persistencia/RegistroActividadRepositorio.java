@@ -2,11 +2,18 @@ package com.nuclearvet.infraestructura.persistencia;
 
 import com.nuclearvet.dominio.entidades.RegistroActividad;
 import com.nuclearvet.dominio.enums.TipoAccion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para registro de auditoría
@@ -25,4 +32,21 @@ public interface RegistroActividadRepositorio extends JpaRepository<RegistroActi
     );
 
     List<RegistroActividad> findTop100ByOrderByFechaHoraDesc();
+
+    /**
+     * Página de registros de actividad anteriores al cursor (fecha, id), de la más reciente a la más antigua
+     */
+    @Query("SELECT r FROM RegistroActividad r WHERE r.fechaHora < :fecha OR (r.fechaHora = :fecha AND r.id < :id) " +
+           "ORDER BY r.fechaHora DESC, r.id DESC")
+    List<RegistroActividad> findPaginaAnteriorA(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable pagina);
+
+    /**
+     * Recorre todos los registros de actividad sin cargarlos en memoria (requiere transacción)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r FROM RegistroActividad r ORDER BY r.fechaHora DESC, r.id DESC")
+    Stream<RegistroActividad> streamTodos();
 }
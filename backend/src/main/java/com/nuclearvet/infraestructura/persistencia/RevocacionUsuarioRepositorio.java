@@ -0,0 +1,29 @@
+package com.nuclearvet.infraestructura.persistencia;
+
+import com.nuclearvet.dominio.entidades.RevocacionUsuario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de revocaciones de tokens por usuario
+ */
+@Repository
+public interface RevocacionUsuarioRepositorio extends JpaRepository<RevocacionUsuario, Long> {
+
+    List<RevocacionUsuario> findByTokensValidosDesdeAfter(LocalDateTime limite);
+
+    /**
+     * Descarta las revocaciones anteriores a :limite, cuando ya no queda ningún token previo sin expirar
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevocacionUsuario r WHERE r.tokensValidosDesde < :limite")
+    int eliminarAnterioresA(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,26 @@
+package com.nuclearvet.infraestructura.persistencia;
+
+import com.nuclearvet.dominio.entidades.TokenRevocado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de tokens JWT revocados
+ */
+@Repository
+public interface TokenRevocadoRepositorio extends JpaRepository<TokenRevocado, String> {
+
+    List<TokenRevocado> findByExpiracionAfter(LocalDateTime limite);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TokenRevocado t WHERE t.expiracion < :limite")
+    int eliminarExpirados(@Param("limite") LocalDateTime limite);
+}
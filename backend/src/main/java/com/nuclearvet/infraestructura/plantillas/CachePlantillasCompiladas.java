@@ -0,0 +1,71 @@
+package com.nuclearvet.infraestructura.plantillas;
+
+import com.nuclearvet.compartido.plantillas.PlantillaCompilada;
+import com.nuclearvet.dominio.entidades.PlantillaMensaje;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.nuclearvet.compartido.transacciones.TransaccionUtil.alTerminar;
+
+/**
+ * Caché de plantillas de mensajes ya compiladas, indexada por ID de plantilla.
+ *
+ * Cada entrada guarda la versión (fecha de actualización) con que se compiló; una
+ * compilación de una versión anterior nunca reemplaza a una más reciente. Las
+ * modificaciones de la plantilla invalidan la entrada de inmediato y al terminar la
+ * transacción, igual que CachePrincipales. Cada instancia mantiene su propia caché.
+ */
+@Component
+@Slf4j
+public class CachePlantillasCompiladas {
+
+    private final Map<Long, Entrada> entradas = new ConcurrentHashMap<>();
+
+    public Optional<Entrada> obtener(Long plantillaId) {
+        return Optional.ofNullable(entradas.get(plantillaId));
+    }
+
+    /**
+     * Compila la plantilla recién consultada y la guarda, salvo que ya exista una versión más reciente
+     */
+    public Entrada guardar(PlantillaMensaje plantilla) {
+        Entrada nueva = new Entrada(plantilla.getFechaActualizacion(),
+                PlantillaCompilada.compilar(plantilla.getContenido()),
+                PlantillaCompilada.compilar(plantilla.getAsunto()));
+        return entradas.merge(plantilla.getId(), nueva,
+                (actual, compilada) -> compilada.esAnteriorA(actual) ? actual : compilada);
+    }
+
+    public void invalidar(Long plantillaId) {
+        entradas.remove(plantillaId);
+        alTerminar(() -> entradas.remove(plantillaId));
+        log.debug("Plantilla compilada invalidada en caché: {}", plantillaId);
+    }
+
+    public void invalidarTodo() {
+        entradas.clear();
+    }
+
+    @Getter
+    public static final class Entrada {
+        private final LocalDateTime version;
+        private final PlantillaCompilada contenido;
+        private final PlantillaCompilada asunto;
+
+        private Entrada(LocalDateTime version, PlantillaCompilada contenido, PlantillaCompilada asunto) {
+            this.version = version;
+            this.contenido = contenido;
+            this.asunto = asunto;
+        }
+
+        private boolean esAnteriorA(Entrada otra) {
+            return version != null && otra.version != null && version.isBefore(otra.version);
+        }
+    }
+}
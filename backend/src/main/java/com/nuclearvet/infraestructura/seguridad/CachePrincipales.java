@@ -0,0 +1,128 @@
+package com.nuclearvet.infraestructura.seguridad;
+
+import com.nuclearvet.dominio.entidades.Usuario;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.nuclearvet.compartido.transacciones.TransaccionUtil.alTerminar;
+
+/**
+ * Caché acotada con expiración de los principales autenticados, indexada por correo.
+ *
+ * Evita consultar usuarios + rol en cada petición con JWT. Guarda una copia inmutable
+ * de los datos y entrega un principal nuevo en cada lectura, porque Spring Security
+ * borra la contraseña del principal tras autenticar.
+ */
+@Component
+@Slf4j
+public class CachePrincipales {
+
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+
+    @Value("${nuclearvet.seguridad.cache-principales.ttl-segundos:300}")
+    private long ttlSegundos;
+
+    @Value("${nuclearvet.seguridad.cache-principales.capacidad:10000}")
+    private int capacidad;
+
+    /**
+     * Principal en caché para el correo, si existe y no ha expirado
+     */
+    public Optional<UsuarioAutenticado> obtener(String correoElectronico) {
+        Entrada entrada = entradas.get(correoElectronico);
+        if (entrada == null || entrada.expirada(System.nanoTime())) {
+            if (entrada != null) {
+                entradas.remove(correoElectronico, entrada);
+            }
+            fallos.incrementAndGet();
+            return Optional.empty();
+        }
+        aciertos.incrementAndGet();
+        return Optional.of(entrada.aPrincipal());
+    }
+
+    /**
+     * Guarda el principal de un usuario activo recién consultado
+     */
+    public UsuarioAutenticado guardar(Usuario usuario) {
+        Entrada entrada = new Entrada(usuario.getId(), usuario.getCorreoElectronico(), usuario.getContrasena(),
+                usuario.getRol().getNombre(), System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSegundos));
+        if (entradas.size() >= capacidad) {
+            liberarEspacio();
+        }
+        entradas.put(entrada.correoElectronico, entrada);
+        return entrada.aPrincipal();
+    }
+
+    /**
+     * Invalida el principal de inmediato y otra vez al confirmar la transacción en curso,
+     * para descartar lecturas concurrentes de los datos anteriores
+     */
+    public void invalidar(String correoElectronico) {
+        if (correoElectronico == null) {
+            return;
+        }
+        entradas.remove(correoElectronico);
+        alTerminar(() -> entradas.remove(correoElectronico));
+        log.debug("Principal invalidado en caché: {}", correoElectronico);
+    }
+
+    public void invalidarTodo() {
+        entradas.clear();
+    }
+
+    public Map<String, Object> obtenerEstadisticas() {
+        return Map.of(
+                "entradas", entradas.size(),
+                "capacidad", capacidad,
+                "aciertos", aciertos.get(),
+                "fallos", fallos.get()
+        );
+    }
+
+    /**
+     * Descarta las entradas expiradas y, si la caché sigue llena, la más próxima a expirar
+     */
+    private void liberarEspacio() {
+        long ahora = System.nanoTime();
+        entradas.values().removeIf(entrada -> entrada.expirada(ahora));
+        while (entradas.size() >= capacidad && !entradas.isEmpty()) {
+            entradas.values().stream()
+                    .min((a, b) -> Long.compare(a.expiraEn, b.expiraEn))
+                    .ifPresent(entrada -> entradas.remove(entrada.correoElectronico, entrada));
+        }
+    }
+
+    private static final class Entrada {
+        private final Long usuarioId;
+        private final String correoElectronico;
+        private final String contrasena;
+        private final String rol;
+        private final long expiraEn;
+
+        private Entrada(Long usuarioId, String correoElectronico, String contrasena, String rol, long expiraEn) {
+            this.usuarioId = usuarioId;
+            this.correoElectronico = correoElectronico;
+            this.contrasena = contrasena;
+            this.rol = rol;
+            this.expiraEn = expiraEn;
+        }
+
+        private boolean expirada(long ahora) {
+            return ahora - expiraEn >= 0;
+        }
+
+        private UsuarioAutenticado aPrincipal() {
+            return new UsuarioAutenticado(usuarioId, correoElectronico, contrasena, rol);
+        }
+    }
+}
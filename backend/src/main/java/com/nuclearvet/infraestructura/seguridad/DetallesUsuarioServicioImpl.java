@@ -3,17 +3,16 @@ package com.nuclearvet.infraestructura.seguridad;
 import com.nuclearvet.dominio.entidades.Usuario;
 import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
+import java.util.Optional;
 
 /**
  * Implementación del servicio de detalles de usuario para Spring Security
+ * Los principales se resuelven a través de CachePrincipales
  * RF1.3 - Inicio de sesión seguro
  */
 @Service
@@ -21,9 +20,15 @@ import java.util.Collections;
 public class DetallesUsuarioServicioImpl implements UserDetailsService {
 
     private final UsuarioRepositorio usuarioRepositorio;
+    private final CachePrincipales cachePrincipales;
 
     @Override
     public UserDetails loadUserByUsername(String correoElectronico) throws UsernameNotFoundException {
+        Optional<UsuarioAutenticado> enCache = cachePrincipales.obtener(correoElectronico);
+        if (enCache.isPresent()) {
+            return enCache.get();
+        }
+
         Usuario usuario = usuarioRepositorio.findByCorreoElectronico(correoElectronico)
                 .orElseThrow(() -> new UsernameNotFoundException(
                         "Usuario no encontrado con correo: " + correoElectronico));
@@ -32,15 +37,6 @@ public class DetallesUsuarioServicioImpl implements UserDetailsService {
             throw new UsernameNotFoundException("El usuario está desactivado");
         }
 
-        return User.builder()
-                .username(usuario.getCorreoElectronico())
-                .password(usuario.getContrasena())
-                .authorities(Collections.singletonList(
-                        new SimpleGrantedAuthority(usuario.getRol().getNombre())))
-                .accountExpired(false)
-                .accountLocked(!usuario.getActivo())
-                .credentialsExpired(false)
-                .disabled(!usuario.getActivo())
-                .build();
+        return cachePrincipales.guardar(usuario);
     }
 }
@@ -1,5 +1,6 @@
 package com.nuclearvet.infraestructura.seguridad;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,10 +15,14 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 /**
  * Filtro de autenticación JWT que valida el token en cada petición
  * RF1.3 - Inicio de sesión seguro
+ *
+ * Los tokens con claims de usuario y rol se autentican sin consultar la base de datos;
+ * los emitidos antes de esos claims se resuelven con DetallesUsuarioServicioImpl.
  */
 @Component
 @RequiredArgsConstructor
@@ -25,6 +30,7 @@ public class JwtFiltroAutenticacion extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final DetallesUsuarioServicioImpl detallesUsuarioServicio;
+    private final ListaRevocacionTokens listaRevocacionTokens;
 
     @Override
     protected void doFilterInternal(
@@ -33,30 +39,35 @@ public class JwtFiltroAutenticacion extends OncePerRequestFilter {
             @NonNull FilterChain filterChain) throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String correoElectronico;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
-        
+        final String jwt = authHeader.substring(7);
+
         try {
-            correoElectronico = jwtUtil.extraerCorreoElectronico(jwt);
+            Optional<Claims> claims = jwtUtil.verificar(jwt);
+
+            if (claims.isPresent() && claims.get().getSubject() != null
+                    && !listaRevocacionTokens.estaRevocado(claims.get())
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails detallesUsuario = jwtUtil.aPrincipal(claims.get())
+                        .map(UserDetails.class::cast)
+                        .orElseGet(() -> detallesUsuarioServicio.loadUserByUsername(claims.get().getSubject()));
 
-            if (correoElectronico != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails detallesUsuario = detallesUsuarioServicio.loadUserByUsername(correoElectronico);
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        detallesUsuario,
+                        null,
+                        detallesUsuario.getAuthorities()
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                if (jwtUtil.validarToken(jwt, detallesUsuario)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            detallesUsuario,
-                            null,
-                            detallesUsuario.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                if (detallesUsuario instanceof UsuarioAutenticado usuario) {
+                    request.setAttribute(UsuarioAutenticado.ATRIBUTO_USUARIO_ID, usuario.getUsuarioId());
+                    request.setAttribute(UsuarioAutenticado.ATRIBUTO_ROL, usuario.getRol());
                 }
             }
         } catch (Exception e) {
@@ -1,33 +1,76 @@
 package com.nuclearvet.infraestructura.seguridad;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
  * Utilidad para gestión de tokens JWT
  * RF1.3 - Inicio de sesión seguro
+ *
+ * La clave HMAC y el parser se construyen una sola vez; cada token se verifica
+ * con un único parseo que comprueba firma y expiración.
  */
 @Component
 public class JwtUtil {
 
+    public static final String CLAIM_USUARIO_ID = "uid";
+    public static final String CLAIM_ROL = "rol";
+
     @Value("${jwt.secreto}")
     private String secreto;
 
     @Value("${jwt.expiracion}")
     private long tiempoExpiracion;
 
+    private SecretKey clave;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void inicializar() {
+        clave = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secreto));
+        parser = Jwts.parser().verifyWith(clave).build();
+    }
+
+    /**
+     * Verifica firma y expiración del token y devuelve sus claims
+     */
+    public Optional<Claims> verificar(String token) {
+        try {
+            return Optional.of(parser.parseSignedClaims(token).getPayload());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Principal construido solo con los claims del token; vacío si el token
+     * es anterior a los claims de usuario y rol
+     */
+    public Optional<UsuarioAutenticado> aPrincipal(Claims claims) {
+        Number usuarioId = claims.get(CLAIM_USUARIO_ID, Number.class);
+        String rol = claims.get(CLAIM_ROL, String.class);
+        if (usuarioId == null || rol == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new UsuarioAutenticado(usuarioId.longValue(), claims.getSubject(), "", rol));
+    }
+
     public String extraerCorreoElectronico(String token) {
         return extraerClaim(token, Claims::getSubject);
     }
@@ -42,20 +85,15 @@ public class JwtUtil {
     }
 
     private Claims extraerTodosClaims(String token) {
-        return Jwts
-                .parser()
-                .setSigningKey(obtenerClaveSecreto())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Boolean esTokenExpirado(String token) {
-        return extraerFechaExpiracion(token).before(new Date());
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public String generarToken(UserDetails detallesUsuario) {
         Map<String, Object> claims = new HashMap<>();
+        if (detallesUsuario instanceof UsuarioAutenticado usuario) {
+            claims.put(CLAIM_USUARIO_ID, usuario.getUsuarioId());
+            claims.put(CLAIM_ROL, usuario.getRol());
+        }
         return crearToken(claims, detallesUsuario.getUsername());
     }
 
@@ -64,22 +102,23 @@ public class JwtUtil {
     }
 
     private String crearToken(Map<String, Object> claims, String subject) {
+        long ahora = System.currentTimeMillis();
         return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + tiempoExpiracion))
-                .signWith(obtenerClaveSecreto(), SignatureAlgorithm.HS256)
+                .claims(claims)
+                .subject(subject)
+                .id(UUID.randomUUID().toString())
+                .issuedAt(new Date(ahora))
+                .expiration(new Date(ahora + tiempoExpiracion))
+                .signWith(clave, Jwts.SIG.HS256)
                 .compact();
     }
 
+    /**
+     * El parser ya rechaza tokens expirados o con firma inválida
+     */
     public Boolean validarToken(String token, UserDetails detallesUsuario) {
-        final String correo = extraerCorreoElectronico(token);
-        return (correo.equals(detallesUsuario.getUsername()) && !esTokenExpirado(token));
-    }
-
-    private Key obtenerClaveSecreto() {
-        byte[] bytesSecreto = Decoders.BASE64.decode(secreto);
-        return Keys.hmacShaKeyFor(bytesSecreto);
+        return verificar(token)
+                .map(claims -> detallesUsuario.getUsername().equals(claims.getSubject()))
+                .orElse(false);
     }
 }
@@ -0,0 +1,127 @@
+package com.nuclearvet.infraestructura.seguridad;
+
+import com.nuclearvet.dominio.entidades.RevocacionUsuario;
+import com.nuclearvet.dominio.entidades.TokenRevocado;
+import com.nuclearvet.infraestructura.persistencia.RevocacionUsuarioRepositorio;
+import com.nuclearvet.infraestructura.persistencia.TokenRevocadoRepositorio;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lista de revocación de tokens JWT.
+ *
+ * Como el filtro autentica solo con los claims del token, el cierre de sesión revoca
+ * el token por su identificador (jti) hasta que expira, y los cambios de contraseña,
+ * rol o estado revocan todos los tokens del usuario emitidos antes del cambio.
+ * El filtro consulta solo la copia en memoria; cada revocación se guarda además en
+ * tokens_revocados o revocaciones_usuarios, que se cargan al arrancar y se releen
+ * periódicamente para recoger las hechas por otras instancias.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ListaRevocacionTokens {
+
+    private final TokenRevocadoRepositorio tokenRevocadoRepositorio;
+    private final RevocacionUsuarioRepositorio revocacionUsuarioRepositorio;
+
+    /** jti -> expiración del token (epoch ms) */
+    private final Map<String, Long> tokensRevocados = new ConcurrentHashMap<>();
+
+    /** usuarioId -> instante (epoch s) antes del cual sus tokens ya no son válidos */
+    private final Map<Long, Long> usuariosRevocados = new ConcurrentHashMap<>();
+
+    @Value("${jwt.expiracion}")
+    private long tiempoExpiracion;
+
+    /**
+     * Carga las revocaciones que siguen vigentes
+     */
+    @PostConstruct
+    public void cargar() {
+        long ahora = System.currentTimeMillis();
+        for (TokenRevocado token : tokenRevocadoRepositorio.findByExpiracionAfter(aFecha(ahora))) {
+            tokensRevocados.put(token.getJti(), aEpochMs(token.getExpiracion()));
+        }
+        for (RevocacionUsuario revocacion : revocacionUsuarioRepositorio
+                .findByTokensValidosDesdeAfter(aFecha(ahora - tiempoExpiracion))) {
+            usuariosRevocados.merge(revocacion.getUsuarioId(),
+                    aEpochMs(revocacion.getTokensValidosDesde()) / 1000, Math::max);
+        }
+        log.debug("Revocaciones cargadas: {} tokens, {} usuarios", tokensRevocados.size(), usuariosRevocados.size());
+    }
+
+    /**
+     * Revoca un token hasta su expiración
+     */
+    public void revocar(String jti, Date expiracion) {
+        if (jti == null || expiracion == null) {
+            return;
+        }
+        tokensRevocados.put(jti, expiracion.getTime());
+        tokenRevocadoRepositorio.save(new TokenRevocado(jti, aFecha(expiracion.getTime())));
+    }
+
+    /**
+     * Revoca todos los tokens del usuario emitidos hasta ahora
+     */
+    public void revocarUsuario(Long usuarioId) {
+        if (usuarioId == null) {
+            return;
+        }
+        long desde = System.currentTimeMillis() / 1000;
+        usuariosRevocados.put(usuarioId, desde);
+        revocacionUsuarioRepositorio.save(new RevocacionUsuario(usuarioId, aFecha(desde * 1000)));
+        log.debug("Tokens revocados para el usuario {}", usuarioId);
+    }
+
+    public boolean estaRevocado(Claims claims) {
+        String jti = claims.getId();
+        if (jti != null && tokensRevocados.containsKey(jti)) {
+            return true;
+        }
+        Number usuarioId = claims.get(JwtUtil.CLAIM_USUARIO_ID, Number.class);
+        if (usuarioId == null || usuariosRevocados.isEmpty()) {
+            return false;
+        }
+        Long revocadoDesde = usuariosRevocados.get(usuarioId.longValue());
+        Date emision = claims.getIssuedAt();
+        return revocadoDesde != null && (emision == null || emision.getTime() / 1000 < revocadoDesde);
+    }
+
+    /**
+     * Descarta las revocaciones de tokens que ya expiraron por sí solos y recoge las
+     * hechas por otras instancias
+     */
+    @Scheduled(fixedDelayString = "${nuclearvet.seguridad.revocacion.intervalo-sincronizacion-ms:60000}")
+    public void sincronizar() {
+        long ahora = System.currentTimeMillis();
+        tokensRevocados.values().removeIf(expiracion -> expiracion < ahora);
+        long limite = (ahora - tiempoExpiracion) / 1000;
+        usuariosRevocados.values().removeIf(desde -> desde < limite);
+
+        tokenRevocadoRepositorio.eliminarExpirados(aFecha(ahora));
+        revocacionUsuarioRepositorio.eliminarAnterioresA(aFecha(ahora - tiempoExpiracion));
+        cargar();
+    }
+
+    private static LocalDateTime aFecha(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault());
+    }
+
+    private static long aEpochMs(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,41 @@
+package com.nuclearvet.infraestructura.seguridad;
+
+import lombok.Getter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collections;
+import java.util.Optional;
+
+/**
+ * Principal autenticado con el ID y el rol del usuario ya resueltos,
+ * para que los servicios no vuelvan a consultar la tabla usuarios
+ */
+@Getter
+public class UsuarioAutenticado extends User {
+
+    public static final String ATRIBUTO_USUARIO_ID = "nuclearvet.usuarioId";
+    public static final String ATRIBUTO_ROL = "nuclearvet.rol";
+
+    private final Long usuarioId;
+    private final String rol;
+
+    public UsuarioAutenticado(Long usuarioId, String correoElectronico, String contrasena, String rol) {
+        super(correoElectronico, contrasena, Collections.singletonList(new SimpleGrantedAuthority(rol)));
+        this.usuarioId = usuarioId;
+        this.rol = rol;
+    }
+
+    /**
+     * Usuario autenticado en la petición actual, si lo hay
+     */
+    public static Optional<UsuarioAutenticado> actual() {
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacion != null && autenticacion.getPrincipal() instanceof UsuarioAutenticado usuario) {
+            return Optional.of(usuario);
+        }
+        return Optional.empty();
+    }
+}
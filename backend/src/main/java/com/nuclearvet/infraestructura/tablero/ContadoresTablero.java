@@ -0,0 +1,232 @@
+package com.nuclearvet.infraestructura.tablero;
+
+import com.nuclearvet.dominio.enumeraciones.EstadoCorreo;
+import com.nuclearvet.dominio.enumeraciones.EstadoFactura;
+import com.nuclearvet.dominio.enums.EstadoPaciente;
+import com.nuclearvet.infraestructura.persistencia.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.nuclearvet.compartido.transacciones.TransaccionUtil.despuesDeConfirmar;
+
+/**
+ * Contadores del tablero en memoria: pacientes activos, facturas por estado, cuentas por
+ * cobrar, correos por estado, alertas de inventario y notificaciones no leídas por usuario.
+ *
+ * Los servicios informan cada cambio al escribir (los deltas se aplican al confirmar la
+ * transacción, así que un rollback no los altera) y el tablero se lee desde memoria sin
+ * consultar la base de datos. Cada nuclearvet.tablero.conciliacion-ms, y al arrancar, los
+ * contadores se ajustan con los agregados reales, lo que corrige operaciones masivas o
+ * escrituras hechas por otra instancia; entre conciliaciones los valores son aproximados.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ContadoresTablero {
+
+    private final PacienteRepositorio pacienteRepositorio;
+    private final FacturaRepositorio facturaRepositorio;
+    private final HistorialCorreoRepositorio historialCorreoRepositorio;
+    private final NotificacionRepositorio notificacionRepositorio;
+    private final AlertaInventarioRepositorio alertaRepositorio;
+
+    private final LongAdder pacientesActivos = new LongAdder();
+    private final LongAdder alertasNoLeidas = new LongAdder();
+    /** Saldo pendiente positivo de todas las facturas, en centavos */
+    private final LongAdder cuentasPorCobrar = new LongAdder();
+    private final Map<EstadoFactura, LongAdder> facturasPorEstado = contadoresPorEstado(EstadoFactura.class);
+    private final Map<EstadoCorreo, LongAdder> correosPorEstado = contadoresPorEstado(EstadoCorreo.class);
+    private final Map<Long, LongAdder> notificacionesNoLeidas = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime ultimaConciliacion;
+
+    // ===== Escrituras =====
+
+    /**
+     * Paciente creado (antes = null), eliminado (despues = null) o que cambió de estado
+     */
+    public void cambiarEstadoPaciente(EstadoPaciente antes, EstadoPaciente despues) {
+        long delta = (despues == EstadoPaciente.ACTIVO ? 1 : 0) - (antes == EstadoPaciente.ACTIVO ? 1 : 0);
+        if (delta != 0) {
+            despuesDeConfirmar(() -> pacientesActivos.add(delta));
+        }
+    }
+
+    /**
+     * Factura creada (estado y saldo anteriores en null), anulada, vencida o pagada
+     */
+    public void cambiarFactura(EstadoFactura estadoAntes, BigDecimal saldoAntes,
+                               EstadoFactura estadoDespues, BigDecimal saldoDespues) {
+        long deltaSaldo = centavos(saldoDespues) - centavos(saldoAntes);
+        if (estadoAntes == estadoDespues && deltaSaldo == 0) {
+            return;
+        }
+        despuesDeConfirmar(() -> {
+            if (estadoAntes != estadoDespues) {
+                mover(facturasPorEstado, estadoAntes, estadoDespues);
+            }
+            cuentasPorCobrar.add(deltaSaldo);
+        });
+    }
+
+    /**
+     * Correo registrado (antes = null), eliminado (despues = null) o que cambió de estado
+     */
+    public void cambiarEstadoCorreo(EstadoCorreo antes, EstadoCorreo despues) {
+        if (antes != despues) {
+            despuesDeConfirmar(() -> mover(correosPorEstado, antes, despues));
+        }
+    }
+
+    /**
+     * Correos en estado dado registrados en bloque
+     */
+    public void sumarCorreos(EstadoCorreo estado, long cantidad) {
+        if (cantidad != 0) {
+            despuesDeConfirmar(() -> correosPorEstado.get(estado).add(cantidad));
+        }
+    }
+
+    /**
+     * Correos en estado dado eliminados en bloque
+     */
+    public void restarCorreos(EstadoCorreo estado, long cantidad) {
+        sumarCorreos(estado, -cantidad);
+    }
+
+    public void sumarNotificacionesNoLeidas(Long usuarioId, long delta) {
+        if (delta != 0) {
+            despuesDeConfirmar(() -> notificacionesNoLeidas.computeIfAbsent(usuarioId, id -> new LongAdder()).add(delta));
+        }
+    }
+
+    public void sumarAlertasNoLeidas(long delta) {
+        if (delta != 0) {
+            despuesDeConfirmar(() -> alertasNoLeidas.add(delta));
+        }
+    }
+
+    /**
+     * Para operaciones masivas cuyo efecto en los contadores no se conoce: concilia todo al confirmar
+     */
+    public void conciliarDespuesDeConfirmar() {
+        despuesDeConfirmar(this::conciliar);
+    }
+
+    // ===== Lecturas =====
+
+    public long getPacientesActivos() {
+        return pacientesActivos.sum();
+    }
+
+    public long getAlertasNoLeidas() {
+        return alertasNoLeidas.sum();
+    }
+
+    public BigDecimal getCuentasPorCobrar() {
+        return BigDecimal.valueOf(cuentasPorCobrar.sum(), 2);
+    }
+
+    public Map<EstadoFactura, Long> getFacturasPorEstado() {
+        return sumas(facturasPorEstado);
+    }
+
+    public Map<EstadoCorreo, Long> getCorreosPorEstado() {
+        return sumas(correosPorEstado);
+    }
+
+    public long getNotificacionesNoLeidas(Long usuarioId) {
+        LongAdder contador = usuarioId != null ? notificacionesNoLeidas.get(usuarioId) : null;
+        return contador != null ? contador.sum() : 0;
+    }
+
+    public LocalDateTime getUltimaConciliacion() {
+        return ultimaConciliacion;
+    }
+
+    // ===== Conciliación =====
+
+    /**
+     * Ajusta los contadores a los agregados de la base de datos sumando la diferencia.
+     * La lectura y el ajuste no son atómicos respecto de los escritores: un delta que se
+     * aplica entre la consulta y el ajuste se pierde, y uno cuya transacción ya era visible
+     * para la consulta pero se aplica después queda contado dos veces. El error queda
+     * acotado a las escrituras concurrentes con la conciliación y la siguiente lo corrige
+     */
+    @Scheduled(fixedDelayString = "${nuclearvet.tablero.conciliacion-ms:300000}")
+    public void conciliar() {
+        ajustar(pacientesActivos, pacienteRepositorio.contarPacientesActivos());
+        ajustar(alertasNoLeidas, alertaRepositorio.countByLeidaFalse());
+        ajustar(cuentasPorCobrar, centavos(facturaRepositorio.calcularTotalCuentasPorCobrar()));
+
+        Map<Object, Long> facturas = agrupados(facturaRepositorio.contarPorEstados());
+        facturasPorEstado.forEach((estado, contador) -> ajustar(contador, facturas.get(estado)));
+
+        Map<Object, Long> correos = agrupados(historialCorreoRepositorio.contarPorEstado());
+        correosPorEstado.forEach((estado, contador) -> ajustar(contador, correos.get(estado)));
+
+        Map<Object, Long> notificaciones = agrupados(notificacionRepositorio.contarNoLeidasAgrupadasPorUsuario());
+        notificaciones.forEach((usuarioId, cantidad) ->
+                notificacionesNoLeidas.computeIfAbsent((Long) usuarioId, id -> new LongAdder()));
+        notificacionesNoLeidas.forEach((usuarioId, contador) -> ajustar(contador, notificaciones.get(usuarioId)));
+
+        ultimaConciliacion = LocalDateTime.now();
+        log.debug("Contadores del tablero conciliados: {} pacientes activos, {} alertas no leídas",
+                pacientesActivos.sum(), alertasNoLeidas.sum());
+    }
+
+    private static void ajustar(LongAdder contador, Long real) {
+        contador.add((real != null ? real : 0) - contador.sum());
+    }
+
+    private static Map<Object, Long> agrupados(List<Object[]> filas) {
+        Map<Object, Long> resultado = new HashMap<>();
+        for (Object[] fila : filas) {
+            resultado.put(fila[0], ((Number) fila[1]).longValue());
+        }
+        return resultado;
+    }
+
+    private static <E extends Enum<E>> Map<E, LongAdder> contadoresPorEstado(Class<E> tipo) {
+        Map<E, LongAdder> contadores = new EnumMap<>(tipo);
+        for (E estado : tipo.getEnumConstants()) {
+            contadores.put(estado, new LongAdder());
+        }
+        return contadores;
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> sumas(Map<E, LongAdder> contadores) {
+        Map<E, Long> resultado = new LinkedHashMap<>();
+        contadores.forEach((estado, contador) -> resultado.put(estado, contador.sum()));
+        return resultado;
+    }
+
+    private static <E extends Enum<E>> void mover(Map<E, LongAdder> contadores, E antes, E despues) {
+        if (antes != null) {
+            contadores.get(antes).decrement();
+        }
+        if (despues != null) {
+            contadores.get(despues).increment();
+        }
+    }
+
+    /**
+     * Solo cuenta el saldo positivo, igual que FacturaRepositorio.calcularTotalCuentasPorCobrar
+     */
+    private static long centavos(BigDecimal saldo) {
+        if (saldo == null || saldo.signum() <= 0) {
+            return 0;
+        }
+        return saldo.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+}
@@ -0,0 +1,61 @@
+-- =============================================
+-- MIGRACIÓN V15: CREAR TABLA DE NUMERACIÓN DE DOCUMENTOS
+-- Asignador hi/lo por serie y periodo (día o mes) para los consecutivos
+-- de citas, facturas, pagos, movimientos, historias, consultas y pacientes
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS numeracion_documentos (
+    serie VARCHAR(30) NOT NULL,
+    periodo VARCHAR(8) NOT NULL,
+    ultimo_valor BIGINT NOT NULL DEFAULT 0,
+    fecha_actualizacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (serie, periodo)
+);
+
+COMMENT ON TABLE numeracion_documentos IS 'Último consecutivo reservado por serie y periodo';
+COMMENT ON COLUMN numeracion_documentos.ultimo_valor IS 'Límite superior del último bloque entregado';
+
+-- Continuar los consecutivos ya emitidos en el periodo actual para evitar colisiones el día del despliegue
+INSERT INTO numeracion_documentos (serie, periodo, ultimo_valor)
+SELECT 'CIT', to_char(CURRENT_DATE, 'YYYYMMDD'), MAX(CAST(SPLIT_PART(numero_cita, '-', 3) AS BIGINT))
+FROM citas
+WHERE numero_cita LIKE 'CIT-' || to_char(CURRENT_DATE, 'YYYYMMDD') || '-%'
+  AND SPLIT_PART(numero_cita, '-', 3) ~ '^[0-9]+$'
+HAVING COUNT(*) > 0;
+
+INSERT INTO numeracion_documentos (serie, periodo, ultimo_valor)
+SELECT 'FAC', to_char(CURRENT_DATE, 'YYYYMMDD'), MAX(CAST(SPLIT_PART(numero_factura, '-', 3) AS BIGINT))
+FROM facturas
+WHERE numero_factura LIKE 'FAC-' || to_char(CURRENT_DATE, 'YYYYMMDD') || '-%'
+  AND SPLIT_PART(numero_factura, '-', 3) ~ '^[0-9]+$'
+HAVING COUNT(*) > 0;
+
+INSERT INTO numeracion_documentos (serie, periodo, ultimo_valor)
+SELECT 'MOV-' || SPLIT_PART(numero_movimiento, '-', 2), to_char(CURRENT_DATE, 'YYYYMMDD'),
+       MAX(CAST(SPLIT_PART(numero_movimiento, '-', 4) AS BIGINT))
+FROM movimientos_inventario
+WHERE SPLIT_PART(numero_movimiento, '-', 3) = to_char(CURRENT_DATE, 'YYYYMMDD')
+  AND SPLIT_PART(numero_movimiento, '-', 4) ~ '^[0-9]+$'
+GROUP BY SPLIT_PART(numero_movimiento, '-', 2);
+
+INSERT INTO numeracion_documentos (serie, periodo, ultimo_valor)
+SELECT 'HIST', to_char(CURRENT_DATE, 'YYYYMMDD'), MAX(CAST(SPLIT_PART(numero_historia, '-', 3) AS BIGINT))
+FROM historias_clinicas
+WHERE numero_historia LIKE 'HIST-' || to_char(CURRENT_DATE, 'YYYYMMDD') || '-%'
+  AND SPLIT_PART(numero_historia, '-', 3) ~ '^[0-9]+$'
+HAVING COUNT(*) > 0;
+
+INSERT INTO numeracion_documentos (serie, periodo, ultimo_valor)
+SELECT 'CONS', to_char(CURRENT_DATE, 'YYYYMMDD'), MAX(CAST(SPLIT_PART(numero_consulta, '-', 3) AS BIGINT))
+FROM consultas
+WHERE numero_consulta LIKE 'CONS-' || to_char(CURRENT_DATE, 'YYYYMMDD') || '-%'
+  AND SPLIT_PART(numero_consulta, '-', 3) ~ '^[0-9]+$'
+HAVING COUNT(*) > 0;
+
+-- Códigos de paciente: INICIALES + YYYYMM + consecutivo mensual por especie
+INSERT INTO numeracion_documentos (serie, periodo, ultimo_valor)
+SELECT 'PAC-' || LEFT(codigo, 3), to_char(CURRENT_DATE, 'YYYYMM'), MAX(CAST(SUBSTRING(codigo FROM 10) AS BIGINT))
+FROM pacientes
+WHERE SUBSTRING(codigo FROM 4 FOR 6) = to_char(CURRENT_DATE, 'YYYYMM')
+  AND SUBSTRING(codigo FROM 10) ~ '^[0-9]+$'
+GROUP BY LEFT(codigo, 3);
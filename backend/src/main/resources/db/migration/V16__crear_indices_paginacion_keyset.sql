@@ -0,0 +1,15 @@
+-- =============================================
+-- MIGRACIÓN V16: ÍNDICES PARA PAGINACIÓN POR CURSOR (KEYSET)
+-- Las páginas se recorren por (fecha, id) descendente
+-- =============================================
+
+-- La entidad Factura usa fecha_creacion, que la migración V9 no creó
+ALTER TABLE facturas ADD COLUMN IF NOT EXISTS fecha_creacion TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_cita_fecha_id ON citas(fecha_hora DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_paciente_registro_id ON pacientes(fecha_registro DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_factura_creacion_id ON facturas(fecha_creacion DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_correo_creacion_id ON historial_correos(fecha_creacion DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_recordatorio_creacion_id ON recordatorios(fecha_creacion DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_movimiento_fecha_id ON movimientos_inventario(fecha_movimiento DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_actividad_fecha_id ON registro_actividad(fecha_hora DESC, id DESC);
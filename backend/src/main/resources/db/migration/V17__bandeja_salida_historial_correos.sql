@@ -0,0 +1,17 @@
+-- =============================================
+-- MIGRACIÓN V17: HISTORIAL DE CORREOS COMO BANDEJA DE SALIDA
+-- Los trabajadores de correo reclaman filas PENDIENTE/REINTENTANDO cuyo
+-- próximo intento ya llegó; tras agotar los intentos pasan a DESCARTADO
+-- =============================================
+
+ALTER TABLE historial_correos ADD COLUMN IF NOT EXISTS intentos INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE historial_correos ADD COLUMN IF NOT EXISTS proximo_intento TIMESTAMP;
+
+UPDATE historial_correos SET estado = 'PENDIENTE' WHERE estado IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_correo_bandeja_salida ON historial_correos(id)
+    WHERE estado IN ('PENDIENTE', 'REINTENTANDO');
+
+COMMENT ON COLUMN historial_correos.estado IS 'PENDIENTE, ENVIADO, ERROR, REINTENTANDO, DESCARTADO';
+COMMENT ON COLUMN historial_correos.intentos IS 'Intentos de envío realizados';
+COMMENT ON COLUMN historial_correos.proximo_intento IS 'No se reintenta antes de esta fecha; también actúa como arrendamiento del trabajador que lo reclamó';
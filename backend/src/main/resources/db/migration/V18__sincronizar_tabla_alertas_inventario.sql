@@ -0,0 +1,59 @@
+-- =============================================
+-- MIGRACIÓN V18: SINCRONIZAR ALERTAS DE INVENTARIO CON LA ENTIDAD
+-- La conciliación nocturna inserta alertas con SQL nativo sobre estas columnas
+-- =============================================
+
+DO $$
+BEGIN
+    -- Renombrar tipo_alerta a tipo; si Hibernate ya creó tipo, conservar los valores y descartar la anterior
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name='alertas_inventario' AND column_name='tipo_alerta') THEN
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name='alertas_inventario' AND column_name='tipo') THEN
+            UPDATE alertas_inventario SET tipo = tipo_alerta WHERE tipo IS NULL;
+            ALTER TABLE alertas_inventario DROP COLUMN tipo_alerta;
+        ELSE
+            ALTER TABLE alertas_inventario RENAME COLUMN tipo_alerta TO tipo;
+        END IF;
+    END IF;
+
+    -- Renombrar nivel_prioridad a prioridad, con el mismo criterio
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name='alertas_inventario' AND column_name='nivel_prioridad') THEN
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name='alertas_inventario' AND column_name='prioridad') THEN
+            UPDATE alertas_inventario SET prioridad = nivel_prioridad WHERE prioridad IS NULL;
+            ALTER TABLE alertas_inventario DROP COLUMN nivel_prioridad;
+        ELSE
+            ALTER TABLE alertas_inventario RENAME COLUMN nivel_prioridad TO prioridad;
+        END IF;
+    END IF;
+
+    -- Agregar lote_id si no existe
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name='alertas_inventario' AND column_name='lote_id') THEN
+        ALTER TABLE alertas_inventario ADD COLUMN lote_id BIGINT
+            CONSTRAINT fk_alerta_lote REFERENCES lotes(id) ON DELETE CASCADE;
+    END IF;
+
+    -- Agregar fecha_leida si no existe
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name='alertas_inventario' AND column_name='fecha_leida') THEN
+        ALTER TABLE alertas_inventario ADD COLUMN fecha_leida TIMESTAMP;
+    END IF;
+
+    -- Agregar fecha_creacion si no existe
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name='alertas_inventario' AND column_name='fecha_creacion') THEN
+        ALTER TABLE alertas_inventario ADD COLUMN fecha_creacion TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+    END IF;
+END $$;
+
+UPDATE alertas_inventario SET prioridad = 'MEDIA' WHERE prioridad IS NULL;
+UPDATE alertas_inventario SET leida = FALSE WHERE leida IS NULL;
+
+-- Alertas abiertas por producto/lote: precarga del índice en memoria y NOT EXISTS de la conciliación
+CREATE INDEX IF NOT EXISTS idx_alerta_abierta ON alertas_inventario(producto_id, lote_id, tipo) WHERE leida = FALSE;
+
+COMMENT ON COLUMN alertas_inventario.tipo IS 'STOCK_BAJO, PRODUCTO_AGOTADO, PROXIMO_VENCER, LOTE_VENCIDO';
+COMMENT ON COLUMN alertas_inventario.prioridad IS 'MEDIA, ALTA, CRITICA';
@@ -0,0 +1,26 @@
+-- =============================================
+-- MIGRACIÓN V19: CONTROL DE CONCURRENCIA DE EXISTENCIAS
+-- Versión para bloqueo optimista de productos y lotes, y restricciones que impiden
+-- stock negativo aunque alguna ruta omita la verificación
+-- =============================================
+
+ALTER TABLE productos ADD COLUMN IF NOT EXISTS version BIGINT;
+UPDATE productos SET version = 0 WHERE version IS NULL;
+ALTER TABLE productos ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE productos ALTER COLUMN version SET NOT NULL;
+
+ALTER TABLE lotes ADD COLUMN IF NOT EXISTS version BIGINT;
+UPDATE lotes SET version = 0 WHERE version IS NULL;
+ALTER TABLE lotes ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE lotes ALTER COLUMN version SET NOT NULL;
+
+-- NOT VALID: se aplica a las escrituras nuevas sin fallar por filas históricas inconsistentes
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'chk_stock_actual_no_negativo') THEN
+        ALTER TABLE productos ADD CONSTRAINT chk_stock_actual_no_negativo CHECK (stock_actual >= 0) NOT VALID;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'chk_cantidad_disponible_no_negativa') THEN
+        ALTER TABLE lotes ADD CONSTRAINT chk_cantidad_disponible_no_negativa CHECK (cantidad_disponible >= 0) NOT VALID;
+    END IF;
+END $$;
@@ -0,0 +1,27 @@
+-- =============================================
+-- MIGRACIÓN V20: SINCRONIZAR LOTES Y MOVIMIENTOS CON LAS ENTIDADES
+-- La recepción de mercancía inserta lotes y movimientos con SQL nativo sobre las columnas
+-- de las entidades; las columnas originales que ya no se escriben dejan de ser obligatorias
+-- =============================================
+
+DO $$
+BEGIN
+    -- lotes.cantidad fue reemplazada por cantidad_inicial / cantidad_disponible
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name='lotes' AND column_name='cantidad') THEN
+        ALTER TABLE lotes ALTER COLUMN cantidad DROP NOT NULL;
+    END IF;
+
+    -- movimientos_inventario.cantidad_anterior / cantidad_nueva fueron reemplazadas por stock_anterior / stock_nuevo
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name='movimientos_inventario' AND column_name='cantidad_anterior') THEN
+        ALTER TABLE movimientos_inventario ALTER COLUMN cantidad_anterior DROP NOT NULL;
+    END IF;
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name='movimientos_inventario' AND column_name='cantidad_nueva') THEN
+        ALTER TABLE movimientos_inventario ALTER COLUMN cantidad_nueva DROP NOT NULL;
+    END IF;
+END $$;
+
+-- Verificación de números de lote repetidos de una recepción en una sola consulta
+CREATE INDEX IF NOT EXISTS idx_lote_numero ON lotes(numero_lote);
@@ -0,0 +1,7 @@
+-- =============================================
+-- MIGRACIÓN V21: HUELLA DEL CONTENIDO DE LOS ARCHIVOS MÉDICOS
+-- SHA-256 del archivo, calculado al subirlo, usado como ETag en las descargas.
+-- Los archivos existentes la obtienen en su primera descarga
+-- =============================================
+
+ALTER TABLE archivos_medicos ADD COLUMN IF NOT EXISTS hash_contenido VARCHAR(64);
@@ -0,0 +1,35 @@
+-- =============================================
+-- MIGRACIÓN V22: ÍNDICES DE TRIGRAMAS PARA BÚSQUEDAS POR TEXTO
+-- Las búsquedas existentes usan LOWER(campo) LIKE '%texto%', que un índice B-tree no
+-- puede resolver. Con pg_trgm y un índice GIN sobre la misma expresión PostgreSQL
+-- las atiende sin recorrer la tabla completa.
+-- Si la extensión no está disponible o el usuario no puede crearla, la migración
+-- no falla: las búsquedas siguen funcionando sin estos índices
+-- =============================================
+
+DO $$
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS pg_trgm;
+EXCEPTION
+    WHEN insufficient_privilege OR undefined_file OR feature_not_supported THEN
+        RAISE NOTICE 'pg_trgm no disponible, se omiten los índices de trigramas: %', SQLERRM;
+END
+$$;
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm') THEN
+        CREATE INDEX IF NOT EXISTS idx_paciente_nombre_trgm ON pacientes USING gin (LOWER(nombre) gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_paciente_codigo_trgm ON pacientes USING gin (LOWER(codigo) gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_paciente_microchip_trgm ON pacientes USING gin (LOWER(microchip) gin_trgm_ops);
+
+        CREATE INDEX IF NOT EXISTS idx_propietario_nombres_trgm ON propietarios USING gin (LOWER(nombres) gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_propietario_apellidos_trgm ON propietarios USING gin (LOWER(apellidos) gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_propietario_identificacion_trgm ON propietarios USING gin (numero_identificacion gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_propietario_telefono_trgm ON propietarios USING gin (telefono_principal gin_trgm_ops);
+
+        CREATE INDEX IF NOT EXISTS idx_producto_nombre_trgm ON productos USING gin (LOWER(nombre) gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_producto_codigo_trgm ON productos USING gin (LOWER(codigo) gin_trgm_ops);
+    END IF;
+END
+$$;
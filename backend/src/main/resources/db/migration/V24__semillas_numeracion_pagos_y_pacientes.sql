@@ -0,0 +1,35 @@
+-- =============================================
+-- MIGRACIÓN V24: SEMILLAS DE NUMERACIÓN PARA PAGOS Y CÓDIGOS DE PACIENTE
+-- V15 no sembró la serie PAG y suponía iniciales de especie de 3 letras.
+-- Se continúan los consecutivos del periodo actual sin bajar ninguno ya reservado
+-- =============================================
+
+-- numero_pago lo creaba Hibernate (ddl-auto=update) después de Flyway
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns WHERE table_name='pagos' AND column_name='numero_pago') THEN
+        ALTER TABLE pagos ADD COLUMN numero_pago VARCHAR(30) UNIQUE;
+    END IF;
+END $$;
+
+-- Números de pago: PAG-YYYYMMDDHHMMSS-consecutivo diario
+INSERT INTO numeracion_documentos (serie, periodo, ultimo_valor)
+SELECT 'PAG', to_char(CURRENT_DATE, 'YYYYMMDD'), MAX(CAST(SPLIT_PART(numero_pago, '-', 3) AS BIGINT))
+FROM pagos
+WHERE numero_pago LIKE 'PAG-' || to_char(CURRENT_DATE, 'YYYYMMDD') || '%'
+  AND SPLIT_PART(numero_pago, '-', 3) ~ '^[0-9]+$'
+HAVING COUNT(*) > 0
+ON CONFLICT (serie, periodo) DO UPDATE
+SET ultimo_valor = GREATEST(numeracion_documentos.ultimo_valor, EXCLUDED.ultimo_valor),
+    fecha_actualizacion = CURRENT_TIMESTAMP;
+
+-- Códigos de paciente: INICIALES + YYYYMM + consecutivo mensual, con iniciales de cualquier longitud
+INSERT INTO numeracion_documentos (serie, periodo, ultimo_valor)
+SELECT 'PAC-' || SUBSTRING(codigo FROM '^([A-Z]+)[0-9]{6}[0-9]+$'), to_char(CURRENT_DATE, 'YYYYMM'),
+       MAX(CAST(SUBSTRING(codigo FROM '^[A-Z]+[0-9]{6}([0-9]+)$') AS BIGINT))
+FROM pacientes
+WHERE codigo ~ ('^[A-Z]+' || to_char(CURRENT_DATE, 'YYYYMM') || '[0-9]+$')
+GROUP BY SUBSTRING(codigo FROM '^([A-Z]+)[0-9]{6}[0-9]+$')
+ON CONFLICT (serie, periodo) DO UPDATE
+SET ultimo_valor = GREATEST(numeracion_documentos.ultimo_valor, EXCLUDED.ultimo_valor),
+    fecha_actualizacion = CURRENT_TIMESTAMP;
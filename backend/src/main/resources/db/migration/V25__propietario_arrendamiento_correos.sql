@@ -0,0 +1,10 @@
+-- =============================================
+-- MIGRACIÓN V25: PROPIETARIO DEL ARRENDAMIENTO EN LA BANDEJA DE CORREOS
+-- El trabajador que reclama un lote queda registrado junto a proximo_intento; al
+-- guardar el resultado del envío solo se actualiza la fila si el arrendamiento
+-- sigue siendo suyo
+-- =============================================
+
+ALTER TABLE historial_correos ADD COLUMN IF NOT EXISTS arrendado_por VARCHAR(64);
+
+COMMENT ON COLUMN historial_correos.arrendado_por IS 'Trabajador que tiene arrendado el correo; NULL si nadie lo está enviando';
@@ -0,0 +1,17 @@
+-- =============================================
+-- MIGRACIÓN V26: ÍNDICES DE TRIGRAMAS PARA LA BÚSQUEDA DE PROVEEDORES
+-- ProveedorRepositorio.buscarPorNombreONit filtra con LOWER(nombre) LIKE '%texto%' y
+-- LOWER(nit) LIKE '%texto%'; se indexan igual que los campos de V22.
+-- La tabla proveedores la crea Hibernate (ddl-auto=update) después de Flyway,
+-- por eso solo se indexa si ya existe
+-- =============================================
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm')
+       AND EXISTS (SELECT 1 FROM information_schema.tables WHERE table_name = 'proveedores') THEN
+        CREATE INDEX IF NOT EXISTS idx_proveedor_nombre_trgm ON proveedores USING gin (LOWER(nombre) gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_proveedor_nit_trgm ON proveedores USING gin (LOWER(nit) gin_trgm_ops);
+    END IF;
+END
+$$;
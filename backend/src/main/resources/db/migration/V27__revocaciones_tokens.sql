@@ -0,0 +1,20 @@
+-- =============================================
+-- MIGRACIÓN V27: REVOCACIONES DE TOKENS JWT
+-- El filtro JWT consulta la lista de revocación en memoria; estas tablas la
+-- conservan entre reinicios y la comparten entre instancias
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS tokens_revocados (
+    jti VARCHAR(64) PRIMARY KEY,
+    expiracion TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_token_revocado_expiracion ON tokens_revocados(expiracion);
+
+CREATE TABLE IF NOT EXISTS revocaciones_usuarios (
+    usuario_id BIGINT PRIMARY KEY REFERENCES usuarios(id) ON DELETE CASCADE,
+    tokens_validos_desde TIMESTAMP NOT NULL
+);
+
+COMMENT ON TABLE tokens_revocados IS 'Tokens cerrados con logout, por jti, hasta su expiración';
+COMMENT ON COLUMN revocaciones_usuarios.tokens_validos_desde IS 'Los tokens del usuario emitidos antes de este instante están revocados';
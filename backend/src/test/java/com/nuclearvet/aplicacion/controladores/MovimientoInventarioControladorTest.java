@@ -0,0 +1,92 @@
+package com.nuclearvet.aplicacion.controladores;
+
+import com.nuclearvet.aplicacion.dtos.MovimientoInventarioDTO;
+import com.nuclearvet.aplicacion.servicios.MovimientoInventarioServicio;
+import com.nuclearvet.compartido.exportacion.EscritorExcel;
+import com.nuclearvet.compartido.paginacion.EscritorNdjson;
+import com.nuclearvet.infraestructura.configuracion.SeguridadConfiguracion;
+import com.nuclearvet.infraestructura.persistencia.RevocacionUsuarioRepositorio;
+import com.nuclearvet.infraestructura.persistencia.TokenRevocadoRepositorio;
+import com.nuclearvet.infraestructura.seguridad.DetallesUsuarioServicioImpl;
+import com.nuclearvet.infraestructura.seguridad.JwtFiltroAutenticacion;
+import com.nuclearvet.infraestructura.seguridad.JwtUtil;
+import com.nuclearvet.infraestructura.seguridad.ListaRevocacionTokens;
+import com.nuclearvet.infraestructura.seguridad.UsuarioAutenticado;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Verifica que las respuestas NDJSON, que terminan en un despacho asíncrono sin el token,
+ * pasan por la cadena de seguridad
+ */
+@WebMvcTest(MovimientoInventarioControlador.class)
+class MovimientoInventarioControladorTest {
+
+    @Configuration
+    @Import({MovimientoInventarioControlador.class, SeguridadConfiguracion.class, JwtFiltroAutenticacion.class, JwtUtil.class,
+            ListaRevocacionTokens.class, EscritorNdjson.class})
+    static class Configuracion {
+    }
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private MovimientoInventarioServicio movimientoServicio;
+
+    @MockBean
+    private EscritorExcel escritorExcel;
+
+    @MockBean
+    private DetallesUsuarioServicioImpl detallesUsuarioServicio;
+
+    @MockBean
+    private TokenRevocadoRepositorio tokenRevocadoRepositorio;
+
+    @MockBean
+    private RevocacionUsuarioRepositorio revocacionUsuarioRepositorio;
+
+    @Test
+    void transmitirTodos_DeberiaCompletarElDespachoAsincronoAutorizado() throws Exception {
+        MovimientoInventarioDTO movimiento = MovimientoInventarioDTO.builder().numeroMovimiento("MOV-1").build();
+        doAnswer(invocacion -> {
+            invocacion.<Consumer<MovimientoInventarioDTO>>getArgument(0).accept(movimiento);
+            return null;
+        }).when(movimientoServicio).transmitirTodos(any());
+        String token = jwtUtil.generarToken(new UsuarioAutenticado(7L, "vet@nuclearvet.co", "x", "VETERINARIO"));
+
+        MvcResult inicio = mvc.perform(get("/api/inventario/movimientos/flujo").header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(EscritorNdjson.NDJSON))
+                .andExpect(content().string(containsString("\"numeroMovimiento\":\"MOV-1\"")));
+    }
+
+    @Test
+    void transmitirTodos_SinToken_DeberiaRechazarseAntesDeEmpezar() throws Exception {
+        mvc.perform(get("/api/inventario/movimientos/flujo"))
+                .andExpect(status().isForbidden())
+                .andExpect(request().asyncNotStarted());
+    }
+}
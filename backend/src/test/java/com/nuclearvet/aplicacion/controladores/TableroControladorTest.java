@@ -0,0 +1,75 @@
+package com.nuclearvet.aplicacion.controladores;
+
+import com.nuclearvet.aplicacion.dtos.TableroDTO;
+import com.nuclearvet.aplicacion.servicios.TableroServicio;
+import com.nuclearvet.infraestructura.configuracion.SeguridadConfiguracion;
+import com.nuclearvet.infraestructura.persistencia.RevocacionUsuarioRepositorio;
+import com.nuclearvet.infraestructura.persistencia.TokenRevocadoRepositorio;
+import com.nuclearvet.infraestructura.seguridad.DetallesUsuarioServicioImpl;
+import com.nuclearvet.infraestructura.seguridad.JwtFiltroAutenticacion;
+import com.nuclearvet.infraestructura.seguridad.JwtUtil;
+import com.nuclearvet.infraestructura.seguridad.ListaRevocacionTokens;
+import com.nuclearvet.infraestructura.seguridad.UsuarioAutenticado;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica que las cifras de toda la clínica del tablero no queden al alcance de cualquier
+ * usuario autenticado
+ */
+@WebMvcTest(TableroControlador.class)
+class TableroControladorTest {
+
+    @Configuration
+    @Import({TableroControlador.class, SeguridadConfiguracion.class, JwtFiltroAutenticacion.class, JwtUtil.class,
+            ListaRevocacionTokens.class})
+    static class Configuracion {
+    }
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private TableroServicio tableroServicio;
+
+    @MockBean
+    private DetallesUsuarioServicioImpl detallesUsuarioServicio;
+
+    @MockBean
+    private TokenRevocadoRepositorio tokenRevocadoRepositorio;
+
+    @MockBean
+    private RevocacionUsuarioRepositorio revocacionUsuarioRepositorio;
+
+    @Test
+    void obtenerTablero_ComoCliente_DeberiaRechazarse() throws Exception {
+        mvc.perform(get("/api/tablero").header("Authorization", "Bearer " + token("CLIENTE")))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(tableroServicio);
+    }
+
+    @Test
+    void obtenerTablero_ComoAdministrador_DeberiaResponder() throws Exception {
+        when(tableroServicio.obtenerTablero()).thenReturn(new TableroDTO());
+
+        mvc.perform(get("/api/tablero").header("Authorization", "Bearer " + token("ADMINISTRADOR")))
+                .andExpect(status().isOk());
+    }
+
+    private String token(String rol) {
+        return jwtUtil.generarToken(new UsuarioAutenticado(7L, "usuario@nuclearvet.co", "x", rol));
+    }
+}
@@ -1,15 +1,29 @@
 package com.nuclearvet.aplicacion.servicios;
 
 import com.nuclearvet.aplicacion.mapeadores.AlertaInventarioMapeador;
+import com.nuclearvet.dominio.entidades.AlertaInventario;
+import com.nuclearvet.dominio.entidades.Lote;
+import com.nuclearvet.dominio.entidades.Producto;
+import com.nuclearvet.dominio.enumeraciones.EstadoLote;
+import com.nuclearvet.dominio.enumeraciones.TipoEventoPush;
+import com.nuclearvet.infraestructura.eventos.CanalEventos;
+import com.nuclearvet.infraestructura.inventario.IndiceAlertasInventario;
 import com.nuclearvet.infraestructura.persistencia.AlertaInventarioRepositorio;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,9 +35,23 @@ class AlertaInventarioServicioTest {
     @Mock
     private AlertaInventarioMapeador alertaInventarioMapeador;
 
+    @Mock
+    private IndiceAlertasInventario indiceAlertas;
+
+    @Mock
+    private ContadoresTablero contadores;
+
+    @Mock
+    private CanalEventos canalEventos;
+
     @InjectMocks
     private AlertaInventarioServicio alertaInventarioServicio;
 
+    private Producto producto(int stockActual, int stockMinimo) {
+        return Producto.builder().id(5L).nombre("Amoxicilina").stockActual(stockActual).stockMinimo(stockMinimo)
+                .activo(true).build();
+    }
+
     @Test
     void listarNoLeidas_DeberiaInvocarRepositorio() {
         when(alertaInventarioRepositorio.findNoLeidas()).thenReturn(Arrays.asList());
@@ -54,4 +82,91 @@ class AlertaInventarioServicioTest {
         alertaInventarioServicio.listarRecientes(dias);
         verify(alertaInventarioRepositorio, times(1)).findAlertasRecientes(any());
     }
+
+    @Test
+    void evaluarProducto_StockBajo_DeberiaGenerarAlertaSoloSiElIndiceLaReserva() {
+        Producto producto = producto(3, 10);
+        when(indiceAlertas.reservarProducto(5L, IndiceAlertasInventario.STOCK_BAJO)).thenReturn(true, false);
+
+        alertaInventarioServicio.evaluarProducto(producto);
+        alertaInventarioServicio.evaluarProducto(producto);
+
+        ArgumentCaptor<AlertaInventario> alerta = ArgumentCaptor.forClass(AlertaInventario.class);
+        verify(alertaInventarioRepositorio, times(1)).save(alerta.capture());
+        assertEquals("STOCK_BAJO", alerta.getValue().getTipo());
+        verify(alertaInventarioRepositorio, never()).existsByProductoIdAndLeidaFalse(any());
+    }
+
+    @Test
+    void evaluarProducto_Agotado_DeberiaGenerarAlertaDeAgotado() {
+        when(indiceAlertas.reservarProducto(5L, IndiceAlertasInventario.PRODUCTO_AGOTADO)).thenReturn(true);
+
+        alertaInventarioServicio.evaluarProducto(producto(0, 10));
+
+        ArgumentCaptor<AlertaInventario> alerta = ArgumentCaptor.forClass(AlertaInventario.class);
+        verify(alertaInventarioRepositorio).save(alerta.capture());
+        assertEquals("PRODUCTO_AGOTADO", alerta.getValue().getTipo());
+    }
+
+    @Test
+    void evaluarProducto_StockSuficiente_NoDeberiaTocarElIndice() {
+        alertaInventarioServicio.evaluarProducto(producto(50, 10));
+
+        verifyNoInteractions(indiceAlertas);
+        verify(alertaInventarioRepositorio, never()).save(any());
+    }
+
+    @Test
+    void evaluarLote_Vencido_DeberiaReservarPorLote() {
+        Lote lote = Lote.builder().id(8L).numeroLote("L-8").producto(producto(50, 10))
+                .fechaVencimiento(LocalDate.now().minusDays(1)).estado(EstadoLote.VENCIDO).build();
+        when(indiceAlertas.reservarLote(8L, IndiceAlertasInventario.LOTE_VENCIDO)).thenReturn(true);
+
+        alertaInventarioServicio.evaluarLote(lote);
+
+        ArgumentCaptor<AlertaInventario> alerta = ArgumentCaptor.forClass(AlertaInventario.class);
+        verify(alertaInventarioRepositorio).save(alerta.capture());
+        assertEquals("LOTE_VENCIDO", alerta.getValue().getTipo());
+        assertEquals(lote, alerta.getValue().getLote());
+    }
+
+    @Test
+    void generarAlertasLotes_DeberiaOmitirLotesConAlertaYAgruparEnSentenciasDeMil() {
+        List<Long> loteIds = LongStream.rangeClosed(1, 2501).boxed().collect(Collectors.toList());
+        doAnswer(invocacion -> !Long.valueOf(1L).equals(invocacion.getArgument(0)))
+                .when(indiceAlertas).reservarLote(anyLong(), eq(IndiceAlertasInventario.LOTE_VENCIDO));
+        when(alertaInventarioRepositorio.insertarAlertasLotes(eq(IndiceAlertasInventario.LOTE_VENCIDO), anyList(), any()))
+                .thenAnswer(invocacion -> ((List<?>) invocacion.getArgument(1)).size());
+
+        assertEquals(2500, alertaInventarioServicio.generarAlertasLotes(IndiceAlertasInventario.LOTE_VENCIDO, loteIds));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Long>> bloques = ArgumentCaptor.forClass(List.class);
+        verify(alertaInventarioRepositorio, times(3))
+                .insertarAlertasLotes(eq(IndiceAlertasInventario.LOTE_VENCIDO), bloques.capture(), any());
+        assertEquals(1000, bloques.getAllValues().get(0).size());
+        assertEquals(2L, bloques.getAllValues().get(0).get(0));
+        assertEquals(500, bloques.getAllValues().get(2).size());
+        verify(canalEventos).publicar(eq(TipoEventoPush.ALERTA_INVENTARIO), isNull(), any());
+    }
+
+    @Test
+    void generarAlertasLotes_SinLotesPendientes_NoDeberiaInsertar() {
+        when(indiceAlertas.reservarLote(9L, IndiceAlertasInventario.PROXIMO_VENCER)).thenReturn(false);
+
+        assertEquals(0, alertaInventarioServicio.generarAlertasLotes(IndiceAlertasInventario.PROXIMO_VENCER, List.of(9L)));
+
+        verify(alertaInventarioRepositorio, never()).insertarAlertasLotes(anyString(), anyList(), any());
+    }
+
+    @Test
+    void verificarYGenerarAlertas_DeberiaConciliarEnUnaSentenciaYRecargarElIndice() {
+        when(alertaInventarioRepositorio.insertarAlertasFaltantes(any(), any(), any())).thenReturn(4);
+
+        assertEquals(4, alertaInventarioServicio.verificarYGenerarAlertas());
+
+        LocalDate hoy = LocalDate.now();
+        verify(alertaInventarioRepositorio).insertarAlertasFaltantes(eq(hoy), eq(hoy.plusDays(30)), any());
+        verify(indiceAlertas).recargarDespuesDeConfirmar();
+    }
 }
@@ -1,16 +1,25 @@
 package com.nuclearvet.aplicacion.servicios;
 
 import com.nuclearvet.aplicacion.mapeadores.ArchivoMedicoMapeador;
+import com.nuclearvet.dominio.entidades.ArchivoMedico;
 import com.nuclearvet.dominio.enums.TipoArchivo;
+import com.nuclearvet.infraestructura.archivos.CalculoHuellasPendientes;
 import com.nuclearvet.infraestructura.persistencia.ArchivoMedicoRepositorio;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +37,9 @@ class ArchivoMedicoServicioTest {
     @Mock
     private ArchivoMedicoMapeador archivoMedicoMapeador;
 
+    @Mock
+    private CalculoHuellasPendientes calculoHuellas;
+
     @InjectMocks
     private ArchivoMedicoServicio archivoMedicoServicio;
 
@@ -63,4 +75,19 @@ class ArchivoMedicoServicioTest {
         archivoMedicoServicio.listarArchivosRecientes();
         verify(archivoMedicoRepositorio, times(1)).findArchivosRecientes(any());
     }
+
+    @Test
+    void descargarArchivo_SinHuella_DeberiaProgramarSuCalculoSinEsperarlo(@TempDir Path directorio) throws Exception {
+        Path ruta = Files.writeString(directorio.resolve("examen.pdf"), "contenido");
+        ArchivoMedico archivo = ArchivoMedico.builder().id(7L).nombreArchivo("examen.pdf")
+                .rutaArchivo(ruta.toString()).tipoContenido("application/pdf").build();
+        when(archivoMedicoRepositorio.findById(7L)).thenReturn(Optional.of(archivo));
+
+        ArchivoMedicoServicio.Descarga descarga = archivoMedicoServicio.descargarArchivo(7L);
+
+        assertNull(descarga.getHash());
+        assertEquals(ruta, descarga.getRuta());
+        verify(calculoHuellas).programar(7L, ruta);
+        verify(archivoMedicoRepositorio, never()).registrarHash(any(), any());
+    }
 }
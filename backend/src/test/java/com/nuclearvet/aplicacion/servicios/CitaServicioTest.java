@@ -1,17 +1,32 @@
 package com.nuclearvet.aplicacion.servicios;
 
+import com.nuclearvet.aplicacion.dtos.CitaDTO;
+import com.nuclearvet.aplicacion.dtos.CrearCitaDTO;
 import com.nuclearvet.aplicacion.mapeadores.CitaMapeador;
+import com.nuclearvet.dominio.entidades.Paciente;
+import com.nuclearvet.dominio.entidades.Usuario;
 import com.nuclearvet.dominio.enums.EstadoCita;
+import com.nuclearvet.infraestructura.agenda.CacheAgendaDiaria;
+import com.nuclearvet.infraestructura.agenda.IndiceDisponibilidadVeterinario;
 import com.nuclearvet.infraestructura.persistencia.CitaRepositorio;
+import com.nuclearvet.infraestructura.persistencia.PacienteRepositorio;
+import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,6 +38,15 @@ class CitaServicioTest {
     @Mock
     private CitaMapeador citaMapeador;
 
+    @Mock
+    private CacheAgendaDiaria cacheAgenda;
+
+    @Mock
+    private PacienteRepositorio pacienteRepositorio;
+
+    @Mock
+    private UsuarioRepositorio usuarioRepositorio;
+
     @InjectMocks
     private CitaServicio citaServicio;
 
@@ -58,10 +82,30 @@ class CitaServicioTest {
     }
 
     @Test
-    void listarCitasPorFecha_DeberiaInvocarRepositorio() {
+    void listarCitasPorFecha_DeberiaCargarLaAgendaDelDiaMedianteElCache() {
         LocalDate fecha = LocalDate.now();
-        when(citaRepositorio.findByFechaHoraBetween(any(), any())).thenReturn(Arrays.asList());
+        when(citaRepositorio.findCitasDelDia(fecha.atStartOfDay(), fecha.plusDays(1).atStartOfDay())).thenReturn(Arrays.asList());
+        when(cacheAgenda.obtener(eq(fecha), isNull(), any())).thenAnswer(invocacion ->
+                new CacheAgendaDiaria.Instantanea<>(invocacion.<Supplier<List<CitaDTO>>>getArgument(2).get(), "\"1\""));
         citaServicio.listarCitasPorFecha(fecha);
-        verify(citaRepositorio, times(1)).findByFechaHoraBetween(any(), any());
+        verify(citaRepositorio, times(1)).findCitasDelDia(any(), any());
+    }
+
+    @Test
+    void crearCita_LibreEnElIndicePeroOcupadaEnBd_DeberiaRechazarse() {
+        LocalDateTime inicio = LocalDate.now().plusDays(1).atTime(10, 0);
+        IndiceDisponibilidadVeterinario indice = new IndiceDisponibilidadVeterinario(citaRepositorio);
+        when(citaRepositorio.findIntervalosActivosDesde(any(), any())).thenReturn(List.of());
+        indice.precargar();
+        ReflectionTestUtils.setField(citaServicio, "indiceDisponibilidad", indice);
+        when(pacienteRepositorio.findById(1L)).thenReturn(Optional.of(Paciente.builder().id(1L).build()));
+        when(usuarioRepositorio.findById(2L)).thenReturn(Optional.of(Usuario.builder().id(2L).build()));
+        // Otra instancia ya agendó ese horario: el índice de esta no lo conoce
+        when(citaRepositorio.existeSolapamiento(2L, inicio, inicio.plusMinutes(30))).thenReturn(true);
+        CrearCitaDTO dto = CrearCitaDTO.builder().pacienteId(1L).veterinarioId(2L).fechaHora(inicio).duracionEstimada(30).build();
+
+        assertThrows(IllegalStateException.class, () -> citaServicio.crearCita(dto, new MockHttpServletRequest()));
+
+        verify(citaRepositorio, never()).save(any());
     }
 }
@@ -0,0 +1,71 @@
+package com.nuclearvet.aplicacion.servicios;
+
+import com.nuclearvet.aplicacion.dtos.DisponibilidadVeterinarioDTO;
+import com.nuclearvet.compartido.excepciones.ValidacionExcepcion;
+import com.nuclearvet.dominio.entidades.Usuario;
+import com.nuclearvet.dominio.enums.DiaSemana;
+import com.nuclearvet.infraestructura.agenda.CalendarioDisponibilidad;
+import com.nuclearvet.infraestructura.persistencia.DisponibilidadVeterinarioRepositorio;
+import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DisponibilidadVeterinarioServicioTest {
+
+    @Mock
+    private DisponibilidadVeterinarioRepositorio disponibilidadRepositorio;
+
+    @Mock
+    private UsuarioRepositorio usuarioRepositorio;
+
+    @Mock
+    private CalendarioDisponibilidad calendario;
+
+    @InjectMocks
+    private DisponibilidadVeterinarioServicio disponibilidadServicio;
+
+    private DisponibilidadVeterinarioDTO franja(DiaSemana dia, int desde, int hasta) {
+        return DisponibilidadVeterinarioDTO.builder()
+                .diaSemana(dia)
+                .horaInicio(LocalTime.of(desde, 0))
+                .horaFin(LocalTime.of(hasta, 0))
+                .build();
+    }
+
+    @Test
+    void reemplazarHorario_ConFranjasSolapadas_DeberiaRechazarSinModificar() {
+        when(usuarioRepositorio.findById(10L)).thenReturn(Optional.of(new Usuario()));
+
+        ValidacionExcepcion error = assertThrows(ValidacionExcepcion.class, () -> disponibilidadServicio.reemplazarHorario(10L,
+                List.of(franja(DiaSemana.LUNES, 8, 12), franja(DiaSemana.MARTES, 8, 12), franja(DiaSemana.LUNES, 11, 14))));
+
+        assertEquals(List.of("franjas[2]"), List.copyOf(error.getErrores().keySet()));
+        verify(disponibilidadRepositorio, never()).eliminarPorVeterinario(any());
+        verifyNoInteractions(calendario);
+    }
+
+    @Test
+    void buscarHuecos_DeberiaAplicarValoresPorDefectoYNoConsultarElPasado() {
+        when(calendario.proximosHuecos(any(), anyInt(), anyInt(), isNull())).thenReturn(List.of());
+        LocalDateTime antes = LocalDateTime.now();
+
+        disponibilidadServicio.buscarHuecos(antes.minusDays(3), null, 500, null);
+
+        verify(calendario).proximosHuecos(argThat(desde -> !desde.isBefore(antes)),
+                eq(DisponibilidadVeterinarioServicio.DURACION_POR_DEFECTO),
+                eq(DisponibilidadVeterinarioServicio.CANTIDAD_MAXIMA), isNull());
+    }
+}
@@ -8,6 +8,7 @@ import com.nuclearvet.dominio.entidades.*;
 import com.nuclearvet.dominio.enumeraciones.EstadoFactura;
 import com.nuclearvet.dominio.servicios.FacturaServicio;
 import com.nuclearvet.infraestructura.persistencia.*;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -33,6 +34,9 @@ class FacturaServicioTest {
     @Mock
     private FacturaMapeador facturaMapeador;
 
+    @Mock
+    private ContadoresTablero contadores;
+
     @InjectMocks
     private FacturaServicio facturaServicio;
 
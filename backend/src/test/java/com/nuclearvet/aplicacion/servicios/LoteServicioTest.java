@@ -2,6 +2,9 @@ package com.nuclearvet.aplicacion.servicios;
 
 import com.nuclearvet.aplicacion.mapeadores.LoteMapeador;
 import com.nuclearvet.dominio.enumeraciones.EstadoLote;
+import com.nuclearvet.infraestructura.inventario.ColaFefoLotes;
+import com.nuclearvet.infraestructura.inventario.IndiceAlertasInventario;
+import com.nuclearvet.infraestructura.inventario.TransicionEstadosLotes;
 import com.nuclearvet.infraestructura.persistencia.LoteRepositorio;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +14,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -27,6 +31,12 @@ class LoteServicioTest {
     @Mock
     private AlertaInventarioServicio alertaServicio;
 
+    @Mock
+    private TransicionEstadosLotes transicionEstados;
+
+    @Mock
+    private ColaFefoLotes colaFefo;
+
     @InjectMocks
     private LoteServicio loteServicio;
 
@@ -67,4 +77,17 @@ class LoteServicioTest {
         loteServicio.listarPorProducto(productoId);
         verify(loteRepositorio, times(1)).findByProductoIdOrderByFechaVencimiento(productoId);
     }
+
+    @Test
+    void actualizarEstados_DeberiaGenerarAlertasDeLosLotesQueCambiaron() {
+        when(transicionEstados.aplicar(LocalDate.now()))
+                .thenReturn(new TransicionEstadosLotes.Resultado(1, List.of(3L), List.of(4L, 5L), 0));
+
+        loteServicio.actualizarEstados();
+
+        verify(alertaServicio).generarAlertasLotes(IndiceAlertasInventario.LOTE_VENCIDO, List.of(3L));
+        verify(alertaServicio).generarAlertasLotes(IndiceAlertasInventario.PROXIMO_VENCER, List.of(4L, 5L));
+        verify(colaFefo).invalidarTodas();
+        verifyNoInteractions(loteRepositorio);
+    }
 }
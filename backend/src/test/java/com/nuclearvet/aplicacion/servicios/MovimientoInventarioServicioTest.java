@@ -1,16 +1,31 @@
 package com.nuclearvet.aplicacion.servicios;
 
+import com.nuclearvet.aplicacion.dtos.CrearRecepcionInventarioDTO;
+import com.nuclearvet.aplicacion.dtos.LineaRecepcionDTO;
 import com.nuclearvet.aplicacion.mapeadores.MovimientoInventarioMapeador;
+import com.nuclearvet.compartido.excepciones.ValidacionExcepcion;
+import com.nuclearvet.dominio.entidades.MovimientoInventario;
+import com.nuclearvet.dominio.entidades.Producto;
+import com.nuclearvet.dominio.entidades.Usuario;
 import com.nuclearvet.dominio.enumeraciones.TipoMovimiento;
+import com.nuclearvet.infraestructura.inventario.RecepcionMercancia;
+import com.nuclearvet.infraestructura.numeracion.GeneradorNumeracion;
+import com.nuclearvet.infraestructura.persistencia.LoteRepositorio;
 import com.nuclearvet.infraestructura.persistencia.MovimientoInventarioRepositorio;
+import com.nuclearvet.infraestructura.persistencia.ProductoRepositorio;
+import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
+import com.nuclearvet.infraestructura.seguridad.UsuarioAutenticado;
+import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Arrays;
+import java.util.*;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,6 +37,27 @@ class MovimientoInventarioServicioTest {
     @Mock
     private MovimientoInventarioMapeador movimientoInventarioMapeador;
 
+    @Mock
+    private UsuarioRepositorio usuarioRepositorio;
+
+    @Mock
+    private ProductoRepositorio productoRepositorio;
+
+    @Mock
+    private LoteRepositorio loteRepositorio;
+
+    @Mock
+    private RecepcionMercancia recepcionMercancia;
+
+    @Mock
+    private GeneradorNumeracion generadorNumeracion;
+
+    @Mock
+    private AlertaInventarioServicio alertaServicio;
+
+    @Mock
+    private HttpServletRequest request;
+
     @InjectMocks
     private MovimientoInventarioServicio movimientoInventarioServicio;
 
@@ -55,4 +91,54 @@ class MovimientoInventarioServicioTest {
         movimientoInventarioServicio.listarRecientes(dias);
         verify(movimientoInventarioRepositorio, times(1)).findMovimientosRecientes(any());
     }
+
+    private LineaRecepcionDTO linea(Long productoId, String numeroLote, int cantidad) {
+        return LineaRecepcionDTO.builder().productoId(productoId).numeroLote(numeroLote).cantidad(cantidad).build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void registrarRecepcion_DeberiaSumarStockUnaVezYEncadenarElStockPorLinea() {
+        CrearRecepcionInventarioDTO dto = CrearRecepcionInventarioDTO.builder().numeroDocumento("REM-1")
+                .lineas(List.of(linea(1L, "A-1", 5), linea(2L, "B-1", 3), linea(1L, "A-2", 2))).build();
+        when(productoRepositorio.findIdsExistentes(any())).thenReturn(List.of(1L, 2L));
+        when(loteRepositorio.findNumerosLoteExistentes(any())).thenReturn(List.of());
+        when(request.getAttribute(UsuarioAutenticado.ATRIBUTO_USUARIO_ID)).thenReturn(9L);
+        when(usuarioRepositorio.getReferenceById(9L)).thenReturn(Usuario.builder().id(9L).build());
+        when(productoRepositorio.getReferenceById(anyLong()))
+                .thenAnswer(invocacion -> Producto.builder().id(invocacion.getArgument(0)).build());
+        when(recepcionMercancia.sumarStock(eq(Map.of(1L, 7, 2L, 3)), any())).thenReturn(Map.of(1L, 17, 2L, 3));
+        when(generadorNumeracion.siguiente(anyString(), any(), any())).thenReturn(1L, 2L, 3L);
+
+        movimientoInventarioServicio.registrarRecepcion(dto, request);
+
+        ArgumentCaptor<List<MovimientoInventario>> movimientos = ArgumentCaptor.forClass(List.class);
+        verify(recepcionMercancia).insertarLotes(anyList(), any());
+        verify(recepcionMercancia).insertarMovimientos(movimientos.capture(), any());
+        List<MovimientoInventario> registrados = movimientos.getValue();
+        assertEquals(3, registrados.size());
+        assertEquals(List.of(10, 0, 15), registrados.stream().map(MovimientoInventario::getStockAnterior).toList());
+        assertEquals(List.of(15, 3, 17), registrados.stream().map(MovimientoInventario::getStockNuevo).toList());
+        assertEquals("A-2", registrados.get(2).getLote().getNumeroLote());
+        verify(productoRepositorio, times(1)).findAllById(Set.of(1L, 2L));
+        verify(alertaServicio, never()).generarAlertasLotes(anyString(), anyList());
+        verify(usuarioRepositorio, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void registrarRecepcion_ConLineasInvalidas_NoDeberiaRegistrarNinguna() {
+        CrearRecepcionInventarioDTO dto = CrearRecepcionInventarioDTO.builder().numeroDocumento("REM-2")
+                .lineas(List.of(linea(1L, "A-1", 5), linea(3L, "B-1", 3), linea(1L, "A-1", 2), linea(1L, "C-1", 1)))
+                .build();
+        when(productoRepositorio.findIdsExistentes(any())).thenReturn(List.of(1L));
+        when(loteRepositorio.findNumerosLoteExistentes(any())).thenReturn(List.of("C-1"));
+
+        ValidacionExcepcion error = assertThrows(ValidacionExcepcion.class,
+                () -> movimientoInventarioServicio.registrarRecepcion(dto, request));
+
+        assertEquals(Set.of("lineas[1].productoId", "lineas[2].numeroLote", "lineas[3].numeroLote"),
+                error.getErrores().keySet());
+        assertEquals("Número de lote repetido en la línea 0", error.getErrores().get("lineas[2].numeroLote"));
+        verifyNoInteractions(recepcionMercancia, usuarioRepositorio);
+    }
 }
@@ -2,6 +2,7 @@ package com.nuclearvet.aplicacion.servicios;
 
 import com.nuclearvet.aplicacion.mapeadores.PacienteMapeador;
 import com.nuclearvet.infraestructura.persistencia.PacienteRepositorio;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -21,6 +22,9 @@ class PacienteServicioTest {
     @Mock
     private PacienteMapeador pacienteMapeador;
 
+    @Mock
+    private ContadoresTablero contadores;
+
     @InjectMocks
     private PacienteServicio pacienteServicio;
 
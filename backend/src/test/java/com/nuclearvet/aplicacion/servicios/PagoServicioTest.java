@@ -6,6 +6,7 @@ import com.nuclearvet.dominio.entidades.Pago;
 import com.nuclearvet.dominio.enumeraciones.MetodoPago;
 import com.nuclearvet.dominio.servicios.PagoServicio;
 import com.nuclearvet.infraestructura.persistencia.PagoRepositorio;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -30,6 +31,9 @@ class PagoServicioTest {
     @Mock
     private PagoMapeador pagoMapeador;
 
+    @Mock
+    private ContadoresTablero contadores;
+
     @InjectMocks
     private PagoServicio pagoServicio;
 
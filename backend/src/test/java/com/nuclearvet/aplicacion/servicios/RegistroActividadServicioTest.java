@@ -1,10 +1,10 @@
 package com.nuclearvet.aplicacion.servicios;
 
 import com.nuclearvet.aplicacion.mapeadores.UsuarioMapeador;
-import com.nuclearvet.dominio.entidades.Usuario;
 import com.nuclearvet.dominio.enums.TipoAccion;
+import com.nuclearvet.infraestructura.auditoria.EntradaActividad;
+import com.nuclearvet.infraestructura.auditoria.EscritorRegistroActividad;
 import com.nuclearvet.infraestructura.persistencia.RegistroActividadRepositorio;
-import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,8 +12,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Optional;
-
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,7 +21,7 @@ class RegistroActividadServicioTest {
     private RegistroActividadRepositorio registroActividadRepositorio;
 
     @Mock
-    private UsuarioRepositorio usuarioRepositorio;
+    private EscritorRegistroActividad escritorRegistroActividad;
 
     @Mock
     private UsuarioMapeador usuarioMapeador;
@@ -35,16 +33,22 @@ class RegistroActividadServicioTest {
     private RegistroActividadServicio registroActividadServicio;
 
     @Test
-    void registrarActividad_DeberiaGuardarRegistro() {
+    void registrarActividad_DeberiaEncolarRegistro() {
         Long usuarioId = 1L;
-        Usuario usuario = new Usuario();
-        usuario.setId(usuarioId);
         
-        when(usuarioRepositorio.findById(usuarioId)).thenReturn(Optional.of(usuario));
         when(httpServletRequest.getRemoteAddr()).thenReturn("127.0.0.1");
         
         registroActividadServicio.registrarActividad(usuarioId, TipoAccion.CREAR_USUARIO, "Test", httpServletRequest);
         
-        verify(registroActividadRepositorio, times(1)).save(any());
+        verify(escritorRegistroActividad, times(1)).registrar(argThat((EntradaActividad entrada) ->
+                usuarioId.equals(entrada.getUsuarioId()) && "127.0.0.1".equals(entrada.getIpOrigen())));
+        verifyNoInteractions(registroActividadRepositorio);
+    }
+
+    @Test
+    void registrarActividad_SinUsuarioNoDeberiaEncolar() {
+        registroActividadServicio.registrarActividad(null, TipoAccion.CREAR_CONSULTA, "Test", httpServletRequest);
+        
+        verifyNoInteractions(escritorRegistroActividad);
     }
 }
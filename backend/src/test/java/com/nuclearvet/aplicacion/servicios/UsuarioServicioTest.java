@@ -4,6 +4,8 @@ import com.nuclearvet.aplicacion.dtos.UsuarioDTO;
 import com.nuclearvet.aplicacion.mapeadores.UsuarioMapeador;
 import com.nuclearvet.dominio.entidades.Usuario;
 import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
+import com.nuclearvet.infraestructura.seguridad.CachePrincipales;
+import com.nuclearvet.infraestructura.seguridad.ListaRevocacionTokens;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -24,6 +26,15 @@ class UsuarioServicioTest {
     @Mock
     private UsuarioMapeador usuarioMapeador;
 
+    @Mock
+    private RegistroActividadServicio registroActividadServicio;
+
+    @Mock
+    private CachePrincipales cachePrincipales;
+
+    @Mock
+    private ListaRevocacionTokens listaRevocacionTokens;
+
     @InjectMocks
     private UsuarioServicio usuarioServicio;
 
@@ -63,4 +74,17 @@ class UsuarioServicioTest {
         usuarioServicio.buscarUsuariosPorNombre(nombre);
         verify(usuarioRepositorio, times(1)).buscarPorNombre(nombre);
     }
+
+    @Test
+    void desactivarUsuario_DeberiaInvalidarPrincipalYRevocarTokens() {
+        Usuario usuario = new Usuario();
+        usuario.setId(1L);
+        usuario.setCorreoElectronico("test@test.com");
+        when(usuarioRepositorio.findById(1L)).thenReturn(Optional.of(usuario));
+
+        usuarioServicio.desactivarUsuario(1L, null);
+
+        verify(cachePrincipales).invalidar("test@test.com");
+        verify(listaRevocacionTokens).revocarUsuario(1L);
+    }
 }
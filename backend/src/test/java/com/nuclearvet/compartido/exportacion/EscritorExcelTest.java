@@ -0,0 +1,77 @@
+package com.nuclearvet.compartido.exportacion;
+
+import com.nuclearvet.dominio.enumeraciones.EstadoFactura;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EscritorExcelTest {
+
+    private final EscritorExcel escritor = new EscritorExcel();
+
+    private static final List<ColumnaExcel<Object[]>> COLUMNAS = List.of(
+            ColumnaExcel.de("Número", fila -> fila[0]),
+            ColumnaExcel.de("Fecha", fila -> fila[1]),
+            ColumnaExcel.de("Total", fila -> fila[2]),
+            ColumnaExcel.de("Estado", fila -> fila[3]));
+
+    @Test
+    void respuesta_DeberiaEscribirEncabezadoYFilasTipadas() throws Exception {
+        Consumer<Consumer<Object[]>> productor = consumidor -> {
+            for (int i = 1; i <= 1000; i++) {
+                consumidor.accept(new Object[]{"FAC-" + i, LocalDate.of(2024, 1, 1).plusDays(i % 365),
+                        new BigDecimal("10.50").multiply(BigDecimal.valueOf(i)), i % 2 == 0 ? EstadoFactura.PAGADA : null});
+            }
+        };
+
+        ResponseEntity<StreamingResponseBody> respuesta = escritor.respuesta("facturas", COLUMNAS, productor);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        respuesta.getBody().writeTo(salida);
+
+        assertEquals(EscritorExcel.XLSX, respuesta.getHeaders().getContentType().toString());
+        assertTrue(respuesta.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).startsWith("attachment; filename=\"facturas-"));
+        try (XSSFWorkbook libro = new XSSFWorkbook(new ByteArrayInputStream(salida.toByteArray()))) {
+            Sheet hoja = libro.getSheet("facturas");
+            assertEquals(1000, hoja.getLastRowNum());
+            assertEquals("Número", hoja.getRow(0).getCell(0).getStringCellValue());
+
+            Row primera = hoja.getRow(1);
+            assertEquals("FAC-1", primera.getCell(0).getStringCellValue());
+            assertEquals(LocalDateTime.of(2024, 1, 2, 0, 0), primera.getCell(1).getLocalDateTimeCellValue());
+            assertEquals("yyyy-mm-dd", primera.getCell(1).getCellStyle().getDataFormatString());
+            assertEquals(CellType.NUMERIC, primera.getCell(2).getCellType());
+            assertEquals(10.5, primera.getCell(2).getNumericCellValue());
+            assertNull(primera.getCell(3));
+
+            assertEquals("PAGADA", hoja.getRow(1000).getCell(3).getStringCellValue());
+            assertEquals(10500.0, hoja.getRow(1000).getCell(2).getNumericCellValue());
+        }
+    }
+
+    @Test
+    void escribir_SinFilas_DeberiaDejarSoloElEncabezado() throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        long filas = escritor.escribir("citas", COLUMNAS, consumidor -> { }, salida);
+
+        assertEquals(0, filas);
+        try (XSSFWorkbook libro = new XSSFWorkbook(new ByteArrayInputStream(salida.toByteArray()))) {
+            assertEquals(0, libro.getSheet("citas").getLastRowNum());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.nuclearvet.compartido.paginacion;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaginaCursorTest {
+
+    @Test
+    void cursor_DeberiaCodificarYDecodificar() {
+        CursorPaginacion cursor = new CursorPaginacion(LocalDateTime.of(2025, 3, 1, 10, 30), 42L);
+
+        CursorPaginacion decodificado = CursorPaginacion.decodificar(cursor.codificar());
+
+        assertEquals(cursor.getFecha(), decodificado.getFecha());
+        assertEquals(42L, decodificado.getId());
+        assertSame(CursorPaginacion.INICIO, CursorPaginacion.decodificar(null));
+        assertThrows(IllegalArgumentException.class, () -> CursorPaginacion.decodificar("no-es-un-cursor"));
+    }
+
+    @Test
+    void de_DeberiaRecortarFilaExtraYGenerarSiguienteCursor() {
+        LocalDateTime fecha = LocalDateTime.of(2025, 3, 1, 10, 0);
+        List<Long> filas = List.of(5L, 4L, 3L);
+
+        PaginaCursor<Long> pagina = PaginaCursor.de(filas, 2, id -> new CursorPaginacion(fecha, id), Function.identity());
+
+        assertTrue(pagina.isHayMas());
+        assertEquals(List.of(5L, 4L), pagina.getElementos());
+        assertEquals(4L, CursorPaginacion.decodificar(pagina.getSiguienteCursor()).getId());
+
+        PaginaCursor<Long> ultima = PaginaCursor.de(List.of(1L), 2, id -> new CursorPaginacion(fecha, id), Function.identity());
+        assertFalse(ultima.isHayMas());
+        assertNull(ultima.getSiguienteCursor());
+    }
+}
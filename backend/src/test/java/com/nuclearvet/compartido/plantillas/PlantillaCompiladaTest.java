@@ -0,0 +1,61 @@
+package com.nuclearvet.compartido.plantillas;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlantillaCompiladaTest {
+
+    @Test
+    void renderizar_DeberiaSustituirVariablesEnUnaPasada() {
+        PlantillaCompilada plantilla = PlantillaCompilada.compilar("Hola {{nombre}}, su cita es el {{fecha}}.");
+
+        String resultado = plantilla.renderizar(Map.of("nombre", "Ana", "fecha", "15/03/2025"));
+
+        assertEquals("Hola Ana, su cita es el 15/03/2025.", resultado);
+    }
+
+    @Test
+    void renderizar_DeberiaConservarVariablesSinValorYVaciarNulos() {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("nulo", null);
+
+        String resultado = PlantillaCompilada.compilar("[{{faltante}}][{{nulo}}][{{ incompleta").renderizar(variables);
+
+        assertEquals("[{{faltante}}][][{{ incompleta", resultado);
+    }
+
+    @Test
+    void renderizar_DeberiaCoincidirConReemplazoSucesivoEnAperturasRepetidas() {
+        String resultado = PlantillaCompilada.compilar("{{{{a}} y {{{b}}").renderizar(Map.of("a", "1", "b", "2"));
+
+        assertEquals("{{1 y {2", resultado);
+    }
+
+    @Test
+    void renderizar_NoDeberiaSustituirVariablesDentroDeLosValores() {
+        String resultado = PlantillaCompilada.compilar("{{a}}-{{b}}").renderizar(Map.of("a", "{{b}}", "b", "x"));
+
+        assertEquals("{{b}}-x", resultado);
+    }
+
+    @Test
+    void renderizar_DeberiaDevolverVacioParaTextoNulo() {
+        assertEquals("", PlantillaCompilada.compilar(null).renderizar(Map.of("a", "1")));
+    }
+
+    @Test
+    void renderizarLote_DeberiaRenderizarCadaJuegoDeVariables() {
+        PlantillaCompilada plantilla = PlantillaCompilada.compilar("{{mascota}} - {{hora}}");
+
+        List<String> resultados = plantilla.renderizarLote(List.of(
+                Map.of("mascota", "Rocky", "hora", "10:00"),
+                Map.of("mascota", "Luna", "hora", "10:30")));
+
+        assertEquals(List.of("Rocky - 10:00", "Luna - 10:30"), resultados);
+    }
+}
@@ -0,0 +1,64 @@
+package com.nuclearvet.compartido.transacciones;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransaccionUtilTest {
+
+    private final List<String> ejecutadas = new ArrayList<>();
+
+    @AfterEach
+    void limpiar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void sinTransaccion_DeberiaConfirmarDeInmediatoYNoRevertirNiTerminar() {
+        TransaccionUtil.despuesDeConfirmar(() -> ejecutadas.add("confirmar"));
+        TransaccionUtil.siSeRevierte(() -> ejecutadas.add("revertir"));
+        TransaccionUtil.alTerminar(() -> ejecutadas.add("terminar"));
+
+        assertEquals(List.of("confirmar"), ejecutadas);
+    }
+
+    @Test
+    void alConfirmar_DeberiaEjecutarConfirmarYTerminar() {
+        registrarTodas();
+        assertEquals(List.of(), ejecutadas);
+
+        completar(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(List.of("confirmar", "terminar"), ejecutadas);
+    }
+
+    @Test
+    void alRevertir_DeberiaEjecutarRevertirYTerminar() {
+        registrarTodas();
+
+        completar(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(List.of("revertir", "terminar"), ejecutadas);
+    }
+
+    private void registrarTodas() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransaccionUtil.despuesDeConfirmar(() -> ejecutadas.add("confirmar"));
+        TransaccionUtil.siSeRevierte(() -> ejecutadas.add("revertir"));
+        TransaccionUtil.alTerminar(() -> ejecutadas.add("terminar"));
+    }
+
+    private static void completar(int estado) {
+        List<TransactionSynchronization> sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+        if (estado == TransactionSynchronization.STATUS_COMMITTED) {
+            sincronizaciones.forEach(TransactionSynchronization::afterCommit);
+        }
+        sincronizaciones.forEach(s -> s.afterCompletion(estado));
+    }
+}
@@ -2,6 +2,7 @@ package com.nuclearvet.dominio.servicios;
 
 import com.nuclearvet.aplicacion.mapeadores.ConfiguracionClinicaMapeador;
 import com.nuclearvet.dominio.entidades.ConfiguracionClinica;
+import com.nuclearvet.infraestructura.pdf.RecursosPdf;
 import com.nuclearvet.infraestructura.persistencia.ConfiguracionClinicaRepositorio;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,6 +23,9 @@ class ConfiguracionClinicaServicioTest {
     @Mock
     private ConfiguracionClinicaMapeador configuracionMapeador;
 
+    @Mock
+    private RecursosPdf recursosPdf;
+
     @InjectMocks
     private ConfiguracionClinicaServicio configuracionClinicaServicio;
 
@@ -3,6 +3,7 @@ package com.nuclearvet.dominio.servicios;
 import com.nuclearvet.aplicacion.mapeadores.HistorialCorreoMapeador;
 import com.nuclearvet.dominio.enumeraciones.EstadoCorreo;
 import com.nuclearvet.infraestructura.persistencia.HistorialCorreoRepositorio;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -22,6 +23,9 @@ class HistorialCorreoServicioTest {
     @Mock
     private HistorialCorreoMapeador historialCorreoMapeador;
 
+    @Mock
+    private ContadoresTablero contadores;
+
     @InjectMocks
     private HistorialCorreoServicio historialCorreoServicio;
 
@@ -4,6 +4,7 @@ import com.nuclearvet.aplicacion.mapeadores.NotificacionMapeador;
 import com.nuclearvet.dominio.enumeraciones.PrioridadNotificacion;
 import com.nuclearvet.dominio.enumeraciones.TipoNotificacion;
 import com.nuclearvet.infraestructura.persistencia.NotificacionRepositorio;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -23,6 +24,9 @@ class NotificacionServicioTest {
     @Mock
     private NotificacionMapeador notificacionMapeador;
 
+    @Mock
+    private ContadoresTablero contadores;
+
     @InjectMocks
     private NotificacionServicio notificacionServicio;
 
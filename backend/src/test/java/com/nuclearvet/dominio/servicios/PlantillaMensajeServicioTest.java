@@ -0,0 +1,83 @@
+package com.nuclearvet.dominio.servicios;
+
+import com.nuclearvet.aplicacion.dto.notificaciones.ActualizarPlantillaDTO;
+import com.nuclearvet.aplicacion.mapeadores.PlantillaMensajeMapeador;
+import com.nuclearvet.dominio.entidades.PlantillaMensaje;
+import com.nuclearvet.infraestructura.persistencia.PlantillaMensajeRepositorio;
+import com.nuclearvet.infraestructura.plantillas.CachePlantillasCompiladas;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PlantillaMensajeServicioTest {
+
+    @Mock
+    private PlantillaMensajeRepositorio plantillaRepositorio;
+
+    @Mock
+    private PlantillaMensajeMapeador plantillaMapeador;
+
+    @Spy
+    private CachePlantillasCompiladas cachePlantillas = new CachePlantillasCompiladas();
+
+    @InjectMocks
+    private PlantillaMensajeServicio plantillaServicio;
+
+    private PlantillaMensaje plantilla(String contenido) {
+        return PlantillaMensaje.builder().id(1L).nombre("Recordatorio").asunto("Cita de {{mascota}}")
+                .contenido(contenido).activo(true).build();
+    }
+
+    @Test
+    void renderizar_DeberiaConsultarLaPlantillaUnaSolaVez() {
+        when(plantillaRepositorio.findById(1L)).thenReturn(Optional.of(plantilla("Hola {{nombre}}")));
+
+        assertEquals("Hola Ana", plantillaServicio.renderizar(1L, Map.of("nombre", "Ana")));
+        assertEquals("Hola Luis", plantillaServicio.renderizar(1L, Map.of("nombre", "Luis")));
+        assertEquals("Cita de Rocky", plantillaServicio.renderizarAsunto(1L, Map.of("mascota", "Rocky")));
+        assertEquals(List.of("Hola A", "Hola B"),
+                plantillaServicio.renderizarLote(1L, List.of(Map.of("nombre", "A"), Map.of("nombre", "B"))));
+
+        verify(plantillaRepositorio, times(1)).findById(1L);
+    }
+
+    @Test
+    void actualizar_DeberiaInvalidarLaPlantillaCompilada() {
+        PlantillaMensaje plantilla = plantilla("Hola {{nombre}}");
+        when(plantillaRepositorio.findById(1L)).thenReturn(Optional.of(plantilla));
+        when(plantillaRepositorio.save(any(PlantillaMensaje.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+        ActualizarPlantillaDTO dto = new ActualizarPlantillaDTO();
+        doAnswer(invocacion -> {
+            plantilla.setContenido("Adiós {{nombre}}");
+            return null;
+        }).when(plantillaMapeador).actualizarEntidad(dto, plantilla);
+
+        assertEquals("Hola Ana", plantillaServicio.renderizar(1L, Map.of("nombre", "Ana")));
+        plantillaServicio.actualizar(1L, dto);
+
+        assertEquals("Adiós Ana", plantillaServicio.renderizar(1L, Map.of("nombre", "Ana")));
+        verify(cachePlantillas).invalidar(1L);
+    }
+
+    @Test
+    void desactivar_DeberiaInvalidarLaPlantillaCompilada() {
+        when(plantillaRepositorio.findById(1L)).thenReturn(Optional.of(plantilla("Hola")));
+        when(plantillaRepositorio.save(any(PlantillaMensaje.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+
+        plantillaServicio.desactivar(1L);
+
+        verify(cachePlantillas).invalidar(1L);
+    }
+}
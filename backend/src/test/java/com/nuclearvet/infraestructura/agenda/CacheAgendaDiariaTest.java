@@ -0,0 +1,104 @@
+package com.nuclearvet.infraestructura.agenda;
+
+import com.nuclearvet.aplicacion.dtos.CitaDTO;
+import com.nuclearvet.dominio.enums.EstadoCita;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CacheAgendaDiariaTest {
+
+    private final LocalDate hoy = LocalDate.now();
+    private final AtomicInteger cargas = new AtomicInteger();
+    private CacheAgendaDiaria cache;
+
+    @BeforeEach
+    void configurar() {
+        cache = new CacheAgendaDiaria(mock(PlatformTransactionManager.class), 600);
+    }
+
+    @AfterEach
+    void limpiar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Supplier<List<CitaDTO>> cargador(EstadoCita estado) {
+        return () -> {
+            cargas.incrementAndGet();
+            return List.of(CitaDTO.builder().id(1L).estado(estado).build());
+        };
+    }
+
+    @Test
+    void obtener_DeberiaReutilizarLaInstantaneaMientrasNoCambieLaAgenda() {
+        CacheAgendaDiaria.Instantanea<CitaDTO> primera = cache.obtener(hoy, 10L, cargador(EstadoCita.PENDIENTE));
+        CacheAgendaDiaria.Instantanea<CitaDTO> segunda = cache.obtener(hoy, 10L, cargador(EstadoCita.PENDIENTE));
+
+        assertSame(primera, segunda);
+        assertEquals(1, cargas.get());
+        assertThrows(UnsupportedOperationException.class, () -> primera.getCitas().clear());
+    }
+
+    @Test
+    void invalidar_DeberiaDescartarLaAgendaDelVeterinarioYLaGeneralSoloAlConfirmar() {
+        CacheAgendaDiaria.Instantanea<CitaDTO> veterinario = cache.obtener(hoy, 10L, cargador(EstadoCita.PENDIENTE));
+        cache.obtener(hoy, null, cargador(EstadoCita.PENDIENTE));
+        cache.obtener(hoy, 20L, cargador(EstadoCita.PENDIENTE));
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidar(hoy, 10L);
+        cache.obtener(hoy, 10L, cargador(EstadoCita.CONFIRMADA));
+        assertEquals(3, cargas.get());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        CacheAgendaDiaria.Instantanea<CitaDTO> recargada = cache.obtener(hoy, 10L, cargador(EstadoCita.CONFIRMADA));
+        cache.obtener(hoy, null, cargador(EstadoCita.CONFIRMADA));
+        cache.obtener(hoy, 20L, cargador(EstadoCita.CONFIRMADA));
+        assertEquals(5, cargas.get());
+        assertNotEquals(veterinario.getEtag(), recargada.getEtag());
+        assertEquals(EstadoCita.CONFIRMADA, recargada.getCitas().get(0).getEstado());
+    }
+
+    @Test
+    void obtener_NoDeberiaGuardarUnaCargaQueCoincidioConUnaInvalidacion() {
+        cache.obtener(hoy, 10L, () -> {
+            cargas.incrementAndGet();
+            // La cita se confirma mientras se lee la agenda anterior
+            cache.invalidar(hoy, 10L);
+            return List.of(CitaDTO.builder().id(1L).estado(EstadoCita.PENDIENTE).build());
+        });
+
+        CacheAgendaDiaria.Instantanea<CitaDTO> siguiente = cache.obtener(hoy, 10L, cargador(EstadoCita.CONFIRMADA));
+
+        assertEquals(2, cargas.get());
+        assertEquals(EstadoCita.CONFIRMADA, siguiente.getCitas().get(0).getEstado());
+    }
+
+    @Test
+    void obtener_AlVencer_DeberiaConservarLaEtagSiLaAgendaNoCambio() {
+        cache = new CacheAgendaDiaria(mock(PlatformTransactionManager.class), 0);
+
+        String etag = cache.obtener(hoy, null, cargador(EstadoCita.PENDIENTE)).getEtag();
+        String mismaAgenda = cache.obtener(hoy, null, cargador(EstadoCita.PENDIENTE)).getEtag();
+        String agendaCambiada = cache.obtener(hoy, null, cargador(EstadoCita.CANCELADA)).getEtag();
+
+        assertEquals(3, cargas.get());
+        assertEquals(etag, mismaAgenda);
+        assertNotEquals(etag, agendaCambiada);
+    }
+}
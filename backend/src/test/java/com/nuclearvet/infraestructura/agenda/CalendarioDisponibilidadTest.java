@@ -0,0 +1,96 @@
+package com.nuclearvet.infraestructura.agenda;
+
+import com.nuclearvet.dominio.enums.DiaSemana;
+import com.nuclearvet.infraestructura.persistencia.CitaRepositorio;
+import com.nuclearvet.infraestructura.persistencia.DisponibilidadVeterinarioRepositorio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CalendarioDisponibilidadTest {
+
+    @Mock
+    private CitaRepositorio citaRepositorio;
+
+    @Mock
+    private DisponibilidadVeterinarioRepositorio disponibilidadRepositorio;
+
+    private IndiceDisponibilidadVeterinario indice;
+    private CalendarioDisponibilidad calendario;
+
+    private final LocalDate lunes = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    @BeforeEach
+    void configurar() {
+        // Dra. Ruiz atiende los lunes de 8 a 12 y tiene una cita de 8 a 10; Dr. Gil atiende los lunes de 9 a 10
+        when(citaRepositorio.findIntervalosActivosDesde(any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 10L, lunes.atTime(8, 0), 120}));
+        when(disponibilidadRepositorio.findFranjasActivas()).thenReturn(List.<Object[]>of(
+                new Object[]{10L, "Dra. Ruiz", DiaSemana.LUNES.getNumero(), LocalTime.of(8, 0), LocalTime.of(12, 0)},
+                new Object[]{20L, "Dr. Gil", DiaSemana.LUNES.getNumero(), LocalTime.of(9, 0), LocalTime.of(10, 0)}));
+
+        indice = new IndiceDisponibilidadVeterinario(citaRepositorio);
+        indice.precargar();
+        calendario = new CalendarioDisponibilidad(disponibilidadRepositorio, indice);
+        ReflectionTestUtils.setField(calendario, "pasoMinutos", 15);
+        ReflectionTestUtils.setField(calendario, "diasMaximos", 60);
+        calendario.cargarHorarios();
+    }
+
+    private List<String> resumen(List<CalendarioDisponibilidad.Hueco> huecos) {
+        return huecos.stream()
+                .map(h -> h.getVeterinarioId() + "@" + h.getInicio().toLocalTime())
+                .toList();
+    }
+
+    @Test
+    void proximosHuecos_DeberiaCombinarHorarioYCitasDeTodosLosVeterinarios() {
+        List<CalendarioDisponibilidad.Hueco> huecos = calendario.proximosHuecos(lunes.atStartOfDay(), 30, 4, null);
+
+        assertEquals(List.of("20@09:00", "20@09:15", "20@09:30", "10@10:00"), resumen(huecos));
+        assertEquals(lunes.atTime(10, 30), huecos.get(3).getFin());
+        assertEquals("Dra. Ruiz", huecos.get(3).getVeterinarioNombre());
+    }
+
+    @Test
+    void proximosHuecos_DeberiaEmpezarEnElPrimerBloqueLibreDespuesDeLaHoraIndicada() {
+        assertEquals(List.of("10@10:10", "10@10:25"),
+                resumen(calendario.proximosHuecos(lunes.atTime(10, 7), 30, 2, 10L)));
+    }
+
+    @Test
+    void proximosHuecos_DeberiaReflejarReservasYCancelaciones() {
+        indice.reservar(20L, lunes.atTime(9, 0), lunes.atTime(9, 30));
+        assertEquals(List.of("20@09:30", "10@10:00", "10@10:15", "10@10:30"),
+                resumen(calendario.proximosHuecos(lunes.atStartOfDay(), 30, 4, null)));
+
+        indice.liberar(10L, 1L);
+        assertEquals(List.of("10@08:00", "10@08:15", "10@08:30", "10@08:45"),
+                resumen(calendario.proximosHuecos(lunes.atStartOfDay(), 30, 4, null)));
+    }
+
+    @Test
+    void proximosHuecos_SinEspacioSuficiente_DeberiaPasarAlSiguienteDiaConHorario() {
+        List<CalendarioDisponibilidad.Hueco> huecos = calendario.proximosHuecos(lunes.atStartOfDay(), 150, 1, null);
+
+        assertEquals(1, huecos.size());
+        assertEquals(lunes.plusWeeks(1).atTime(8, 0), huecos.get(0).getInicio());
+        assertEquals(10L, huecos.get(0).getVeterinarioId());
+        assertTrue(calendario.proximosHuecos(lunes.atStartOfDay(), 90, 3, 20L).isEmpty());
+    }
+}
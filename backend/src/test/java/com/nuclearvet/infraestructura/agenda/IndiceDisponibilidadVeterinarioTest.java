@@ -0,0 +1,75 @@
+package com.nuclearvet.infraestructura.agenda;
+
+import com.nuclearvet.infraestructura.persistencia.CitaRepositorio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndiceDisponibilidadVeterinarioTest {
+
+    @Mock
+    private CitaRepositorio citaRepositorio;
+
+    @InjectMocks
+    private IndiceDisponibilidadVeterinario indice;
+
+    private final LocalDateTime manana = LocalDate.now().plusDays(1).atTime(8, 0);
+
+    @BeforeEach
+    void precargar() {
+        List<Object[]> filas = Collections.singletonList(new Object[]{1L, 10L, manana, 120});
+        when(citaRepositorio.findIntervalosActivosDesde(any(), any())).thenReturn(filas);
+        indice.precargar();
+    }
+
+    @Test
+    void reservar_DeberiaDetectarSolapamientoConCitaLarga() {
+        assertEquals(IndiceDisponibilidadVeterinario.Resultado.OCUPADO,
+                indice.reservar(10L, manana.plusMinutes(90), manana.plusMinutes(120)).getResultado());
+        assertEquals(IndiceDisponibilidadVeterinario.Resultado.RESERVADO,
+                indice.reservar(10L, manana.plusMinutes(120), manana.plusMinutes(150)).getResultado());
+        assertEquals(IndiceDisponibilidadVeterinario.Resultado.RESERVADO,
+                indice.reservar(20L, manana, manana.plusMinutes(30)).getResultado());
+    }
+
+    @Test
+    void liberar_DeberiaDejarLibreElIntervalo() {
+        indice.liberar(10L, 1L);
+        assertEquals(IndiceDisponibilidadVeterinario.Resultado.RESERVADO,
+                indice.reservar(10L, manana.plusMinutes(30), manana.plusMinutes(60)).getResultado());
+    }
+
+    @Test
+    void reservar_FueraDelHorizonteDeberiaIndicarSinCobertura() {
+        assertEquals(IndiceDisponibilidadVeterinario.Resultado.SIN_COBERTURA,
+                indice.reservar(10L, manana.minusYears(1), manana.minusYears(1).plusMinutes(30)).getResultado());
+    }
+
+    @Test
+    void bloquesOcupados_DeberiaActualizarseConCadaReserva() {
+        BitSet antes = indice.bloquesOcupados(10L, manana.toLocalDate());
+        assertEquals(24, antes.cardinality());
+        assertEquals(8 * 12, antes.nextSetBit(0));
+
+        indice.reservar(10L, manana.plusMinutes(150), manana.plusMinutes(157));
+
+        BitSet despues = indice.bloquesOcupados(10L, manana.toLocalDate());
+        assertEquals(26, despues.cardinality());
+        assertTrue(despues.get(8 * 12 + 30) && despues.get(8 * 12 + 31));
+        assertEquals(0, indice.bloquesOcupados(20L, manana.toLocalDate()).cardinality());
+    }
+}
@@ -0,0 +1,73 @@
+package com.nuclearvet.infraestructura.archivos;
+
+import com.nuclearvet.infraestructura.persistencia.ArchivoMedicoRepositorio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CalculoHuellasPendientesTest {
+
+    @TempDir
+    Path directorio;
+
+    private final ArchivoMedicoRepositorio repositorio = mock(ArchivoMedicoRepositorio.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private CalculoHuellasPendientes calculo;
+
+    @BeforeEach
+    void configurar() {
+        calculo = new CalculoHuellasPendientes(repositorio, transactionManager, 10);
+    }
+
+    @AfterEach
+    void detener() {
+        calculo.detener();
+    }
+
+    @Test
+    void programar_DeberiaRegistrarLaHuellaEnSuPropiaTransaccion() throws Exception {
+        Path ruta = Files.writeString(directorio.resolve("examen.pdf"), "contenido");
+        CountDownLatch registrada = new CountDownLatch(1);
+        when(repositorio.registrarHash(eq(7L), any())).thenAnswer(invocacion -> {
+            registrada.countDown();
+            return 1;
+        });
+
+        calculo.programar(7L, ruta);
+
+        assertTrue(registrada.await(5, TimeUnit.SECONDS));
+        verify(repositorio).registrarHash(7L, EntregaArchivos.huella(ruta));
+        verify(transactionManager, timeout(5_000)).commit(any());
+    }
+
+    @Test
+    void programar_VariasDescargasMientrasSeCalcula_DeberiaCalcularUnaSolaVez() throws Exception {
+        Path ruta = Files.writeString(directorio.resolve("examen.pdf"), "contenido");
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(repositorio.registrarHash(eq(7L), any())).thenAnswer(invocacion -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+
+        calculo.programar(7L, ruta);
+        calculo.programar(7L, ruta);
+        calculo.programar(7L, ruta);
+        liberar.countDown();
+
+        verify(transactionManager, timeout(5_000)).commit(any());
+        calculo.detener();
+        verify(repositorio, times(1)).registrarHash(eq(7L), any());
+    }
+}
@@ -0,0 +1,167 @@
+package com.nuclearvet.infraestructura.archivos;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntregaArchivosTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @TempDir
+    Path directorio;
+
+    private final EntregaArchivos entrega = new EntregaArchivos(3600);
+    private Path archivo;
+    private byte[] contenido;
+    private String hash;
+
+    @BeforeEach
+    void crearArchivo() throws Exception {
+        contenido = new byte[10_000];
+        for (int i = 0; i < contenido.length; i++) {
+            contenido[i] = (byte) i;
+        }
+        archivo = Files.write(directorio.resolve("radiografia.png"), contenido);
+        hash = EntregaArchivos.huella(archivo);
+    }
+
+    private ResponseEntity<StreamingResponseBody> entregar(HttpHeaders solicitud) {
+        return entrega.entregar(solicitud, archivo, hash, "radiografia.png", MediaType.IMAGE_PNG);
+    }
+
+    private static byte[] cuerpo(ResponseEntity<StreamingResponseBody> respuesta) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        respuesta.getBody().writeTo(salida);
+        return salida.toByteArray();
+    }
+
+    @Test
+    void entregar_SinRango_DeberiaEnviarArchivoCompletoConCabecerasDeCache() throws Exception {
+        ResponseEntity<StreamingResponseBody> respuesta = entregar(new HttpHeaders());
+
+        assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+        assertEquals("\"" + hash + "\"", respuesta.getHeaders().getETag());
+        assertEquals("bytes", respuesta.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(10_000, respuesta.getHeaders().getContentLength());
+        assertTrue(respuesta.getHeaders().getCacheControl().contains("private"));
+        assertArrayEquals(contenido, cuerpo(respuesta));
+    }
+
+    @Test
+    void entregar_ConRango_DeberiaEnviarSoloEsosBytes() throws Exception {
+        HttpHeaders solicitud = new HttpHeaders();
+        solicitud.set(HttpHeaders.RANGE, "bytes=1000-1999");
+
+        ResponseEntity<StreamingResponseBody> respuesta = entregar(solicitud);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, respuesta.getStatusCode());
+        assertEquals("bytes 1000-1999/10000", respuesta.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(1000, respuesta.getHeaders().getContentLength());
+        assertArrayEquals(Arrays.copyOfRange(contenido, 1000, 2000), cuerpo(respuesta));
+
+        solicitud.set(HttpHeaders.RANGE, "bytes=-500");
+        assertArrayEquals(Arrays.copyOfRange(contenido, 9500, 10_000), cuerpo(entregar(solicitud)));
+    }
+
+    @Test
+    void entregar_ConEtagVigente_DeberiaResponderNoModificado() {
+        HttpHeaders solicitud = new HttpHeaders();
+        solicitud.setIfNoneMatch("\"" + hash + "\"");
+
+        ResponseEntity<StreamingResponseBody> respuesta = entregar(solicitud);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, respuesta.getStatusCode());
+        assertNull(respuesta.getBody());
+    }
+
+    @Test
+    void entregar_ConIfRangeDeOtraVersion_DeberiaEnviarArchivoCompleto() throws Exception {
+        HttpHeaders solicitud = new HttpHeaders();
+        solicitud.set(HttpHeaders.RANGE, "bytes=0-9");
+        solicitud.set(HttpHeaders.IF_RANGE, "\"otra-version\"");
+
+        ResponseEntity<StreamingResponseBody> respuesta = entregar(solicitud);
+
+        assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+        assertEquals(10_000, cuerpo(respuesta).length);
+    }
+
+    @Test
+    void entregar_SinHuellaTodavia_DeberiaUsarEtagDebilSoloParaGetCondicional() throws Exception {
+        ResponseEntity<StreamingResponseBody> primera =
+                entrega.entregar(new HttpHeaders(), archivo, null, "radiografia.png", MediaType.IMAGE_PNG);
+        String etag = primera.getHeaders().getETag();
+        assertTrue(etag.startsWith("W/\""), etag);
+
+        HttpHeaders condicional = new HttpHeaders();
+        condicional.setIfNoneMatch(etag);
+        assertEquals(HttpStatus.NOT_MODIFIED,
+                entrega.entregar(condicional, archivo, null, "radiografia.png", MediaType.IMAGE_PNG).getStatusCode());
+
+        HttpHeaders reanudar = new HttpHeaders();
+        reanudar.set(HttpHeaders.RANGE, "bytes=0-9");
+        reanudar.set(HttpHeaders.IF_RANGE, etag);
+        ResponseEntity<StreamingResponseBody> completa =
+                entrega.entregar(reanudar, archivo, null, "radiografia.png", MediaType.IMAGE_PNG);
+        assertEquals(HttpStatus.OK, completa.getStatusCode());
+        assertEquals(10_000, cuerpo(completa).length);
+    }
+
+    @Test
+    void entregar_ConRangoFueraDelArchivo_DeberiaResponder416() {
+        HttpHeaders solicitud = new HttpHeaders();
+        solicitud.set(HttpHeaders.RANGE, "bytes=20000-");
+
+        ResponseEntity<StreamingResponseBody> respuesta = entregar(solicitud);
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, respuesta.getStatusCode());
+        assertEquals("bytes */10000", respuesta.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void entregar_ArchivoDeCientosDeMegas_NoDeberiaCrecerElHeap() throws Exception {
+        Path grande = directorio.resolve("ecografia.mp4");
+        try (RandomAccessFile disperso = new RandomAccessFile(grande.toFile(), "rw")) {
+            disperso.setLength(400 * MB);
+        }
+        ResponseEntity<StreamingResponseBody> respuesta =
+                entrega.entregar(new HttpHeaders(), grande, "h", "ecografia.mp4", MediaType.APPLICATION_OCTET_STREAM);
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long base = runtime.totalMemory() - runtime.freeMemory();
+        long[] maximo = {base};
+        long[] escritos = {0};
+        OutputStream contador = new OutputStream() {
+            @Override
+            public void write(int b) {
+                escritos[0]++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                escritos[0] += len;
+                maximo[0] = Math.max(maximo[0], runtime.totalMemory() - runtime.freeMemory());
+            }
+        };
+        respuesta.getBody().writeTo(contador);
+
+        assertEquals(400 * MB, escritos[0]);
+        assertTrue(maximo[0] - base < 64 * MB, "El heap creció " + (maximo[0] - base) / MB + " MB");
+    }
+}
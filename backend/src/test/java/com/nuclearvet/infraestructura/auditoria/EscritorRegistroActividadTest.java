@@ -0,0 +1,106 @@
+package com.nuclearvet.infraestructura.auditoria;
+
+import com.nuclearvet.dominio.enums.TipoAccion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EscritorRegistroActividadTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path directorio;
+
+    private final EntradaActividad entrada = EntradaActividad.builder()
+            .usuarioId(1L)
+            .tipoAccion(TipoAccion.CREAR_CITA)
+            .descripcion("Cita creada:\tCIT-1\nsegunda línea")
+            .ipOrigen("127.0.0.1")
+            .fechaHora(LocalDateTime.of(2025, 1, 15, 10, 30))
+            .build();
+
+    @Test
+    void registrar_DeberiaEscribirEnLoteAlDetener() {
+        EscritorRegistroActividad escritor = new EscritorRegistroActividad(jdbcTemplate, transactionManager, 10, 10, 60_000, "");
+        escritor.iniciar();
+
+        escritor.registrar(entrada);
+        escritor.registrar(entrada);
+        escritor.detener();
+
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(anyString(), anyList(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(2L, escritor.obtenerEstadisticas().get("escritas"));
+    }
+
+    @Test
+    void registrar_ConEscritorDetenidoYBaseDeDatosCaida_DeberiaGuardarEnDiario() throws Exception {
+        Path diario = directorio.resolve("actividad.diario");
+        when(jdbcTemplate.update(anyString(), any(), any(), any(), any(), any()))
+                .thenThrow(new DataAccessResourceFailureException("sin conexión"));
+        EscritorRegistroActividad escritor = new EscritorRegistroActividad(jdbcTemplate, transactionManager, 10, 10, 60_000, diario.toString());
+
+        escritor.registrar(entrada);
+
+        List<String> lineas = Files.readAllLines(diario);
+        assertEquals(1, lineas.size());
+        assertEquals(entrada, EscritorRegistroActividad.deserializar(lineas.get(0)));
+    }
+
+    @Test
+    void detener_DeberiaGuardarEnDiarioLoPendienteSiLaBaseDeDatosFalla() throws Exception {
+        Path diario = directorio.resolve("actividad.diario");
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("sin conexión"));
+        EscritorRegistroActividad escritor = new EscritorRegistroActividad(jdbcTemplate, transactionManager, 10, 10, 60_000, diario.toString());
+        escritor.iniciar();
+
+        escritor.registrar(entrada);
+        escritor.registrar(entrada);
+        escritor.detener();
+
+        List<String> lineas = Files.readAllLines(diario);
+        assertEquals(2, lineas.size());
+        assertEquals(entrada, EscritorRegistroActividad.deserializar(lineas.get(1)));
+    }
+
+    @Test
+    void iniciar_DeberiaReprocesarElDiarioYUnReprocesoInterrumpido() throws Exception {
+        Path diario = directorio.resolve("actividad.diario");
+        Path procesando = directorio.resolve("actividad.diario.procesando");
+        String linea = EscritorRegistroActividad.serializar(entrada);
+        Files.write(diario, List.of(linea));
+        Files.write(procesando, List.of(linea, linea));
+        EscritorRegistroActividad escritor = new EscritorRegistroActividad(jdbcTemplate, transactionManager, 10, 10, 60_000, diario.toString());
+
+        escritor.iniciar();
+        escritor.detener();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(3L, escritor.obtenerEstadisticas().get("escritas"));
+        assertFalse(Files.exists(diario));
+        assertFalse(Files.exists(procesando));
+    }
+}
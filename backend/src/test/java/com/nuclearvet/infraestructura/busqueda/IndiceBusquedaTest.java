@@ -0,0 +1,149 @@
+package com.nuclearvet.infraestructura.busqueda;
+
+import com.nuclearvet.dominio.entidades.Paciente;
+import com.nuclearvet.dominio.entidades.Producto;
+import com.nuclearvet.dominio.entidades.Propietario;
+import com.nuclearvet.dominio.enumeraciones.TipoResultadoBusqueda;
+import com.nuclearvet.dominio.enums.Especie;
+import com.nuclearvet.dominio.enums.EstadoPaciente;
+import com.nuclearvet.infraestructura.persistencia.PacienteRepositorio;
+import com.nuclearvet.infraestructura.persistencia.ProductoRepositorio;
+import com.nuclearvet.infraestructura.persistencia.PropietarioRepositorio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndiceBusquedaTest {
+
+    private static final Set<TipoResultadoBusqueda> TODOS = EnumSet.noneOf(TipoResultadoBusqueda.class);
+
+    @Mock
+    private PacienteRepositorio pacienteRepositorio;
+
+    @Mock
+    private PropietarioRepositorio propietarioRepositorio;
+
+    @Mock
+    private ProductoRepositorio productoRepositorio;
+
+    private IndiceBusqueda indice;
+
+    @BeforeEach
+    void configurar() {
+        when(pacienteRepositorio.findCamposBusqueda()).thenReturn(List.<Object[]>of(
+                new Object[]{1L, "Luna", "PAC000001", "985112003456789", Especie.CANINO, EstadoPaciente.ACTIVO, "María", "Gómez"},
+                new Object[]{2L, "Lunático", "PAC000002", null, Especie.FELINO, EstadoPaciente.FALLECIDO, "Andrés", "Peña"},
+                new Object[]{3L, "Max", "PAC000003", null, Especie.CANINO, EstadoPaciente.ACTIVO, "María", "Gómez"}));
+        when(propietarioRepositorio.findCamposBusqueda()).thenReturn(List.<Object[]>of(
+                new Object[]{10L, "María José", "Gómez", "1020304050", "300 123 4567", true},
+                new Object[]{11L, "Andrés", "Peña Luna", "79888777", "3109876543", true}));
+        when(productoRepositorio.findCamposBusqueda()).thenReturn(List.<Object[]>of(
+                new Object[]{20L, "Amoxicilina 500 mg", "MED-0001", true},
+                new Object[]{21L, "Collar isabelino", "ACC-0100", false}));
+        indice = new IndiceBusqueda(pacienteRepositorio, propietarioRepositorio, productoRepositorio);
+    }
+
+    @AfterEach
+    void limpiar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private List<String> claves(IndiceBusqueda.Resultado resultado) {
+        List<String> claves = new ArrayList<>();
+        resultado.getCoincidencias().forEach(c -> claves.add(c.getTipo().name() + ":" + c.getId()));
+        return claves;
+    }
+
+    @Test
+    void buscar_DeberiaOrdenarPalabraExactaAntesQuePrefijoYContenido() {
+        IndiceBusqueda.Resultado resultado = indice.buscar("luna", TODOS, 0, 10);
+
+        // "Luna" exacto, luego el propietario con apellido "Luna" y al final "Lunático" (fallecido)
+        assertEquals(List.of("PACIENTE:1", "PROPIETARIO:11", "PACIENTE:2"), claves(resultado));
+        assertEquals(3, resultado.getTotal());
+        verify(pacienteRepositorio, times(1)).findCamposBusqueda();
+    }
+
+    @Test
+    void buscar_DeberiaIgnorarTildesYMayusculas() {
+        assertEquals(List.of("PROPIETARIO:11"), claves(indice.buscar("PENA andres", Set.of(TipoResultadoBusqueda.PROPIETARIO), 0, 10)));
+        assertEquals(List.of("PROPIETARIO:10"), claves(indice.buscar("maria jose", TODOS, 0, 10)));
+    }
+
+    @Test
+    void buscar_DeberiaEncontrarPorCodigoIdentificacionYTelefonoEscritoDeCorrido() {
+        assertEquals(List.of("PACIENTE:3"), claves(indice.buscar("pac000003", TODOS, 0, 10)));
+        assertEquals(List.of("PACIENTE:1"), claves(indice.buscar("112003", TODOS, 0, 10)));
+        assertEquals(List.of("PROPIETARIO:10"), claves(indice.buscar("3001234567", TODOS, 0, 10)));
+        assertEquals(List.of("PRODUCTO:20"), claves(indice.buscar("med-0001", TODOS, 0, 10)));
+    }
+
+    @Test
+    void buscar_ConTerminoCorto_DeberiaCoincidirPorPrefijo() {
+        assertEquals(List.of("PACIENTE:3"), claves(indice.buscar("ma", Set.of(TipoResultadoBusqueda.PACIENTE), 0, 10)));
+        assertEquals(List.of("PRODUCTO:20", "PRODUCTO:21"), claves(indice.buscar("a", Set.of(TipoResultadoBusqueda.PRODUCTO), 0, 10)));
+    }
+
+    @Test
+    void buscar_DeberiaPaginarConservandoElTotal() {
+        IndiceBusqueda.Resultado primera = indice.buscar("pac", TODOS, 0, 2);
+        IndiceBusqueda.Resultado segunda = indice.buscar("pac", TODOS, 2, 2);
+
+        assertEquals(List.of("PACIENTE:1", "PACIENTE:3"), claves(primera));
+        assertEquals(List.of("PACIENTE:2"), claves(segunda));
+        assertEquals(3, primera.getTotal());
+        assertEquals(3, segunda.getTotal());
+        assertTrue(indice.buscar("pac", TODOS, 4, 2).getCoincidencias().isEmpty());
+    }
+
+    @Test
+    void indexarYEliminar_DeberianAplicarseAlConfirmarLaTransaccion() {
+        indice.buscar("luna", TODOS, 0, 10);
+        Paciente renombrado = Paciente.builder().id(3L).nombre("Lunita").codigo("PAC000003")
+                .especie(Especie.CANINO).estado(EstadoPaciente.ACTIVO).build();
+        Producto nuevo = Producto.builder().id(22L).nombre("Lubricante ocular").codigo("MED-0002").activo(true).build();
+
+        TransactionSynchronizationManager.initSynchronization();
+        indice.indexar(renombrado);
+        indice.indexar(nuevo);
+        indice.eliminar(TipoResultadoBusqueda.PROPIETARIO, 11L);
+        assertEquals(3, indice.buscar("lu", TODOS, 0, 10).getTotal());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(List.of("PACIENTE:1", "PACIENTE:3", "PRODUCTO:22", "PACIENTE:2"),
+                claves(indice.buscar("lu", TODOS, 0, 10)));
+        assertTrue(indice.buscar("max", TODOS, 0, 10).getCoincidencias().isEmpty());
+        assertTrue(indice.buscar("pena", TODOS, 0, 10).getCoincidencias().isEmpty());
+    }
+
+    @Test
+    void recargar_DeberiaReconstruirElIndiceDesdeLaBase() {
+        indice.buscar("luna", TODOS, 0, 10);
+        indice.indexar(Propietario.builder().id(12L).nombres("Camila").apellidos("Rojas")
+                .numeroIdentificacion("52000111").telefonoPrincipal("3201112233").activo(true).build());
+
+        indice.recargar();
+
+        // La recarga lee la base (el mock no tiene a Camila) y reemplaza el índice completo
+        assertTrue(indice.buscar("camila", TODOS, 0, 10).getCoincidencias().isEmpty());
+        assertEquals(List.of("PACIENTE:1", "PROPIETARIO:11", "PACIENTE:2"), claves(indice.buscar("luna", TODOS, 0, 10)));
+        verify(pacienteRepositorio, times(2)).findCamposBusqueda();
+    }
+}
@@ -0,0 +1,89 @@
+package com.nuclearvet.infraestructura.concurrencia;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteConcurrenciaFiltroTest {
+
+    private final LimiteConcurrenciaFiltro filtro =
+            new LimiteConcurrenciaFiltro(1, 50, new ObjectMapper().registerModule(new JavaTimeModule()), "/api/eventos");
+
+    @Test
+    void doFilter_SinPermisoDisponible_DeberiaResponder503HastaQueTermineLaPeticionEnCurso() throws Exception {
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<Void> enCurso = CompletableFuture.runAsync(() -> {
+            try {
+                filtro.doFilter(peticion(), new MockHttpServletResponse(), (req, res) -> {
+                    dentro.countDown();
+                    try {
+                        liberar.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse rechazada = new MockHttpServletResponse();
+        filtro.doFilter(peticion(), rechazada, (req, res) -> fail("No debería atenderse"));
+        assertEquals(503, rechazada.getStatus());
+        assertEquals("1", rechazada.getHeader("Retry-After"));
+        assertTrue(rechazada.getContentAsString().contains("Servicio ocupado"));
+
+        liberar.countDown();
+        enCurso.get(5, TimeUnit.SECONDS);
+        assertEquals(1, filtro.getPermisosDisponibles());
+
+        MockHttpServletResponse atendida = new MockHttpServletResponse();
+        filtro.doFilter(peticion(), atendida, (req, res) -> { });
+        assertEquals(200, atendida.getStatus());
+    }
+
+    @Test
+    void doFilter_ConErrorEnLaCadena_DeberiaDevolverElPermiso() {
+        assertThrows(IllegalStateException.class, () -> filtro.doFilter(peticion(), new MockHttpServletResponse(),
+                (req, res) -> { throw new IllegalStateException("fallo"); }));
+        assertEquals(1, filtro.getPermisosDisponibles());
+    }
+
+    @Test
+    void doFilter_ConRespuestaAsincrona_DeberiaConservarElPermisoHastaQueTermine() throws Exception {
+        MockHttpServletRequest flujo = peticion();
+        flujo.setAsyncSupported(true);
+        filtro.doFilter(flujo, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertEquals(0, filtro.getPermisosDisponibles());
+        MockHttpServletResponse rechazada = new MockHttpServletResponse();
+        filtro.doFilter(peticion(), rechazada, (req, res) -> fail("No debería atenderse"));
+        assertEquals(503, rechazada.getStatus());
+
+        flujo.getAsyncContext().complete();
+        assertEquals(1, filtro.getPermisosDisponibles());
+    }
+
+    @Test
+    void doFilter_SuscripcionDeEventos_NoDeberiaOcuparPermiso() throws Exception {
+        MockHttpServletRequest suscripcion = new MockHttpServletRequest("GET", "/api/eventos");
+        suscripcion.setAsyncSupported(true);
+        filtro.doFilter(suscripcion, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertEquals(1, filtro.getPermisosDisponibles());
+    }
+
+    private static MockHttpServletRequest peticion() {
+        return new MockHttpServletRequest("POST", "/api/citas");
+    }
+}
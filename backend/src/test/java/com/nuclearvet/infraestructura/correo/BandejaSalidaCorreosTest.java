@@ -0,0 +1,165 @@
+package com.nuclearvet.infraestructura.correo;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.nuclearvet.dominio.entidades.HistorialCorreo;
+import com.nuclearvet.dominio.enumeraciones.EstadoCorreo;
+import com.nuclearvet.infraestructura.persistencia.HistorialCorreoRepositorio;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BandejaSalidaCorreosTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock
+    private HistorialCorreoRepositorio historialRepositorio;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ContadoresTablero contadores;
+
+    private BandejaSalidaCorreos crearBandeja(JavaMailSenderImpl mailSender) {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        BandejaSalidaCorreos bandeja = new BandejaSalidaCorreos(historialRepositorio, mailSender, jdbcTemplate,
+                transactionManager, new PoliticaReintentos(3, 30, 3600), contadores);
+        ReflectionTestUtils.setField(bandeja, "tamanoLote", 10);
+        ReflectionTestUtils.setField(bandeja, "arrendamientoSegundos", 300L);
+        ReflectionTestUtils.setField(bandeja, "remitente", "noreply@nuclearvet.com");
+        return bandeja;
+    }
+
+    private JavaMailSenderImpl remitente(int puerto) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(puerto);
+        mailSender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+        return mailSender;
+    }
+
+    private HistorialCorreo correo(long id, String destinatario, int intentos) {
+        return HistorialCorreo.builder().id(id).destinatarioEmail(destinatario)
+                .asunto("Recordatorio").contenido("Vacuna de Rocky").intentos(intentos).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> resultadosRegistrados() {
+        ArgumentCaptor<List<Object[]>> resultados = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), resultados.capture(), any(int[].class));
+        return resultados.getValue();
+    }
+
+    private void filasActualizadas(int... filas) {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class))).thenReturn(filas);
+    }
+
+    @Test
+    void procesarLote_DeberiaArrendarEnviarYRegistrarElResultado() {
+        BandejaSalidaCorreos bandeja = crearBandeja(remitente(ServerSetupTest.SMTP.getPort()));
+        when(historialRepositorio.reclamarParaEnvio(any(), eq(10))).thenReturn(List.of(
+                correo(1L, "ana@correo.co", 0), correo(2L, "no es un correo", 0), correo(3L, "luis@correo.co", 1)));
+        filasActualizadas(1, 1, 1);
+
+        int procesados;
+        try (ConexionSmtp conexion = new ConexionSmtp(remitente(ServerSetupTest.SMTP.getPort()), "noreply@nuclearvet.com")) {
+            procesados = bandeja.procesarLote(conexion);
+            assertEquals(1, conexion.getConexionesAbiertas());
+        }
+
+        assertEquals(3, procesados);
+        ArgumentCaptor<LocalDateTime> hasta = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<String> trabajador = ArgumentCaptor.forClass(String.class);
+        verify(historialRepositorio).arrendar(eq(List.of(1L, 2L, 3L)), hasta.capture(), trabajador.capture());
+        assertEquals(2, greenMail.getReceivedMessages().length);
+
+        List<Object[]> resultados = resultadosRegistrados();
+        for (Object[] resultado : resultados) {
+            assertEquals(trabajador.getValue(), resultado[6]);
+            assertEquals(Timestamp.valueOf(hasta.getValue()), resultado[7]);
+        }
+        assertArrayEquals(new Object[]{"ENVIADO", 1, null, null}, Arrays.copyOf(resultados.get(0), 4));
+        assertEquals("DESCARTADO", resultados.get(1)[0]);
+        assertNotNull(resultados.get(1)[3]);
+        assertEquals("ENVIADO", resultados.get(2)[0]);
+        assertEquals(2, resultados.get(2)[1]);
+        assertEquals(3L, resultados.get(2)[5]);
+        assertEquals(2L, bandeja.obtenerEstadisticas().get("enviados"));
+    }
+
+    @Test
+    void procesarLote_FalloTransitorio_DeberiaReprogramarYDescartarAlAgotarIntentos() {
+        JavaMailSenderImpl caido = remitente(ServerSetupTest.SMTP.getPort() + 17);
+        BandejaSalidaCorreos bandeja = crearBandeja(caido);
+        when(historialRepositorio.reclamarParaEnvio(any(), eq(10))).thenReturn(List.of(
+                correo(1L, "ana@correo.co", 0), correo(2L, "luis@correo.co", 2)));
+        filasActualizadas(1, 1);
+
+        try (ConexionSmtp conexion = new ConexionSmtp(caido, "noreply@nuclearvet.com")) {
+            bandeja.procesarLote(conexion);
+        }
+
+        List<Object[]> resultados = resultadosRegistrados();
+        assertEquals("REINTENTANDO", resultados.get(0)[0]);
+        assertEquals(1, resultados.get(0)[1]);
+        Timestamp proximo = (Timestamp) resultados.get(0)[2];
+        assertTrue(proximo.toLocalDateTime().isAfter(LocalDateTime.now().plusSeconds(10)));
+        assertNull(resultados.get(0)[4]);
+        assertEquals("DESCARTADO", resultados.get(1)[0]);
+        assertEquals(3, resultados.get(1)[1]);
+    }
+
+    @Test
+    void procesarLote_BandejaVacia_NoDeberiaConectarNiRegistrar() {
+        BandejaSalidaCorreos bandeja = crearBandeja(remitente(ServerSetupTest.SMTP.getPort()));
+        when(historialRepositorio.reclamarParaEnvio(any(), eq(10))).thenReturn(List.of());
+
+        try (ConexionSmtp conexion = new ConexionSmtp(remitente(ServerSetupTest.SMTP.getPort()), "noreply@nuclearvet.com")) {
+            assertEquals(0, bandeja.procesarLote(conexion));
+            assertEquals(0, conexion.getConexionesAbiertas());
+        }
+        verify(historialRepositorio, never()).arrendar(any(), any(), any());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void procesarLote_ArrendamientoPerdido_NoDeberiaContarElResultado() {
+        BandejaSalidaCorreos bandeja = crearBandeja(remitente(ServerSetupTest.SMTP.getPort()));
+        when(historialRepositorio.reclamarParaEnvio(any(), eq(10))).thenReturn(List.of(
+                correo(1L, "ana@correo.co", 0), correo(2L, "luis@correo.co", 0)));
+        // El envío del primero tardó más que el arrendamiento y otro trabajador lo reclamó
+        filasActualizadas(0, 1);
+
+        try (ConexionSmtp conexion = new ConexionSmtp(remitente(ServerSetupTest.SMTP.getPort()), "noreply@nuclearvet.com")) {
+            assertEquals(2, bandeja.procesarLote(conexion));
+        }
+
+        assertEquals(1L, bandeja.obtenerEstadisticas().get("enviados"));
+        verify(contadores, times(1)).cambiarEstadoCorreo(any(), eq(EstadoCorreo.ENVIADO));
+    }
+}
@@ -0,0 +1,70 @@
+package com.nuclearvet.infraestructura.correo;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConexionSmtpTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private JavaMailSenderImpl remitente(int puerto) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(puerto);
+        mailSender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+        return mailSender;
+    }
+
+    @Test
+    void enviar_DeberiaReutilizarLaConexionEntreMensajesYLotes() throws Exception {
+        try (ConexionSmtp conexion = new ConexionSmtp(remitente(ServerSetupTest.SMTP.getPort()), "noreply@nuclearvet.com")) {
+            conexion.verificar();
+            assertTrue(conexion.enviar("ana@correo.co", "Recordatorio", "Vacuna de Rocky").isExitoso());
+            assertTrue(conexion.enviar("luis@correo.co", "Recordatorio", "Control de Luna").isExitoso());
+            conexion.verificar();
+            assertTrue(conexion.enviar("ana@correo.co", "Cita", "Mañana a las 10:00").isExitoso());
+
+            assertEquals(1, conexion.getConexionesAbiertas());
+        }
+
+        MimeMessage[] recibidos = greenMail.getReceivedMessages();
+        assertEquals(3, recibidos.length);
+        List<String> contenidos = new ArrayList<>();
+        for (MimeMessage recibido : recibidos) {
+            contenidos.add(((String) recibido.getContent()).trim());
+        }
+        assertTrue(contenidos.contains("Mañana a las 10:00"), contenidos::toString);
+    }
+
+    @Test
+    void enviar_DireccionMalFormada_DeberiaSerFalloPermanente() {
+        try (ConexionSmtp conexion = new ConexionSmtp(remitente(ServerSetupTest.SMTP.getPort()), "noreply@nuclearvet.com")) {
+            ConexionSmtp.ResultadoEnvio resultado = conexion.enviar("no es un correo", "Asunto", "Contenido");
+
+            assertFalse(resultado.isExitoso());
+            assertTrue(resultado.isPermanente());
+            assertEquals(0, greenMail.getReceivedMessages().length);
+        }
+    }
+
+    @Test
+    void enviar_ServidorNoDisponible_DeberiaSerFalloTransitorio() {
+        try (ConexionSmtp conexion = new ConexionSmtp(remitente(ServerSetupTest.SMTP.getPort() + 17), "noreply@nuclearvet.com")) {
+            ConexionSmtp.ResultadoEnvio resultado = conexion.enviar("ana@correo.co", "Asunto", "Contenido");
+
+            assertFalse(resultado.isExitoso());
+            assertFalse(resultado.isPermanente());
+            assertNotNull(resultado.getError());
+        }
+    }
+}
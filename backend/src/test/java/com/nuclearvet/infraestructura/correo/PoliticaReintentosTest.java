@@ -0,0 +1,34 @@
+package com.nuclearvet.infraestructura.correo;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PoliticaReintentosTest {
+
+    private final PoliticaReintentos politica = new PoliticaReintentos(4, 30, 600);
+
+    @Test
+    void espera_DeberiaCrecerExponencialmenteConJitterYTope() {
+        for (int i = 0; i < 100; i++) {
+            assertEnRango(politica.espera(1), 15, 30);
+            assertEnRango(politica.espera(2), 30, 60);
+            assertEnRango(politica.espera(3), 60, 120);
+            assertEnRango(politica.espera(10), 300, 600);
+            assertEnRango(politica.espera(80), 300, 600);
+        }
+    }
+
+    @Test
+    void agotado_DeberiaCumplirseAlAlcanzarElMaximo() {
+        assertFalse(politica.agotado(3));
+        assertTrue(politica.agotado(4));
+    }
+
+    private static void assertEnRango(Duration espera, long minimoSegundos, long maximoSegundos) {
+        assertTrue(espera.compareTo(Duration.ofSeconds(minimoSegundos)) >= 0, espera::toString);
+        assertTrue(espera.compareTo(Duration.ofSeconds(maximoSegundos)) <= 0, espera::toString);
+    }
+}
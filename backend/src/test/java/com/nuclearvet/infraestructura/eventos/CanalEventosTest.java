@@ -0,0 +1,207 @@
+package com.nuclearvet.infraestructura.eventos;
+
+import com.nuclearvet.dominio.enumeraciones.TipoEventoPush;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CanalEventosTest {
+
+    private static final Pattern ID = Pattern.compile("id:(\\d+)");
+
+    private CanalEventos canal;
+
+    @BeforeEach
+    void configurar() {
+        canal = new CanalEventos(3, 100, 2, 60_000, 2, 4) {
+            @Override
+            SseEmitter nuevoEmisor(long timeout) {
+                return new EmisorPrueba(timeout);
+            }
+        };
+    }
+
+    @AfterEach
+    void detener() {
+        canal.detener();
+    }
+
+    @Test
+    void publicar_DeberiaEntregarAlDestinatarioYLosGeneralesSoloAlPersonal() throws Exception {
+        EmisorPrueba veterinario = suscribir(1L, true, null);
+        EmisorPrueba cliente = suscribir(2L, false, null);
+        assertTrue(veterinario.siguiente().startsWith("event:CONTADORES"));
+        assertTrue(cliente.siguiente().startsWith("event:CONTADORES"));
+
+        canal.publicar(TipoEventoPush.NOTIFICACION, 1L, () -> Map.of("titulo", "Vacuna"));
+        canal.publicar(TipoEventoPush.ALERTA_INVENTARIO, null, () -> Map.of("generadas", 2));
+        canal.publicar(TipoEventoPush.NOTIFICACION, 2L, () -> Map.of("titulo", "Cita"));
+
+        assertTrue(veterinario.siguiente().contains("event:NOTIFICACION"));
+        assertTrue(veterinario.siguiente().contains("event:ALERTA_INVENTARIO"));
+        String delCliente = cliente.siguiente();
+        assertTrue(delCliente.contains("event:NOTIFICACION") && delCliente.contains("Cita"), delCliente);
+    }
+
+    @Test
+    void suscribir_ConUltimoEventoId_DeberiaReenviarLosEventosPosteriores() throws Exception {
+        EmisorPrueba primera = suscribir(1L, true, null);
+        primera.siguiente();
+        canal.publicar(TipoEventoPush.NOTIFICACION, 1L, () -> Map.of("n", 1));
+        long primerId = id(primera.siguiente());
+        canal.publicar(TipoEventoPush.NOTIFICACION, 1L, () -> Map.of("n", 2));
+        canal.publicar(TipoEventoPush.NOTIFICACION, 9L, () -> Map.of("n", 3));
+        canal.publicar(TipoEventoPush.RECORDATORIOS_DESPACHADOS, null, () -> Map.of("n", 4));
+        primera.siguiente();
+        primera.siguiente();
+        primera.complete();
+
+        EmisorPrueba reconexion = suscribir(1L, true, primerId);
+        assertTrue(reconexion.siguiente().startsWith("event:CONTADORES"));
+        String segundo = reconexion.siguiente();
+        assertEquals(primerId + 1, id(segundo));
+        assertTrue(segundo.contains("\"n\":2"), segundo);
+        assertTrue(reconexion.siguiente().contains("event:RECORDATORIOS_DESPACHADOS"));
+    }
+
+    @Test
+    void suscribir_ConEventosYaDescartados_DeberiaPedirResincronizar() throws Exception {
+        EmisorPrueba primera = suscribir(1L, true, null);
+        primera.siguiente();
+        canal.publicar(TipoEventoPush.NOTIFICACION, 1L, () -> Map.of("n", 1));
+        long primerId = id(primera.siguiente());
+        // El historial guarda 3 eventos: con 4 más el siguiente al primero ya se descartó
+        for (int i = 0; i < 4; i++) {
+            canal.publicar(TipoEventoPush.NOTIFICACION, 1L, () -> Map.of("n", 0));
+        }
+        String ultimo = null;
+        for (int i = 0; i < 4; i++) {
+            ultimo = primera.siguiente();
+        }
+
+        EmisorPrueba reconexion = suscribir(1L, true, primerId);
+        reconexion.siguiente();
+        String resincronizar = reconexion.siguiente();
+        assertTrue(resincronizar.contains("event:RESINCRONIZAR"), resincronizar);
+        assertEquals(id(ultimo), id(resincronizar));
+    }
+
+    @Test
+    void suscribir_SobreElMaximo_DeberiaRechazarHastaQueSeCierreUnaConexion() throws Exception {
+        EmisorPrueba primera = suscribir(1L, true, null);
+        suscribir(2L, true, null);
+
+        assertThrows(RejectedExecutionException.class, () -> canal.suscribir(3L, true, null, Map.of()));
+        assertEquals(2, canal.getConexionesAbiertas());
+
+        primera.complete();
+        assertNotNull(canal.suscribir(3L, true, null, Map.of()));
+    }
+
+    @Test
+    void publicar_ConUnClienteQueNoConsume_DeberiaCerrarloSinFrenarALosDemas() throws Exception {
+        EmisorPrueba lento = suscribir(1L, true, null);
+        EmisorPrueba rapido = suscribir(2L, true, null);
+        lento.siguiente();
+        rapido.siguiente();
+        CountDownLatch socketLibre = new CountDownLatch(1);
+        lento.bloqueo = socketLibre;
+
+        // El primero queda escribiéndose y los siguientes llenan el buffer de 4 hasta desbordarlo,
+        // mientras el otro cliente recibe cada evento al momento
+        for (int i = 0; i < 6; i++) {
+            int n = i;
+            canal.publicar(TipoEventoPush.ALERTA_INVENTARIO, null, () -> Map.of("n", n));
+            assertTrue(rapido.siguiente().contains("\"n\":" + i));
+        }
+        assertEquals(1, canal.getConexionesAbiertas());
+
+        socketLibre.countDown();
+        assertTrue(lento.completado.await(5, TimeUnit.SECONDS));
+    }
+
+    private EmisorPrueba suscribir(Long usuarioId, boolean generales, Long ultimoEventoId) {
+        return (EmisorPrueba) canal.suscribir(usuarioId, generales, ultimoEventoId, Map.of("notificacionesNoLeidas", 0));
+    }
+
+    private static long id(String evento) {
+        Matcher matcher = ID.matcher(evento);
+        assertTrue(matcher.find(), evento);
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * Emisor que guarda el texto de cada evento en lugar de escribirlo en la respuesta
+     */
+    private static final class EmisorPrueba extends SseEmitter {
+
+        private final MappingJackson2HttpMessageConverter json = new MappingJackson2HttpMessageConverter();
+        private final BlockingQueue<String> enviados = new LinkedBlockingQueue<>();
+        private final CountDownLatch completado = new CountDownLatch(1);
+        private Runnable alCompletar = () -> { };
+        /** Si está puesto, send espera a que se libere, como un socket que no vacía */
+        private volatile CountDownLatch bloqueo;
+
+        private EmisorPrueba(long timeout) {
+            super(timeout);
+        }
+
+        @Override
+        public void send(SseEventBuilder evento) throws IOException {
+            if (bloqueo != null) {
+                try {
+                    bloqueo.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            StringBuilder texto = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType parte : evento.build()) {
+                Object datos = parte.getData();
+                texto.append(datos instanceof String cadena ? cadena : escribir(datos));
+            }
+            enviados.add(texto.toString());
+        }
+
+        @Override
+        public synchronized void onCompletion(Runnable callback) {
+            alCompletar = callback;
+        }
+
+        @Override
+        public synchronized void complete() {
+            alCompletar.run();
+            completado.countDown();
+        }
+
+        private String escribir(Object datos) {
+            try {
+                return json.getObjectMapper().writeValueAsString(datos);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private String siguiente() throws InterruptedException {
+            String evento = enviados.poll(5, TimeUnit.SECONDS);
+            assertNotNull(evento, "No llegó el evento esperado");
+            return evento;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.nuclearvet.infraestructura.inventario;
+
+import com.nuclearvet.infraestructura.persistencia.LoteRepositorio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ColaFefoLotesTest {
+
+    @Mock
+    private LoteRepositorio loteRepositorio;
+
+    private ColaFefoLotes cola;
+
+    @BeforeEach
+    void configurar() {
+        cola = new ColaFefoLotes(loteRepositorio);
+        ReflectionTestUtils.setField(cola, "ttlSegundos", 300L);
+    }
+
+    @AfterEach
+    void limpiar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static String resumen(List<ColaFefoLotes.Porcion> porciones) {
+        return porciones.stream().map(p -> p.getLoteId() + ":" + p.getCantidad()).collect(Collectors.joining(","));
+    }
+
+    @Test
+    void apartar_DeberiaRepartirEnOrdenDeVencimientoSinVolverAConsultar() {
+        when(loteRepositorio.findColaFefo(1L)).thenReturn(List.of(
+                new Object[]{10L, 5}, new Object[]{11L, 10}, new Object[]{12L, 20}));
+
+        assertEquals("10:5,11:3", resumen(cola.apartar(1L, 8)));
+        assertEquals("11:7,12:1", resumen(cola.apartar(1L, 8)));
+        assertEquals("", resumen(cola.apartar(1L, 20)));
+        assertEquals("12:19", resumen(cola.apartar(1L, 19)));
+
+        verify(loteRepositorio, times(1)).findColaFefo(1L);
+    }
+
+    @Test
+    void apartar_SiLaTransaccionNoConfirma_DeberiaDescartarLaCola() {
+        when(loteRepositorio.findColaFefo(1L)).thenReturn(List.<Object[]>of(new Object[]{10L, 5}));
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertEquals("10:5", resumen(cola.apartar(1L, 5)));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Las 5 unidades vuelven a estar disponibles tras recargar
+        assertEquals("10:5", resumen(cola.apartar(1L, 5)));
+        verify(loteRepositorio, times(2)).findColaFefo(1L);
+    }
+
+    @Test
+    void invalidar_DeberiaRecargarSoloAlConfirmar() {
+        when(loteRepositorio.findColaFefo(1L)).thenReturn(List.<Object[]>of(new Object[]{10L, 5}));
+        cola.apartar(1L, 1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cola.invalidar(1L);
+        cola.apartar(1L, 1);
+        verify(loteRepositorio, times(1)).findColaFefo(1L);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        cola.apartar(1L, 1);
+        verify(loteRepositorio, times(2)).findColaFefo(1L);
+    }
+
+    @Test
+    void apartarReleyendo_NoDeberiaPublicarCantidadesSinConfirmar() {
+        when(loteRepositorio.findColaFefo(1L))
+                .thenReturn(List.<Object[]>of(new Object[]{10L, 5}))
+                .thenReturn(List.<Object[]>of(new Object[]{10L, 2}))
+                .thenReturn(List.<Object[]>of(new Object[]{10L, 3}));
+        cola.apartar(1L, 1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // La transacción ve su propio descuento (quedan 2) pero la cola compartida no cambia
+        assertEquals("10:2", resumen(cola.apartarReleyendo(1L, 2)));
+        assertEquals("10:4", resumen(cola.apartar(1L, 4)));
+        verify(loteRepositorio, times(2)).findColaFefo(1L);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        assertEquals("10:3", resumen(cola.apartar(1L, 3)));
+        verify(loteRepositorio, times(3)).findColaFefo(1L);
+    }
+}
@@ -0,0 +1,93 @@
+package com.nuclearvet.infraestructura.inventario;
+
+import com.nuclearvet.infraestructura.persistencia.AlertaInventarioRepositorio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static com.nuclearvet.infraestructura.inventario.IndiceAlertasInventario.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndiceAlertasInventarioTest {
+
+    @Mock
+    private AlertaInventarioRepositorio alertaRepositorio;
+
+    @AfterEach
+    void limpiar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void reservar_DeberiaCargarUnaVezYRespetarLasAlertasAbiertas() {
+        when(alertaRepositorio.findClavesAbiertas()).thenReturn(List.of(
+                new Object[]{1L, null, STOCK_BAJO},
+                new Object[]{2L, 20L, LOTE_VENCIDO}));
+        IndiceAlertasInventario indice = new IndiceAlertasInventario(alertaRepositorio);
+
+        assertFalse(indice.reservarProducto(1L, STOCK_BAJO));
+        assertTrue(indice.reservarProducto(1L, PRODUCTO_AGOTADO));
+        assertFalse(indice.reservarProducto(1L, STOCK_BAJO));
+        assertFalse(indice.reservarLote(20L, PROXIMO_VENCER));
+        assertTrue(indice.reservarProducto(3L, STOCK_BAJO));
+
+        verify(alertaRepositorio, times(1)).findClavesAbiertas();
+    }
+
+    @Test
+    void reservar_SiLaTransaccionNoConfirma_DeberiaRestaurarElEstadoAnterior() {
+        when(alertaRepositorio.findClavesAbiertas()).thenReturn(List.<Object[]>of(new Object[]{1L, null, STOCK_BAJO}));
+        IndiceAlertasInventario indice = new IndiceAlertasInventario(alertaRepositorio);
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertTrue(indice.reservarProducto(1L, PRODUCTO_AGOTADO));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertFalse(indice.reservarProducto(1L, STOCK_BAJO));
+        assertTrue(indice.reservarProducto(1L, PRODUCTO_AGOTADO));
+    }
+
+    @Test
+    void liberar_DeberiaPermitirUnaNuevaAlertaDelMismoTipo() {
+        when(alertaRepositorio.findClavesAbiertas()).thenReturn(List.of());
+        IndiceAlertasInventario indice = new IndiceAlertasInventario(alertaRepositorio);
+
+        assertTrue(indice.reservarLote(20L, PROXIMO_VENCER));
+        indice.liberar(2L, 20L, PROXIMO_VENCER);
+
+        assertTrue(indice.reservarLote(20L, PROXIMO_VENCER));
+    }
+
+    @Test
+    void recargar_DeberiaReemplazarElIndiceSinBloquearLasReservasMientrasConsulta() throws Exception {
+        IndiceAlertasInventario indice = new IndiceAlertasInventario(alertaRepositorio);
+        when(alertaRepositorio.findClavesAbiertas()).thenReturn(List.of());
+        assertTrue(indice.reservarProducto(1L, STOCK_BAJO));
+
+        // Mientras la recarga consulta, otra reserva sigue atendiéndose con el índice vigente
+        boolean[] reservadoDurante = new boolean[1];
+        when(alertaRepositorio.findClavesAbiertas()).thenAnswer(invocacion -> {
+            Thread otro = new Thread(() -> reservadoDurante[0] = indice.reservarProducto(2L, STOCK_BAJO));
+            otro.start();
+            otro.join(5000);
+            return List.<Object[]>of(new Object[]{3L, null, PRODUCTO_AGOTADO});
+        });
+        indice.recargar();
+
+        assertTrue(reservadoDurante[0]);
+        assertTrue(indice.reservarProducto(1L, STOCK_BAJO));
+        assertFalse(indice.reservarProducto(3L, PRODUCTO_AGOTADO));
+    }
+}
@@ -0,0 +1,225 @@
+package com.nuclearvet.infraestructura.inventario;
+
+import com.nuclearvet.dominio.entidades.CategoriaProducto;
+import com.nuclearvet.dominio.entidades.Lote;
+import com.nuclearvet.dominio.entidades.Producto;
+import com.nuclearvet.dominio.enumeraciones.EstadoLote;
+import com.nuclearvet.dominio.enumeraciones.TipoProducto;
+import com.nuclearvet.dominio.enumeraciones.UnidadMedida;
+import com.nuclearvet.infraestructura.persistencia.CategoriaProductoRepositorio;
+import com.nuclearvet.infraestructura.persistencia.LoteRepositorio;
+import com.nuclearvet.infraestructura.persistencia.ProductoRepositorio;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Despachos concurrentes reales (una transacción por despacho, cada hilo con su conexión)
+ * contra el libro de existencias: el stock nunca queda negativo ni se pierden unidades
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:existencias;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=64"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({LibroExistencias.class, ColaFefoLotes.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LibroExistenciasTest {
+
+    private static final int DESPACHADORES = 64;
+
+    @Configuration
+    @AutoConfigurationPackage(basePackages = "com.nuclearvet")
+    static class Configuracion {
+    }
+
+    @Autowired
+    private LibroExistencias libro;
+
+    @Autowired
+    private ProductoRepositorio productoRepositorio;
+
+    @Autowired
+    private LoteRepositorio loteRepositorio;
+
+    @Autowired
+    private CategoriaProductoRepositorio categoriaRepositorio;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transaccion() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void limpiar() {
+        loteRepositorio.deleteAllInBatch();
+        productoRepositorio.deleteAllInBatch();
+        categoriaRepositorio.deleteAllInBatch();
+    }
+
+    private Producto producto(int... cantidadesLotes) {
+        return transaccion().execute(estado -> {
+            CategoriaProducto categoria = categoriaRepositorio.save(
+                    CategoriaProducto.builder().nombre("MEDICAMENTOS").activo(true).build());
+            int stock = 0;
+            for (int cantidad : cantidadesLotes) {
+                stock += cantidad;
+            }
+            Producto producto = productoRepositorio.save(Producto.builder().codigo("P-1").nombre("Amoxicilina")
+                    .tipoProducto(TipoProducto.values()[0]).unidadMedida(UnidadMedida.values()[0])
+                    .stockActual(stock).stockMinimo(0).activo(true).categoria(categoria).build());
+            for (int i = 0; i < cantidadesLotes.length; i++) {
+                loteRepositorio.save(Lote.builder().numeroLote("L-" + i).producto(producto)
+                        .fechaIngreso(LocalDate.now()).fechaVencimiento(LocalDate.now().plusYears(1).plusDays(i))
+                        .cantidadInicial(cantidadesLotes[i]).build());
+            }
+            return producto;
+        });
+    }
+
+    @Test
+    void registrarSalida_DespachadoresConcurrentesNoDeberianDejarStockNegativo() throws Exception {
+        Producto producto = producto(100, 100, 150);
+        List<Long> lotes = loteRepositorio.findByProductoId(producto.getId()).stream().map(Lote::getId).toList();
+        AtomicInteger despachadas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(DESPACHADORES);
+
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int i = 0; i < DESPACHADORES; i++) {
+            // La mitad elige lote automáticamente; la otra mitad pide lotes concretos
+            boolean loteAutomatico = i % 2 == 0;
+            tareas.add(ejecutor.submit(() -> {
+                salida.await();
+                while (true) {
+                    Long loteId = loteAutomatico ? null : lotes.get(ThreadLocalRandom.current().nextInt(lotes.size()));
+                    try {
+                        transaccion().executeWithoutResult(estado -> libro.registrarSalida(producto.getId(), loteId, 1));
+                        despachadas.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        rechazadas.incrementAndGet();
+                        if (e.getMessage().startsWith("Stock insuficiente")) {
+                            return null;
+                        }
+                    }
+                }
+            }));
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(2, TimeUnit.MINUTES);
+        }
+        ejecutor.shutdown();
+
+        assertEquals(350, despachadas.get());
+        assertTrue(rechazadas.get() >= DESPACHADORES);
+        assertEquals(0, productoRepositorio.findById(producto.getId()).orElseThrow().getStockActual());
+        for (Lote lote : loteRepositorio.findByProductoId(producto.getId())) {
+            assertEquals(0, lote.getCantidadDisponible());
+            assertEquals(EstadoLote.AGOTADO, lote.getEstado());
+        }
+    }
+
+    @Test
+    void registrarEntradaYSalida_DeberianDevolverStockAnteriorYNuevo() {
+        Producto producto = producto(10);
+        Long loteId = loteRepositorio.findByProductoId(producto.getId()).get(0).getId();
+
+        LibroExistencias.Asiento salida = transaccion().execute(estado -> libro.registrarSalida(producto.getId(), null, 10));
+        assertEquals(10, salida.getStockAnterior());
+        assertEquals(0, salida.getStockNuevo());
+        assertEquals(EstadoLote.AGOTADO, salida.getPartidas().get(0).getLote().getEstado());
+
+        LibroExistencias.Asiento entrada = transaccion().execute(estado -> libro.registrarEntrada(producto.getId(), loteId, 4));
+        assertEquals(0, entrada.getStockAnterior());
+        assertEquals(4, entrada.getStockNuevo());
+        assertEquals(EstadoLote.DISPONIBLE, loteRepositorio.findById(loteId).orElseThrow().getEstado());
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () ->
+                transaccion().executeWithoutResult(estado -> libro.registrarSalida(producto.getId(), loteId, 5)));
+        assertEquals("Stock insuficiente. Disponible: 4", error.getMessage());
+    }
+
+    @Test
+    void registrarSalida_SinLote_DeberiaRepartirEntreLotesPorVencimiento() {
+        Producto producto = producto(5, 10, 20);
+        List<Lote> lotes = loteRepositorio.findByProductoIdOrderByFechaVencimiento(producto.getId());
+
+        LibroExistencias.Asiento asiento = transaccion().execute(estado -> libro.registrarSalida(producto.getId(), null, 8));
+
+        assertEquals(35, asiento.getStockAnterior());
+        assertEquals(27, asiento.getStockNuevo());
+        assertEquals(2, asiento.getPartidas().size());
+        assertEquals(lotes.get(0).getId(), asiento.getPartidas().get(0).getLote().getId());
+        assertEquals(5, asiento.getPartidas().get(0).getCantidad());
+        assertEquals(EstadoLote.AGOTADO, asiento.getPartidas().get(0).getLote().getEstado());
+        assertEquals(lotes.get(1).getId(), asiento.getPartidas().get(1).getLote().getId());
+        assertEquals(3, asiento.getPartidas().get(1).getCantidad());
+        assertEquals(7, asiento.getPartidas().get(1).getLote().getCantidadDisponible());
+    }
+
+    @Test
+    void registrarSalida_ConColaDesactualizada_DeberiaRecargarYRepartirLoQueFalta() {
+        Producto producto = producto(5, 10);
+        List<Lote> lotes = loteRepositorio.findByProductoIdOrderByFechaVencimiento(producto.getId());
+        transaccion().executeWithoutResult(estado -> libro.registrarSalida(producto.getId(), null, 1));
+        // Otra instancia despacha el primer lote por completo sin pasar por esta cola
+        transaccion().executeWithoutResult(estado -> {
+            productoRepositorio.descontarStock(producto.getId(), 4, LocalDateTime.now());
+            entityManager.createNativeQuery("UPDATE lotes SET cantidad_disponible = 0 WHERE id = " + lotes.get(0).getId())
+                    .executeUpdate();
+        });
+
+        LibroExistencias.Asiento asiento = transaccion().execute(estado -> libro.registrarSalida(producto.getId(), null, 6));
+
+        assertEquals(1, asiento.getPartidas().size());
+        assertEquals(lotes.get(1).getId(), asiento.getPartidas().get(0).getLote().getId());
+        assertEquals(4, loteRepositorio.findById(lotes.get(1).getId()).orElseThrow().getCantidadDisponible());
+    }
+
+    @Test
+    void edicionCargadaAntesDeUnMovimiento_DeberiaFallarPorConflicto() {
+        Producto producto = producto(10);
+        Producto editado = productoRepositorio.findById(producto.getId()).orElseThrow();
+
+        transaccion().executeWithoutResult(estado -> libro.registrarSalida(producto.getId(), null, 3));
+
+        editado.setStockMinimo(5);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> productoRepositorio.save(editado));
+        assertEquals(7, productoRepositorio.findById(producto.getId()).orElseThrow().getStockActual());
+    }
+}
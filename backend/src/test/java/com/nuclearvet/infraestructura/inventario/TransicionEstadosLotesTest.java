@@ -0,0 +1,65 @@
+package com.nuclearvet.infraestructura.inventario;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransicionEstadosLotesTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private TransicionEstadosLotes transicion;
+
+    @BeforeEach
+    void configurar() {
+        transicion = new TransicionEstadosLotes(jdbcTemplate);
+    }
+
+    @Test
+    void aplicar_DeberiaDevolverLosLotesQueCambiaronDeEstado() {
+        LocalDate hoy = LocalDate.of(2025, 3, 1);
+        Date fecha = Date.valueOf(hoy);
+        Date limite = Date.valueOf(LocalDate.of(2025, 3, 31));
+        when(jdbcTemplate.update(startsWith("UPDATE lotes SET estado = 'AGOTADO'"), any(Object[].class))).thenReturn(2);
+        when(jdbcTemplate.queryForList(startsWith("UPDATE lotes SET estado = 'VENCIDO'"), eq(Long.class), any(), eq(fecha)))
+                .thenReturn(List.of(3L, 4L));
+        when(jdbcTemplate.queryForList(startsWith("UPDATE lotes SET estado = 'PROXIMO_VENCER'"), eq(Long.class),
+                any(), eq(fecha), eq(limite)))
+                .thenReturn(List.of(7L));
+        when(jdbcTemplate.update(startsWith("UPDATE lotes SET estado = 'DISPONIBLE'"), any(), eq(limite))).thenReturn(1);
+
+        TransicionEstadosLotes.Resultado resultado = transicion.aplicar(hoy);
+
+        assertEquals(2, resultado.getAgotados());
+        assertEquals(List.of(3L, 4L), resultado.getVencidos());
+        assertEquals(List.of(7L), resultado.getProximosVencer());
+        assertEquals(1, resultado.getDisponibles());
+    }
+
+    @Test
+    void aplicar_DeberiaEjecutarLasTransicionesEnOrden() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of());
+
+        transicion.aplicar(LocalDate.of(2025, 3, 1));
+
+        // Agotado primero, para que las demás transiciones solo vean lotes con existencias
+        InOrder orden = inOrder(jdbcTemplate);
+        orden.verify(jdbcTemplate).update(contains("'AGOTADO'"), any(Object[].class));
+        orden.verify(jdbcTemplate).queryForList(contains("'VENCIDO'"), eq(Long.class), any(Object[].class));
+        orden.verify(jdbcTemplate).queryForList(contains("'PROXIMO_VENCER'"), eq(Long.class), any(Object[].class));
+        orden.verify(jdbcTemplate).update(contains("'DISPONIBLE'"), any(Object[].class));
+    }
+}
@@ -0,0 +1,162 @@
+package com.nuclearvet.infraestructura.notificaciones;
+
+import com.nuclearvet.dominio.entidades.Paciente;
+import com.nuclearvet.dominio.entidades.PlantillaMensaje;
+import com.nuclearvet.dominio.entidades.Propietario;
+import com.nuclearvet.dominio.entidades.Recordatorio;
+import com.nuclearvet.dominio.enumeraciones.EstadoCorreo;
+import com.nuclearvet.dominio.enumeraciones.TipoRecordatorio;
+import com.nuclearvet.dominio.servicios.PlantillaMensajeServicio;
+import com.nuclearvet.infraestructura.correo.BandejaSalidaCorreos;
+import com.nuclearvet.infraestructura.eventos.CanalEventos;
+import com.nuclearvet.infraestructura.persistencia.PlantillaMensajeRepositorio;
+import com.nuclearvet.infraestructura.persistencia.RecordatorioRepositorio;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DespachadorRecordatoriosTest {
+
+    @Mock
+    private RecordatorioRepositorio recordatorioRepositorio;
+
+    @Mock
+    private PlantillaMensajeRepositorio plantillaRepositorio;
+
+    @Mock
+    private PlantillaMensajeServicio plantillaServicio;
+
+    @Mock
+    private BandejaSalidaCorreos bandejaSalida;
+
+    @Mock
+    private CanalEventos canalEventos;
+
+    @Mock
+    private ContadoresTablero contadores;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DespachadorRecordatorios despachador;
+
+    private DespachadorRecordatorios crearDespachador(int tamanoLote) {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        despachador = new DespachadorRecordatorios(recordatorioRepositorio, plantillaRepositorio, plantillaServicio,
+                bandejaSalida, canalEventos, contadores, jdbcTemplate, transactionManager, tamanoLote, 2);
+        return despachador;
+    }
+
+    @AfterEach
+    void detener() {
+        if (despachador != null) {
+            despachador.detener();
+        }
+    }
+
+    private Recordatorio recordatorio(long id, String correo, LocalDateTime fecha) {
+        Propietario propietario = Propietario.builder().nombres("Ana").apellidos("Gómez").correoElectronico(correo).build();
+        Paciente paciente = Paciente.builder().nombre("Rocky").propietario(propietario).build();
+        return Recordatorio.builder().id(id).paciente(paciente).tipoRecordatorio(TipoRecordatorio.VACUNA)
+                .titulo("Vacuna antirrábica").fechaProgramada(fecha).build();
+    }
+
+    @Test
+    void despachar_DeberiaMarcarSoloLosEncoladosYEncolarLosQueTienenCorreo() {
+        LocalDateTime fecha = LocalDateTime.now().minusHours(1);
+        when(plantillaRepositorio.findByActivoTrue()).thenReturn(List.of(
+                PlantillaMensaje.builder().id(9L).nombre("RECORDATORIO_VACUNA").build()));
+        when(recordatorioRepositorio.reclamarPendientesDeEnvio(any(), any(), anyLong(), eq(10)))
+                .thenReturn(List.of(1L, 2L, 3L));
+        Recordatorio conError = recordatorio(2L, "falla@correo.co", fecha);
+        conError.getPaciente().getPropietario().setNombres("Falla");
+        when(recordatorioRepositorio.findParaDespacho(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                recordatorio(1L, "ana@correo.co", fecha), conError, recordatorio(3L, null, fecha)));
+        when(plantillaServicio.renderizarAsunto(eq(9L), anyMap())).thenReturn("Vacunación");
+        doAnswer(invocacion -> {
+            Map<String, String> variables = invocacion.getArgument(1);
+            if (variables.get("nombre_propietario").startsWith("Falla")) {
+                throw new IllegalStateException("Plantilla inválida");
+            }
+            return "Hola";
+        }).when(plantillaServicio).renderizar(eq(9L), anyMap());
+
+        int encolados = crearDespachador(10).despachar();
+
+        assertEquals(2, encolados);
+        ArgumentCaptor<List<Long>> marcados = ArgumentCaptor.forClass(List.class);
+        verify(recordatorioRepositorio).marcarComoEnviados(marcados.capture(), any());
+        assertEquals(List.of(1L, 3L), marcados.getValue());
+        ArgumentCaptor<List<?>> bandeja = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), bandeja.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(1, bandeja.getValue().size());
+        verify(contadores).sumarCorreos(EstadoCorreo.PENDIENTE, 1);
+        verify(bandejaSalida).notificarNuevos();
+        verify(recordatorioRepositorio, times(1)).reclamarPendientesDeEnvio(any(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void despachar_DeberiaAvanzarElCursorEntreLotes() {
+        LocalDateTime primera = LocalDateTime.now().minusHours(2);
+        LocalDateTime segunda = LocalDateTime.now().minusHours(1);
+        when(recordatorioRepositorio.reclamarPendientesDeEnvio(any(), any(), anyLong(), eq(1)))
+                .thenReturn(List.of(1L), List.of(2L), List.of());
+        when(recordatorioRepositorio.findParaDespacho(List.of(1L))).thenReturn(List.of(recordatorio(1L, "a@correo.co", primera)));
+        when(recordatorioRepositorio.findParaDespacho(List.of(2L))).thenReturn(List.of(recordatorio(2L, "b@correo.co", segunda)));
+
+        int enviados = crearDespachador(1).despachar();
+
+        assertEquals(2, enviados);
+        verify(recordatorioRepositorio).reclamarPendientesDeEnvio(any(), eq(primera), eq(1L), eq(1));
+        verify(recordatorioRepositorio).reclamarPendientesDeEnvio(any(), eq(segunda), eq(2L), eq(1));
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void despachar_DeberiaEncolarPendienteConLaPlantillaDelTipo() throws Exception {
+        when(plantillaRepositorio.findByActivoTrue()).thenReturn(List.of(
+                PlantillaMensaje.builder().id(9L).nombre("RECORDATORIO_VACUNA").build()));
+        when(recordatorioRepositorio.reclamarPendientesDeEnvio(any(), any(), anyLong(), eq(10))).thenReturn(List.of(1L));
+        when(recordatorioRepositorio.findParaDespacho(List.of(1L)))
+                .thenReturn(List.of(recordatorio(1L, "ana@correo.co", LocalDateTime.now().minusMinutes(5))));
+        when(plantillaServicio.renderizarAsunto(eq(9L), anyMap())).thenReturn("Vacunación - NuclearVET");
+        when(plantillaServicio.renderizar(eq(9L), argThat(v -> "Ana Gómez".equals(v.get("nombre_propietario"))
+                && "Vacuna antirrábica".equals(v.get("nombre_vacuna"))))).thenReturn("Hola Ana Gómez");
+
+        crearDespachador(10).despachar();
+
+        ArgumentCaptor<List<Object>> bandeja = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Object>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), bandeja.capture(), anyInt(), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, bandeja.getValue().get(0));
+        verify(ps).setString(1, "ana@correo.co");
+        verify(ps).setString(2, "Vacunación - NuclearVET");
+        verify(ps).setString(3, "Hola Ana Gómez");
+        verify(ps).setLong(4, 9L);
+        verify(ps).setString(5, "PENDIENTE");
+    }
+}
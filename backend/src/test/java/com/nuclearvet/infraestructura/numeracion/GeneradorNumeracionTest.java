@@ -0,0 +1,100 @@
+package com.nuclearvet.infraestructura.numeracion;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GeneradorNumeracionTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private GeneradorNumeracion generador;
+
+    @BeforeEach
+    void configurar() {
+        generador = new GeneradorNumeracion(jdbcTemplate, transactionManager);
+        ReflectionTestUtils.setField(generador, "tamanoBloque", 2);
+    }
+
+    @Test
+    void siguiente_DeberiaReservarBloqueSoloAlAgotarse() {
+        LocalDate hoy = LocalDate.of(2025, 1, 15);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("CIT"), eq("20250115"), eq(2)))
+                .thenReturn(2L, 4L);
+
+        assertEquals(1L, generador.siguiente("CIT", GeneradorNumeracion.Periodicidad.DIARIA, hoy));
+        assertEquals(2L, generador.siguiente("CIT", GeneradorNumeracion.Periodicidad.DIARIA, hoy));
+        assertEquals(3L, generador.siguiente("CIT", GeneradorNumeracion.Periodicidad.DIARIA, hoy));
+
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(Long.class), eq("CIT"), eq("20250115"), eq(2));
+    }
+
+    @Test
+    void siguiente_DeberiaReiniciarPorPeriodo() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("PAC-CAN"), anyString(), eq(2)))
+                .thenReturn(2L);
+
+        assertEquals(1L, generador.siguiente("PAC-CAN", GeneradorNumeracion.Periodicidad.MENSUAL, LocalDate.of(2025, 1, 31)));
+        assertEquals(1L, generador.siguiente("PAC-CAN", GeneradorNumeracion.Periodicidad.MENSUAL, LocalDate.of(2025, 2, 1)));
+
+        verify(jdbcTemplate).queryForObject(anyString(), eq(Long.class), eq("PAC-CAN"), eq("202501"), eq(2));
+        verify(jdbcTemplate).queryForObject(anyString(), eq(Long.class), eq("PAC-CAN"), eq("202502"), eq(2));
+    }
+
+    @Test
+    void siguiente_AlCambiarDePeriodo_DeberiaDevolverLoNoUsadoDelBloqueAnterior() {
+        ReflectionTestUtils.setField(generador, "tamanoBloque", 20);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("CIT"), eq("20250115"), eq(20)))
+                .thenReturn(20L);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("CIT"), eq("20250116"), eq(20)))
+                .thenReturn(20L);
+
+        generador.siguiente("CIT", GeneradorNumeracion.Periodicidad.DIARIA, LocalDate.of(2025, 1, 15));
+        generador.siguiente("CIT", GeneradorNumeracion.Periodicidad.DIARIA, LocalDate.of(2025, 1, 15));
+        generador.siguiente("CIT", GeneradorNumeracion.Periodicidad.DIARIA, LocalDate.of(2025, 1, 16));
+
+        // Solo si nadie reservó después del bloque (límite 20): el día 15 queda cerrado en 2
+        verify(jdbcTemplate).update(anyString(), eq(2L), eq("CIT"), eq("20250115"), eq(20L));
+    }
+
+    @Test
+    void detener_DeberiaDevolverLoNoUsadoDeCadaBloque() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("FAC"), eq("20250115"), eq(2)))
+                .thenReturn(6L);
+
+        generador.siguiente("FAC", GeneradorNumeracion.Periodicidad.DIARIA, LocalDate.of(2025, 1, 15));
+        generador.detener();
+
+        verify(jdbcTemplate).update(anyString(), eq(5L), eq("FAC"), eq("20250115"), eq(6L));
+    }
+
+    @Test
+    void siguiente_PedidoRezagadoDeUnPeriodoAnterior_NoDeberiaCerrarElBloqueVigente() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("CIT"), anyString(), eq(2))).thenReturn(2L);
+        LocalDate ayer = LocalDate.of(2025, 1, 15);
+        LocalDate hoy = LocalDate.of(2025, 1, 16);
+
+        assertEquals(1L, generador.siguiente("CIT", GeneradorNumeracion.Periodicidad.DIARIA, hoy));
+        assertEquals(1L, generador.siguiente("CIT", GeneradorNumeracion.Periodicidad.DIARIA, ayer));
+        assertEquals(2L, generador.siguiente("CIT", GeneradorNumeracion.Periodicidad.DIARIA, hoy));
+
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Long.class), eq("CIT"), eq("20250116"), eq(2));
+        verify(jdbcTemplate, never()).update(anyString(), any(), eq("CIT"), eq("20250116"), any());
+    }
+}
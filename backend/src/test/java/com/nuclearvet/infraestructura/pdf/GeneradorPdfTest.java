@@ -0,0 +1,144 @@
+package com.nuclearvet.infraestructura.pdf;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Paragraph;
+import com.nuclearvet.dominio.entidades.ConfiguracionClinica;
+import com.nuclearvet.infraestructura.persistencia.ConfiguracionClinicaRepositorio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GeneradorPdfTest {
+
+    private ConfiguracionClinicaRepositorio configuracionRepositorio;
+    private GeneradorPdf generador;
+
+    @BeforeEach
+    void configurar() {
+        configuracionRepositorio = mock(ConfiguracionClinicaRepositorio.class);
+        ConfiguracionClinica config = new ConfiguracionClinica();
+        config.setNombreClinica("Clínica Veterinaria Prueba");
+        config.setNit("900123456-7");
+        config.setDireccion("Calle 1");
+        config.setCiudad("Bogotá");
+        when(configuracionRepositorio.findConfiguracionActual()).thenReturn(Optional.of(config));
+        generador = new GeneradorPdf(new RecursosPdf(configuracionRepositorio), 2, 4, 30);
+    }
+
+    @AfterEach
+    void detener() {
+        generador.detener();
+    }
+
+    private static DocumentoPdf documento(String nombre, int parrafos) {
+        return new DocumentoPdf() {
+            @Override
+            public String getNombreArchivo() {
+                return nombre + ".pdf";
+            }
+
+            @Override
+            public void componer(Document documento, RecursosPdf.Fuentes fuentes) {
+                for (int i = 0; i < parrafos; i++) {
+                    documento.add(new Paragraph(nombre + " línea " + i));
+                }
+            }
+        };
+    }
+
+    @Test
+    void generar_DeberiaEstamparMembreteEnCadaPaginaYConstruirloUnaSolaVez() throws Exception {
+        byte[] pdf = generador.generar(documento("FAC-1", 120));
+        generador.generar(documento("FAC-2", 1));
+
+        try (PdfDocument leido = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            assertTrue(leido.getNumberOfPages() > 1);
+            for (int pagina = 1; pagina <= leido.getNumberOfPages(); pagina++) {
+                String texto = PdfTextExtractor.getTextFromPage(leido.getPage(pagina));
+                assertTrue(texto.contains("Clínica Veterinaria Prueba"));
+                assertTrue(texto.contains("Página " + pagina));
+            }
+        }
+        verify(configuracionRepositorio, times(1)).findConfiguracionActual();
+    }
+
+    @Test
+    void generarZip_DeberiaEscribirUnPdfPorDocumentoEnOrden() throws Exception {
+        List<List<DocumentoPdf>> lotes = List.of(
+                List.of(documento("FAC-1", 3), documento("FAC-2", 3), documento("FAC-3", 3)),
+                List.of(documento("FAC-4", 3)));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        assertEquals(4, generador.generarZip(lotes.iterator(), salida));
+
+        List<String> nombres = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(salida.toByteArray()))) {
+            ZipEntry entrada;
+            while ((entrada = zip.getNextEntry()) != null) {
+                nombres.add(entrada.getName());
+                try (PdfDocument leido = new PdfDocument(new PdfReader(new ByteArrayInputStream(zip.readAllBytes())))) {
+                    assertTrue(PdfTextExtractor.getTextFromPage(leido.getPage(1)).contains(entrada.getName().replace(".pdf", "")));
+                }
+            }
+        }
+        assertEquals(List.of("FAC-1.pdf", "FAC-2.pdf", "FAC-3.pdf", "FAC-4.pdf"), nombres);
+    }
+
+    @Test
+    void generar_ConPoolSaturado_DeberiaRechazar() throws Exception {
+        generador.detener();
+        generador = new GeneradorPdf(new RecursosPdf(configuracionRepositorio), 1, 1, 30);
+        CountDownLatch iniciado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        DocumentoPdf lento = new DocumentoPdf() {
+            @Override
+            public String getNombreArchivo() {
+                return "lento.pdf";
+            }
+
+            @Override
+            public void componer(Document documento, RecursosPdf.Fuentes fuentes) {
+                iniciado.countDown();
+                try {
+                    liberar.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                documento.add(new Paragraph("lento"));
+            }
+        };
+        CompletableFuture<byte[]> enCurso = CompletableFuture.supplyAsync(() -> generador.generar(lento));
+        assertTrue(iniciado.await(10, TimeUnit.SECONDS));
+
+        // Con el único hilo ocupado, de dos impresiones más una ocupa la cola y la otra se rechaza
+        CompletableFuture<byte[]> primera = CompletableFuture.supplyAsync(() -> generador.generar(documento("A", 1)));
+        CompletableFuture<byte[]> segunda = CompletableFuture.supplyAsync(() -> generador.generar(documento("B", 1)));
+        CompletableFuture.anyOf(primera, segunda).exceptionally(e -> null).get(10, TimeUnit.SECONDS);
+        liberar.countDown();
+
+        CompletableFuture<byte[]> rechazada = primera.isCompletedExceptionally() ? primera : segunda;
+        CompletableFuture<byte[]> encolada = rechazada == primera ? segunda : primera;
+        Exception error = assertThrows(Exception.class, () -> rechazada.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        assertNotNull(encolada.get(10, TimeUnit.SECONDS));
+        assertNotNull(enCurso.get(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,89 @@
+package com.nuclearvet.infraestructura.persistencia;
+
+import com.nuclearvet.dominio.entidades.Cita;
+import com.nuclearvet.dominio.entidades.Paciente;
+import com.nuclearvet.dominio.entidades.Propietario;
+import com.nuclearvet.dominio.entidades.Rol;
+import com.nuclearvet.dominio.entidades.Usuario;
+import com.nuclearvet.dominio.enums.EstadoCita;
+import com.nuclearvet.dominio.enums.Especie;
+import com.nuclearvet.dominio.enums.Sexo;
+import com.nuclearvet.dominio.enums.TipoCita;
+import com.nuclearvet.dominio.enums.TipoIdentificacion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica la consulta nativa de solapamiento con la que CitaServicio confirma cada reserva
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class CitaRepositorioTest {
+
+    @Configuration
+    @AutoConfigurationPackage(basePackages = "com.nuclearvet")
+    @EnableJpaAuditing
+    static class Configuracion {
+    }
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private CitaRepositorio citaRepositorio;
+
+    private Usuario veterinario;
+    private LocalDateTime nueve;
+
+    @BeforeEach
+    void poblar() {
+        nueve = LocalDate.now().plusDays(1).atTime(9, 0);
+        Rol rol = em.persist(Rol.builder().nombre("VETERINARIO").build());
+        veterinario = em.persist(Usuario.builder()
+                .nombreCompleto("Dra. Laura Gómez").numeroDocumento("1000").correoElectronico("laura@nuclearvet.co")
+                .contrasena("x").rol(rol).build());
+        Propietario propietario = em.persist(Propietario.builder()
+                .tipoIdentificacion(TipoIdentificacion.CEDULA_CIUDADANIA).numeroIdentificacion("P1")
+                .nombres("Ana").apellidos("Pérez").telefonoPrincipal("3001").build());
+        Paciente paciente = em.persist(Paciente.builder()
+                .codigo("CAN2025011").nombre("Rocky").especie(Especie.CANINO).sexo(Sexo.MACHO)
+                .propietario(propietario).build());
+        em.persist(Cita.builder().numeroCita("CIT-1").paciente(paciente).veterinario(veterinario)
+                .propietario(propietario).tipoCita(TipoCita.CONSULTA_GENERAL).fechaHora(nueve).duracionEstimada(45)
+                .motivoConsulta("Control").build());
+        em.persist(Cita.builder().numeroCita("CIT-2").paciente(paciente).veterinario(veterinario)
+                .propietario(propietario).tipoCita(TipoCita.CONSULTA_GENERAL).fechaHora(nueve.plusHours(2))
+                .duracionEstimada(30).estado(EstadoCita.CANCELADA).motivoConsulta("Control").build());
+        em.flush();
+    }
+
+    @Test
+    void existeSolapamiento_DeberiaUsarLaDuracionDeLaCitaExistente() {
+        assertTrue(citaRepositorio.existeSolapamiento(veterinario.getId(), nueve.plusMinutes(30), nueve.plusMinutes(60)));
+        assertTrue(citaRepositorio.existeSolapamiento(veterinario.getId(), nueve.minusMinutes(15), nueve.plusMinutes(15)));
+        assertFalse(citaRepositorio.existeSolapamiento(veterinario.getId(), nueve.plusMinutes(45), nueve.plusMinutes(75)));
+        assertFalse(citaRepositorio.existeSolapamiento(veterinario.getId(), nueve.minusMinutes(30), nueve));
+    }
+
+    @Test
+    void existeSolapamiento_NoDeberiaContarCitasCanceladasNiDeOtroVeterinario() {
+        assertFalse(citaRepositorio.existeSolapamiento(veterinario.getId(), nueve.plusHours(2), nueve.plusHours(3)));
+        assertFalse(citaRepositorio.existeSolapamiento(veterinario.getId() + 1, nueve, nueve.plusMinutes(30)));
+    }
+}
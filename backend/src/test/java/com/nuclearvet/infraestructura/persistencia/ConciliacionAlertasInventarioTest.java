@@ -0,0 +1,117 @@
+package com.nuclearvet.infraestructura.persistencia;
+
+import com.nuclearvet.dominio.entidades.AlertaInventario;
+import com.nuclearvet.dominio.entidades.CategoriaProducto;
+import com.nuclearvet.dominio.entidades.Lote;
+import com.nuclearvet.dominio.entidades.Producto;
+import com.nuclearvet.dominio.enumeraciones.EstadoLote;
+import com.nuclearvet.dominio.enumeraciones.TipoProducto;
+import com.nuclearvet.dominio.enumeraciones.UnidadMedida;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifica la sentencia de conciliación de alertas de inventario: genera las que faltan
+ * sin duplicar alertas abiertas del mismo tipo o de uno más grave
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class ConciliacionAlertasInventarioTest {
+
+    @Configuration
+    @AutoConfigurationPackage(basePackages = "com.nuclearvet")
+    static class Configuracion {
+    }
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private AlertaInventarioRepositorio alertaRepositorio;
+
+    private CategoriaProducto categoria;
+    private int consecutivo;
+
+    @BeforeEach
+    void preparar() {
+        categoria = em.persist(CategoriaProducto.builder().nombre("MEDICAMENTOS").activo(true).build());
+    }
+
+    private Producto producto(String nombre, int stockActual, int stockMinimo) {
+        return em.persist(Producto.builder().codigo("P-" + (++consecutivo)).nombre(nombre)
+                .tipoProducto(TipoProducto.values()[0]).unidadMedida(UnidadMedida.values()[0])
+                .stockActual(stockActual).stockMinimo(stockMinimo).activo(true).categoria(categoria).build());
+    }
+
+    private Lote lote(Producto producto, LocalDate vencimiento) {
+        return em.persist(Lote.builder().numeroLote("L-" + (++consecutivo)).producto(producto)
+                .fechaIngreso(LocalDate.now()).fechaVencimiento(vencimiento)
+                .cantidadInicial(10).cantidadDisponible(10).build());
+    }
+
+    @Test
+    void insertarAlertasFaltantes_DeberiaGenerarSoloLasQueFaltan() {
+        Producto bajo = producto("Amoxicilina", 3, 10);
+        Producto agotado = producto("Meloxicam", 0, 5);
+        Producto suficiente = producto("Ivermectina", 100, 10);
+        Lote proximo = lote(suficiente, LocalDate.now().plusDays(10));
+        Lote vencido = lote(suficiente, LocalDate.now().minusDays(2));
+        lote(suficiente, LocalDate.now().plusDays(200));
+        Lote bloqueado = lote(suficiente, LocalDate.now().minusDays(2));
+        // El producto agotado ya tiene alerta abierta; el lote vencido tiene una ya leída
+        em.persist(AlertaInventario.builder().tipo("PRODUCTO_AGOTADO").mensaje("Agotado").prioridad("CRITICA")
+                .producto(agotado).build());
+        AlertaInventario leida = AlertaInventario.builder().tipo("LOTE_VENCIDO").mensaje("Vencido").prioridad("CRITICA")
+                .producto(suficiente).lote(vencido).build();
+        leida.marcarComoLeida();
+        em.persist(leida);
+        em.flush();
+        // Lote.actualizarEstado recalcula el estado al guardar; el bloqueo se fija directamente
+        em.getEntityManager().createNativeQuery("UPDATE lotes SET estado = :estado WHERE id = :id")
+                .setParameter("estado", EstadoLote.BLOQUEADO.name()).setParameter("id", bloqueado.getId())
+                .executeUpdate();
+
+        LocalDate hoy = LocalDate.now();
+        int insertadas = alertaRepositorio.insertarAlertasFaltantes(hoy, hoy.plusDays(30), LocalDateTime.now());
+        em.clear();
+
+        assertEquals(3, insertadas);
+        List<String> abiertas = alertaRepositorio.findNoLeidas().stream()
+                .map(a -> a.getTipo() + ":" + a.getProducto().getId() + ":" + (a.getLote() != null ? a.getLote().getId() : "-"))
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals(List.of(
+                "LOTE_VENCIDO:" + suficiente.getId() + ":" + vencido.getId(),
+                "PRODUCTO_AGOTADO:" + agotado.getId() + ":-",
+                "PROXIMO_VENCER:" + suficiente.getId() + ":" + proximo.getId(),
+                "STOCK_BAJO:" + bajo.getId() + ":-"), abiertas);
+        assertEquals(0, alertaRepositorio.insertarAlertasFaltantes(hoy, hoy.plusDays(30), LocalDateTime.now()));
+    }
+
+    @Test
+    void insertarAlertasFaltantes_AgotadoAbiertoDeberiaCubrirStockBajo() {
+        Producto producto = producto("Amoxicilina", 2, 10);
+        em.persist(AlertaInventario.builder().tipo("PRODUCTO_AGOTADO").mensaje("Agotado").prioridad("CRITICA")
+                .producto(producto).build());
+        em.flush();
+
+        LocalDate hoy = LocalDate.now();
+        assertEquals(0, alertaRepositorio.insertarAlertasFaltantes(hoy, hoy.plusDays(30), LocalDateTime.now()));
+    }
+}
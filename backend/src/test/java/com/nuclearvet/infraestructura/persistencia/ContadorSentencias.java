@@ -0,0 +1,26 @@
+package com.nuclearvet.infraestructura.persistencia;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Cuenta las sentencias SQL preparadas por Hibernate entre dos puntos de una prueba
+ */
+class ContadorSentencias {
+
+    private final Statistics estadisticas;
+
+    ContadorSentencias(EntityManager entityManager) {
+        this.estadisticas = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        this.estadisticas.setStatisticsEnabled(true);
+    }
+
+    void reiniciar() {
+        estadisticas.clear();
+    }
+
+    long sentencias() {
+        return estadisticas.getPrepareStatementCount();
+    }
+}
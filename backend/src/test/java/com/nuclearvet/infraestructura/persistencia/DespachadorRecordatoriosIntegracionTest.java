@@ -0,0 +1,165 @@
+package com.nuclearvet.infraestructura.persistencia;
+
+import com.nuclearvet.dominio.entidades.Paciente;
+import com.nuclearvet.dominio.entidades.Propietario;
+import com.nuclearvet.dominio.entidades.Recordatorio;
+import com.nuclearvet.dominio.enumeraciones.TipoRecordatorio;
+import com.nuclearvet.dominio.enums.Especie;
+import com.nuclearvet.dominio.enums.Sexo;
+import com.nuclearvet.dominio.enums.TipoIdentificacion;
+import com.nuclearvet.dominio.servicios.PlantillaMensajeServicio;
+import com.nuclearvet.infraestructura.correo.BandejaSalidaCorreos;
+import com.nuclearvet.infraestructura.eventos.CanalEventos;
+import com.nuclearvet.infraestructura.notificaciones.DespachadorRecordatorios;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Verifica que dos despachadores vaciando la cola a la vez no encolen dos veces el mismo
+ * recordatorio: mientras uno tiene su lote reservado (FOR UPDATE SKIP LOCKED) el otro salta
+ * esas filas sin esperar sus bloqueos, y la cola se recorre completa por (fecha_programada, id)
+ * aunque muchos recordatorios compartan la misma fecha.
+ *
+ * H2 aplica el LIMIT antes de saltar las filas bloqueadas, así que aquí el segundo encuentra
+ * vacía su ventana; en PostgreSQL tomaría las siguientes. Lo que se comprueba vale para ambos
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DespachadorRecordatoriosIntegracionTest {
+
+    private static final int RECORDATORIOS = 24;
+    private static final int TAMANO_LOTE = 5;
+
+    @Configuration
+    @AutoConfigurationPackage(basePackages = "com.nuclearvet")
+    @EnableJpaAuditing
+    static class Configuracion {
+    }
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RecordatorioRepositorio recordatorioRepositorio;
+
+    @Autowired
+    private PlantillaMensajeRepositorio plantillaRepositorio;
+
+    @BeforeEach
+    void poblar() {
+        // Tres horas programadas con ocho recordatorios cada una: los lotes cortan dentro de una misma fecha
+        LocalDateTime vencida = LocalDateTime.now().minusHours(4).withNano(0);
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado -> {
+            for (int i = 0; i < RECORDATORIOS; i++) {
+                Propietario propietario = Propietario.builder()
+                        .tipoIdentificacion(TipoIdentificacion.CEDULA_CIUDADANIA).numeroIdentificacion("P" + i)
+                        .nombres("Propietario " + i).apellidos("Pérez").telefonoPrincipal("300" + i)
+                        .correoElectronico("propietario" + i + "@correo.co").build();
+                em.persist(propietario);
+                Paciente paciente = Paciente.builder()
+                        .codigo("CAN2025010" + i).nombre("Paciente " + i).especie(Especie.CANINO).sexo(Sexo.MACHO)
+                        .propietario(propietario).build();
+                em.persist(paciente);
+                em.persist(Recordatorio.builder()
+                        .paciente(paciente).tipoRecordatorio(TipoRecordatorio.VACUNA).titulo("Vacuna " + i)
+                        .fechaProgramada(vencida.plusHours(i % 3)).build());
+            }
+        });
+    }
+
+    @AfterEach
+    void limpiar() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado -> {
+            jdbcTemplate.update("DELETE FROM historial_correos");
+            jdbcTemplate.update("DELETE FROM recordatorios");
+            jdbcTemplate.update("DELETE FROM pacientes");
+            jdbcTemplate.update("DELETE FROM propietarios");
+        });
+    }
+
+    @Test
+    void despachar_DosInstanciasALaVez_NoDeberiaEncolarNingunRecordatorioDosVeces() throws Exception {
+        CountDownLatch primeroConLoteReservado = new CountDownLatch(1);
+        CountDownLatch segundoTerminado = new CountDownLatch(1);
+        AtomicBoolean segundoNoEsperoLosBloqueos = new AtomicBoolean();
+
+        // El primero retiene su primer lote (y sus bloqueos) hasta que el segundo haya terminado
+        BandejaSalidaCorreos bandejaPrimero = mock(BandejaSalidaCorreos.class);
+        doAnswer(invocacion -> {
+            primeroConLoteReservado.countDown();
+            if (segundoTerminado.getCount() > 0 && segundoTerminado.await(10, TimeUnit.SECONDS)) {
+                segundoNoEsperoLosBloqueos.set(true);
+            }
+            return null;
+        }).when(bandejaPrimero).notificarNuevos();
+
+        DespachadorRecordatorios primero = despachador(bandejaPrimero);
+        DespachadorRecordatorios segundo = despachador(mock(BandejaSalidaCorreos.class));
+        try {
+            CompletableFuture<Integer> delPrimero = CompletableFuture.supplyAsync(primero::despachar, hilo("primero"));
+            assertTrue(primeroConLoteReservado.await(10, TimeUnit.SECONDS));
+            CompletableFuture<Integer> delSegundo = CompletableFuture.supplyAsync(segundo::despachar, hilo("segundo"))
+                    .whenComplete((enviados, error) -> segundoTerminado.countDown());
+
+            int enviados = delPrimero.get(30, TimeUnit.SECONDS) + delSegundo.get(30, TimeUnit.SECONDS);
+
+            assertTrue(segundoNoEsperoLosBloqueos.get(), "El segundo despachador esperó los bloqueos del primero");
+            assertEquals(RECORDATORIOS, enviados);
+            assertEquals(RECORDATORIOS, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM historial_correos", Integer.class));
+            assertEquals(RECORDATORIOS, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(DISTINCT destinatario_email) FROM historial_correos", Integer.class));
+            assertEquals(0, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM recordatorios WHERE enviado = false", Integer.class));
+        } finally {
+            primero.detener();
+            segundo.detener();
+        }
+    }
+
+    private static Executor hilo(String nombre) {
+        return tarea -> new Thread(tarea, "despachador-" + nombre).start();
+    }
+
+    private DespachadorRecordatorios despachador(BandejaSalidaCorreos bandeja) {
+        return new DespachadorRecordatorios(recordatorioRepositorio, plantillaRepositorio,
+                mock(PlantillaMensajeServicio.class), bandeja, mock(CanalEventos.class), mock(ContadoresTablero.class),
+                jdbcTemplate, transactionManager, TAMANO_LOTE, 2);
+    }
+}
@@ -0,0 +1,96 @@
+package com.nuclearvet.infraestructura.persistencia;
+
+import com.nuclearvet.dominio.entidades.Rol;
+import com.nuclearvet.dominio.entidades.Usuario;
+import com.nuclearvet.dominio.enums.TipoAccion;
+import com.nuclearvet.infraestructura.auditoria.EntradaActividad;
+import com.nuclearvet.infraestructura.auditoria.EscritorRegistroActividad;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifica que la escritura síncrona de auditoría con el buffer lleno, que ocurre al
+ * confirmar la transacción del llamador, quede realmente guardada en la base de datos.
+ * Con el pool sin autocommit, Hibernate no lo restablece al confirmar y cualquier escritura
+ * sobre la conexión ya confirmada se revierte al devolverla al pool
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:auditoria;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.auto-commit=false",
+        "spring.jpa.properties.hibernate.connection.provider_disables_autocommit=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EscritorRegistroActividadIntegracionTest {
+
+    @Configuration
+    @AutoConfigurationPackage(basePackages = "com.nuclearvet")
+    static class Configuracion {
+    }
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void limpiar() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado -> {
+            jdbcTemplate.update("DELETE FROM registro_actividad");
+            jdbcTemplate.update("DELETE FROM usuarios");
+            jdbcTemplate.update("DELETE FROM roles");
+        });
+    }
+
+    @Test
+    void registrar_ConBufferLleno_DeberiaConfirmarLaEntradaEnSuPropiaTransaccion() {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        Long usuarioId = transaccion.execute(estado -> {
+            Rol rol = Rol.builder().nombre("VETERINARIO").build();
+            em.persist(rol);
+            Usuario usuario = Usuario.builder().nombreCompleto("Dra. Laura Gómez").numeroDocumento("1000")
+                    .correoElectronico("laura@nuclearvet.co").contrasena("x").rol(rol).build();
+            em.persist(usuario);
+            return usuario.getId();
+        });
+        // Sin iniciar, el escritor no acepta entradas en el buffer y escribe en el hilo del llamador
+        EscritorRegistroActividad escritor = new EscritorRegistroActividad(jdbcTemplate, transactionManager, 1, 1, 60_000, "");
+
+        transaccion.executeWithoutResult(estado -> escritor.registrar(EntradaActividad.builder()
+                .usuarioId(usuarioId)
+                .tipoAccion(TipoAccion.CREAR_CITA)
+                .descripcion("Cita creada: CIT-1")
+                .ipOrigen("127.0.0.1")
+                .fechaHora(LocalDateTime.now())
+                .build()));
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM registro_actividad", Integer.class));
+        assertEquals(1L, escritor.obtenerEstadisticas().get("escritasSincronas"));
+    }
+}
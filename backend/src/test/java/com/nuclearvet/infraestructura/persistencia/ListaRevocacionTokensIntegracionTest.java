@@ -0,0 +1,102 @@
+package com.nuclearvet.infraestructura.persistencia;
+
+import com.nuclearvet.dominio.entidades.RevocacionUsuario;
+import com.nuclearvet.dominio.entidades.TokenRevocado;
+import com.nuclearvet.infraestructura.seguridad.JwtUtil;
+import com.nuclearvet.infraestructura.seguridad.ListaRevocacionTokens;
+import com.nuclearvet.infraestructura.seguridad.UsuarioAutenticado;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que las revocaciones de tokens sobrevivan a un reinicio: una lista nueva,
+ * como la de otra instancia o la de un arranque posterior, las lee de la base de datos
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class ListaRevocacionTokensIntegracionTest {
+
+    private static final long EXPIRACION_MS = 86_400_000L;
+
+    @Configuration
+    @AutoConfigurationPackage(basePackages = "com.nuclearvet")
+    static class Configuracion {
+    }
+
+    @Autowired
+    private TokenRevocadoRepositorio tokenRevocadoRepositorio;
+
+    @Autowired
+    private RevocacionUsuarioRepositorio revocacionUsuarioRepositorio;
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void configurar() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secreto", "NuclearVET2024ClaveSecretaSuperSeguraParaTokensJWTColombia");
+        ReflectionTestUtils.setField(jwtUtil, "tiempoExpiracion", EXPIRACION_MS);
+        jwtUtil.inicializar();
+    }
+
+    private ListaRevocacionTokens nuevaLista() {
+        ListaRevocacionTokens lista = new ListaRevocacionTokens(tokenRevocadoRepositorio, revocacionUsuarioRepositorio);
+        ReflectionTestUtils.setField(lista, "tiempoExpiracion", EXPIRACION_MS);
+        lista.cargar();
+        return lista;
+    }
+
+    private Claims token(long usuarioId) {
+        return jwtUtil.verificar(jwtUtil.generarToken(
+                new UsuarioAutenticado(usuarioId, "u" + usuarioId + "@nuclearvet.co", "hash", "VETERINARIO"))).orElseThrow();
+    }
+
+    @Test
+    void cargar_DeberiaRecuperarLasRevocacionesGuardadasAntesDelReinicio() throws InterruptedException {
+        Claims cerrado = token(7L);
+        Claims previo = token(8L);
+        Claims ajeno = token(9L);
+
+        ListaRevocacionTokens antes = nuevaLista();
+        antes.revocar(cerrado.getId(), cerrado.getExpiration());
+        Thread.sleep(1100);
+        antes.revocarUsuario(8L);
+
+        ListaRevocacionTokens despues = nuevaLista();
+        assertTrue(despues.estaRevocado(cerrado));
+        assertTrue(despues.estaRevocado(previo));
+        assertFalse(despues.estaRevocado(ajeno));
+        assertFalse(despues.estaRevocado(token(8L)));
+    }
+
+    @Test
+    void sincronizar_DeberiaDescartarLasRevocacionesQueYaNoAfectanANingunToken() {
+        LocalDateTime ahora = LocalDateTime.now();
+        tokenRevocadoRepositorio.save(new TokenRevocado("vencido", ahora.minusMinutes(1)));
+        tokenRevocadoRepositorio.save(new TokenRevocado("vigente", ahora.plusHours(1)));
+        revocacionUsuarioRepositorio.save(new RevocacionUsuario(7L, ahora.minusDays(2)));
+        revocacionUsuarioRepositorio.save(new RevocacionUsuario(8L, ahora.minusHours(1)));
+
+        ListaRevocacionTokens lista = nuevaLista();
+        lista.sincronizar();
+
+        assertEquals(1, tokenRevocadoRepositorio.count());
+        assertTrue(tokenRevocadoRepositorio.existsById("vigente"));
+        assertEquals(1, revocacionUsuarioRepositorio.count());
+        assertTrue(revocacionUsuarioRepositorio.existsById(8L));
+    }
+}
@@ -0,0 +1,191 @@
+package com.nuclearvet.infraestructura.persistencia;
+
+import com.nuclearvet.aplicacion.dtos.CitaDTO;
+import com.nuclearvet.aplicacion.mapeadores.CitaMapeadorImpl;
+import com.nuclearvet.aplicacion.mapeadores.ConsultaMapeadorImpl;
+import com.nuclearvet.aplicacion.mapeadores.FacturaMapeadorImpl;
+import com.nuclearvet.aplicacion.mapeadores.ItemFacturaMapeadorImpl;
+import com.nuclearvet.aplicacion.mapeadores.RecordatorioMapeadorImpl;
+import com.nuclearvet.aplicacion.servicios.CitaServicio;
+import com.nuclearvet.aplicacion.servicios.ConsultaServicio;
+import com.nuclearvet.aplicacion.servicios.RegistroActividadServicio;
+import com.nuclearvet.compartido.paginacion.ProcesadorFlujo;
+import com.nuclearvet.dominio.entidades.*;
+import com.nuclearvet.dominio.enumeraciones.EstadoFactura;
+import com.nuclearvet.dominio.enumeraciones.TipoImpuesto;
+import com.nuclearvet.dominio.enumeraciones.TipoRecordatorio;
+import com.nuclearvet.dominio.enums.EstadoCita;
+import com.nuclearvet.dominio.enums.Especie;
+import com.nuclearvet.dominio.enums.Sexo;
+import com.nuclearvet.dominio.enums.TipoCita;
+import com.nuclearvet.dominio.enums.TipoIdentificacion;
+import com.nuclearvet.dominio.servicios.FacturaServicio;
+import com.nuclearvet.dominio.servicios.RecordatorioServicio;
+import com.nuclearvet.infraestructura.agenda.CacheAgendaDiaria;
+import com.nuclearvet.infraestructura.agenda.IndiceDisponibilidadVeterinario;
+import com.nuclearvet.infraestructura.notificaciones.DespachadorRecordatorios;
+import com.nuclearvet.infraestructura.numeracion.GeneradorNumeracion;
+import com.nuclearvet.infraestructura.tablero.ContadoresTablero;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Verifica que los listados de citas, facturas, consultas y recordatorios se resuelvan
+ * con una sola sentencia SQL, sin importar cuántas filas devuelvan. Se cuentan las
+ * sentencias de la llamada al servicio completa, incluido el armado de los DTO, para
+ * que también falle si un mapeador recorre una relación que la consulta no trajo
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.default_batch_fetch_size=1"
+})
+class ListadosSinNMasUnoTest {
+
+    private static final int FILAS = 5;
+
+    @Configuration
+    @AutoConfigurationPackage(basePackages = "com.nuclearvet")
+    @EnableJpaAuditing
+    @Import({CitaServicio.class, ConsultaServicio.class, FacturaServicio.class, RecordatorioServicio.class,
+            CitaMapeadorImpl.class, FacturaMapeadorImpl.class, ItemFacturaMapeadorImpl.class,
+            ConsultaMapeadorImpl.class, RecordatorioMapeadorImpl.class, CacheAgendaDiaria.class})
+    static class Configuracion {
+    }
+
+    @MockBean
+    private RegistroActividadServicio registroActividadServicio;
+
+    @MockBean
+    private IndiceDisponibilidadVeterinario indiceDisponibilidad;
+
+    @MockBean
+    private GeneradorNumeracion generadorNumeracion;
+
+    @MockBean
+    private ProcesadorFlujo procesadorFlujo;
+
+    @MockBean
+    private ContadoresTablero contadores;
+
+    @MockBean
+    private DespachadorRecordatorios despachadorRecordatorios;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private CitaServicio citaServicio;
+
+    @Autowired
+    private FacturaServicio facturaServicio;
+
+    @Autowired
+    private ConsultaServicio consultaServicio;
+
+    @Autowired
+    private RecordatorioServicio recordatorioServicio;
+
+    private ContadorSentencias contador;
+    private Usuario veterinario;
+    private LocalDateTime hoy;
+
+    @BeforeEach
+    void poblar() {
+        hoy = LocalDate.now().atTime(8, 0);
+        Rol rol = em.persist(Rol.builder().nombre("VETERINARIO").build());
+        veterinario = em.persist(Usuario.builder()
+                .nombreCompleto("Dra. Laura Gómez").numeroDocumento("1000").correoElectronico("laura@nuclearvet.co")
+                .contrasena("x").rol(rol).build());
+
+        for (int i = 0; i < FILAS; i++) {
+            Propietario propietario = em.persist(Propietario.builder()
+                    .tipoIdentificacion(TipoIdentificacion.CEDULA_CIUDADANIA).numeroIdentificacion("P" + i)
+                    .nombres("Propietario " + i).apellidos("Pérez").telefonoPrincipal("300" + i).build());
+            Paciente paciente = em.persist(Paciente.builder()
+                    .codigo("CAN2025010" + i).nombre("Paciente " + i).especie(Especie.CANINO).sexo(Sexo.MACHO)
+                    .propietario(propietario).build());
+            Cita cita = em.persist(Cita.builder()
+                    .numeroCita("CIT-" + i).paciente(paciente).veterinario(veterinario).propietario(propietario)
+                    .tipoCita(TipoCita.CONSULTA_GENERAL).fechaHora(hoy.plusHours(i)).motivoConsulta("Control").build());
+            HistoriaClinica historia = em.persist(HistoriaClinica.builder()
+                    .numeroHistoria("HIST-" + i).paciente(paciente).build());
+            em.persist(Consulta.builder()
+                    .numeroConsulta("CONS-" + i).historiaClinica(historia).veterinario(veterinario).cita(cita)
+                    .fechaConsulta(hoy.plusHours(i)).motivoConsulta("Control").diagnostico("Sano").build());
+            em.persist(Recordatorio.builder()
+                    .paciente(paciente).cita(cita).tipoRecordatorio(TipoRecordatorio.CITA).titulo("Recordatorio " + i)
+                    .fechaProgramada(hoy.plusDays(1)).build());
+
+            Factura factura = Factura.builder()
+                    .numeroFactura("FAC-" + i).propietario(propietario).paciente(paciente).usuarioCreador(veterinario)
+                    .fechaEmision(LocalDate.now()).fechaVencimiento(LocalDate.now().plusDays(30))
+                    .estado(EstadoFactura.PENDIENTE).subtotal(BigDecimal.TEN).impuestos(BigDecimal.ZERO)
+                    .descuento(BigDecimal.ZERO).total(BigDecimal.TEN).saldoPendiente(BigDecimal.TEN).build();
+            factura.getItems().add(ItemFactura.builder().factura(factura).descripcion("Consulta").cantidad(1)
+                    .precioUnitario(BigDecimal.TEN).tipoImpuesto(TipoImpuesto.EXCLUIDO).build());
+            em.persist(factura);
+        }
+        em.flush();
+        em.clear();
+        contador = new ContadorSentencias(em.getEntityManager());
+        contador.reiniciar();
+    }
+
+    @Test
+    void listarCitasPorFecha_DeberiaUsarUnaSolaSentencia() {
+        List<CitaDTO> dtos = citaServicio.listarCitasPorFecha(hoy.toLocalDate());
+
+        assertEquals(FILAS, dtos.size());
+        assertNotNull(dtos.get(0).getVeterinarioNombre());
+        assertEquals(1, contador.sentencias());
+    }
+
+    @Test
+    void listarCitasPorEstadoYTodas_DeberianUsarUnaSentenciaCadaUna() {
+        assertEquals(FILAS, citaServicio.listarCitasPorEstado(EstadoCita.PENDIENTE).size());
+        assertEquals(FILAS, citaServicio.listarCitas().size());
+
+        assertEquals(2, contador.sentencias());
+    }
+
+    @Test
+    void listarFacturas_DeberiaTraerItemsYRelacionesEnUnaSentencia() {
+        facturaServicio.listarTodas().forEach(factura -> assertNotNull(factura.getItems().get(0)));
+
+        assertEquals(1, contador.sentencias());
+    }
+
+    @Test
+    void listarConsultasPorVeterinario_DeberiaUsarUnaSolaSentencia() {
+        assertEquals(FILAS, consultaServicio.listarPorVeterinario(veterinario.getId()).size());
+
+        assertEquals(1, contador.sentencias());
+    }
+
+    @Test
+    void listarRecordatoriosPendientes_DeberiaUsarUnaSolaSentencia() {
+        assertEquals(FILAS, recordatorioServicio.listarPendientes().size());
+        assertEquals(FILAS, recordatorioServicio.listarTodos().size());
+
+        assertEquals(2, contador.sentencias());
+    }
+}
@@ -0,0 +1,61 @@
+package com.nuclearvet.infraestructura.seguridad;
+
+import com.nuclearvet.dominio.entidades.Rol;
+import com.nuclearvet.dominio.entidades.Usuario;
+import com.nuclearvet.infraestructura.persistencia.UsuarioRepositorio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DetallesUsuarioServicioImplTest {
+
+    private static final String CORREO = "vet@nuclearvet.co";
+
+    @Mock
+    private UsuarioRepositorio usuarioRepositorio;
+
+    private CachePrincipales cachePrincipales;
+    private DetallesUsuarioServicioImpl servicio;
+
+    @BeforeEach
+    void configurar() {
+        cachePrincipales = new CachePrincipales();
+        ReflectionTestUtils.setField(cachePrincipales, "ttlSegundos", 300L);
+        ReflectionTestUtils.setField(cachePrincipales, "capacidad", 10);
+        servicio = new DetallesUsuarioServicioImpl(usuarioRepositorio, cachePrincipales);
+
+        Usuario usuario = Usuario.builder().id(7L).correoElectronico(CORREO).contrasena("hash")
+                .rol(Rol.builder().nombre("VETERINARIO").build()).build();
+        when(usuarioRepositorio.findByCorreoElectronico(CORREO)).thenReturn(Optional.of(usuario));
+    }
+
+    @Test
+    void loadUserByUsername_DeberiaConsultarUnaSolaVezYExponerIdYRol() {
+        UsuarioAutenticado primero = (UsuarioAutenticado) servicio.loadUserByUsername(CORREO);
+        primero.eraseCredentials();
+        UsuarioAutenticado segundo = (UsuarioAutenticado) servicio.loadUserByUsername(CORREO);
+
+        verify(usuarioRepositorio, times(1)).findByCorreoElectronico(CORREO);
+        assertEquals(7L, segundo.getUsuarioId());
+        assertEquals("VETERINARIO", segundo.getRol());
+        assertEquals("hash", segundo.getPassword());
+    }
+
+    @Test
+    void invalidar_DeberiaForzarNuevaConsulta() {
+        servicio.loadUserByUsername(CORREO);
+        cachePrincipales.invalidar(CORREO);
+        servicio.loadUserByUsername(CORREO);
+
+        verify(usuarioRepositorio, times(2)).findByCorreoElectronico(CORREO);
+    }
+}
@@ -0,0 +1,72 @@
+package com.nuclearvet.infraestructura.seguridad;
+
+import com.nuclearvet.infraestructura.persistencia.RevocacionUsuarioRepositorio;
+import com.nuclearvet.infraestructura.persistencia.TokenRevocadoRepositorio;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class JwtUtilTest {
+
+    private static final String SECRETO = "NuclearVET2024ClaveSecretaSuperSeguraParaTokensJWTColombia";
+
+    private JwtUtil jwtUtil;
+    private ListaRevocacionTokens listaRevocacion;
+
+    @BeforeEach
+    void configurar() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secreto", SECRETO);
+        ReflectionTestUtils.setField(jwtUtil, "tiempoExpiracion", 60_000L);
+        jwtUtil.inicializar();
+
+        listaRevocacion = new ListaRevocacionTokens(mock(TokenRevocadoRepositorio.class),
+                mock(RevocacionUsuarioRepositorio.class));
+        ReflectionTestUtils.setField(listaRevocacion, "tiempoExpiracion", 60_000L);
+    }
+
+    @Test
+    void generarToken_DeberiaIncluirUsuarioYRolParaAutenticarSinBaseDeDatos() {
+        String token = jwtUtil.generarToken(new UsuarioAutenticado(7L, "vet@nuclearvet.co", "hash", "VETERINARIO"));
+
+        Claims claims = jwtUtil.verificar(token).orElseThrow();
+        UsuarioAutenticado principal = jwtUtil.aPrincipal(claims).orElseThrow();
+
+        assertEquals(7L, principal.getUsuarioId());
+        assertEquals("VETERINARIO", principal.getRol());
+        assertEquals("vet@nuclearvet.co", principal.getUsername());
+        assertNotNull(claims.getId());
+    }
+
+    @Test
+    void verificar_DeberiaRechazarTokenAlterado() {
+        String token = jwtUtil.generarToken(new User("vet@nuclearvet.co", "x", Collections.emptyList()));
+
+        assertTrue(jwtUtil.verificar(token).isPresent());
+        assertTrue(jwtUtil.aPrincipal(jwtUtil.verificar(token).get()).isEmpty());
+        assertTrue(jwtUtil.verificar(token.substring(0, token.length() - 2) + "xx").isEmpty());
+    }
+
+    @Test
+    void estaRevocado_DeberiaRechazarTokenCerradoYTokensPreviosDelUsuario() throws InterruptedException {
+        Claims primero = jwtUtil.verificar(jwtUtil.generarToken(
+                new UsuarioAutenticado(7L, "vet@nuclearvet.co", "hash", "VETERINARIO"))).orElseThrow();
+        Claims segundo = jwtUtil.verificar(jwtUtil.generarToken(
+                new UsuarioAutenticado(8L, "otro@nuclearvet.co", "hash", "ASISTENTE"))).orElseThrow();
+
+        listaRevocacion.revocar(primero.getId(), primero.getExpiration());
+        assertTrue(listaRevocacion.estaRevocado(primero));
+        assertFalse(listaRevocacion.estaRevocado(segundo));
+
+        Thread.sleep(1100);
+        listaRevocacion.revocarUsuario(8L);
+        assertTrue(listaRevocacion.estaRevocado(segundo));
+    }
+}
@@ -0,0 +1,124 @@
+package com.nuclearvet.infraestructura.tablero;
+
+import com.nuclearvet.dominio.enumeraciones.EstadoCorreo;
+import com.nuclearvet.dominio.enumeraciones.EstadoFactura;
+import com.nuclearvet.dominio.enums.EstadoPaciente;
+import com.nuclearvet.infraestructura.persistencia.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContadoresTableroTest {
+
+    @Mock
+    private PacienteRepositorio pacienteRepositorio;
+
+    @Mock
+    private FacturaRepositorio facturaRepositorio;
+
+    @Mock
+    private HistorialCorreoRepositorio historialCorreoRepositorio;
+
+    @Mock
+    private NotificacionRepositorio notificacionRepositorio;
+
+    @Mock
+    private AlertaInventarioRepositorio alertaRepositorio;
+
+    private ContadoresTablero contadores;
+
+    @BeforeEach
+    void configurar() {
+        contadores = new ContadoresTablero(pacienteRepositorio, facturaRepositorio, historialCorreoRepositorio,
+                notificacionRepositorio, alertaRepositorio);
+    }
+
+    @AfterEach
+    void limpiar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void conciliarCon(long pacientes, BigDecimal porCobrar) {
+        when(pacienteRepositorio.contarPacientesActivos()).thenReturn(pacientes);
+        when(alertaRepositorio.countByLeidaFalse()).thenReturn(3L);
+        when(facturaRepositorio.calcularTotalCuentasPorCobrar()).thenReturn(porCobrar);
+        when(facturaRepositorio.contarPorEstados()).thenReturn(List.<Object[]>of(
+                new Object[]{EstadoFactura.PENDIENTE, 4L}, new Object[]{EstadoFactura.PAGADA, 6L}));
+        when(historialCorreoRepositorio.contarPorEstado()).thenReturn(List.<Object[]>of(
+                new Object[]{EstadoCorreo.ENVIADO, 8L}));
+        when(notificacionRepositorio.contarNoLeidasAgrupadasPorUsuario()).thenReturn(List.<Object[]>of(
+                new Object[]{7L, 2L}));
+        contadores.conciliar();
+    }
+
+    @Test
+    void conciliar_DeberiaAjustarLosContadoresALosAgregadosReales() {
+        contadores.cambiarEstadoPaciente(null, EstadoPaciente.ACTIVO);
+        contadores.cambiarEstadoCorreo(null, EstadoCorreo.PENDIENTE);
+        contadores.sumarNotificacionesNoLeidas(9L, 1);
+
+        conciliarCon(10, new BigDecimal("150.50"));
+
+        assertEquals(10, contadores.getPacientesActivos());
+        assertEquals(3, contadores.getAlertasNoLeidas());
+        assertEquals(new BigDecimal("150.50"), contadores.getCuentasPorCobrar());
+        assertEquals(4L, contadores.getFacturasPorEstado().get(EstadoFactura.PENDIENTE));
+        assertEquals(0L, contadores.getFacturasPorEstado().get(EstadoFactura.ANULADA));
+        assertEquals(0L, contadores.getCorreosPorEstado().get(EstadoCorreo.PENDIENTE));
+        assertEquals(8L, contadores.getCorreosPorEstado().get(EstadoCorreo.ENVIADO));
+        assertEquals(2, contadores.getNotificacionesNoLeidas(7L));
+        assertEquals(0, contadores.getNotificacionesNoLeidas(9L));
+        assertNotNull(contadores.getUltimaConciliacion());
+    }
+
+    @Test
+    void cambiarFactura_DeberiaMoverEstadoYDescontarSaldoPagado() {
+        conciliarCon(0, new BigDecimal("150.50"));
+
+        contadores.cambiarFactura(EstadoFactura.PENDIENTE, new BigDecimal("100.00"),
+                EstadoFactura.PAGADA_PARCIAL, new BigDecimal("40.25"));
+
+        assertEquals(3L, contadores.getFacturasPorEstado().get(EstadoFactura.PENDIENTE));
+        assertEquals(1L, contadores.getFacturasPorEstado().get(EstadoFactura.PAGADA_PARCIAL));
+        assertEquals(new BigDecimal("90.75"), contadores.getCuentasPorCobrar());
+    }
+
+    @Test
+    void cambios_DeberianAplicarseSoloAlConfirmarLaTransaccion() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        contadores.cambiarEstadoPaciente(null, EstadoPaciente.ACTIVO);
+        contadores.sumarAlertasNoLeidas(2);
+        assertEquals(0, contadores.getPacientesActivos());
+        assertEquals(0, contadores.getAlertasNoLeidas());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, contadores.getPacientesActivos());
+        assertEquals(2, contadores.getAlertasNoLeidas());
+    }
+
+    @Test
+    void cambios_SiLaTransaccionNoConfirma_NoDeberianAplicarse() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        contadores.cambiarEstadoPaciente(EstadoPaciente.ACTIVO, EstadoPaciente.INACTIVO);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(0, contadores.getPacientesActivos());
+    }
+}